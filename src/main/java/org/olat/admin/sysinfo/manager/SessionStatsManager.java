@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.olat.admin.sysinfo.model.SessionStatsSample;
 import org.olat.admin.sysinfo.model.SessionsStats;
@@ -49,6 +50,11 @@ public class SessionStatsManager implements Sampler {
 	private SessionStatsSample currentSample;
 	private final AtomicInteger concurrentCounter = new AtomicInteger(0);
 	private final AtomicInteger concurrentStreamCounter = new AtomicInteger(0);
+	private final LongAdder streamedResources = new LongAdder();
+	private final LongAdder streamedBytes = new LongAdder();
+	private final LongAdder zeroCopyResources = new LongAdder();
+	private final LongAdder zeroCopyBytes = new LongAdder();
+	private final LongAdder streamingTime = new LongAdder();
 	private List<SessionStatsSample> sessionStatsSamples = new ArrayList<>();
 
 	public List<SessionStatsSample> getSessionViews() {
@@ -102,6 +108,57 @@ public class SessionStatsManager implements Sampler {
 	public void decrementConcurrentStreamCounter() {
 		concurrentStreamCounter.decrementAndGet();
 	}
+	
+	/**
+	 * Collect the statistics of a delivered media resource.
+	 * 
+	 * @param bytes The number of bytes sent to the client
+	 * @param durationInNanos The time needed to send the data
+	 * @param zeroCopy true if the file was transferred directly from the file channel
+	 */
+	public void addStreamedResource(long bytes, long durationInNanos, boolean zeroCopy) {
+		if(zeroCopy) {
+			zeroCopyResources.increment();
+			zeroCopyBytes.add(bytes);
+		}
+		streamedResources.increment();
+		streamedBytes.add(bytes);
+		streamingTime.add(durationInNanos);
+	}
+	
+	/**
+	 * @return The number of media resources delivered
+	 */
+	public long getStreamedResources() {
+		return streamedResources.sum();
+	}
+	
+	public long getStreamedBytes() {
+		return streamedBytes.sum();
+	}
+	
+	/**
+	 * @return The number of media resources transferred directly from the file channel
+	 */
+	public long getZeroCopyResources() {
+		return zeroCopyResources.sum();
+	}
+	
+	public long getZeroCopyBytes() {
+		return zeroCopyBytes.sum();
+	}
+	
+	/**
+	 * @return The average throughput in bytes per second of the media resources
+	 * 		delivered since the start of the application
+	 */
+	public long getStreamingThroughput() {
+		long nanos = streamingTime.sum();
+		if(nanos <= 0) {
+			return 0l;
+		}
+		return Math.round(streamedBytes.sum() / (nanos / 1000000000.0d));
+	}
 
 	public synchronized long getNumOfSessions() {
 		if(currentSample != null) {
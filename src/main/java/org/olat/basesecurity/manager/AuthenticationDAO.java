@@ -19,9 +19,11 @@
  */
 package org.olat.basesecurity.manager;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.persistence.TypedQuery;
 
@@ -180,6 +182,29 @@ public class AuthenticationDAO {
 		return results.get(0);
 	}
 	
+	/**
+	 * 
+	 * @param authUsernames A list of user names (case insensitive)
+	 * @param provider The authentication provider
+	 * @return The authentications with their identities and users fetched
+	 */
+	public List<Authentication> getAuthentications(List<String> authUsernames, String provider) {
+		if(authUsernames == null || authUsernames.isEmpty()) return new ArrayList<>();
+		
+		List<String> lowerCaseAuthUsernames = authUsernames.stream()
+				.map(String::toLowerCase).distinct().collect(Collectors.toList());
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select auth from ").append(AuthenticationImpl.class.getName()).append(" as auth")
+		  .append(" inner join fetch auth.identity as ident")
+		  .append(" inner join fetch ident.user as identUser")
+		  .append(" where lower(auth.authusername) in (:authUsernames) and auth.provider=:provider");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Authentication.class)
+				.setParameter("authUsernames", lowerCaseAuthUsernames)
+				.setParameter("provider", provider)
+				.getResultList();
+	}
+	
 	public Authentication getAuthentication(String authUsername, String provider) {
 		StringBuilder sb = new StringBuilder(256);
 		sb.append("select auth from ").append(AuthenticationImpl.class.getName()).append(" as auth")
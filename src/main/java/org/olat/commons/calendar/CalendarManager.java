@@ -97,7 +97,8 @@ public interface CalendarManager {
 	public boolean calendarExists(String calendarType, String calendarID);
 	
 	/**
-	 * Save a calendar.
+	 * Save a calendar. If the calendar tracks its changes, only the
+	 * changed events are appended to the journal of the calendar.
 	 * 
 	 * @param calendar
 	 */
@@ -113,7 +114,8 @@ public interface CalendarManager {
 	public boolean deleteCalendar(String calendarType, String calendarID);
 	
 	/**
-	 * Return the calendar file if it exists or null.
+	 * Return the calendar file if it exists or null. The changes saved
+	 * in the journal are merged in the file before.
 	 * 
 	 * @param calendarType
 	 * @param calendarID
@@ -192,7 +194,10 @@ public interface CalendarManager {
 	public File getCalendarFile(String type, String calendarID);
 	
 	/**
-	 * Read the calendar file (.ics) from the olatdata section. 
+	 * Read the calendar file (.ics) from the olatdata section. The
+	 * changes saved in the journal are included but not written in
+	 * the file.
+	 * 
 	 * @param type
 	 * @param calendarID
 	 * @return
@@ -399,7 +399,7 @@ public class ICalServlet extends HttpServlet {
 	throws IOException {
 		try {
 			CalendarManager calendarManager = CoreSpringFactory.getImpl(CalendarManager.class);
-			Calendar calendar = calendarManager.readCalendar(fileInfos.getCalendarFile());
+			Calendar calendar = calendarManager.readCalendar(fileInfos.getType(), fileInfos.getCalendarId());
 			updateUrlProperties(calendar);
 			
 			String prefix = fileInfos.getType() + "-" + fileInfos.getCalendarId() + "-";
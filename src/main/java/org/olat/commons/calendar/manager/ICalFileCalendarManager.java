@@ -28,6 +28,7 @@ package org.olat.commons.calendar.manager;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -36,10 +37,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.SequenceInputStream;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -61,6 +69,7 @@ import org.olat.commons.calendar.model.CalendarKey;
 import org.olat.commons.calendar.model.CalendarUserConfiguration;
 import org.olat.commons.calendar.model.Kalendar;
 import org.olat.commons.calendar.model.KalendarEvent;
+import org.olat.commons.calendar.model.KalendarEventIndex;
 import org.olat.commons.calendar.model.KalendarEventKey;
 import org.olat.commons.calendar.model.KalendarEventLink;
 import org.olat.commons.calendar.model.KalendarRecurEvent;
@@ -85,6 +94,7 @@ import org.springframework.stereotype.Service;
 
 import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.data.CalendarOutputter;
+import net.fortuna.ical4j.data.FoldingWriter;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.DateList;
 import net.fortuna.ical4j.model.DateTime;
@@ -134,6 +144,18 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	private static final String ICAL_RRULE = "RRULE";
 	/** property to exclude events from recurrence */
 	private static final String ICAL_EXDATE = "EXDATE";
+	/** generation of the calendar file, the journal entries are only valid for this generation */
+	private static final String ICAL_X_OLAT_JOURNAL = "X-OLAT-JOURNAL";
+	/** journal entry of a deleted event */
+	private static final String ICAL_X_OLAT_DELETED = "X-OLAT-DELETED";
+	/** recurrence id of a deleted event */
+	private static final String ICAL_X_OLAT_RECURRENCE_ID = "X-OLAT-RECURRENCE-ID";
+	
+	private static final String JOURNAL_SUFFIX = ".journal";
+	private static final long MIN_JOURNAL_SIZE = 32l * 1024l;
+	private static final int MAX_JOURNAL_CHANGES = 64;
+	private static final String JOURNAL_HEADER = "BEGIN:VCALENDAR\r\nPRODID:-//Ben Fortuna//iCal4j 1.0//EN\r\nVERSION:2.0\r\n";
+	private static final String JOURNAL_FOOTER = "END:VCALENDAR\r\n";
 	
 	private TimeZone tz;
 	
@@ -240,8 +262,66 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	 */
 	// o_clusterOK by:cg This must not be synchronized because the caller already synchronized 
 	private Kalendar loadCalendarFromFile(String type, String calendarID) {
-		Calendar calendar = readCalendar(type, calendarID);
-		return createKalendar(type, calendarID, calendar);
+		Calendar calendar = readCalendar(getCalendarFile(type, calendarID));
+		Kalendar cal = createKalendar(type, calendarID, calendar);
+		Property generation = calendar.getProperty(ICAL_X_OLAT_JOURNAL);
+		if(generation != null && StringHelper.containsNonWhitespace(generation.getValue())) {
+			replayJournal(cal, generation.getValue());
+			cal.enableChangeTracking(generation.getValue());
+		}
+		return cal;
+	}
+	
+	/**
+	 * Apply the changes saved in the journal of the calendar which
+	 * are valid for the specified generation of the calendar file.
+	 * 
+	 * @param cal The calendar loaded from the file
+	 * @param generation The generation of the calendar file
+	 */
+	private void replayJournal(Kalendar cal, String generation) {
+		File journalFile = getJournalFile(cal.getType(), cal.getCalendarID());
+		if(!journalFile.exists()) return;
+
+		List<InputStream> streams = Arrays.asList(new ByteArrayInputStream(JOURNAL_HEADER.getBytes(StandardCharsets.UTF_8)),
+				null, new ByteArrayInputStream(JOURNAL_FOOTER.getBytes(StandardCharsets.UTF_8)));
+		try(InputStream fIn = new FileInputStream(journalFile);
+				InputStream in = new BufferedInputStream(fIn)) {
+			streams.set(1, in);
+			Calendar journal = new CalendarBuilder().build(new SequenceInputStream(Collections.enumeration(streams)));
+			
+			int count = 0;
+			for (Iterator<?> iter = journal.getComponents().iterator(); iter.hasNext();) {
+				Object comp = iter.next();
+				if (comp instanceof VEvent) {
+					VEvent vevent = (VEvent)comp;
+					Property entryGeneration = vevent.getProperty(ICAL_X_OLAT_JOURNAL);
+					if(entryGeneration == null || !generation.equals(entryGeneration.getValue())) {
+						continue;
+					}
+					
+					if(vevent.getProperty(ICAL_X_OLAT_DELETED) != null) {
+						Property recurrenceId = vevent.getProperty(ICAL_X_OLAT_RECURRENCE_ID);
+						KalendarEvent deletedEvent = cal.getEvent(vevent.getUid().getValue(),
+								recurrenceId == null ? null : recurrenceId.getValue());
+						if(deletedEvent != null) {
+							cal.removeEvent(deletedEvent);
+						}
+					} else {
+						KalendarEvent calEvent = getKalendarEvent(vevent);
+						KalendarEvent currentEvent = cal.getEvent(calEvent.getID(), calEvent.getRecurrenceID());
+						if(currentEvent != null) {
+							cal.removeEvent(currentEvent);
+						}
+						cal.addEvent(calEvent);
+					}
+					count++;
+				}
+			}
+			log.debug("Replay {} changes of the journal: {}", count, journalFile);
+		} catch (Exception e) {
+			log.error("Cannot replay the journal of the calendar: {}", journalFile, e);
+		}
 	}
 
 	protected Kalendar createKalendar(String type, String calendarID, Calendar calendar) {
@@ -264,7 +344,10 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 
 	/**
 	 * Internal read calendar file from filesystem. It doesn't
-	 * use the cache and return a not shared calendar.
+	 * use the cache and return a not shared calendar. If the calendar
+	 * has a journal, the calendar is built from the cached one which
+	 * contains the changes of the journal. Nothing is written, the journal
+	 * is compacted by the saves.
 	 */
 	@Override
 	public Calendar readCalendar(String type, String calendarID) {
@@ -272,6 +355,9 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 			log.debug("readCalendar from file, type={} calendarID={}", type, calendarID);
 		}
 		
+		if(getJournalFile(type, calendarID).exists()) {
+			return buildCalendar(getCalendarFromCache(type, calendarID));
+		}
 		File calendarFile = getCalendarFile(type, calendarID);
 		return readCalendar(calendarFile);
 	}
@@ -369,12 +455,116 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	// o_clusterOK by:cg only called by Junit-test  
 	@Override
 	public boolean persistCalendar(Kalendar kalendar) {
+		boolean success = appendToJournal(kalendar);
+		if(!success) {
+			success = writeFullCalendar(kalendar);
+		}
+		calendarCache.update(getKeyFor(kalendar.getType(), kalendar.getCalendarID()), kalendar);
+		return success;
+	}
+	
+	/**
+	 * Write the whole calendar with a new generation and delete the
+	 * journal which is obsolete.
+	 */
+	private boolean writeFullCalendar(Kalendar kalendar) {
+		String generation = UUID.randomUUID().toString();
 		Calendar calendar = buildCalendar(kalendar);
+		calendar.getProperties().add(new XProperty(ICAL_X_OLAT_JOURNAL, generation));
 		boolean success = writeCalendarFile(calendar, kalendar.getType(), kalendar.getCalendarID());
-		calendarCache.update(getKeyFor(kalendar.getType(), kalendar.getCalendarID()), kalendar);
+		if(success) {
+			kalendar.enableChangeTracking(generation);
+			deleteJournal(kalendar.getType(), kalendar.getCalendarID());
+		}
 		return success;
 	}
 	
+	/**
+	 * Append the events changed since the last save to the journal of the calendar.
+	 * If the changes are not tracked, if there are a lot of them or if the journal
+	 * is too big in relation of the calendar file, nothing is written and the
+	 * calendar must be written in full.
+	 * 
+	 * @param kalendar The calendar
+	 * @return true if the changes are saved in the journal
+	 */
+	private boolean appendToJournal(Kalendar kalendar) {
+		String generation = kalendar.getJournalGeneration();
+		Collection<KalendarEventKey> modifiedKeys = kalendar.getModifiedEventKeys();
+		if(generation == null || modifiedKeys == null || modifiedKeys.size() > MAX_JOURNAL_CHANGES) {
+			return false;
+		}
+		
+		File calendarFile = getCalendarFile(kalendar.getType(), kalendar.getCalendarID());
+		File journalFile = getJournalFile(kalendar.getType(), kalendar.getCalendarID());
+		if(!calendarFile.exists() || journalFile.length() > Math.max(MIN_JOURNAL_SIZE, calendarFile.length() / 2)) {
+			return false;
+		}
+		
+		try {
+			StringWriter entries = new StringWriter();
+			try(Writer writer = new FoldingWriter(entries, FoldingWriter.REDUCED_FOLD_LENGTH)) {
+				for(KalendarEventKey key:modifiedKeys) {
+					KalendarEvent event = kalendar.getEvent(key.getEventId(), key.getRecurrenceId());
+					VEvent vEvent;
+					if(event == null) {
+						vEvent = new VEvent();
+						vEvent.getProperties().add(new Uid(key.getEventId()));
+						vEvent.getProperties().add(new XProperty(ICAL_X_OLAT_DELETED, "true"));
+						if(StringHelper.containsNonWhitespace(key.getRecurrenceId())) {
+							vEvent.getProperties().add(new XProperty(ICAL_X_OLAT_RECURRENCE_ID, key.getRecurrenceId()));
+						}
+					} else {
+						vEvent = getVEvent(event);
+					}
+					vEvent.getProperties().add(new XProperty(ICAL_X_OLAT_JOURNAL, generation));
+					writer.write(vEvent.toString());
+				}
+			}
+			
+			try(OutputStream os = new FileOutputStream(journalFile, true);
+					Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+				writer.write(entries.toString());
+			}
+			kalendar.clearModifiedEventKeys();
+			return true;
+		} catch (Exception e) {
+			log.error("Cannot write the journal of the calendar: {}", journalFile, e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Write the calendar file with all the changes of the journal
+	 * and delete the journal.
+	 */
+	private void compactJournal(String type, String calendarID) {
+		File journalFile = getJournalFile(type, calendarID);
+		if(!journalFile.exists()) return;
+		
+		OLATResourceable calOres = OresHelper.createOLATResourceableType(getKeyFor(type, calendarID));
+		CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync(calOres, () -> {
+			if(journalFile.exists()) {
+				Kalendar loadedCal = getCalendarFromCache(type, calendarID);
+				writeFullCalendar(loadedCal);
+				calendarCache.update(getKeyFor(type, calendarID), loadedCal);
+			}
+			return Boolean.TRUE;
+		});
+	}
+	
+	private void deleteJournal(String type, String calendarID) {
+		try {
+			Files.deleteIfExists(getJournalFile(type, calendarID).toPath());
+		} catch (IOException e) {
+			log.error("Cannot delete the journal of the calendar: {} {}", type, calendarID, e);
+		}
+	}
+	
+	private File getJournalFile(String type, String calendarID) {
+		return new File(fStorageBase, "/" + type + "/" + calendarID + ".ics" + JOURNAL_SUFFIX);
+	}
+	
 	private boolean writeCalendarFile(Calendar calendar, String calType, String calId) {
 		File fKalendarFile = getCalendarFile(calType, calId);
 
@@ -393,12 +583,14 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	@Override
 	public boolean deleteCalendar(String type, String calendarID) {
 		calendarCache.remove( getKeyFor(type,calendarID) );
+		deleteJournal(type, calendarID);
 		File fKalendarFile = getCalendarFile(type, calendarID);
 		return fKalendarFile.delete();
 	}
 
 	@Override
 	public File getCalendarICalFile(String type, String calendarID) {
+		compactJournal(type, calendarID);
 		File fCalendarICalFile = getCalendarFile(type, calendarID);
 		if (fCalendarICalFile.exists()) return fCalendarICalFile;
 		else return null;
@@ -1041,6 +1233,7 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 					if(rootEvent != null && kalendarEvent instanceof KalendarRecurEvent) {
 						Date recurrenceDate = ((KalendarRecurEvent)kalendarEvent).getOccurenceDate();
 						rootEvent.addRecurrenceExc(recurrenceDate);
+						loadedCal.markModified(rootEvent);
 					}
 				} else {
 					for(KalendarEvent kEvent:loadedCal.getEvents()) {
@@ -1073,6 +1266,7 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 			Kalendar loadedCal = getCalendarFromCache(cal.getType(), cal.getCalendarID());
 			KalendarEvent rootEvent = loadedCal.getEvent(kalendarEvent.getID(), null);
 			rootEvent.addRecurrenceExc(kalendarEvent.getBegin());
+			loadedCal.markModified(rootEvent);
 			
 			for(KalendarEvent kEvent:loadedCal.getEvents()) {
 				if(uid.equals(kEvent.getID())
@@ -1107,6 +1301,7 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 				recur.setUntil(CalendarUtils.createDate(occurenceDate));
 				RRule rrule = new RRule(recur);
 				rootEvent.setRecurrenceRule(rrule.getValue());
+				loadedCal.markModified(rootEvent);
 				
 				for(KalendarEvent kEvent:loadedCal.getEvents()) {
 					if(uid.equals(kEvent.getID())
@@ -1281,45 +1476,41 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	
 	@Override
 	public List<KalendarEvent> getEvents(Kalendar calendar, Date from, Date to, boolean privateEventsVisible) {
-		List<KalendarEvent> allEvents = calendar.getEvents();
+		KalendarEventIndex index = calendar.getIndex();
 		List<KalendarEvent> events = new ArrayList<>(128);
 		
-		Map<String, List<KalendarRecurEvent>> idToRecurringEvents = new HashMap<>();
-		//first pass, ignore events with recurrenceId
-		for(KalendarEvent event:allEvents) {
+		//first pass, the events without recurrence in the time range
+		for(KalendarEvent event:index.getEventsCandidates(from, to)) {
 			if(!privateEventsVisible && event.getClassification() == KalendarEvent.CLASS_PRIVATE) {
 				continue;
 			}
-			if(StringHelper.containsNonWhitespace(event.getRecurrenceID())) {
-				continue;
-			}
-
-			if (StringHelper.containsNonWhitespace(event.getRecurrenceRule())) {
-				List<KalendarRecurEvent> recurringEvents = getRecurringEventsInPeriod(event, from, to, tz);
-				if(recurringEvents.size() > 0) {
-					idToRecurringEvents.put(event.getID(), recurringEvents);
-					for (KalendarRecurEvent recurEvent:recurringEvents) {
-						events.add(recurEvent);
-					}
-				}
-			} else if(isInRange(from, to, event)) {
+			if(isInRange(from, to, event)) {
 				events.add(event);
 			}
 		}
 		
-		//process events with recurrenceId
-		for(KalendarEvent event:allEvents) {
-			if(!StringHelper.containsNonWhitespace(event.getRecurrenceID())) {
+		//second pass, expand the recurring events
+		Map<String, List<KalendarRecurEvent>> idToRecurringEvents = new HashMap<>();
+		for(KalendarEvent event:index.getRecurringEvents()) {
+			if(!privateEventsVisible && event.getClassification() == KalendarEvent.CLASS_PRIVATE) {
 				continue;
 			}
 
-			String id = event.getID();
-			if(idToRecurringEvents.containsKey(id)) {
+			List<KalendarRecurEvent> recurringEvents = getRecurringEventsInPeriod(index, event, from, to);
+			if(!recurringEvents.isEmpty()) {
+				idToRecurringEvents.put(event.getID(), recurringEvents);
+				events.addAll(recurringEvents);
+			}
+		}
+		
+		//process events with recurrenceId
+		for(Map.Entry<String, List<KalendarRecurEvent>> entry:idToRecurringEvents.entrySet()) {
+			List<KalendarRecurEvent> recurringEvents = entry.getValue();
+			for(KalendarEvent event:index.getRecurrenceExceptions(entry.getKey())) {
 				VEvent vEvent = getVEvent(event);
 				RecurrenceId recurrenceId = vEvent.getRecurrenceId();
 				net.fortuna.ical4j.model.Date startDate = recurrenceId.getDate();
 				if(startDate instanceof net.fortuna.ical4j.model.DateTime) {
-					List<KalendarRecurEvent> recurringEvents = idToRecurringEvents.get(id);
 					for(KalendarRecurEvent recurEvent:recurringEvents) {
 						Date beginDate = recurEvent.getBegin();
 						if(beginDate.equals(startDate)) {
@@ -1327,7 +1518,6 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 						}
 					}
 				} else {
-					List<KalendarRecurEvent> recurringEvents = idToRecurringEvents.get(id);
 					for(KalendarRecurEvent recurEvent:recurringEvents) {
 						Date beginDate = recurEvent.getBegin();
 						net.fortuna.ical4j.model.Date occDate = CalendarUtils.createDate(beginDate);
@@ -1368,28 +1558,52 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		return false;
 	}
 	
-	private final List<KalendarRecurEvent> getRecurringEventsInPeriod(KalendarEvent kEvent, Date periodStart, Date periodEnd, TimeZone userTz) {
+	/**
+	 * Expand the recurring event in the period. The begin of the occurrences
+	 * are cached in the index of the calendar.
+	 */
+	private final List<KalendarRecurEvent> getRecurringEventsInPeriod(KalendarEventIndex index, KalendarEvent kEvent, Date periodStart, Date periodEnd) {
+		String key = kEvent.getID() + "-" + periodStart.getTime() + "-" + periodEnd.getTime();
+		long[] occurrences = index.getRecurrences(key);
+		if(occurrences == null) {
+			occurrences = calculateRecurrencesInPeriod(kEvent, periodStart, periodEnd, tz);
+			index.putRecurrences(key, occurrences);
+		}
+		
+		long duration = occurrences.length == 0 ? 0l : kEvent.getEnd().getTime() - kEvent.getBegin().getTime();
+		List<KalendarRecurEvent> recurringEvents = new ArrayList<>(occurrences.length);
+		for(long occurrence:occurrences) {
+			Date begin = new Date(occurrence);
+			Date end = new Date(occurrence + duration);
+			boolean original = kEvent.getBegin().compareTo(begin) == 0;//prevent doubled events
+			KalendarRecurEvent recurEvent = new KalendarRecurEvent(kEvent.getID(), original, kEvent.getSubject(), begin, end);
+			recurEvent.setOccurenceDate(begin);
+			recurEvent.setSourceEvent(kEvent);
+			recurringEvents.add(recurEvent);
+		}
+		return recurringEvents;
+	}
+	
+	private final long[] calculateRecurrencesInPeriod(KalendarEvent kEvent, Date periodStart, Date periodEnd, TimeZone userTz) {
 		VEvent vEvent = getVEvent(kEvent);
 		if(vEvent.getEndDate() == null || vEvent.getStartDate().getDate().after(vEvent.getEndDate().getDate())) {
-			return Collections.emptyList();
+			return new long[0];
 		}
 
 		//calculate the events in the specified period
         Period recurringPeriod = new Period(new DateTime(periodStart), new DateTime(periodEnd));
 		PeriodList periodList = vEvent.calculateRecurrenceSet(recurringPeriod);
-		List<KalendarRecurEvent> recurringEvents = new ArrayList<>(periodList.size());
+		Date recurrenceEnd = getRecurrenceEndDate(kEvent.getRecurrenceRule());
+		
+		java.util.Calendar eventStartCal = java.util.Calendar.getInstance();
+		eventStartCal.clear();
+		eventStartCal.setTime(kEvent.getBegin());
 		
+		long[] occurrences = new long[periodList.size()];
+		int count = 0;
 		for(Object obj : periodList) {
 			Period period = (Period)obj;
 			Date date = period.getStart();
-
-			java.util.Calendar eventStartCal = java.util.Calendar.getInstance();
-			eventStartCal.clear();
-			eventStartCal.setTime(kEvent.getBegin());
-			
-			java.util.Calendar eventEndCal = java.util.Calendar.getInstance();
-			eventEndCal.clear();
-			eventEndCal.setTime(kEvent.getEnd());
 			
 			java.util.Calendar recurStartCal = java.util.Calendar.getInstance();
 			recurStartCal.clear();
@@ -1398,33 +1612,18 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 			} else {
 				recurStartCal.setTimeInMillis(date.getTime() - userTz.getOffset(date.getTime()));
 			}
-			long duration = kEvent.getEnd().getTime() - kEvent.getBegin().getTime();
 
 			java.util.Calendar beginCal = java.util.Calendar.getInstance();
 			beginCal.clear();
 			beginCal.set(recurStartCal.get(java.util.Calendar.YEAR), recurStartCal.get(java.util.Calendar.MONTH), recurStartCal.get(java.util.Calendar.DATE), 
 				eventStartCal.get(java.util.Calendar.HOUR_OF_DAY), eventStartCal.get(java.util.Calendar.MINUTE), eventStartCal.get(java.util.Calendar.SECOND));
-			
-			java.util.Calendar endCal = java.util.Calendar.getInstance();
-			endCal.clear();
-			endCal.setTimeInMillis(beginCal.getTimeInMillis() + duration);
 
-			boolean original = false;
-			if(kEvent.getBegin().compareTo(beginCal.getTime()) == 0) {
-				original = true; //prevent doubled events
-			}
-
-			Date recurrenceEnd = getRecurrenceEndDate(kEvent.getRecurrenceRule());
 			if(kEvent.isAllDayEvent() && recurrenceEnd != null && recurStartCal.getTime().after(recurrenceEnd)) {
 				continue; //workaround for ical4j-bug in all day events
 			}
-		
-			KalendarRecurEvent recurEvent = new KalendarRecurEvent(kEvent.getID(), original, kEvent.getSubject(), beginCal.getTime(), endCal.getTime());
-			recurEvent.setOccurenceDate(beginCal.getTime());
-			recurEvent.setSourceEvent(kEvent);
-			recurringEvents.add(recurEvent);
+			occurrences[count++] = beginCal.getTimeInMillis();
 		}
-		return recurringEvents;
+		return count == occurrences.length ? occurrences : Arrays.copyOf(occurrences, count);
 	}
 	
 	private final DateList getRecurringsInPeriod(Date periodStart, Date periodEnd, KalendarEvent kEvent) {
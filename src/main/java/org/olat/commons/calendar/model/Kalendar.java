@@ -27,9 +27,12 @@ package org.olat.commons.calendar.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class Kalendar implements Serializable {
 
@@ -42,6 +45,10 @@ public class Kalendar implements Serializable {
 	private int managedEvent;
 	private int notManagedEvent;
 	
+	private transient volatile KalendarEventIndex index;
+	private transient String journalGeneration;
+	private transient Set<KalendarEventKey> modifiedEventKeys;
+	
 	public Kalendar(String calendarID, String type) {
 		this.calendarID = calendarID;
 		this.type = type;
@@ -78,7 +85,9 @@ public class Kalendar implements Serializable {
 			notManagedEvent++;
 		}
 		event.setKalendar(this);
-		events.put(new KalendarEventKey(event.getID(), event.getRecurrenceID()), event);
+		KalendarEventKey key = new KalendarEventKey(event.getID(), event.getRecurrenceID());
+		events.put(key, event);
+		modified(key);
 	}
 	
 	/**
@@ -91,7 +100,72 @@ public class Kalendar implements Serializable {
 		} else {
 			notManagedEvent--;
 		}
-		events.remove(new KalendarEventKey(event.getID(), event.getRecurrenceID()));
+		KalendarEventKey key = new KalendarEventKey(event.getID(), event.getRecurrenceID());
+		events.remove(key);
+		modified(key);
+	}
+	
+	/**
+	 * Mark an event of the calendar which was changed in place, without
+	 * removing and adding it again.
+	 * 
+	 * @param event The modified event
+	 */
+	public void markModified(KalendarEvent event) {
+		modified(new KalendarEventKey(event.getID(), event.getRecurrenceID()));
+	}
+	
+	private void modified(KalendarEventKey key) {
+		index = null;
+		if(modifiedEventKeys != null) {
+			modifiedEventKeys.add(key);
+		}
+	}
+	
+	/**
+	 * The index is built on demand and dropped at every change.
+	 * 
+	 * @return The time range index of the events
+	 */
+	public KalendarEventIndex getIndex() {
+		KalendarEventIndex currentIndex = index;
+		if(currentIndex == null) {
+			currentIndex = new KalendarEventIndex(events.values());
+			index = currentIndex;
+		}
+		return currentIndex;
+	}
+	
+	/**
+	 * Start to record the changes made to the events. The generation
+	 * identifies the state of the stored calendar the changes apply to.
+	 * 
+	 * @param generation The generation of the stored calendar
+	 */
+	public void enableChangeTracking(String generation) {
+		journalGeneration = generation;
+		modifiedEventKeys = new LinkedHashSet<>();
+	}
+	
+	/**
+	 * @return The generation of the stored calendar or null if the changes are not tracked
+	 */
+	public String getJournalGeneration() {
+		return journalGeneration;
+	}
+	
+	/**
+	 * @return The keys of the events added, removed or changed since the last
+	 * 		save or null if the changes are not tracked
+	 */
+	public Collection<KalendarEventKey> getModifiedEventKeys() {
+		return modifiedEventKeys;
+	}
+	
+	public void clearModifiedEventKeys() {
+		if(modifiedEventKeys != null) {
+			modifiedEventKeys.clear();
+		}
 	}
 	
 	/**
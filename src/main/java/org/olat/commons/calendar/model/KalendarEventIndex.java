@@ -0,0 +1,158 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.calendar.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.olat.commons.calendar.CalendarUtils;
+import org.olat.core.util.StringHelper;
+
+/**
+ * A read-only index of the events of a calendar. The simple events are
+ * sorted by their begin date, the recurring events and the exceptions
+ * of the recurrences are held separately. The index caches the expanded
+ * recurrences of the recurring events per period. It's built on demand
+ * by the calendar and dropped at the first change of its events.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class KalendarEventIndex {
+	
+	private static final int MAX_CACHED_RECURRENCES = 256;
+	
+	private final long[] begins;
+	private final KalendarEvent[] sortedEvents;
+	private final long maxDuration;
+	private final List<KalendarEvent> undatedEvents = new ArrayList<>();
+	private final List<KalendarEvent> recurringEvents = new ArrayList<>();
+	private final Map<String,List<KalendarEvent>> recurrenceExceptions = new HashMap<>();
+	
+	private final Map<String,long[]> recurrences = Collections.synchronizedMap(new LinkedHashMap<String,long[]>(32, 0.75f, true) {
+		private static final long serialVersionUID = 6286539287154379873L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String,long[]> eldest) {
+			return size() > MAX_CACHED_RECURRENCES;
+		}
+	});
+	
+	KalendarEventIndex(Collection<KalendarEvent> events) {
+		List<KalendarEvent> simpleEvents = new ArrayList<>(events.size());
+		for(KalendarEvent event:events) {
+			if(StringHelper.containsNonWhitespace(event.getRecurrenceID())) {
+				recurrenceExceptions
+					.computeIfAbsent(event.getID(), id -> new ArrayList<>(2))
+					.add(event);
+			} else if(StringHelper.containsNonWhitespace(event.getRecurrenceRule())) {
+				recurringEvents.add(event);
+			} else if(event.getBegin() == null) {
+				undatedEvents.add(event);
+			} else {
+				simpleEvents.add(event);
+			}
+		}
+		
+		simpleEvents.sort(Comparator.comparing(KalendarEvent::getBegin));
+		sortedEvents = simpleEvents.toArray(new KalendarEvent[simpleEvents.size()]);
+		begins = new long[sortedEvents.length];
+		long duration = 0l;
+		for(int i=0; i<sortedEvents.length; i++) {
+			begins[i] = sortedEvents[i].getBegin().getTime();
+			Date end = CalendarUtils.endOf(sortedEvents[i]);
+			if(end != null) {
+				duration = Math.max(duration, end.getTime() - begins[i]);
+			}
+		}
+		maxDuration = duration;
+	}
+	
+	public int size() {
+		return sortedEvents.length + undatedEvents.size() + recurringEvents.size();
+	}
+	
+	/**
+	 * Return the simple events (not recurring and not an exception of a recurrence)
+	 * which can overlap the period and the events without begin date. The caller
+	 * must check if the events are really in the period.
+	 * 
+	 * @param from The begin of the period
+	 * @param to The end of the period
+	 * @return A list of candidates
+	 */
+	public List<KalendarEvent> getEventsCandidates(Date from, Date to) {
+		long lowerBound = from.getTime() - maxDuration;
+		long upperBound = to.getTime();
+		
+		int start = Arrays.binarySearch(begins, lowerBound);
+		if(start < 0) {
+			start = -start - 1;
+		} else {
+			// go to the first event with the same begin
+			while(start > 0 && begins[start - 1] == lowerBound) {
+				start--;
+			}
+		}
+		
+		List<KalendarEvent> candidates = new ArrayList<>();
+		for(int i=start; i<begins.length && begins[i] <= upperBound; i++) {
+			candidates.add(sortedEvents[i]);
+		}
+		candidates.addAll(undatedEvents);
+		return candidates;
+	}
+	
+	/**
+	 * @return The events with a recurrence rule
+	 */
+	public List<KalendarEvent> getRecurringEvents() {
+		return recurringEvents;
+	}
+	
+	/**
+	 * @param eventId The event identifier
+	 * @return The events which replace an occurrence of the specified recurring event
+	 */
+	public List<KalendarEvent> getRecurrenceExceptions(String eventId) {
+		List<KalendarEvent> exceptions = recurrenceExceptions.get(eventId);
+		return exceptions == null ? Collections.emptyList() : exceptions;
+	}
+	
+	/**
+	 * @param key The key of the recurring event and the period
+	 * @return The begin of the occurrences or null if not cached
+	 */
+	public long[] getRecurrences(String key) {
+		return recurrences.get(key);
+	}
+	
+	public void putRecurrences(String key, long[] occurrences) {
+		recurrences.put(key, occurrences);
+	}
+}
@@ -82,6 +82,8 @@ public class FullCalendarComponent extends AbstractComponent {
 		setCurrentDate(new Date());
 		calendars = new ArrayList<>(calendarWrappers);
 		this.calendarEl = calendarEl;
+		// the view settings don't mark the component as dirty, it cannot be cached
+		setRenderDeferrable(true);
 		
 		MapperService mapper = CoreSpringFactory.getImpl(MapperService.class);
 		mapperKey = mapper.register(ureq.getUserSession(), new FullCalendarMapper(this));
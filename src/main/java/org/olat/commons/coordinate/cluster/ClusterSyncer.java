@@ -24,12 +24,28 @@
 */
 package org.olat.commons.coordinate.cluster;
 
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.apache.logging.log4j.Logger;
 import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.lock.pessimistic.PLock;
 import org.olat.core.commons.services.lock.pessimistic.PessimisticLockManager;
+import org.olat.core.gui.control.Event;
 import org.olat.core.id.OLATResourceable;
 import org.olat.core.logging.AssertException;
+import org.olat.core.logging.OLATRuntimeException;
 import org.olat.core.logging.Tracing;
+import org.olat.core.util.cluster.ClusterConfig;
+import org.olat.core.util.event.EventBus;
+import org.olat.core.util.event.GenericEventListener;
 import org.olat.core.util.coordinate.Syncer;
 import org.olat.core.util.coordinate.SyncerCallback;
 import org.olat.core.util.coordinate.SyncerExecutor;
@@ -39,23 +55,69 @@ import org.olat.core.util.resource.OresHelper;
 /**
  * Description:<br>
  * cluster mode implementation of the Syncer
+ * <p>
+ * In the default mode "db", every doInSync synchronizes the threads of the VM and
+ * locks the row of the asset in o_plock with a select for update.<br>
+ * In the mode "lease", the threads of the VM are synchronized with a striped lock
+ * table and the node takes a lease on the asset when it locks the o_plock row. As
+ * long as the lease is valid, the node doesn't need the row lock. If another node
+ * finds a valid lease of an other node, it asks the owner with a SyncLeaseEvent to
+ * release the lease and waits until the lease is released or expired. Contended
+ * assets are then synchronized with the o_plock row only for some time.
+ * <br>
+ * The lease expiration is written with the clock of the owner which stops to use its
+ * lease a tolerance before the expiration, the other nodes consider the lease as
+ * expired a tolerance after. The clocks of the nodes must be synchronized within
+ * this tolerance.
  * 
  * <P>
  * Initial Date:  21.09.2007 <br>
  * @author Felix Jost, http://www.goodsolutions.ch
  */
-public class ClusterSyncer implements Syncer {
+public class ClusterSyncer implements Syncer, GenericEventListener {
 	private static final Logger log = Tracing.createLoggerFor(ClusterSyncer.class);
+	
+	public static final String MODE_DB = "db";
+	public static final String MODE_LEASE = "lease";
+	static final OLATResourceable LEASE_CHANNEL = OresHelper.createOLATResourceableType("ClusterSyncerLease");
+	
 	private int executionTimeThreshold = 3000; // warn if the execution takes longer than three seconds
 	private final ThreadLocal<ThreadLocalClusterSyncer> data = new ThreadLocal<>();
 	private PessimisticLockManager pessimisticLockManager;
 	private DB dbInstance;
+	private EventBus eventBus;
+	private ClusterConfig clusterConfig;
+	
+	// lease mode
+	private String mode = MODE_DB;
+	private boolean leaseMode = false;
+	private int lockStripes = 1024;
+	private long leaseDuration = 60000l;
+	private long leaseTolerance = 5000l;
+	private long contentionDuration = 300000l;
+	private long leaseWaitInterval = 50l;
+	private int maxTrackedAssets = 500;
+	private Long nodeId;
+	private SyncLockTable lockTable;
+	// asset -> end of the local validity of the lease
+	private final ConcurrentMap<String,Long> leases = new ConcurrentHashMap<>();
+	// asset -> end of the contended period
+	private final ConcurrentMap<String,Long> contendedAssets = new ConcurrentHashMap<>();
+	
+	// statistics
+	private final SyncWaitTimeHistogram waitTimes = new SyncWaitTimeHistogram();
+	private final SyncWaitTimeHistogram otherAssetsWaitTimes = new SyncWaitTimeHistogram();
+	private final ConcurrentMap<String,SyncWaitTimeHistogram> assetWaitTimes = new ConcurrentHashMap<>();
+	private final LongAdder leaseSyncs = new LongAdder();
+	private final LongAdder dbSyncs = new LongAdder();
+	private final LongAdder contentions = new LongAdder();
+	private final LongAdder releasedLeases = new LongAdder();
 	
 	/**
-	 * [used by spring]
+	 * [used by spring and unit tests]
 	 * @param pessimisticLockManager
 	 */
-	private ClusterSyncer(PessimisticLockManager pessimisticLockManager) {
+	ClusterSyncer(PessimisticLockManager pessimisticLockManager) {
 		this.setPessimisticLockManager(pessimisticLockManager);
 	}
 
@@ -63,12 +125,29 @@ public class ClusterSyncer implements Syncer {
 		dbInstance = db;
 	}
 	
+	/**
+	 * [used by spring]
+	 */
+	public void init() {
+		leaseMode = MODE_LEASE.equals(mode);
+		if(leaseMode) {
+			nodeId = Long.valueOf(clusterConfig.getNodeId().longValue());
+			lockTable = new SyncLockTable(lockStripes);
+			eventBus.registerFor(this, null, LEASE_CHANNEL);
+			log.info("ClusterSyncer in lease mode (stripes: {}, lease duration: {}ms, tolerance: {}ms)",
+					lockTable.size(), leaseDuration, leaseTolerance);
+		}
+	}
+	
 	/**
 	 * @see org.olat.core.util.coordinate.Syncer#doInSync(org.olat.core.id.OLATResourceable, org.olat.core.util.coordinate.SyncerCallback)
 	 */
 	public <T> T doInSync(OLATResourceable ores, SyncerCallback<T> callback) {
 		getData().setSyncObject(ores);// Store ores-object for assertAlreadyDoInSyncFor(ores)
 		String asset = OresHelper.createStringRepresenting(ores);
+		if(leaseMode) {
+			return doInSyncWithLease(asset, callback);
+		}
 		
 		// 1. sync on vm (performance and net bandwith reason, and also for a fair per-node handling of db request) 
 		// cluster:::: measure throughput with/without this sync
@@ -80,7 +159,10 @@ public class ClusterSyncer implements Syncer {
 
 		T res;
 		Object syncObj = DerivedStringSyncer.getInstance().getSynchLockFor(ores);
-		synchronized (syncObj) {//cluster_ok is per vm only. this synchronized is needed for multi-core processors to handle 
+		long waitStart = System.nanoTime();
+		synchronized (syncObj) {
+			recordWaitTime(asset, waitStart);
+			dbSyncs.increment();//cluster_ok is per vm only. this synchronized is needed for multi-core processors to handle 
  			                      // memory-flushing from registers correctly. without this synchronized you could have different
 			                      // states of (instance-/static-)fields in different cores
 			getData().incrementAndCheckNestedLevelCounter();
@@ -121,6 +203,253 @@ public class ClusterSyncer implements Syncer {
 		return res;
 	}
 	
+	private <T> T doInSyncWithLease(String asset, SyncerCallback<T> callback) {
+		long start = 0;
+		boolean isDebug = log.isDebugEnabled();
+		if (isDebug) start = System.currentTimeMillis();
+		
+		T res;
+		ReentrantLock lock = lockTable.getLock(asset);
+		long waitStart = System.nanoTime();
+		lock.lock();
+		try {
+			recordWaitTime(asset, waitStart);
+			getData().incrementAndCheckNestedLevelCounter();
+			
+			Long newLeaseValidity = null;
+			try {
+				if(hasValidLease(asset)) {
+					leaseSyncs.increment();
+				} else {
+					dbSyncs.increment();
+					newLeaseValidity = lockOnCluster(asset, lock);
+				}
+				res = callback.execute();
+			} finally {
+				getData().decrementNestedLevelCounter();
+			}
+			
+			//clear the thread local
+			if(getData().getNestedLevel() == 0) {
+				data.remove();
+			}
+			
+			// the commit makes the work visible before the next thread enters, and
+			// releases the row lock and persists the lease if one was taken
+			dbInstance.commit();
+			// use the lease only if it was committed
+			if(newLeaseValidity != null) {
+				leases.put(asset, newLeaseValidity);
+			}
+		} finally {
+			lock.unlock();
+		}
+		
+		if (isDebug) {
+			long stop = System.currentTimeMillis();
+			if (stop-start > executionTimeThreshold) {
+				log.warn("execution time exceeded limit of "+executionTimeThreshold+": "+(stop-start), new AssertException("generate stacktrace"));
+			}
+		}
+		return res;
+	}
+	
+	private boolean hasValidLease(String asset) {
+		Long validUntil = leases.get(asset);
+		if(validUntil == null) {
+			return false;
+		}
+		if(validUntil.longValue() > System.currentTimeMillis()) {
+			return true;
+		}
+		leases.remove(asset, validUntil);
+		return false;
+	}
+	
+	/**
+	 * Lock the row of the asset, wait if an other node owns a lease
+	 * and take the lease if the asset is not contended.
+	 * 
+	 * @param asset The asset
+	 * @param lock The lock of the asset, held by the current thread
+	 * @return The end of the local validity of the lease if a lease was taken
+	 */
+	private Long lockOnCluster(String asset, ReentrantLock lock) {
+		PLock plock = getPessimisticLockManager().findOrPersistPLock(asset);
+		Long owner = plock.getLeaseNodeId();
+		if(owner != null && !owner.equals(nodeId) && !isExpired(plock)) {
+			contentions.increment();
+			markContended(asset);
+			plock = waitLeaseRelease(asset, lock);
+		}
+		
+		if(isContended(asset)) {
+			if(nodeId.equals(plock.getLeaseNodeId())) {
+				plock.setLease(null, null);
+			}
+			return null;
+		}
+		
+		long now = System.currentTimeMillis();
+		plock.setLease(nodeId, new Date(now + leaseDuration));
+		return Long.valueOf(now + leaseDuration - leaseTolerance);
+	}
+	
+	/**
+	 * Release the row lock, ask the owner to release its lease and wait
+	 * until the lease is released or expired. The lock of the asset is
+	 * released while waiting: the lock can be shared with other assets
+	 * and the thread receiving the events needs it to release the leases
+	 * of this node. The wait is bounded by the duration of a lease.
+	 * 
+	 * @param asset The asset
+	 * @param lock The lock of the asset, held by the current thread
+	 * @return The locked row without valid lease of an other node
+	 */
+	private PLock waitLeaseRelease(String asset, ReentrantLock lock) {
+		// release the row lock, the owner needs it to release the lease
+		dbInstance.commit();
+		eventBus.fireEventToListenersOf(new SyncLeaseEvent(SyncLeaseEvent.RELEASE, asset, nodeId), LEASE_CHANNEL);
+		
+		Condition leaseWait = lock.newCondition();
+		long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(leaseDuration + 2 * leaseTolerance);
+		long waitStart = System.nanoTime();
+		while(true) {
+			try {
+				leaseWait.awaitNanos(TimeUnit.MILLISECONDS.toNanos(leaseWaitInterval));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OLATRuntimeException(ClusterSyncer.class, "Interrupted while waiting the lease of: " + asset, e);
+			}
+			
+			PLock plock = getPessimisticLockManager().findOrPersistPLock(asset);
+			Long owner = plock.getLeaseNodeId();
+			if(owner == null || owner.equals(nodeId) || isExpired(plock)) {
+				return plock;
+			}
+			if(System.nanoTime() - waitStart > maxWaitNanos) {
+				// the owner renewed its lease, it didn't receive the release event
+				dbInstance.rollback();
+				throw new OLATRuntimeException(ClusterSyncer.class, "Timeout while waiting the lease of: " + asset + " owned by node: " + owner, null);
+			}
+			dbInstance.commit();
+		}
+	}
+	
+	private boolean isExpired(PLock plock) {
+		Date expiration = plock.getLeaseExpiration();
+		return expiration == null || expiration.getTime() + leaseTolerance < System.currentTimeMillis();
+	}
+	
+	private boolean isContended(String asset) {
+		Long until = contendedAssets.get(asset);
+		if(until == null) {
+			return false;
+		}
+		if(until.longValue() > System.currentTimeMillis()) {
+			return true;
+		}
+		contendedAssets.remove(asset, until);
+		return false;
+	}
+	
+	private void markContended(String asset) {
+		contendedAssets.put(asset, Long.valueOf(System.currentTimeMillis() + contentionDuration));
+	}
+	
+	/**
+	 * Release the lease of the asset on demand of an other node.
+	 */
+	@Override
+	public void event(Event event) {
+		if(event instanceof SyncLeaseEvent) {
+			SyncLeaseEvent sle = (SyncLeaseEvent)event;
+			if(SyncLeaseEvent.RELEASE.equals(sle.getCommand()) && !nodeId.equals(sle.getNodeId())) {
+				releaseLease(sle.getAsset());
+			}
+		}
+	}
+	
+	private void releaseLease(String asset) {
+		markContended(asset);
+		
+		ReentrantLock lock = lockTable.getLock(asset);
+		// wait until the thread using the lease is done
+		lock.lock();
+		try {
+			leases.remove(asset);
+			PLock plock = getPessimisticLockManager().findOrPersistPLock(asset);
+			if(nodeId.equals(plock.getLeaseNodeId())) {
+				plock.setLease(null, null);
+				releasedLeases.increment();
+			}
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			log.error("Cannot release the lease of: {}", asset, e);
+			dbInstance.rollbackAndCloseSession();
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	private void recordWaitTime(String asset, long waitStartNanos) {
+		long waitMillis = (System.nanoTime() - waitStartNanos) / 1000000l;
+		waitTimes.record(waitMillis);
+		
+		SyncWaitTimeHistogram histogram = assetWaitTimes.get(asset);
+		if(histogram == null) {
+			if(assetWaitTimes.size() < maxTrackedAssets) {
+				histogram = assetWaitTimes.computeIfAbsent(asset, a -> new SyncWaitTimeHistogram());
+			} else {
+				histogram = otherAssetsWaitTimes;
+			}
+		}
+		histogram.record(waitMillis);
+	}
+	
+	/**
+	 * @return The wait time before entering doInSync of all assets
+	 */
+	public SyncWaitTimeHistogram getWaitTimes() {
+		return waitTimes;
+	}
+	
+	/**
+	 * @return A copy of the wait times of the first tracked assets
+	 */
+	public Map<String,SyncWaitTimeHistogram> getAssetWaitTimes() {
+		return new HashMap<>(assetWaitTimes);
+	}
+	
+	/**
+	 * @return The wait times of the assets which are not tracked separately
+	 */
+	public SyncWaitTimeHistogram getOtherAssetsWaitTimes() {
+		return otherAssetsWaitTimes;
+	}
+	
+	/**
+	 * @return The number of doInSync which only needed the lease
+	 */
+	public long getLeaseSyncs() {
+		return leaseSyncs.sum();
+	}
+	
+	/**
+	 * @return The number of doInSync which locked the database row
+	 */
+	public long getDbSyncs() {
+		return dbSyncs.sum();
+	}
+	
+	public long getContentions() {
+		return contentions.sum();
+	}
+	
+	public long getReleasedLeases() {
+		return releasedLeases.sum();
+	}
+	
 	/**
 	 * @see org.olat.core.util.coordinate.Syncer#doInSync(org.olat.core.id.OLATResourceable, org.olat.core.util.coordinate.SyncerExecutor)
 	 */
@@ -155,6 +484,64 @@ public class ClusterSyncer implements Syncer {
 		this.executionTimeThreshold = executionTimeThreshold;
 	}
 
+	/**
+	 * [used by spring]
+	 * @param mode "db" or "lease"
+	 */
+	public void setMode(String mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setLockStripes(int lockStripes) {
+		this.lockStripes = lockStripes;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setLeaseDuration(long leaseDuration) {
+		this.leaseDuration = leaseDuration;
+	}
+
+	/**
+	 * [used by spring]
+	 * @param leaseWaitInterval The interval in milliseconds to check if a lease is released
+	 */
+	public void setLeaseWaitInterval(long leaseWaitInterval) {
+		this.leaseWaitInterval = leaseWaitInterval;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setLeaseTolerance(long leaseTolerance) {
+		this.leaseTolerance = leaseTolerance;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setContentionDuration(long contentionDuration) {
+		this.contentionDuration = contentionDuration;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setEventBus(EventBus eventBus) {
+		this.eventBus = eventBus;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setClusterConfig(ClusterConfig clusterConfig) {
+		this.clusterConfig = clusterConfig;
+	}
+
 	private void setData(ThreadLocalClusterSyncer data) {
 		this.data.set(data);
 	}
@@ -0,0 +1,60 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster;
+
+import org.olat.core.util.event.MultiUserEvent;
+
+/**
+ * Ask the node which owns the lease of an asset to release it.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class SyncLeaseEvent extends MultiUserEvent {
+
+	private static final long serialVersionUID = 4398715626102574735L;
+	
+	public static final String RELEASE = "sync-lease-release";
+	
+	private final String asset;
+	private final Long nodeId;
+	
+	public SyncLeaseEvent(String command, String asset, Long nodeId) {
+		super(command);
+		this.asset = asset;
+		this.nodeId = nodeId;
+	}
+	
+	public String getAsset() {
+		return asset;
+	}
+
+	/**
+	 * @return The node which sent the event
+	 */
+	public Long getNodeId() {
+		return nodeId;
+	}
+
+	@Override
+	public String toString() {
+		return "SyncLeaseEvent:com=" + getCommand() + ";asset=" + asset + ";node=" + nodeId;
+	}
+}
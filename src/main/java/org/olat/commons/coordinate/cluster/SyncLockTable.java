@@ -0,0 +1,59 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed table of locks, the assets are spread on the locks by
+ * their hash code. Two assets can share the same lock, but the table
+ * doesn't grow with the number of synchronized assets and the lookup
+ * doesn't need any synchronization.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class SyncLockTable {
+	
+	private final ReentrantLock[] locks;
+	private final int mask;
+	
+	/**
+	 * @param stripes The number of locks, rounded up to the next power of two
+	 */
+	public SyncLockTable(int stripes) {
+		int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+		locks = new ReentrantLock[size];
+		for(int i=0; i<size; i++) {
+			locks[i] = new ReentrantLock();
+		}
+		mask = size - 1;
+	}
+	
+	public int size() {
+		return locks.length;
+	}
+	
+	public ReentrantLock getLock(String asset) {
+		int h = asset.hashCode();
+		h ^= (h >>> 16);
+		return locks[h & mask];
+	}
+}
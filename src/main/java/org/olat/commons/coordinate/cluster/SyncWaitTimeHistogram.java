@@ -0,0 +1,91 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count the time spent waiting for a lock in a few logarithmic buckets:
+ * &lt;1ms, &lt;10ms, &lt;100ms, &lt;1s, &lt;10s and more.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class SyncWaitTimeHistogram {
+	
+	private static final long[] BOUNDS = { 1l, 10l, 100l, 1000l, 10000l };
+	private static final String[] LABELS = { "<1ms", "<10ms", "<100ms", "<1s", "<10s", ">=10s" };
+	
+	private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0l);
+	
+	public SyncWaitTimeHistogram() {
+		for(int i=buckets.length; i-->0; ) {
+			buckets[i] = new LongAdder();
+		}
+	}
+	
+	public void record(long waitMillis) {
+		int index = 0;
+		for( ; index<BOUNDS.length && waitMillis >= BOUNDS[index]; index++);
+		buckets[index].increment();
+		total.add(waitMillis);
+		max.accumulate(waitMillis);
+	}
+	
+	public long getCount() {
+		long count = 0;
+		for(LongAdder bucket:buckets) {
+			count += bucket.sum();
+		}
+		return count;
+	}
+	
+	public long[] getCounts() {
+		long[] counts = new long[buckets.length];
+		for(int i=buckets.length; i-->0; ) {
+			counts[i] = buckets[i].sum();
+		}
+		return counts;
+	}
+	
+	public long getMax() {
+		return max.get();
+	}
+	
+	public long getAvg() {
+		long count = getCount();
+		return count == 0 ? 0 : total.sum() / count;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(128);
+		long[] counts = getCounts();
+		for(int i=0; i<counts.length; i++) {
+			if(i > 0) sb.append(", ");
+			sb.append(LABELS[i]).append("=").append(counts[i]);
+		}
+		sb.append(", avg=").append(getAvg()).append("ms, max=").append(getMax()).append("ms");
+		return sb.toString();
+	}
+}
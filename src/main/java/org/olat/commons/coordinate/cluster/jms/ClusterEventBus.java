@@ -28,9 +28,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.DeliveryMode;
@@ -47,7 +53,6 @@ import org.apache.logging.log4j.Logger;
 import org.olat.core.commons.persistence.DBFactory;
 import org.olat.core.gui.control.Event;
 import org.olat.core.id.OLATResourceable;
-import org.olat.core.logging.OLATRuntimeException;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.cluster.ClusterConfig;
 import org.olat.core.util.event.AbstractEventBus;
@@ -56,10 +61,18 @@ import org.olat.core.util.event.MultiUserEvent;
 import org.olat.core.util.event.businfo.BusListenerInfo;
 import org.olat.core.util.event.businfo.BusListenerInfos;
 import org.olat.core.util.resource.OresHelper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  * This class realizes a clustered (multiple java vm) system event bus. it uses JMS 
  * (per default, apache activeMQ 4.1.4 is configured using spring) as an implementation.
+ * <p>
+ * The events are queued and a single sender thread coalesces the events fired within
+ * the batch interval in one message. With compact messages enabled, the batch is
+ * written as a BytesMessage with the ClusterEventCodec, else every event is sent as
+ * an ObjectMessage like before (compatible with nodes of an older release). The
+ * received events are dispatched to a pool of workers, the events of the same channel
+ * are always processed by the same worker to keep their order.
  * 
  * @author Felix Jost
  */
@@ -77,6 +90,9 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	// counters
 	private long latestSentMsgId = -1;
 	private long numOfSentMessages = 0;
+	private volatile long numOfFailedMessages = 0;
+	// the error of the last batch, null if it was sent
+	private volatile Exception sendFailure;
 	
 	// stats
 	private List<String> msgsSent = new ArrayList<>(); 
@@ -107,7 +123,23 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	
 	private final SimpleProbe mrtgProbeJMSEnqueueTime_ = new SimpleProbe();
 	
+	private final SimpleProbe mrtgProbeJMSSentBatchSize_ = new SimpleProbe();
+	private final SimpleProbe mrtgProbeJMSReceivedBatchSize_ = new SimpleProbe();
+	private final SimpleProbe mrtgProbeJMSSendQueueDepth_ = new SimpleProbe();
+	private final SimpleProbe mrtgProbeJMSReceiveQueueDepth_ = new SimpleProbe();
+	
+	// pipeline settings
+	private boolean compactMessages = false;
+	private long batchInterval = 10;
+	private int maxBatchSize = 250;
+	private int receiveWorkers = 4;
+	private List<ClusterEventSerializer> serializers = new ArrayList<>();
+	
+	private ClusterEventCodec codec;
 	private ExecutorService jmsExecutor;
+	private ExecutorService[] receiveExecutors;
+	private final BlockingQueue<OutgoingEvent> sendQueue = new LinkedBlockingQueue<>();
+	private final AtomicInteger receiveQueueDepth = new AtomicInteger();
 	
 	/**
 	 * [used by spring]
@@ -119,7 +151,15 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	}
 
 	public void springInit() throws JMSException {
-		jmsExecutor = Executors.newSingleThreadExecutor();
+		codec = new ClusterEventCodec(serializers);
+		if(receiveWorkers > 0) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("oo-cluster-event-");
+			threadFactory.setDaemon(true);
+			receiveExecutors = new ExecutorService[receiveWorkers];
+			for(int i=0; i<receiveWorkers; i++) {
+				receiveExecutors[i] = Executors.newSingleThreadExecutor(threadFactory);
+			}
+		}
 		
 		connection = connectionFactory.createConnection();
 		sessionConsumer = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
@@ -129,7 +169,10 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		producer = sessionProducer.createProducer(destination);
 
 		connection.start();
-		log.info("ClusterEventBus JMS started");
+		jmsExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("oo-cluster-event-sender-"));
+		jmsExecutor.execute(this::sendLoop);
+		log.info("ClusterEventBus JMS started (compact messages: {}, batch interval: {}ms, receive workers: {})",
+				compactMessages, batchInterval, receiveWorkers);
 
 		final Integer nodeId = clusterConfig.getNodeId();
 		Thread t = new Thread(new Runnable() {
@@ -183,6 +226,36 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		return mrtgProbeJMSEnqueueTime_;
 	}
 	
+	public SimpleProbe getMrtgProbeJMSSentBatchSize() {
+		return mrtgProbeJMSSentBatchSize_;
+	}
+	
+	public SimpleProbe getMrtgProbeJMSReceivedBatchSize() {
+		return mrtgProbeJMSReceivedBatchSize_;
+	}
+	
+	public SimpleProbe getMrtgProbeJMSSendQueueDepth() {
+		return mrtgProbeJMSSendQueueDepth_;
+	}
+	
+	public SimpleProbe getMrtgProbeJMSReceiveQueueDepth() {
+		return mrtgProbeJMSReceiveQueueDepth_;
+	}
+	
+	/**
+	 * @return The number of events waiting to be sent
+	 */
+	public int getSendQueueDepth() {
+		return sendQueue.size();
+	}
+	
+	/**
+	 * @return The number of received events waiting to be processed
+	 */
+	public int getReceiveQueueDepth() {
+		return receiveQueueDepth.get();
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.olat.core.util.event.GenericEventListener#event(org.olat.core.gui.control.Event)
 	 */
@@ -227,68 +300,119 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		final long msgId = ++latestSentMsgId;
 		final Integer nodeId = clusterConfig.getNodeId();
 		
-		jmsExecutor.execute(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					ObjectMessage message = sessionProducer.createObjectMessage();
-					message.setObject(new JMSWrapper(nodeId, msgId, ores, event));
-					if(strict) {
-						producer.send(message);
-					} else {
-						producer.send(message, DeliveryMode.NON_PERSISTENT, 3, 5000);
-					}
-				} catch (Exception e) {
-					log.error("Cannot send JMS message", e);
-					// cluster:::: what shall we do here: the JMS bus is broken! and we thus cannot know if other nodes are alive.
-					// if we are the only node running, then we could continue.
-					// a) either throw an exception - meaning olat doesn't really run at all and produces redscreens all the time and logging in is not possible.
-					// b) or warn in the log/jmx - but surveillance is critical here!!
-					// -> do the more fail-fast option a) at the moment for correctness reasons.
-					System.err.println("###############################################################################################");
-					System.err.println("### ClusterEventBus: communication error with JMS - cannot send messages!!!" + e);
-					System.err.println("###############################################################################################");
-					
-					throw new OLATRuntimeException("communication error with JMS - cannot send messages!!!", e);
-				}
-				numOfSentMessages++;
-			}
-		});
+		sendQueue.add(new OutgoingEvent(new JMSWrapper(nodeId, msgId, ores, event), strict));
 
 		// store it for later access by the admin controller
 		String sentMsg = "sent msg: from node:" + nodeId + ", olat-id:" + msgId + ", ores:"	+ ores.getResourceableTypeName() + ":" + ores.getResourceableId()+", event:"+event;
 		addToSentScreen(sentMsg);
 		if (log.isDebugEnabled()) log.debug(sentMsg);
 	}
-
+	
 	/**
-	 * called by springs org.springframework.jms.listener.DefaultMessageListenerContainer, see coredefaultconfig.xml
-	 * we receive a message here on the topic reserved for olat system bus messages. 
+	 * The loop of the sender thread: wait for an event, collect the events
+	 * fired within the batch interval and send them.
 	 */
-	@Override
-	public void onMessage(Message message) {
-		try{
-			serveMessage(message, -1);
-		} catch(RuntimeException re) {
-			log.error("RuntimeException enountered by serve-thread:", re);
-		} catch(Error er) {
-			log.error("Error enountered by serve-thread:", er);
-		} finally {
+	private void sendLoop() {
+		List<OutgoingEvent> batch = new ArrayList<>(maxBatchSize);
+		while(isClusterInfoEventThreadRunning) {
 			try {
-				DBFactory.getInstance().commitAndCloseSession();
+				OutgoingEvent first = sendQueue.poll(1000, TimeUnit.MILLISECONDS);
+				if(first != null) {
+					batch.add(first);
+					collectBatch(batch);
+					mrtgProbeJMSSendQueueDepth_.addMeasurement(sendQueue.size());
+					sendBatch(batch);
+				}
+			} catch (InterruptedException e) {
+				break;
 			} catch (Exception e) {
 				log.error("", e);
+			} finally {
+				batch.clear();
 			}
 		}
 	}
 	
-	void serveMessage(Message message, long receiveEnqueueTime) {
+	private void collectBatch(List<OutgoingEvent> batch) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + batchInterval;
+		while(batch.size() < maxBatchSize) {
+			if(sendQueue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+				continue;
+			}
+			long wait = deadline - System.currentTimeMillis();
+			if(wait <= 0) {
+				break;
+			}
+			OutgoingEvent next = sendQueue.poll(wait, TimeUnit.MILLISECONDS);
+			if(next == null) {
+				break;
+			}
+			batch.add(next);
+		}
+	}
+	
+	private void sendBatch(List<OutgoingEvent> batch) {
+		List<JMSWrapper> strictWrappers = new ArrayList<>(batch.size());
+		List<JMSWrapper> wrappers = new ArrayList<>(batch.size());
+		for(OutgoingEvent outgoing:batch) {
+			if(outgoing.isStrict()) {
+				strictWrappers.add(outgoing.getWrapper());
+			} else {
+				wrappers.add(outgoing.getWrapper());
+			}
+		}
+		send(strictWrappers, true);
+		send(wrappers, false);
+	}
+	
+	private void send(List<JMSWrapper> wrappers, boolean strict) {
+		if(wrappers.isEmpty()) return;
+		
+		try {
+			if(compactMessages) {
+				BytesMessage message = sessionProducer.createBytesMessage();
+				message.writeBytes(codec.encode(clusterConfig.getNodeId(), wrappers));
+				sendMessage(message, strict);
+				mrtgProbeJMSSentBatchSize_.addMeasurement(wrappers.size());
+			} else {
+				for(JMSWrapper wrapper:wrappers) {
+					ObjectMessage message = sessionProducer.createObjectMessage();
+					message.setObject(wrapper);
+					sendMessage(message, strict);
+				}
+			}
+			numOfSentMessages += wrappers.size();
+			sendFailure = null;
+		} catch (Exception e) {
+			log.error("Cannot send JMS message", e);
+			// cluster:::: what shall we do here: the JMS bus is broken! and we thus cannot know if other nodes are alive.
+			// if we are the only node running, then we could continue.
+			// the sender thread must survive, the other nodes will miss the events of this batch.
+			// The lost events are counted and reported (JMX, performance infos of the admin console).
+			numOfFailedMessages += wrappers.size();
+			sendFailure = e;
+			System.err.println("###############################################################################################");
+			System.err.println("### ClusterEventBus: communication error with JMS - cannot send messages!!!" + e);
+			System.err.println("###############################################################################################");
+		}
+	}
+	
+	private void sendMessage(Message message, boolean strict) throws JMSException {
+		if(strict) {
+			producer.send(message);
+		} else {
+			producer.send(message, DeliveryMode.NON_PERSISTENT, 3, 5000);
+		}
+	}
+
+	/**
+	 * called by springs org.springframework.jms.listener.DefaultMessageListenerContainer, see coredefaultconfig.xml
+	 * we receive a message here on the topic reserved for olat system bus messages. 
+	 */
+	@Override
+	public void onMessage(Message message) {
 		// stats
 		final long receiveTime = System.currentTimeMillis();
-		if (receiveEnqueueTime>0) {
-			final long diff = receiveTime - receiveEnqueueTime;
-			mrtgProbeJMSEnqueueTime_.addMeasurement(diff);
-		}
 		if (lastOnMessageFinishTime_!=-1) {
 			final long waitingTime = receiveTime - lastOnMessageFinishTime_;
 			// the waiting time is inverted to represent more like a frequency
@@ -308,11 +432,84 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 			mrtgProbeJMSLoad_.addMeasurement((long) (100.0/((waitingTime/2.0)+1.0)));
 			lastOnMessageFinishTime_ = -1;
 		}
+		
+		try {
+			final long jmsTimestamp = message.getJMSTimestamp();
+			List<JMSWrapper> wrappers = unpack(message);
+			mrtgProbeJMSReceivedBatchSize_.addMeasurement(wrappers.size());
+			for(JMSWrapper wrapper:wrappers) {
+				dispatch(wrapper, jmsTimestamp, receiveTime);
+			}
+		} catch(RuntimeException re) {
+			log.error("RuntimeException enountered by serve-thread:", re);
+		} catch(Error er) {
+			log.error("Error enountered by serve-thread:", er);
+		} catch(Exception e) {
+			log.error("Cannot read JMS message", e);
+		} finally {
+			lastOnMessageFinishTime_ = System.currentTimeMillis();
+		}
+	}
+	
+	private List<JMSWrapper> unpack(Message message) throws Exception {
+		if(message instanceof BytesMessage) {
+			BytesMessage bm = (BytesMessage)message;
+			byte[] data = new byte[(int)bm.getBodyLength()];
+			bm.readBytes(data);
+			return codec.decode(data);
+		}
+		JMSWrapper jmsWrapper = (JMSWrapper)((ObjectMessage)message).getObject();
+		List<JMSWrapper> wrappers = new ArrayList<>(1);
+		wrappers.add(jmsWrapper);
+		return wrappers;
+	}
+	
+	/**
+	 * Process the event in the worker responsible of its channel or
+	 * directly if there isn't any worker.
+	 */
+	private void dispatch(final JMSWrapper wrapper, final long jmsTimestamp, final long receiveTime) {
+		if(receiveExecutors == null) {
+			serve(wrapper, jmsTimestamp, receiveTime, -1);
+			return;
+		}
+		
+		int hash = Objects.hash(wrapper.getResType(), wrapper.getResId());
+		ExecutorService executor = receiveExecutors[Math.floorMod(hash, receiveExecutors.length)];
+		mrtgProbeJMSReceiveQueueDepth_.addMeasurement(receiveQueueDepth.incrementAndGet());
+		final long enqueueTime = System.currentTimeMillis();
+		executor.execute(() -> {
+			receiveQueueDepth.decrementAndGet();
+			serve(wrapper, jmsTimestamp, receiveTime, enqueueTime);
+		});
+	}
+	
+	private void serve(JMSWrapper jmsWrapper, long jmsTimestamp, long receiveTime, long enqueueTime) {
+		try {
+			serveMessage(jmsWrapper, jmsTimestamp, receiveTime, enqueueTime);
+		} catch(RuntimeException re) {
+			log.error("RuntimeException enountered by serve-thread:", re);
+		} catch(Error er) {
+			log.error("Error enountered by serve-thread:", er);
+		} finally {
+			try {
+				DBFactory.getInstance().commitAndCloseSession();
+			} catch (Exception e) {
+				log.error("", e);
+			}
+		}
+	}
+	
+	void serveMessage(JMSWrapper jmsWrapper, long jmsTimestamp, long receiveTime, long receiveEnqueueTime) {
+		// stats
+		final long startTime = System.currentTimeMillis();
+		if (receiveEnqueueTime>0) {
+			final long diff = startTime - receiveEnqueueTime;
+			mrtgProbeJMSEnqueueTime_.addMeasurement(diff);
+		}
 
-		ObjectMessage om = (ObjectMessage) message;
 		try {
 			// unpack
-			JMSWrapper jmsWrapper = (JMSWrapper) om.getObject();
 			Integer nodeId = jmsWrapper.getNodeId();			
 			MultiUserEvent event = jmsWrapper.getMultiUserEvent();
 			OLATResourceable ores = jmsWrapper.getOres();
@@ -323,7 +520,6 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 			", event:"+event+"}";
 
 			// stats
-			final long jmsTimestamp = om.getJMSTimestamp();
 			if (jmsTimestamp!=0) {
 				final long deliveryTime = receiveTime - jmsTimestamp;
 				if (deliveryTime>1500) {
@@ -343,7 +539,7 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 			
 			// stats
 			final long doneTime = System.currentTimeMillis();
-			final long processingTime = doneTime - receiveTime;
+			final long processingTime = doneTime - startTime;
 			if (processingTime>500) {
 				// then issue a log statement
 				log.warn("message received with long processing time (longer than 500ms: {}): {}", processingTime, recMsg);
@@ -355,13 +551,8 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		} catch (RuntimeException re) {
 			log.error("Uncaught RuntimeException in ClusterEventBus.onMessage!", re);
 			throw re;
-		} catch (JMSException e) {
-			log.warn("JMSException in ClusterEventBus.onMessage", e);
-			throw new OLATRuntimeException("error when receiving jms messages", e);
 		} catch(Throwable th) {
 			log.error("Uncaught Throwable in ClusterEventBus.onMessage!", th);
-		} finally {
-			lastOnMessageFinishTime_ = System.currentTimeMillis();
 		}
 	}
 
@@ -393,6 +584,23 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		return numOfSentMessages;
 	}
 
+	/**
+	 * [used by spring to auto export mbean data]
+	 * 
+	 * @return the number of cluster event bus messages which could not be
+	 *         sent since startup of this java vm
+	 */
+	public long getNumOfFailedMessages() {
+		return numOfFailedMessages;
+	}
+	
+	/**
+	 * @return true if the last batch of events could not be sent
+	 */
+	public boolean isSendFailing() {
+		return sendFailure != null;
+	}
+
 	/**
 	 * [used by spring to auto export mbean data]
 	 * 
@@ -410,9 +618,20 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		List<PerfItem> l = new ArrayList<>(2);
 		l.add(new PerfItem("Cluster Events Sent", -1, -1, 1, -1, -1, -1, -1, -1, -1, -1, -1, msgsSentCount));
 		l.add(new PerfItem("Cluster Events Received",  -1, -1, 1, -1, -1, -1, -1,  -1, -1, -1, -1, msgsReceivedCount));
+		l.add(new PerfItem("Cluster Events Send Failures", -1, -1, 1, -1, -1, -1, -1, -1, -1, -1, -1, numOfFailedMessages));
+		l.add(toPerfItem("Cluster Events Sent Batch Size", mrtgProbeJMSSentBatchSize_));
+		l.add(toPerfItem("Cluster Events Received Batch Size", mrtgProbeJMSReceivedBatchSize_));
+		l.add(toPerfItem("Cluster Events Send Queue Depth", mrtgProbeJMSSendQueueDepth_));
+		l.add(toPerfItem("Cluster Events Receive Queue Depth", mrtgProbeJMSReceiveQueueDepth_));
 		return l;
 	}
 	
+	private PerfItem toPerfItem(String name, SimpleProbe probe) {
+		int num = probe.getNum();
+		float avg = num == 0 ? -1 : probe.getAvg();
+		return new PerfItem(name, -1, probe.getMax(), -1, avg, -1, -1, -1, -1, -1, -1, -1, num);
+	}
+	
 	void resetStats() {
 		msgsSentCount = 0;
 		msgsReceivedCount = 0;
@@ -468,6 +687,11 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		isClusterInfoEventThreadRunning = false;
 		try {
 			jmsExecutor.shutdownNow();
+			if(receiveExecutors != null) {
+				for(ExecutorService receiveExecutor:receiveExecutors) {
+					receiveExecutor.shutdown();
+				}
+			}
 			sessionProducer.close();
 			sessionConsumer.close();
 			connection.close();
@@ -506,4 +730,58 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		this.destination = destination;
 	}
 
+	/**
+	 * [used by spring]
+	 */
+	public void setCompactMessages(boolean compactMessages) {
+		this.compactMessages = compactMessages;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setBatchInterval(long batchInterval) {
+		this.batchInterval = batchInterval;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = Math.max(1, maxBatchSize);
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setReceiveWorkers(int receiveWorkers) {
+		this.receiveWorkers = receiveWorkers;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setSerializers(List<ClusterEventSerializer> serializers) {
+		this.serializers = serializers;
+	}
+	
+	private static class OutgoingEvent {
+		
+		private final JMSWrapper wrapper;
+		private final boolean strict;
+		
+		public OutgoingEvent(JMSWrapper wrapper, boolean strict) {
+			this.wrapper = wrapper;
+			this.strict = strict;
+		}
+
+		public JMSWrapper getWrapper() {
+			return wrapper;
+		}
+
+		public boolean isStrict() {
+			return strict;
+		}
+	}
+
 }
@@ -0,0 +1,171 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.jms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.olat.core.util.event.MultiUserEvent;
+
+/**
+ * Write and read a batch of events in a compact binary format. The
+ * batch starts with a version byte, the id of the sending node and the
+ * number of events. Every event is written with its message id, its
+ * channel, the id of its serializer and the payload. The events without
+ * a dedicated serializer are written with the java serialization, only
+ * the classes of OpenOLAT and the value types of the JDK can be read.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class ClusterEventCodec {
+	
+	public static final byte VERSION = 1;
+	public static final byte JAVA_SERIALIZATION = 0;
+	public static final String JAVA_SERIALIZATION_FILTER = "maxdepth=32;org.olat.**;de.bps.**;de.tuchemnitz.**;"
+			+ "java.lang.*;java.util.*;java.math.*;java.time.*;java.sql.Timestamp;java.sql.Date;!*";
+	
+	private static final ObjectInputFilter javaSerializationFilter = ObjectInputFilter.Config.createFilter(JAVA_SERIALIZATION_FILTER);
+	
+	private final ClusterEventSerializer[] serializers;
+	private final ClusterEventSerializer[] serializersById = new ClusterEventSerializer[128];
+	
+	public ClusterEventCodec(List<ClusterEventSerializer> serializerList) {
+		serializers = serializerList.toArray(new ClusterEventSerializer[serializerList.size()]);
+		for(ClusterEventSerializer serializer:serializers) {
+			byte id = serializer.getId();
+			if(id <= JAVA_SERIALIZATION) {
+				throw new IllegalArgumentException("Serializer id must be between 1 and 127: " + serializer);
+			}
+			if(serializersById[id] != null) {
+				throw new IllegalArgumentException("Duplicate serializer id " + id + ": " + serializer);
+			}
+			serializersById[id] = serializer;
+		}
+	}
+	
+	public byte[] encode(Integer nodeId, List<JMSWrapper> wrappers) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + wrappers.size() * 128);
+		try(DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(VERSION);
+			out.writeInt(nodeId.intValue());
+			out.writeInt(wrappers.size());
+			for(JMSWrapper wrapper:wrappers) {
+				write(wrapper, out);
+			}
+		}
+		return bytes.toByteArray();
+	}
+	
+	public List<JMSWrapper> decode(byte[] data) throws IOException {
+		try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			byte version = in.readByte();
+			if(version != VERSION) {
+				throw new IOException("Unsupported version of cluster event batch: " + version);
+			}
+			Integer nodeId = Integer.valueOf(in.readInt());
+			int size = in.readInt();
+			List<JMSWrapper> wrappers = new ArrayList<>(size);
+			for(int i=0; i<size; i++) {
+				wrappers.add(read(nodeId, in));
+			}
+			return wrappers;
+		}
+	}
+	
+	private void write(JMSWrapper wrapper, DataOutputStream out) throws IOException {
+		out.writeLong(wrapper.getMsgId());
+		writeString(wrapper.getResType(), out);
+		Long resId = wrapper.getResId();
+		out.writeBoolean(resId != null);
+		if(resId != null) {
+			out.writeLong(resId.longValue());
+		}
+		
+		MultiUserEvent event = wrapper.getMultiUserEvent();
+		ClusterEventSerializer serializer = getSerializer(event);
+		if(serializer == null) {
+			out.writeByte(JAVA_SERIALIZATION);
+			ByteArrayOutputStream objectBytes = new ByteArrayOutputStream(256);
+			try(ObjectOutputStream objectOut = new ObjectOutputStream(objectBytes)) {
+				objectOut.writeObject(event);
+			}
+			out.writeInt(objectBytes.size());
+			objectBytes.writeTo(out);
+		} else {
+			out.writeByte(serializer.getId());
+			serializer.write(event, out);
+		}
+	}
+	
+	private JMSWrapper read(Integer nodeId, DataInputStream in) throws IOException {
+		long msgId = in.readLong();
+		String resType = readString(in);
+		Long resId = in.readBoolean() ? Long.valueOf(in.readLong()) : null;
+		
+		MultiUserEvent event;
+		byte serializerId = in.readByte();
+		if(serializerId == JAVA_SERIALIZATION) {
+			byte[] objectBytes = new byte[in.readInt()];
+			in.readFully(objectBytes);
+			try(ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(objectBytes))) {
+				objectIn.setObjectInputFilter(javaSerializationFilter);
+				event = (MultiUserEvent)objectIn.readObject();
+			} catch(ClassNotFoundException e) {
+				throw new IOException(e);
+			}
+		} else if(serializerId > 0 && serializersById[serializerId] != null) {
+			event = serializersById[serializerId].read(in);
+		} else {
+			throw new IOException("No serializer with id: " + serializerId);
+		}
+		return new JMSWrapper(nodeId, msgId, resType, resId, event);
+	}
+	
+	private ClusterEventSerializer getSerializer(MultiUserEvent event) {
+		for(ClusterEventSerializer serializer:serializers) {
+			if(serializer.accept(event)) {
+				return serializer;
+			}
+		}
+		return null;
+	}
+	
+	public static void writeString(String string, DataOutput out) throws IOException {
+		out.writeBoolean(string != null);
+		if(string != null) {
+			out.writeUTF(string);
+		}
+	}
+	
+	public static String readString(DataInput in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+}
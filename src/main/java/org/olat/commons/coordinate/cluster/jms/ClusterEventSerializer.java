@@ -0,0 +1,57 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.jms;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.olat.core.util.event.MultiUserEvent;
+
+/**
+ * A compact serializer for some types of events sent over the
+ * cluster event bus. Events without a dedicated serializer are
+ * transported with the standard java serialization.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public interface ClusterEventSerializer {
+	
+	/**
+	 * The id is written in the messages and must be unique and stable
+	 * across all the nodes of the cluster. Allowed values are 1 to 127,
+	 * 0 is reserved for the java serialization.
+	 * 
+	 * @return The id of the serializer
+	 */
+	public byte getId();
+	
+	/**
+	 * @param event The event
+	 * @return true if the serializer can write the event
+	 */
+	public boolean accept(MultiUserEvent event);
+	
+	public void write(MultiUserEvent event, DataOutput out) throws IOException;
+	
+	public MultiUserEvent read(DataInput in) throws IOException;
+
+}
@@ -0,0 +1,62 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.jms;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.olat.core.util.event.MultiUserEvent;
+
+/**
+ * Serialize the plain MultiUserEvent which only transports a command.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class MultiUserEventSerializer implements ClusterEventSerializer {
+	
+	public static final byte ID = 1;
+
+	@Override
+	public byte getId() {
+		return ID;
+	}
+
+	@Override
+	public boolean accept(MultiUserEvent event) {
+		return event.getClass() == MultiUserEvent.class;
+	}
+
+	@Override
+	public void write(MultiUserEvent event, DataOutput out) throws IOException {
+		out.writeInt(event.getOriginNodeId());
+		ClusterEventCodec.writeString(event.getCommand(), out);
+	}
+
+	@Override
+	public MultiUserEvent read(DataInput in) throws IOException {
+		int originNodeId = in.readInt();
+		String command = ClusterEventCodec.readString(in);
+		MultiUserEvent event = new MultiUserEvent(command);
+		event.setOriginNodeId(originNodeId);
+		return event;
+	}
+}
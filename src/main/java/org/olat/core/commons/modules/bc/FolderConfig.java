@@ -62,6 +62,7 @@ public class FolderConfig {
 	private static final String META_DIR = "/.meta";
 	private static final String TMP_DIR = "/tmp";
 	private static final String VERSION_DIR = "/.version";
+	private static final String REVISION_BLOBS_DIR = "/.revisionblobs";
 	private static boolean sendDocumentToExtern;
 	private static boolean sendDocumentLinkOnly;
 	
@@ -297,6 +298,13 @@ public class FolderConfig {
 	public static Path getCanonicalVersionRootPath() {
 		return Paths.get(getCanonicalRoot(), VERSION_DIR);
 	}
+	
+	/**
+	 * @return the canonical path to the content-addressed store of the revisions
+	 */
+	public static Path getCanonicalRevisionBlobsRootPath() {
+		return Paths.get(getCanonicalRoot(), REVISION_BLOBS_DIR);
+	}
 
 	/**
 	 * @return the canonical path to the repository root directory.
@@ -29,6 +29,7 @@ package org.olat.core.commons.modules.bc.commands;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.modules.bc.components.FolderComponent;
 import org.olat.core.commons.services.vfs.VFSRepositoryService;
+import org.olat.core.commons.services.vfs.ui.media.VFSThumbnailPendingMediaResource;
 import org.olat.core.gui.UserRequest;
 import org.olat.core.gui.control.Controller;
 import org.olat.core.gui.control.WindowControl;
@@ -70,9 +71,12 @@ public class CmdServeThumbnailResource implements FolderCommand {
 			}
 			
 			if(vfsLeaf != null && vfsLeaf.canMeta() == VFSConstants.YES) {
-				VFSLeaf thumbnail = vfsRepositoryservice.getThumbnail(vfsLeaf, 200, 200, false);
+				VFSLeaf thumbnail = vfsRepositoryservice.getThumbnailAsync(vfsLeaf, 200, 200, false);
 				if(thumbnail != null) {
 					mr = new VFSMediaResource(thumbnail);
+				} else if(vfsRepositoryservice.isThumbnailAvailable(vfsLeaf)) {
+					// generated in the background, deliver a placeholder until it's done
+					mr = new VFSThumbnailPendingMediaResource();
 				}
 			}
 			if(mr == null) {
@@ -318,6 +318,7 @@ public class ListRenderer {
 		//file metadata as tooltip
 		if (metadata != null) {
 			boolean hasMeta = false;
+			String thumbnailUrl = null;
 			sb.append("<div id='o_sel_doc_tooltip_").append(pos).append("' class='o_bc_meta' style='display:none;'>");
 			if (StringHelper.containsNonWhitespace(metadata.getTitle())) {
 				String title = StringHelper.escapeHtml(metadata.getTitle());
@@ -333,9 +334,11 @@ public class ListRenderer {
 			}
 			
 			if(!isContainer && !xssErrors && vfsRepositoryService.isThumbnailAvailable(leaf, metadata) ) {
-				sb.append("<div class='o_thumbnail' style='background-image:url("); 
-				ubu.buildURI(sb, new String[] { PARAM_SERV_THUMBNAIL}, new String[] { "x" }, pathAndName, AJAXFlags.MODE_NORMAL);
-				sb.append("); background-repeat:no-repeat; background-position:50% 50%;'></div>");
+				StringOutput thumbnailSb = new StringOutput(128);
+				ubu.buildURI(thumbnailSb, new String[] { PARAM_SERV_THUMBNAIL}, new String[] { "x" }, pathAndName, AJAXFlags.MODE_NORMAL);
+				thumbnailUrl = thumbnailSb.toString();
+				sb.append("<div class='o_thumbnail' style='background-image:url(").append(thumbnailUrl)
+				  .append("); background-repeat:no-repeat; background-position:50% 50%;'></div>");
 				hasMeta = true;
 			}
 
@@ -369,8 +372,11 @@ public class ListRenderer {
 				  .append("  });\n")
 				  .append("  jQuery('#o_sel_doc_").append(pos).append("').on('click', function(){\n")
 				  .append("	   jQuery('#o_sel_doc_").append(pos).append("').tooltip('hide');\n")
-				  .append("  });\n")
-				  .append("});")
+				  .append("  });\n");
+				if(thumbnailUrl != null) {
+					appendThumbnailRetry(sb, pos, thumbnailUrl);
+				}
+				sb.append("});")
 				  .append("</script>");
 			}
 		}
@@ -508,6 +514,34 @@ public class ListRenderer {
 		sb.append("</td></tr>");
 	}
 	
+	/**
+	 * The thumbnail can be generated in the background, the server answers
+	 * with a placeholder, the status 202 and a Retry-After header. Ask it
+	 * again after the delay (a few times) and replace the placeholder in
+	 * the tooltip as soon as it's there.
+	 */
+	private void appendThumbnailRetry(StringOutput sb, int pos, String thumbnailUrl) {
+		String url = StringHelper.escapeJavaScript(thumbnailUrl);
+		sb.append("  jQuery('#o_sel_doc_").append(pos).append("').one('mouseenter', function(){\n")
+		  .append("    var loadThumbnail = function(attempts) {\n")
+		  .append("      jQuery.ajax({ url: '").append(url).append("', cache: false, success: function(data, status, xhr) {\n")
+		  .append("        if(xhr.status == 202 && attempts > 0) {\n")
+		  .append("          var delay = parseInt(xhr.getResponseHeader('Retry-After'), 10) || 2;\n")
+		  .append("          setTimeout(function() { loadThumbnail(attempts - 1); }, delay * 1000);\n")
+		  .append("        } else if(xhr.status == 200) {\n")
+		  .append("          var background = 'url(").append(url).append("?_=' + new Date().getTime() + ')';\n")
+		  .append("          jQuery('#o_sel_doc_tooltip_").append(pos).append(" .o_thumbnail').css('background-image', background);\n")
+		  .append("          var tooltip = jQuery('#o_sel_doc_").append(pos).append("').data('bs.tooltip');\n")
+		  .append("          if(tooltip && tooltip.$tip) {\n")
+		  .append("            tooltip.$tip.find('.o_thumbnail').css('background-image', background);\n")
+		  .append("          }\n")
+		  .append("        }\n")
+		  .append("      }});\n")
+		  .append("    };\n")
+		  .append("    loadThumbnail(10);\n")
+		  .append("  });\n");
+	}
+
 	private String getOpenIconCss(VFSItem child, VFSMetadata metadata, boolean canWrite, Identity identity, Roles roles) {
 		if (child instanceof VFSLeaf) {
 			VFSLeaf vfsLeaf = (VFSLeaf) child;
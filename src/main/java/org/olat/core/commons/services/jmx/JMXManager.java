@@ -68,6 +68,36 @@ public class JMXManager {
 		return mBeanServer;
 	}
 	
+	/**
+	 * Register a standard MBean, an already registered bean with
+	 * the same name is replaced.
+	 * 
+	 * @param objectName The JMX object name
+	 * @param mbean The bean
+	 */
+	public void registerMBean(String objectName, Object mbean) {
+		try {
+			ObjectName on = new ObjectName(objectName);
+			if(mBeanServer.isRegistered(on)) {
+				mBeanServer.unregisterMBean(on);
+			}
+			mBeanServer.registerMBean(mbean, on);
+		} catch (Exception e) {
+			log.error("Cannot register MBean: {}", objectName, e);
+		}
+	}
+	
+	public void unregisterMBean(String objectName) {
+		try {
+			ObjectName on = new ObjectName(objectName);
+			if(mBeanServer.isRegistered(on)) {
+				mBeanServer.unregisterMBean(on);
+			}
+		} catch (Exception e) {
+			log.error("Cannot unregister MBean: {}", objectName, e);
+		}
+	}
+	
 	public List<String> dumpJmx(String objectName) {
 		try {
 			ObjectName on = new ObjectName(objectName);
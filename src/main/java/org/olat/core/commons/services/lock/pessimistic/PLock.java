@@ -24,6 +24,20 @@
 */
 package org.olat.core.commons.services.lock.pessimistic;
 
+import java.util.Date;
+
+/**
+ * The lease is an optional ownership of the asset by a cluster node,
+ * used by the lease mode of the ClusterSyncer.
+ */
 public interface PLock {
+	
+	public String getAsset();
+	
+	public Long getLeaseNodeId();
+	
+	public Date getLeaseExpiration();
+	
+	public void setLease(Long nodeId, Date expiration);
 
 }
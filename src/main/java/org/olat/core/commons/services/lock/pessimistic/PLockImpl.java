@@ -79,6 +79,12 @@ public class PLockImpl implements PLock, CreateInfo, Persistable {
 	@Column(name="asset", nullable=false, insertable=true, updatable=false, unique=true)
 	private String asset;
 	
+	@Column(name="plock_lease_node", nullable=true, insertable=true, updatable=true)
+	private Long leaseNodeId;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="plock_lease_expiration", nullable=true, insertable=true, updatable=true)
+	private Date leaseExpiration;
+	
 	/**
 	* Constructor needed for Hibernate.
 	*/
@@ -104,6 +110,7 @@ public class PLockImpl implements PLock, CreateInfo, Persistable {
 		this.creationDate = creationDate;
 	}
 
+	@Override
 	public String getAsset() {
 		return asset;
 	}
@@ -112,6 +119,22 @@ public class PLockImpl implements PLock, CreateInfo, Persistable {
 		this.asset = asset;
 	}
 
+	@Override
+	public Long getLeaseNodeId() {
+		return leaseNodeId;
+	}
+
+	@Override
+	public Date getLeaseExpiration() {
+		return leaseExpiration;
+	}
+
+	@Override
+	public void setLease(Long nodeId, Date expiration) {
+		this.leaseNodeId = nodeId;
+		this.leaseExpiration = expiration;
+	}
+
 	@Override
 	public int hashCode() {
 		return key == null ? 2396928 : key.hashCode();
@@ -0,0 +1,130 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.notifications.manager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and throughput of a run of the notification email job.
+ * The counters are updated concurrently by the digest workers.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class NotificationsDigestStatistics {
+	
+	private final long start = System.nanoTime();
+	
+	private final AtomicLong candidates = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final AtomicLong mailed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong empty = new AtomicLong();
+	private final AtomicLong items = new AtomicLong();
+	private final AtomicLong batches = new AtomicLong();
+	
+	/**
+	 * @return Number of identities with news selected by the bulk queries
+	 */
+	public long getCandidates() {
+		return candidates.get();
+	}
+	
+	void incrementCandidates(int count) {
+		candidates.addAndGet(count);
+	}
+
+	/**
+	 * @return Number of identities skipped because of their interval or roles
+	 */
+	public long getSkipped() {
+		return skipped.get();
+	}
+	
+	void incrementSkipped() {
+		skipped.incrementAndGet();
+	}
+
+	public long getMailed() {
+		return mailed.get();
+	}
+	
+	void incrementMailed(int numOfItems) {
+		mailed.incrementAndGet();
+		items.addAndGet(numOfItems);
+	}
+
+	public long getFailed() {
+		return failed.get();
+	}
+	
+	void incrementFailed() {
+		failed.incrementAndGet();
+	}
+	
+	/**
+	 * @return Number of identities for which the handlers found nothing to send
+	 */
+	public long getEmpty() {
+		return empty.get();
+	}
+	
+	void incrementEmpty() {
+		empty.incrementAndGet();
+	}
+
+	public long getItems() {
+		return items.get();
+	}
+
+	public long getBatches() {
+		return batches.get();
+	}
+	
+	void incrementBatches() {
+		batches.incrementAndGet();
+	}
+	
+	public long getDurationInMillis() {
+		return (System.nanoTime() - start) / 1000000l;
+	}
+	
+	/**
+	 * @return The number of processed identities per second
+	 */
+	public double getThroughput() {
+		long duration = getDurationInMillis();
+		long processed = skipped.get() + mailed.get() + failed.get() + empty.get();
+		return duration <= 0 ? 0.0d : (processed * 1000.0d) / duration;
+	}
+
+	@Override
+	public String toString() {
+		return "notifications[candidates=" + getCandidates()
+				+ ",mailed=" + getMailed()
+				+ ",items=" + getItems()
+				+ ",empty=" + getEmpty()
+				+ ",skipped=" + getSkipped()
+				+ ",failed=" + getFailed()
+				+ ",batches=" + getBatches()
+				+ ",duration=" + getDurationInMillis() + "ms"
+				+ ",throughput=" + String.format("%.1f", getThroughput()) + "/s]";
+	}
+}
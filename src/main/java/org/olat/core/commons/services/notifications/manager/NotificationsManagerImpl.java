@@ -37,19 +37,28 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.persistence.EntityManager;
 import javax.persistence.LockModeType;
 import javax.persistence.Query;
+import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
 
 import org.olat.NewControllerFactory;
 import org.olat.basesecurity.BaseSecurity;
 import org.olat.basesecurity.IdentityRef;
+import org.olat.basesecurity.OrganisationRoles;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DB;
 import org.olat.core.commons.persistence.PersistenceHelper;
@@ -71,7 +80,6 @@ import org.olat.core.gui.translator.Translator;
 import org.olat.core.helpers.Settings;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
-import org.olat.core.id.Roles;
 import org.olat.core.id.context.BusinessControlFactory;
 import org.olat.core.logging.AssertException;
 import org.apache.logging.log4j.Logger;
@@ -124,6 +132,9 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	private static final Map<String, Integer> INTERVAL_DEF_MAP = buildIntervalMap();
 	private Object lockObject = new Object();
 	
+	private int digestWorkers = 4;
+	private volatile NotificationsDigestStatistics lastDigestStatistics;
+	
 	private DB dbInstance;
 	private BaseSecurity securityManager;
 	private PropertyManager propertyManager;
@@ -153,6 +164,14 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 		this.propertyManager = propertyManager;
 	}
 	
+	/**
+	 * [used by Spring]
+	 * @param digestWorkers The number of threads which render and send the emails
+	 */
+	public void setDigestWorkers(int digestWorkers) {
+		this.digestWorkers = digestWorkers;
+	}
+	
 	/**
 	 * [used by Spring]
 	 * @param coordinatorManager
@@ -327,133 +346,279 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 		return sis;
 	}
 	
+	/**
+	 * Send the notification emails as a set-based pipeline. The identities
+	 * with news since their last email are selected in pages with a few
+	 * bulk queries (subscribers, roles and latest email properties), the
+	 * subscribers are grouped per identity and the digests are rendered
+	 * and sent by a pool of workers. Each worker uses its own database
+	 * session.
+	 */
 	@Override
 	public void notifyAllSubscribersByEmail() {
 		log.info(Tracing.M_AUDIT, "starting notification cronjob to send email");
 		WorkThreadInformations.setLongRunningTask("sendNotifications");
 		
-		int counter = 0;
-		int closeConnection = 0;
-		List<Identity> identities;
-		do {
-			identities = securityManager.loadVisibleIdentities(counter, BATCH_SIZE);
-			for(Identity identity:identities) {
-				Roles roles = securityManager.getRoles(identity);
-				if(roles.isGuestOnly()) {
-					continue;
-				}
-	
-				closeConnection++;
-				processSubscribersByEmail(identity);
-				if(closeConnection % 20 == 0) {
+		NotificationsDigestStatistics statistics = new NotificationsDigestStatistics();
+		ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, digestWorkers), new DigestThreadFactory());
+		try {
+			Date defaultCompareDate = getDefaultCompareDate();
+			Long lastIdentityKey = Long.valueOf(0l);
+			List<Long> identityKeys;
+			do {
+				identityKeys = getIdentityKeysWithNews(lastIdentityKey, defaultCompareDate, BATCH_SIZE);
+				if(!identityKeys.isEmpty()) {
+					lastIdentityKey = identityKeys.get(identityKeys.size() - 1);
+					List<IdentityDigest> digests = loadDigests(identityKeys, defaultCompareDate, statistics);
 					dbInstance.commitAndCloseSession();
+					processDigests(digests, workers, statistics);
+					statistics.incrementBatches();
+					WorkThreadInformations.set("Send notifications: " + statistics);
+					log.info(Tracing.M_AUDIT, "Notifications progress: {}", statistics);
 				}
-			}
-			counter += identities.size();
+			} while(identityKeys.size() == BATCH_SIZE);
+		} catch (InterruptedException e) {
+			log.warn("Notification cronjob interrupted", e);
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			log.error("Error in notification cronjob", e);
+		} finally {
+			workers.shutdownNow();
 			dbInstance.commitAndCloseSession();
-		} while(identities.size() == BATCH_SIZE);
-		
-		// done, purge last entry
-		WorkThreadInformations.unsetLongRunningTask("sendNotifications");
-		log.info(Tracing.M_AUDIT, "end notification cronjob to send email");
+			WorkThreadInformations.unset();
+			WorkThreadInformations.unsetLongRunningTask("sendNotifications");
+		}
+		lastDigestStatistics = statistics;
+		log.info(Tracing.M_AUDIT, "end notification cronjob to send email: {}", statistics);
 	}
 	
-	private void processSubscribersByEmail(Identity ident) {
-		if(ident.getStatus().compareTo(Identity.STATUS_VISIBLE_LIMIT) >= 0) {
-			return;//send only to active user
+	/**
+	 * @return The statistics of the last run of the notification email job
+	 */
+	public NotificationsDigestStatistics getLastDigestStatistics() {
+		return lastDigestStatistics;
+	}
+	
+	/**
+	 * Select a page of the active identities which have at least one enabled
+	 * subscriber whose publisher has news since the last email or which never
+	 * received an email (but not older than the default compare date).
+	 * 
+	 * @param lastIdentityKey Only identities with a greater key are returned
+	 * @param defaultCompareDate The oldest news which are sent
+	 * @param maxResults The size of the page
+	 * @return An ordered list of identity keys
+	 */
+	protected List<Long> getIdentityKeysWithNews(Long lastIdentityKey, Date defaultCompareDate, int maxResults) {
+		StringBuilder sb = new StringBuilder(512);
+		sb.append("select distinct ident.key from notisub as sub")
+		  .append(" inner join sub.publisher as pub")
+		  .append(" inner join sub.identity as ident")
+		  .append(" where ident.key>:lastIdentityKey and ident.status<:statusLimit")
+		  .append(" and sub.enabled=true and pub.state=").append(PUB_STATE_OK)
+		  .append(" and (pub.latestNewsDate>sub.latestEmailed or sub.latestEmailed is null) and pub.latestNewsDate>:compareDate")
+		  .append(" order by ident.key asc");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("lastIdentityKey", lastIdentityKey)
+				.setParameter("statusLimit", Identity.STATUS_VISIBLE_LIMIT)
+				.setParameter("compareDate", defaultCompareDate, TemporalType.TIMESTAMP)
+				.setFirstResult(0)
+				.setMaxResults(maxResults)
+				.getResultList();
+	}
+	
+	/**
+	 * Load the subscribers with news of the specified identities with their
+	 * publishers, identities and users.
+	 * 
+	 * @param identityKeys A list of identity keys
+	 * @param defaultCompareDate The oldest news which are sent
+	 * @return A list of subscribers ordered by identity
+	 */
+	protected List<Subscriber> getSubscribersWithNews(List<Long> identityKeys, Date defaultCompareDate) {
+		StringBuilder sb = new StringBuilder(512);
+		sb.append("select sub from notisub as sub")
+		  .append(" inner join fetch sub.publisher as pub")
+		  .append(" inner join fetch sub.identity as ident")
+		  .append(" inner join fetch ident.user as identUser")
+		  .append(" where ident.key in (:identityKeys)")
+		  .append(" and sub.enabled=true and pub.state=").append(PUB_STATE_OK)
+		  .append(" and (pub.latestNewsDate>sub.latestEmailed or sub.latestEmailed is null) and pub.latestNewsDate>:compareDate")
+		  .append(" order by ident.key asc, sub.key asc");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Subscriber.class)
+				.setParameter("identityKeys", identityKeys)
+				.setParameter("compareDate", defaultCompareDate, TemporalType.TIMESTAMP)
+				.getResultList();
+	}
+	
+	private Map<Long,Property> getLatestEmailProperties(List<Long> identityKeys) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select v from ").append(Property.class.getName()).append(" as v")
+		  .append(" where v.identity.key in (:identityKeys) and v.name=:name");
+		List<Property> properties = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Property.class)
+				.setParameter("identityKeys", identityKeys)
+				.setParameter("name", LATEST_EMAIL_USER_PROP)
+				.getResultList();
+		Map<Long,Property> propertiesMap = new HashMap<>();
+		for(Property property:properties) {
+			propertiesMap.putIfAbsent(property.getIdentity().getKey(), property);
 		}
+		return propertiesMap;
+	}
+	
+	/**
+	 * Same rule as Roles.isGuestOnly(): the identity has the guest role
+	 * but not the user role.
+	 * 
+	 * @param identityKeys A list of identity keys
+	 * @return The keys of the identities which are only guests
+	 */
+	private Set<Long> getGuestOnlyIdentityKeys(List<Long> identityKeys) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select membership.identity.key, membership.role from organisation as org")
+		  .append(" inner join org.group baseGroup")
+		  .append(" inner join baseGroup.members membership")
+		  .append(" where membership.identity.key in (:identityKeys) and membership.role in (:roles)");
+		List<Object[]> rawObjects = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("identityKeys", identityKeys)
+				.setParameter("roles", List.of(OrganisationRoles.guest.name(), OrganisationRoles.user.name()))
+				.getResultList();
 		
-		String userInterval = getUserIntervalOrDefault(ident);
-		if("never".equals(userInterval)) {
-			return;
-		}
-
-		long start = System.currentTimeMillis();
-		Date compareDate = getCompareDateFromInterval(userInterval);
-		Property p = propertyManager.findProperty(ident, null, null, null, LATEST_EMAIL_USER_PROP);
-		if(p != null) {
-		  	Date latestEmail = new Date(p.getLongValue());
-		  	if(latestEmail.after(compareDate)) {
-		  		return;//nothing to do
-		  	}
-		}
-
-		Date defaultCompareDate = getDefaultCompareDate();
-		List<Subscriber> subscribers = getSubscribers(ident, true);
-		if(subscribers.isEmpty()) {
-			return;
+		Set<Long> guests = new HashSet<>();
+		Set<Long> users = new HashSet<>();
+		for(Object[] rawObject:rawObjects) {
+			Long identityKey = (Long)rawObject[0];
+			if(OrganisationRoles.guest.name().equals(rawObject[1])) {
+				guests.add(identityKey);
+			} else {
+				users.add(identityKey);
+			}
 		}
+		guests.removeAll(users);
+		return guests;
+	}
+	
+	private List<IdentityDigest> loadDigests(List<Long> identityKeys, Date defaultCompareDate, NotificationsDigestStatistics statistics) {
+		statistics.incrementCandidates(identityKeys.size());
+		
+		List<Subscriber> subscribers = getSubscribersWithNews(identityKeys, defaultCompareDate);
+		Map<Long,Property> latestEmails = getLatestEmailProperties(identityKeys);
+		Set<Long> guestOnly = getGuestOnlyIdentityKeys(identityKeys);
 		
-		String langPrefs = null;
-		if(ident.getUser() != null && ident.getUser().getPreferences() != null) {
-			langPrefs = ident.getUser().getPreferences().getLanguage();
+		Map<Long,IdentityDigest> digests = new LinkedHashMap<>();
+		for(Subscriber subscriber:subscribers) {
+			Identity identity = subscriber.getIdentity();
+			digests.computeIfAbsent(identity.getKey(), key -> new IdentityDigest(identity, latestEmails.get(key)))
+				.getSubscribers().add(subscriber);
 		}
-		Locale locale = I18nManager.getInstance().getLocaleOrDefault(langPrefs);
 		
-		boolean veto = false;
-		Subscriber latestSub = null;
-		List<SubscriptionItem> items = new ArrayList<>();
-		List<Subscriber> subsToUpdate = new ArrayList<>();
-		for(Subscriber sub:subscribers) {
-			if(!sub.isEnabled()) {
+		List<IdentityDigest> digestsToSend = new ArrayList<>(digests.size());
+		for(IdentityDigest digest:digests.values()) {
+			Identity identity = digest.getIdentity();
+			if(guestOnly.contains(identity.getKey())) {
+				statistics.incrementSkipped();
 				continue;
 			}
 			
-			Date latestEmail = sub.getLatestEmailed();
-		
-			SubscriptionItem subsitem = null;
-			if (latestEmail == null || compareDate.after(latestEmail)){
-				// no notif. ever sent until now
-				if (latestEmail == null) {
-					latestEmail = defaultCompareDate;
-				}	else if (latestEmail.before(defaultCompareDate)) {
-					//no notification older than a month
-					latestEmail = defaultCompareDate;
-				}
-				subsitem = createSubscriptionItem(sub, locale, SubscriptionInfo.MIME_HTML, SubscriptionInfo.MIME_HTML, latestEmail);
-			}	else if(latestEmail != null && latestEmail.after(compareDate)) {
-				//already send an email within the user's settings interval
-				//veto = true;
+			String userInterval = getUserIntervalOrDefault(identity);
+			if("never".equals(userInterval)) {
+				statistics.incrementSkipped();
+				continue;
 			}
-			if (subsitem != null) {
-				items.add(subsitem);
-				subsToUpdate.add(sub);
+			
+			Date compareDate = getCompareDateFromInterval(userInterval);
+			Property latestEmailProperty = digest.getLatestEmailProperty();
+			if(latestEmailProperty != null && latestEmailProperty.getLongValue() != null
+					&& new Date(latestEmailProperty.getLongValue()).after(compareDate)) {
+				statistics.incrementSkipped();
+				continue;//already send an email within the user's settings interval
 			}
-			latestSub = sub;
+			digest.setCompareDate(compareDate);
+			digestsToSend.add(digest);
 		}
-		
-		Translator translator = Util.createPackageTranslator(NotificationSubscriptionController.class, locale);
-		notifySubscribersByEmail(latestSub, items, subsToUpdate, translator, start, veto);
+		return digestsToSend;
 	}
 	
-	private void notifySubscribersByEmail(Subscriber latestSub, List<SubscriptionItem> items, List<Subscriber> subsToUpdate, Translator translator, long start, boolean veto) {
-		if(veto) {
-			if(latestSub != null) {
-				log.info(Tracing.M_AUDIT, latestSub.getIdentity().getKey() + " already received notification email within prefs interval");
+	private void processDigests(List<IdentityDigest> digests, ExecutorService workers, NotificationsDigestStatistics statistics)
+	throws InterruptedException {
+		List<Future<?>> futures = new ArrayList<>(digests.size());
+		for(IdentityDigest digest:digests) {
+			futures.add(workers.submit(() -> processDigest(digest, statistics)));
+		}
+		// wait the whole page before loading the next one
+		for(Future<?> future:futures) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				log.error("", e.getCause());
 			}
-		} else if (items.size() > 0) {
-			Identity curIdent = latestSub.getIdentity();
-			boolean sentOk = sendMailToUserAndUpdateSubscriber(curIdent, items, translator, subsToUpdate);
-			if (sentOk) {
-				Property p = propertyManager.findProperty(curIdent, null, null, null, LATEST_EMAIL_USER_PROP);
-				if(p == null) {
-					p = propertyManager.createUserPropertyInstance(curIdent, null, LATEST_EMAIL_USER_PROP, null, null, null, null);
-					p.setLongValue(new Date().getTime());
-					propertyManager.saveProperty(p);
-				} else {
-					p.setLongValue(new Date().getTime());
-					propertyManager.updateProperty(p);
+		}
+	}
+	
+	private void processDigest(IdentityDigest digest, NotificationsDigestStatistics statistics) {
+		long start = System.currentTimeMillis();
+		Identity identity = digest.getIdentity();
+		try {
+			String langPrefs = null;
+			if(identity.getUser() != null && identity.getUser().getPreferences() != null) {
+				langPrefs = identity.getUser().getPreferences().getLanguage();
+			}
+			Locale locale = I18nManager.getInstance().getLocaleOrDefault(langPrefs);
+			
+			Date compareDate = digest.getCompareDate();
+			Date defaultCompareDate = getDefaultCompareDate();
+			List<SubscriptionItem> items = new ArrayList<>();
+			List<Subscriber> subsToUpdate = new ArrayList<>();
+			for(Subscriber sub:digest.getSubscribers()) {
+				Date latestEmail = sub.getLatestEmailed();
+				if (latestEmail == null || compareDate.after(latestEmail)) {
+					if (latestEmail == null || latestEmail.before(defaultCompareDate)) {
+						//no notification older than a month
+						latestEmail = defaultCompareDate;
+					}
+					SubscriptionItem subsitem = createSubscriptionItem(sub, locale, SubscriptionInfo.MIME_HTML, SubscriptionInfo.MIME_HTML, latestEmail);
+					if (subsitem != null) {
+						items.add(subsitem);
+						subsToUpdate.add(sub);
+					}
 				}
-			  
-				StringBuilder mailLog = new StringBuilder();
-				mailLog.append("Notifications mailed for ").append(curIdent.getKey()).append(' ').append(items.size()).append(' ').append((System.currentTimeMillis() - start)).append("ms");
-				log.info(Tracing.M_AUDIT, mailLog.toString());
+			}
+			
+			if(items.isEmpty()) {
+				statistics.incrementEmpty();
 			} else {
-				log.info(Tracing.M_AUDIT, "Error sending notification email to : " + curIdent.getKey());
+				Translator translator = Util.createPackageTranslator(NotificationSubscriptionController.class, locale);
+				boolean sentOk = sendMailToUserAndUpdateSubscriber(identity, items, translator, subsToUpdate);
+				if (sentOk) {
+					updateLatestEmailProperty(identity, digest.getLatestEmailProperty());
+					statistics.incrementMailed(items.size());
+					log.info(Tracing.M_AUDIT, "Notifications mailed for {} {} {}ms", identity.getKey(), items.size(), (System.currentTimeMillis() - start));
+				} else {
+					statistics.incrementFailed();
+					log.info(Tracing.M_AUDIT, "Error sending notification email to : {}", identity.getKey());
+				}
 			}
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			statistics.incrementFailed();
+			log.error("Cannot send notifications to: {}", identity.getKey(), e);
+			dbInstance.rollbackAndCloseSession();
+		}
+	}
+	
+	private void updateLatestEmailProperty(Identity identity, Property p) {
+		if(p == null) {
+			p = propertyManager.createUserPropertyInstance(identity, null, LATEST_EMAIL_USER_PROP, null, null, null, null);
+			p.setLongValue(new Date().getTime());
+			propertyManager.saveProperty(p);
+		} else {
+			p.setLongValue(new Date().getTime());
+			propertyManager.updateProperty(p);
 		}
-		//collecting the SubscriptionItem can potentially make a lot of DB calls
-		dbInstance.intermediateCommit();
 	}
 
 	@Override
@@ -1472,4 +1637,49 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	public List<String> getEnabledNotificationIntervals() {
 		return notificationIntervals;
 	}
-}
\ No newline at end of file
+	
+	private static class IdentityDigest {
+		
+		private final Identity identity;
+		private final Property latestEmailProperty;
+		private final List<Subscriber> subscribers = new ArrayList<>(4);
+		private Date compareDate;
+		
+		public IdentityDigest(Identity identity, Property latestEmailProperty) {
+			this.identity = identity;
+			this.latestEmailProperty = latestEmailProperty;
+		}
+
+		public Identity getIdentity() {
+			return identity;
+		}
+
+		public Property getLatestEmailProperty() {
+			return latestEmailProperty;
+		}
+
+		public List<Subscriber> getSubscribers() {
+			return subscribers;
+		}
+
+		public Date getCompareDate() {
+			return compareDate;
+		}
+
+		public void setCompareDate(Date compareDate) {
+			this.compareDate = compareDate;
+		}
+	}
+	
+	private static class DigestThreadFactory implements ThreadFactory {
+		
+		private final AtomicInteger counter = new AtomicInteger(0);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "oo-notifications-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -49,6 +49,10 @@ public class VFSRepositoryModule extends AbstractSpringModule {
 	private long upperBorder;
 	@Value("${vfs.largefiles.lowerborder}")
 	private long lowerBorder;
+	@Value("${vfs.revisions.deduplication:enabled}")
+	private String revisionsDeduplication;
+	@Value("${vfs.thumbnails.budget:0}")
+	private long thumbnailsBudget;
 	
 	@Autowired
 	public VFSRepositoryModule(CoordinatorManager coordinatorManager) {
@@ -106,6 +110,7 @@ public class VFSRepositoryModule extends AbstractSpringModule {
 		return bFile.startsWith(bcRoot)
 				&& !bFile.startsWith(FolderConfig.getCanonicalMetaRootPath())
 				&& !bFile.startsWith(FolderConfig.getCanonicalVersionRootPath())
+				&& !bFile.startsWith(FolderConfig.getCanonicalRevisionBlobsRootPath())
 				&& !bFile.startsWith(FolderConfig.getCanonicalTmpPath())
 				&& !bFile.startsWith(bcRoot.resolve("bulkassessment"))
 				&& !file.isHidden()
@@ -123,5 +128,20 @@ public class VFSRepositoryModule extends AbstractSpringModule {
 	public long getLowerBorder() {
 		return lowerBorder;
 	}
+	
+	/**
+	 * @return The max. size in bytes of all the thumbnails, 0 for no limit
+	 */
+	public long getThumbnailsBudget() {
+		return thumbnailsBudget * 1024l * 1024l;
+	}
+	
+	/**
+	 * @return true if the revisions are saved in the content-addressed
+	 * 		store and shared between the revisions with the same content
+	 */
+	public boolean isRevisionsDeduplicationEnabled() {
+		return "enabled".equals(revisionsDeduplication);
+	}
 
 }
@@ -191,6 +191,28 @@ public interface VFSRepositoryService {
 	 */
 	public VFSLeaf getThumbnail(VFSLeaf file, VFSMetadata metadata, int maxWidth, int maxHeight, boolean fill);
 	
+	/**
+	 * Return the thumbnail if it was already generated. If not, and if a thumbnail
+	 * is available for the file, the generation is queued and done in the background,
+	 * the method returns null and the caller can deliver a placeholder while the
+	 * work is pending.
+	 * 
+	 * @param file The file
+	 * @param maxWidth
+	 * @param maxHeight
+	 * @param fill
+	 * @return The thumbnail or null if not (yet) available
+	 */
+	public VFSLeaf getThumbnailAsync(VFSLeaf file, int maxWidth, int maxHeight, boolean fill);
+	
+	/**
+	 * Delete the least recently used thumbnails until the size of all the
+	 * thumbnails fits in the configured budget.
+	 * 
+	 * @return The number of deleted thumbnails
+	 */
+	public int evictThumbnails();
+	
 	public void resetThumbnails(VFSLeaf file);
 	
 	/**
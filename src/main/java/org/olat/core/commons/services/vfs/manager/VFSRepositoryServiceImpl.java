@@ -44,6 +44,10 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.Adler32;
 import java.util.zip.Checksum;
@@ -117,6 +121,8 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	private final OLATResourceable fileSizeSubscription = OresHelper.createOLATResourceableType("UpdateFileSizeAsync");
 	private final OLATResourceable incrementFileDownload = OresHelper.createOLATResourceableType("IncrementFileDownloadAsync");
 	private static final String CANONICAL_ROOT_REL_PATH = "/";
+	private static final long THUMBNAIL_TOUCH_INTERVAL = 24l * 60l * 60l * 1000l;
+	private static final int THUMBNAIL_EVICTION_BATCH_SIZE = 1000;
 	
 	@Autowired
 	private DB dbInstance;
@@ -131,8 +137,12 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	@Autowired
 	private VFSStatsDAO statsDao;
 	@Autowired
+	private VFSRevisionBlobStore revisionBlobStore;
+	@Autowired
 	private VFSThumbnailDAO thumbnailDao;
 	@Autowired
+	private VFSThumbnailQueue thumbnailQueue;
+	@Autowired
 	private VFSRepositoryModule vfsModule;
 	@Autowired
 	private LicenseService licenseService;
@@ -609,7 +619,16 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 				VFSRevision targetRevision = revisionDao.createRevisionCopy(sourceRevision.getAuthor(), sourceRevision.getRevisionComment(),
 						sourceRevision, targetMetadata);
 				VFSLeaf targetRevFile = getRevisionLeaf(targetMetadata, (VFSRevisionImpl)targetRevision);
-				VFSManager.copyContent(sourceRevFile, targetRevFile, false);
+				// share the content with the source revision if possible
+				File sourceRevIoFile = toFile(sourceRevFile);
+				File targetRevIoFile = toFile(targetRevFile);
+				if(sourceRevIoFile != null && targetRevIoFile != null) {
+					if(!revisionBlobStore.linkRevision(sourceRevIoFile, targetRevIoFile)) {
+						allOk &= copyContent(sourceRevIoFile, targetRevIoFile);
+					}
+				} else {
+					VFSManager.copyContent(sourceRevFile, targetRevFile, false);
+				}
 			}
 		}
 		return allOk;
@@ -666,6 +685,8 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		VFSContainer parentContainer = getSecureParentContainer(file);
 		String relativePath = getContainerRelativePath(file);
 		if(relativePath != null) {
+			// wait before the query to see the result of a pending generation
+			awaitPendingThumbnail(relativePath, file.getName(), fill, maxWidth, maxHeight);
 			VFSThumbnailMetadata thumbnail = thumbnailDao.findThumbnail(relativePath, file.getName(), fill, maxWidth, maxHeight);
 			if(thumbnail == null) {
 				thumbnailLeaf = generateThumbnail(file, metadata, fill, maxWidth, maxHeight);
@@ -673,6 +694,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 				VFSItem item = parentContainer.resolve(thumbnail.getFilename());
 				if(item instanceof VFSLeaf) {
 					thumbnailLeaf = (VFSLeaf)item;
+					touchThumbnail(thumbnail);
 				}
 			}
 		}
@@ -681,11 +703,28 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 
 	@Override
 	public VFSLeaf getThumbnail(VFSLeaf file, int maxWidth, int maxHeight, boolean fill) {
+		return getThumbnail(file, maxWidth, maxHeight, fill, true);
+	}
+	
+	/**
+	 * 
+	 * @param file The file
+	 * @param maxWidth The max. width
+	 * @param maxHeight The max. height
+	 * @param fill Fill the thumbnail
+	 * @param awaitPending Wait if the same thumbnail is generated in the background (false
+	 * 		for the background task itself)
+	 * @return The thumbnail or null
+	 */
+	private VFSLeaf getThumbnail(VFSLeaf file, int maxWidth, int maxHeight, boolean fill, boolean awaitPending) {
 		VFSLeaf thumbnailLeaf = null;
 		
 		VFSContainer parentContainer = getSecureParentContainer(file);
 		String relativePath = getContainerRelativePath(file);
 		if(relativePath != null) {
+			if(awaitPending) {
+				awaitPendingThumbnail(relativePath, file.getName(), fill, maxWidth, maxHeight);
+			}
 			VFSThumbnailMetadata thumbnail = thumbnailDao.findThumbnail(relativePath, file.getName(), fill, maxWidth, maxHeight);
 			if(thumbnail == null) {
 				VFSMetadata metadata = metadataDao.getMetadata(relativePath, file.getName(), false);
@@ -697,6 +736,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 				VFSItem item = parentContainer.resolve(thumbnail.getFilename());
 				if(item instanceof VFSLeaf) {
 					thumbnailLeaf = (VFSLeaf)item;
+					touchThumbnail(thumbnail);
 				} else if(item == null) {
 					thumbnailDao.removeThumbnail(thumbnail);
 					dbInstance.commit();// free lock ASAP
@@ -705,6 +745,119 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		}
 		return thumbnailLeaf;
 	}
+
+	@Override
+	public VFSLeaf getThumbnailAsync(VFSLeaf file, int maxWidth, int maxHeight, boolean fill) {
+		String relativePath = getContainerRelativePath(file);
+		if(relativePath == null) return null;
+		
+		VFSThumbnailMetadata thumbnail = thumbnailDao.findThumbnail(relativePath, file.getName(), fill, maxWidth, maxHeight);
+		if(thumbnail != null) {
+			VFSItem item = getSecureParentContainer(file).resolve(thumbnail.getFilename());
+			if(item instanceof VFSLeaf) {
+				touchThumbnail(thumbnail);
+				return (VFSLeaf)item;
+			}
+		}
+		
+		// don't queue what cannot be generated
+		if(!isThumbnailAvailable(file)) {
+			return null;
+		}
+		
+		String key = getThumbnailKey(relativePath, file.getName(), fill, maxWidth, maxHeight);
+		thumbnailQueue.submit(key, () -> {
+			try {
+				getThumbnail(file, maxWidth, maxHeight, fill, false);
+				dbInstance.commitAndCloseSession();
+			} catch (RuntimeException e) {
+				dbInstance.rollbackAndCloseSession();
+				throw e;
+			}
+		});
+		return null;
+	}
+	
+	private String getThumbnailKey(String relativePath, String filename, boolean fill, int maxWidth, int maxHeight) {
+		return relativePath + "/" + filename + ":" + fill + ":" + maxWidth + "x" + maxHeight;
+	}
+	
+	/**
+	 * Wait until the thumbnail generated in the background is done.
+	 */
+	private void awaitPendingThumbnail(String relativePath, String filename, boolean fill, int maxWidth, int maxHeight) {
+		CompletableFuture<Void> future = thumbnailQueue.getPending(getThumbnailKey(relativePath, filename, fill, maxWidth, maxHeight));
+		if(future == null) return;
+		
+		try {
+			future.get(30, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException e) {
+			log.warn("Waiting too long for thumbnail: {}/{}", relativePath, filename);
+		}
+	}
+	
+	/**
+	 * Update the last used date of the thumbnail, at most once a day. The
+	 * date is only needed to evict the cold thumbnails if there is a budget.
+	 * 
+	 * @param thumbnail The thumbnail
+	 */
+	private void touchThumbnail(VFSThumbnailMetadata thumbnail) {
+		if(vfsModule.getThumbnailsBudget() <= 0l) return;
+		
+		long now = System.currentTimeMillis();
+		Date lastUsed = thumbnail.getLastModified();
+		if(lastUsed == null || lastUsed.getTime() < now - THUMBNAIL_TOUCH_INTERVAL) {
+			thumbnailDao.touchThumbnail(thumbnail, new Date(now));
+			dbInstance.commit();
+		}
+	}
+	
+	@Override
+	public int evictThumbnails() {
+		long budget = vfsModule.getThumbnailsBudget();
+		if(budget <= 0l) return 0;
+		
+		long size = statsDao.getThumbnailStats().getThumbnailsSize();
+		dbInstance.commitAndCloseSession();
+		
+		int deleted = 0;
+		while(size > budget) {
+			List<VFSThumbnailMetadata> thumbnails = thumbnailDao.getLeastRecentlyUsedThumbnails(THUMBNAIL_EVICTION_BATCH_SIZE);
+			if(thumbnails.isEmpty()) {
+				break;
+			}
+			for(VFSThumbnailMetadata thumbnail:thumbnails) {
+				if(size <= budget) {
+					break;
+				}
+				deleteThumbnail(thumbnail);
+				size -= thumbnail.getFileSize();
+				deleted++;
+			}
+			dbInstance.commitAndCloseSession();
+		}
+		log.info("Thumbnails evicted: {}, size of the thumbnails: {} (budget: {})", deleted, size, budget);
+		return deleted;
+	}
+	
+	private void deleteThumbnail(VFSThumbnailMetadata thumbnail) {
+		VFSMetadata owner = thumbnail.getOwner();
+		VFSItem item = VFSManager.olatRootLeaf("/" + owner.getRelativePath(), thumbnail.getFilename());
+		if(item instanceof LocalFileImpl) {
+			File thumbnailFile = ((LocalFileImpl)item).getBasefile();
+			try {
+				Files.deleteIfExists(thumbnailFile.toPath());
+			} catch (IOException e) {
+				log.error("Cannot delete thumbnail: {}", thumbnailFile, e);
+			}
+		} else if(item != null && item.exists()) {
+			item.deleteSilently();
+		}
+		thumbnailDao.removeThumbnail(thumbnail);
+	}
 	
 	private VFSLeaf generateThumbnail(VFSLeaf file, VFSMetadata metadata, boolean fill, int maxWidth, int maxHeight) {
 		String name = file.getName();
@@ -977,7 +1130,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		}
 
 		File revFile = new File(currentFile.getParentFile(), uuid);
-		if (sameFile || copyContent(currentFile, revFile)) {
+		if (sameFile || revisionBlobStore.storeRevision(currentFile, revFile) || copyContent(currentFile, revFile)) {
 			if(pruneRevision && maxNumOfVersions >= 0 && revisions.size() > maxNumOfVersions) {
 				int numOfVersionsToDelete = Math.min(revisions.size(), (revisions.size() - maxNumOfVersions));
 				if(numOfVersionsToDelete > 0) {
@@ -997,13 +1150,21 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	}
 	
 	/**
-	 * The method only copy and overwrite the file.
+	 * The method only copy and overwrite the file. The target is deleted first,
+	 * it can be a hard link to a blob shared with other revisions.
 	 * 
 	 * @param currentFile The file to copy
 	 * @param targetFile The target
 	 * @return true if successful
 	 */
 	private boolean copyContent(File currentFile, File targetFile) {
+		try {
+			Files.deleteIfExists(targetFile.toPath());
+		} catch(IOException e) {
+			log.error("", e);
+			return false;
+		}
+		
 		try(InputStream in = new FileInputStream(currentFile);
 				OutputStream out = new FileOutputStream(targetFile);
 				OutputStream bout = new BufferedOutputStream(out)) {
@@ -1616,12 +1777,18 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	
 	@Override 
 	public VFSRevisionStatistics getRevisionStats() {
-		return statsDao.getRevisionStats();
+		VFSRevisionStatistics stats = statsDao.getRevisionStats();
+		return revisionBlobStore.appendStatistics(stats);
 	}
 	
 	@Override 
 	public VFSThumbnailStatistics getThumbnailStats() {
-		return statsDao.getThumbnailStats();
+		VFSThumbnailStatistics stats = statsDao.getThumbnailStats();
+		stats.setBudget(vfsModule.getThumbnailsBudget());
+		stats.setGenerationStatistics(thumbnailQueue.getPendingCount(), thumbnailQueue.getGenerated(),
+				thumbnailQueue.getCoalesced(), thumbnailQueue.getRejected(), thumbnailQueue.getFailed(),
+				thumbnailQueue.getAverageGenerationTime());
+		return stats;
 	}
 	
 	
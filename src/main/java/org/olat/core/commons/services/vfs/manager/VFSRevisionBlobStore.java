@@ -0,0 +1,377 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.vfs.manager;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.modules.bc.FolderConfig;
+import org.olat.core.commons.services.vfs.VFSRepositoryModule;
+import org.olat.core.commons.services.vfs.model.VFSRevisionStatistics;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.FileUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Content-addressed store for the content of the revisions. Every content
+ * is saved once under its SHA-256 hash and the revision files are hard links
+ * to the blob. The reference count of a blob is the link count of the file
+ * system, deleting a revision file releases its reference and the revisions
+ * don't need to know the store. A blob with only one link is not used anymore
+ * and collected by {@link #deleteUnreferencedBlobs()}.<br>
+ * If the file system doesn't support hard links, the methods return false
+ * and the callers copy the content as before.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+@Service
+public class VFSRevisionBlobStore {
+	
+	private static final Logger log = Tracing.createLoggerFor(VFSRevisionBlobStore.class);
+	
+	private static final String TMP_PREFIX = "._oo_blob_";
+	private static final String TMP_SUFFIX = ".tmp";
+	private static final long STATISTICS_MAX_AGE = TimeUnit.MINUTES.toMillis(10);
+	
+	@Value("${vfs.revisions.blobs.grace.period:60}")
+	private long gracePeriodInMinutes;
+	
+	private volatile Boolean linksSupported;
+	private volatile BlobsStatistics statistics;
+	
+	@Autowired
+	private VFSRepositoryModule vfsModule;
+	
+	public boolean isEnabled() {
+		return vfsModule.isRevisionsDeduplicationEnabled() && isLinksSupported();
+	}
+	
+	private boolean isLinksSupported() {
+		if(linksSupported == null) {
+			try {
+				Path root = getRoot();
+				Files.createDirectories(root);
+				linksSupported = Boolean.valueOf(Files.getFileStore(root).supportsFileAttributeView("unix"));
+			} catch (IOException | UnsupportedOperationException e) {
+				log.warn("Cannot determine if the file system supports hard links, revisions will be copied", e);
+				linksSupported = Boolean.FALSE;
+			}
+		}
+		return linksSupported.booleanValue();
+	}
+	
+	private Path getRoot() {
+		return FolderConfig.getCanonicalRevisionBlobsRootPath();
+	}
+	
+	private Path getBlobPath(String hash) {
+		return getRoot().resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+	}
+	
+	/**
+	 * Save the content of the file as revision. If a blob with the same
+	 * content exists, the revision file is linked to it, if not the blob
+	 * is created.
+	 * 
+	 * @param file The file to save as revision
+	 * @param revFile The revision file (will be replaced)
+	 * @return true if the revision file is linked to the blob, false if the
+	 * 		caller need to copy the file
+	 */
+	public boolean storeRevision(File file, File revFile) {
+		if(!isEnabled()) return false;
+		
+		try {
+			Path blob = getBlobPath(digest(file));
+			// retry once if the blob was collected between the check and the link
+			for(int i=0; i<2; i++) {
+				if(!Files.exists(blob)) {
+					blob = createBlob(file);
+				}
+				try {
+					link(revFile.toPath(), blob);
+					return true;
+				} catch (NoSuchFileException e) {
+					log.debug("Blob collected concurrently: {}", blob);
+				}
+			}
+		} catch (IOException | UnsupportedOperationException | SecurityException e) {
+			log.warn("Cannot save the revision in the blob store: {}", revFile, e);
+		}
+		return false;
+	}
+	
+	/**
+	 * Share the content of a revision with a new revision (copy of
+	 * a file with its revisions).
+	 * 
+	 * @param sourceRevFile The existing revision file
+	 * @param targetRevFile The new revision file (will be replaced)
+	 * @return true if the revision files share the same content, false if
+	 * 		the caller need to copy the file
+	 */
+	public boolean linkRevision(File sourceRevFile, File targetRevFile) {
+		if(!isEnabled()) return false;
+		
+		try {
+			link(targetRevFile.toPath(), sourceRevFile.toPath());
+			return true;
+		} catch (IOException | UnsupportedOperationException | SecurityException e) {
+			log.warn("Cannot link the revision: {}", targetRevFile, e);
+		}
+		return false;
+	}
+	
+	private void link(Path link, Path existing) throws IOException {
+		Files.deleteIfExists(link);
+		Files.createLink(link, existing);
+	}
+	
+	/**
+	 * Copy the file in a temporary file of the store, calculate the hash
+	 * of what was really copied and move it at its place.
+	 * 
+	 * @param file The file to copy
+	 * @return The path of the blob
+	 * @throws IOException
+	 */
+	private Path createBlob(File file) throws IOException {
+		Path root = getRoot();
+		Files.createDirectories(root);
+		Path tmp = Files.createTempFile(root, TMP_PREFIX, TMP_SUFFIX);
+		try {
+			MessageDigest digest = newDigest();
+			try(InputStream in = new DigestInputStream(new FileInputStream(file), digest);
+					OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+				FileUtils.cpio(in, out, "Revision blob");
+			}
+			
+			Path blob = getBlobPath(toHex(digest.digest()));
+			if(!Files.exists(blob)) {
+				Files.createDirectories(blob.getParent());
+				try {
+					Files.move(tmp, blob);
+				} catch (FileAlreadyExistsException e) {
+					log.debug("Blob created concurrently: {}", blob);
+				}
+			}
+			return blob;
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+	
+	private String digest(File file) throws IOException {
+		MessageDigest digest = newDigest();
+		byte[] buffer = new byte[8192];
+		try(InputStream in = new FileInputStream(file)) {
+			int read;
+			while((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return toHex(digest.digest());
+	}
+	
+	private MessageDigest newDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+	
+	private String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for(byte b:bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16))
+			  .append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Delete the blobs which are not linked by any revision anymore and
+	 * the temporary files left behind, if they are older than the grace
+	 * period.
+	 * 
+	 * @return The number of deleted blobs
+	 */
+	public int deleteUnreferencedBlobs() {
+		Path root = getRoot();
+		if(!Files.isDirectory(root) || !isLinksSupported()) return 0;
+		
+		long limit = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(gracePeriodInMinutes);
+		BlobsVisitor visitor = new BlobsVisitor(limit);
+		try {
+			Files.walkFileTree(root, visitor);
+		} catch (IOException e) {
+			log.error("Error while collecting the revision blobs", e);
+		}
+		statistics = visitor.getStatistics();
+		log.info("Revision blobs collected: {}, remaining: {}", visitor.getDeleted(), statistics.getAmount());
+		return visitor.getDeleted();
+	}
+	
+	/**
+	 * Add the figures of the store to the statistics. The figures are
+	 * cached and updated by the garbage collection.
+	 * 
+	 * @param revisionStats The statistics of the revisions
+	 * @return The same statistics
+	 */
+	public VFSRevisionStatistics appendStatistics(VFSRevisionStatistics revisionStats) {
+		Path root = getRoot();
+		if(!Files.isDirectory(root) || !isLinksSupported()) return revisionStats;
+
+		BlobsStatistics stats = statistics;
+		if(stats == null || stats.getCreationTime() < System.currentTimeMillis() - STATISTICS_MAX_AGE) {
+			BlobsVisitor visitor = new BlobsVisitor(-1l);
+			try {
+				Files.walkFileTree(root, visitor);
+				stats = visitor.getStatistics();
+				statistics = stats;
+			} catch (IOException e) {
+				log.error("Error while calculating the statistics of the revision blobs", e);
+			}
+		}
+		if(stats != null) {
+			revisionStats.setBlobsStatistics(stats.getAmount(), stats.getSize(), stats.getReferencedSize());
+		}
+		return revisionStats;
+	}
+	
+	/**
+	 * Walk the store, count the blobs and delete the unreferenced ones
+	 * if a limit is set.
+	 */
+	private static class BlobsVisitor extends SimpleFileVisitor<Path> {
+		
+		private final long limit;
+		private int deleted = 0;
+		private long amount = 0l;
+		private long size = 0l;
+		private long referencedSize = 0l;
+		
+		public BlobsVisitor(long limit) {
+			this.limit = limit;
+		}
+		
+		public int getDeleted() {
+			return deleted;
+		}
+		
+		public BlobsStatistics getStatistics() {
+			return new BlobsStatistics(amount, size, referencedSize);
+		}
+
+		@Override
+		public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+			if(!attrs.isRegularFile()) {
+				return FileVisitResult.CONTINUE;
+			}
+			
+			boolean old = attrs.lastModifiedTime().toMillis() < limit;
+			String filename = file.getFileName().toString();
+			if(filename.startsWith(TMP_PREFIX)) {
+				if(old) {
+					delete(file);
+				}
+			} else {
+				int links = ((Number)Files.getAttribute(file, "unix:nlink")).intValue();
+				if(links <= 1 && old) {
+					if(delete(file)) {
+						deleted++;
+					}
+				} else {
+					amount++;
+					size += attrs.size();
+					referencedSize += attrs.size() * Math.max(0, links - 1);
+				}
+			}
+			return FileVisitResult.CONTINUE;
+		}
+		
+		@Override
+		public FileVisitResult visitFileFailed(Path file, IOException exc) {
+			log.warn("Cannot visit revision blob: {}", file, exc);
+			return FileVisitResult.CONTINUE;
+		}
+		
+		private boolean delete(Path file) {
+			try {
+				return Files.deleteIfExists(file);
+			} catch (IOException e) {
+				log.warn("Cannot delete revision blob: {}", file, e);
+				return false;
+			}
+		}
+	}
+	
+	private static class BlobsStatistics {
+		
+		private final long amount;
+		private final long size;
+		private final long referencedSize;
+		private final long creationTime;
+		
+		public BlobsStatistics(long amount, long size, long referencedSize) {
+			this.amount = amount;
+			this.size = size;
+			this.referencedSize = referencedSize;
+			creationTime = System.currentTimeMillis();
+		}
+
+		public long getAmount() {
+			return amount;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public long getReferencedSize() {
+			return referencedSize;
+		}
+
+		public long getCreationTime() {
+			return creationTime;
+		}
+	}
+}
@@ -128,6 +128,39 @@ public class VFSThumbnailDAO {
 		return metas == null || metas.isEmpty() ? null : metas.get(0);
 	}
 	
+	/**
+	 * Mark the thumbnail as recently used.
+	 * 
+	 * @param thumbnail The thumbnail
+	 * @param date The date of use
+	 * @return The number of updated rows
+	 */
+	public int touchThumbnail(VFSThumbnailMetadata thumbnail, Date date) {
+		String q = "update vfsthumbnail thumb set thumb.lastModified=:date where thumb.key=:thumbnailKey";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(q)
+				.setParameter("date", date)
+				.setParameter("thumbnailKey", thumbnail.getKey())
+				.executeUpdate();
+	}
+	
+	/**
+	 * @param maxResults The max. number of thumbnails
+	 * @return The least recently used thumbnails, oldest first, with their owner
+	 */
+	public List<VFSThumbnailMetadata> getLeastRecentlyUsedThumbnails(int maxResults) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("select thumb from vfsthumbnail thumb")
+		  .append(" inner join fetch thumb.owner as meta")
+		  .append(" order by thumb.lastModified asc, thumb.key asc");
+
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), VFSThumbnailMetadata.class)
+				.setFirstResult(0)
+				.setMaxResults(maxResults)
+				.getResultList();
+	}
+	
 	public void removeThumbnail(VFSThumbnailMetadata thumbnail) {
 		dbInstance.getCurrentEntityManager().remove(thumbnail);
 	}
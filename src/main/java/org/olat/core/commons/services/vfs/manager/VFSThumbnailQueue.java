@@ -0,0 +1,170 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.vfs.manager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bounded pool of workers to generate the thumbnails in the background.
+ * The requests for the same thumbnail (same file, same size) are coalesced
+ * and share the same task. If the queue is full, the request is rejected
+ * and the caller can simply ask later.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+@Service
+public class VFSThumbnailQueue implements InitializingBean, DisposableBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(VFSThumbnailQueue.class);
+	
+	@Value("${vfs.thumbnails.workers:2}")
+	private int workers;
+	@Value("${vfs.thumbnails.queue.size:1000}")
+	private int queueSize;
+	
+	private ThreadPoolExecutor executor;
+	private final ConcurrentMap<String,CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+	
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder generated = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder generationTime = new LongAdder();
+	
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		int numOfWorkers = Math.max(1, workers);
+		executor = new ThreadPoolExecutor(numOfWorkers, numOfWorkers, 60l, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, queueSize)), new CustomizableThreadFactory("oo-thumbnails-"));
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if(executor != null) {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * @param key The key of the thumbnail
+	 * @return The task which generates the thumbnail or null if none is pending
+	 */
+	public CompletableFuture<Void> getPending(String key) {
+		return pending.get(key);
+	}
+	
+	/**
+	 * Queue the generation of a thumbnail, or join the pending task
+	 * with the same key.
+	 * 
+	 * @param key The key of the thumbnail
+	 * @param task The task which generates the thumbnail
+	 * @return The future of the task or null if the queue is full
+	 */
+	public CompletableFuture<Void> submit(String key, Runnable task) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		CompletableFuture<Void> current = pending.putIfAbsent(key, future);
+		if(current != null) {
+			coalesced.increment();
+			return current;
+		}
+		
+		try {
+			executor.execute(() -> run(key, task, future));
+			submitted.increment();
+			return future;
+		} catch (RejectedExecutionException e) {
+			pending.remove(key, future);
+			future.complete(null);
+			rejected.increment();
+			log.debug("Thumbnail queue full, request rejected: {}", key);
+			return null;
+		}
+	}
+	
+	private void run(String key, Runnable task, CompletableFuture<Void> future) {
+		long start = System.nanoTime();
+		try {
+			task.run();
+			generated.increment();
+		} catch (Exception e) {
+			failed.increment();
+			log.error("Cannot generate thumbnail: {}", key, e);
+		} finally {
+			generationTime.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			pending.remove(key, future);
+			future.complete(null);
+		}
+	}
+	
+	public int getPendingCount() {
+		return pending.size();
+	}
+	
+	public int getWorkers() {
+		return executor == null ? 0 : executor.getMaximumPoolSize();
+	}
+
+	public long getSubmitted() {
+		return submitted.sum();
+	}
+
+	public long getCoalesced() {
+		return coalesced.sum();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	public long getGenerated() {
+		return generated.sum();
+	}
+
+	public long getFailed() {
+		return failed.sum();
+	}
+	
+	/**
+	 * @return The average time in milliseconds to generate a thumbnail
+	 */
+	public long getAverageGenerationTime() {
+		long count = generated.sum() + failed.sum();
+		return count == 0 ? 0l : generationTime.sum() / count;
+	}
+}
@@ -29,6 +29,9 @@ public class VFSRevisionStatistics {
 
 	private Long revisionsAmount;
 	private Long revisionsSize;
+	private long blobsAmount;
+	private long blobsSize;
+	private long blobsReferencedSize;
 
 	public VFSRevisionStatistics() {
 		revisionsAmount = Long.valueOf(0);
@@ -47,4 +50,49 @@ public class VFSRevisionStatistics {
 	public long getRevisionsSize() {
 		return revisionsSize == null ? 0 : revisionsSize.longValue();
 	}
+
+	/**
+	 * @return The number of blobs in the content-addressed store of the revisions
+	 */
+	public long getBlobsAmount() {
+		return blobsAmount;
+	}
+
+	/**
+	 * @return The size on disk of the blobs
+	 */
+	public long getBlobsSize() {
+		return blobsSize;
+	}
+
+	/**
+	 * @return The size of all the revisions which link to a blob
+	 */
+	public long getBlobsReferencedSize() {
+		return blobsReferencedSize;
+	}
+	
+	/**
+	 * @return The size saved by the deduplication of the revisions
+	 */
+	public long getDeduplicatedSize() {
+		return Math.max(0l, blobsReferencedSize - blobsSize);
+	}
+	
+	/**
+	 * @return The ratio between the size of the revisions in the store and
+	 * 		the size they need on disk, 1.0 if nothing is deduplicated
+	 */
+	public double getDeduplicationRatio() {
+		if(blobsSize <= 0l || blobsReferencedSize <= 0l) {
+			return 1.0d;
+		}
+		return (double)blobsReferencedSize / (double)blobsSize;
+	}
+
+	public void setBlobsStatistics(long amount, long size, long referencedSize) {
+		this.blobsAmount = amount;
+		this.blobsSize = size;
+		this.blobsReferencedSize = referencedSize;
+	}
 }
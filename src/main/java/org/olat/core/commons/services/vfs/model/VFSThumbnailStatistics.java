@@ -29,6 +29,13 @@ public class VFSThumbnailStatistics {
 
 	private Long thumbnailsAmount;
 	private Long thumbnailsSize;
+	private long budget;
+	private int pending;
+	private long generated;
+	private long coalesced;
+	private long rejected;
+	private long failed;
+	private long averageGenerationTime;
 
 	public VFSThumbnailStatistics() {
 		thumbnailsAmount = Long.valueOf(0);
@@ -47,4 +54,61 @@ public class VFSThumbnailStatistics {
 	public long getThumbnailsSize() {
 		return thumbnailsSize == null ? 0 : thumbnailsSize.longValue();
 	}
+
+	/**
+	 * @return The max. size of all thumbnails in bytes, 0 if unlimited
+	 */
+	public long getBudget() {
+		return budget;
+	}
+
+	public void setBudget(long budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * @return The number of thumbnails waiting to be generated in the background
+	 */
+	public int getPending() {
+		return pending;
+	}
+
+	public long getGenerated() {
+		return generated;
+	}
+
+	/**
+	 * @return The number of requests which joined a pending generation
+	 */
+	public long getCoalesced() {
+		return coalesced;
+	}
+
+	/**
+	 * @return The number of requests rejected because the queue was full
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * @return The average time in milliseconds to generate a thumbnail in the background
+	 */
+	public long getAverageGenerationTime() {
+		return averageGenerationTime;
+	}
+
+	public void setGenerationStatistics(int pending, long generated, long coalesced, long rejected,
+			long failed, long averageGenerationTime) {
+		this.pending = pending;
+		this.generated = generated;
+		this.coalesced = coalesced;
+		this.rejected = rejected;
+		this.failed = failed;
+		this.averageGenerationTime = averageGenerationTime;
+	}
 }
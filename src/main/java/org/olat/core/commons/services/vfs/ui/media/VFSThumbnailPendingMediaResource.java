@@ -0,0 +1,73 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.vfs.ui.media;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.olat.core.gui.media.DefaultMediaResource;
+import org.olat.core.gui.media.ServletUtil;
+
+/**
+ * Placeholder delivered while the thumbnail is generated in the background:
+ * a transparent 1x1 GIF which must not be cached with the status 202 and
+ * a Retry-After header. The client can ask the thumbnail again after the
+ * delay.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class VFSThumbnailPendingMediaResource extends DefaultMediaResource {
+	
+	private static final byte[] TRANSPARENT_GIF = new byte[] {
+		0x47, 0x49, 0x46, 0x38, 0x39, 0x61, 0x01, 0x00, 0x01, 0x00, (byte)0x80, 0x00, 0x00,
+		0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x21, (byte)0xF9, 0x04, 0x01, 0x00, 0x00, 0x00,
+		0x00, 0x2C, 0x00, 0x00, 0x00, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00, 0x02, 0x02,
+		0x44, 0x01, 0x00, 0x3B
+	};
+	
+	/**
+	 * Delay in seconds before asking the thumbnail again
+	 */
+	public static final int RETRY_AFTER = 2;
+	
+	public VFSThumbnailPendingMediaResource() {
+		setContentType("image/gif");
+		setSize(Long.valueOf(TRANSPARENT_GIF.length));
+	}
+
+	@Override
+	public long getCacheControlDuration() {
+		return ServletUtil.CACHE_NO_CACHE;
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		return new ByteArrayInputStream(TRANSPARENT_GIF);
+	}
+
+	@Override
+	public void prepare(HttpServletResponse hres) {
+		hres.setStatus(HttpServletResponse.SC_ACCEPTED);
+		hres.setHeader("Retry-After", Integer.toString(RETRY_AFTER));
+	}
+}
@@ -103,6 +103,11 @@ public class EmptyWebResource implements WebResource {
 		return 0;
 	}
 	
+	@Override
+	public String getStoragePath() {
+		return null;
+	}
+	
 	@Override
 	public void increaseDownloadCount() {
 		//
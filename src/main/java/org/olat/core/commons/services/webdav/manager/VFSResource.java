@@ -26,6 +26,7 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Date;
 
 import org.olat.core.CoreSpringFactory;
+import org.olat.core.commons.services.vfs.VFSMetadata;
 import org.olat.core.commons.services.vfs.VFSRepositoryService;
 import org.olat.core.commons.services.webdav.servlets.ConcurrentDateFormat;
 import org.olat.core.commons.services.webdav.servlets.WebResource;
@@ -48,12 +49,32 @@ public class VFSResource implements WebResource {
 	
 	private final VFSItem item;
 	private final String path;
+	private final VFSMetadata metadata;
+	private final boolean listed;
 	private String mimeType;
     private volatile String weakETag;
+    private BasicFileAttributes attributes;
 
 	public VFSResource(VFSItem item, String path) {
 		this.item = item;
 		this.path = path;
+		this.metadata = null;
+		this.listed = false;
+	}
+	
+	/**
+	 * Resource of a directory listing. The metadata are preloaded and
+	 * the attributes of the file are read once.
+	 * 
+	 * @param item The item
+	 * @param path The path
+	 * @param metadata The metadata of the item (optional)
+	 */
+	public VFSResource(VFSItem item, String path, VFSMetadata metadata) {
+		this.item = item;
+		this.path = path;
+		this.metadata = metadata;
+		this.listed = true;
 	}
 	
 	@Override
@@ -67,6 +88,10 @@ public class VFSResource implements WebResource {
 
 	@Override
 	public long getLastModified() {
+		BasicFileAttributes attrs = getAttributes();
+		if(attrs != null) {
+			return attrs.lastModifiedTime().toMillis();
+		}
 		return item.getLastModified();
 	}
 
@@ -97,7 +122,14 @@ public class VFSResource implements WebResource {
 
 	@Override
 	public long getContentLength() {
-		return (item instanceof VFSLeaf ? ((VFSLeaf)item).getSize() : null);
+		if(item instanceof VFSLeaf) {
+			BasicFileAttributes attrs = getAttributes();
+			if(attrs != null) {
+				return attrs.size();
+			}
+			return ((VFSLeaf)item).getSize();
+		}
+		return -1l;
 	}
 
 	@Override
@@ -134,6 +166,14 @@ public class VFSResource implements WebResource {
 
 	@Override
 	public long getCreation() {
+		if(metadata != null && metadata.getCreationDate() != null) {
+			return metadata.getCreationDate().getTime();
+		}
+		if(listed) {
+			BasicFileAttributes attrs = getAttributes();
+			return attrs == null ? 0 : attrs.creationTime().toMillis();
+		}
+		
         try {
         	if(item instanceof JavaIOItem) {
         		JavaIOItem ioItem = (JavaIOItem)item;
@@ -147,6 +187,34 @@ public class VFSResource implements WebResource {
             return 0;
         }
 	}
+	
+	/**
+	 * Read the attributes of the file only once for the resources
+	 * of a directory listing.
+	 * 
+	 * @return The attributes or null
+	 */
+	private BasicFileAttributes getAttributes() {
+		if(!listed || !(item instanceof JavaIOItem)) {
+			return null;
+		}
+		if(attributes == null) {
+			try {
+				attributes = Files.readAttributes(((JavaIOItem)item).getBasefile().toPath(), BasicFileAttributes.class);
+			} catch (IOException e) {
+				log.warn("Cannot read the attributes of: {}", item, e);
+			}
+		}
+		return attributes;
+	}
+
+	@Override
+	public String getStoragePath() {
+		if(item instanceof VFSContainer && item.canMeta() == VFSConstants.YES) {
+			return item.getRelPath();
+		}
+		return null;
+	}
 
 	@Override
 	public void increaseDownloadCount() {
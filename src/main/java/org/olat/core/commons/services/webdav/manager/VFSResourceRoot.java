@@ -22,8 +22,12 @@ package org.olat.core.commons.services.webdav.manager;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.modules.bc.FolderLicenseHandler;
@@ -70,6 +74,7 @@ public class VFSResourceRoot implements WebResourceRoot  {
 		this.base = root;
 	}
 	
+	@Override
 	public Identity getIdentity() {
 		return identity;
 	}
@@ -136,6 +141,41 @@ public class VFSResourceRoot implements WebResourceRoot  {
 		}
 	}
 
+	@Override
+	public List<WebResource> listResources(String path) {
+		VFSItem file = resolveFile(path);
+		if(!(file instanceof VFSContainer)) {
+			return Collections.emptyList();
+		}
+		
+		VFSContainer container = (VFSContainer)file;
+		List<VFSItem> items = container.getItems(new WebDAVFileSystemFilter());
+		if(items.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		// the metadata of the whole directory in one query
+		Map<String,VFSMetadata> metadataMap = Collections.emptyMap();
+		if(container.canMeta() == VFSConstants.YES && container.getRelPath() != null) {
+			List<VFSMetadata> metadatas = CoreSpringFactory.getImpl(VFSRepositoryService.class)
+					.getChildren(container.getRelPath());
+			metadataMap = new HashMap<>();
+			for(VFSMetadata metadata:metadatas) {
+				if(!metadata.isDeleted()) {
+					metadataMap.put(metadata.getFilename(), metadata);
+				}
+			}
+		}
+		
+		String parentPath = path.endsWith("/") ? path : path + "/";
+		List<WebResource> resources = new ArrayList<>(items.size());
+		for(VFSItem item:items) {
+			VFSMetadata metadata = metadataMap.get(item.getName());
+			resources.add(new VFSResource(item, parentPath + item.getName(), metadata));
+		}
+		return resources;
+	}
+
 	@Override
 	public boolean mkdir(String path) {
 		//remove trailing /
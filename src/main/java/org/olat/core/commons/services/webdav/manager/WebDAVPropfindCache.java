@@ -0,0 +1,224 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.webdav.manager;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.olat.core.commons.services.webdav.WebDAVManager;
+import org.olat.core.util.cache.CacheWrapper;
+import org.olat.core.util.coordinate.CoordinatorManager;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cache of the rendered PROPFIND responses of the content of a directory.
+ * Only the directories backed by the file system are cached. A fragment
+ * is valid as long as the last modification date of the directory doesn't
+ * change, it's not invalidated by a write operation and the time to live
+ * of the cache (see infinispan configuration) is not elapsed.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+@Service
+public class WebDAVPropfindCache implements InitializingBean {
+	
+	@Value("${webdav.propfind.cache.enabled:true}")
+	private boolean enabled;
+	
+	private CacheWrapper<PropfindKey,PropfindFragment> fragmentsCache;
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	
+	@Autowired
+	private CoordinatorManager coordinatorManager;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		fragmentsCache = coordinatorManager.getCoordinator().getCacher().getCache(WebDAVManager.class.getSimpleName(), "propfind");
+	}
+	
+	public boolean isEnabled() {
+		return enabled && fragmentsCache != null;
+	}
+	
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+	
+	/**
+	 * @param key The key
+	 * @param lastModified The current last modification date of the directory
+	 * @return The cached fragment or null if not cached or outdated
+	 */
+	public PropfindFragment get(PropfindKey key, long lastModified) {
+		if(!isEnabled()) return null;
+		
+		PropfindFragment fragment = fragmentsCache.get(key);
+		if(fragment != null && fragment.getLastModified() != lastModified) {
+			fragmentsCache.remove(key);
+			fragment = null;
+		}
+		
+		if(fragment == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return fragment;
+	}
+	
+	public void put(PropfindKey key, PropfindFragment fragment) {
+		if(isEnabled()) {
+			fragmentsCache.put(key, fragment);
+		}
+	}
+	
+	/**
+	 * Remove the fragments of the specified directory for all users.
+	 * 
+	 * @param storagePath The path of the directory in the file system
+	 */
+	public void invalidate(String storagePath) {
+		if(storagePath == null || fragmentsCache == null) return;
+		
+		for(Iterator<PropfindKey> it=fragmentsCache.iterateKeys(); it.hasNext(); ) {
+			PropfindKey key = it.next();
+			if(storagePath.equals(key.getStoragePath())) {
+				fragmentsCache.remove(key);
+				invalidations.increment();
+			}
+		}
+	}
+	
+	public void clear() {
+		if(fragmentsCache != null) {
+			fragmentsCache.clear();
+		}
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	public long getInvalidations() {
+		return invalidations.sum();
+	}
+	
+	public int getSize() {
+		return fragmentsCache == null ? 0 : fragmentsCache.size();
+	}
+	
+	public static class PropfindKey implements Serializable {
+
+		private static final long serialVersionUID = -2637306497419981937L;
+		
+		private final Long identityKey;
+		private final String storagePath;
+		private final String path;
+		private final String hrefPrefix;
+		private final String properties;
+		
+		/**
+		 * @param identityKey The user which mounts the directory
+		 * @param storagePath The path of the directory in the file system
+		 * @param path The path of the directory in WebDAV
+		 * @param hrefPrefix The prefix of the links
+		 * @param properties The type of PROPFIND and the list of requested properties
+		 */
+		public PropfindKey(Long identityKey, String storagePath, String path, String hrefPrefix, String properties) {
+			this.identityKey = identityKey;
+			this.storagePath = storagePath;
+			this.path = path;
+			this.hrefPrefix = hrefPrefix;
+			this.properties = properties;
+		}
+
+		public String getStoragePath() {
+			return storagePath;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(identityKey, path, hrefPrefix, properties);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(obj == this) {
+				return true;
+			}
+			if(obj instanceof PropfindKey) {
+				PropfindKey key = (PropfindKey)obj;
+				return Objects.equals(identityKey, key.identityKey)
+						&& Objects.equals(storagePath, key.storagePath)
+						&& Objects.equals(path, key.path)
+						&& Objects.equals(hrefPrefix, key.hrefPrefix)
+						&& Objects.equals(properties, key.properties);
+			}
+			return false;
+		}
+	}
+	
+	public static class PropfindFragment implements Serializable {
+
+		private static final long serialVersionUID = 8036475036957346914L;
+		
+		private final long lastModified;
+		private final String xml;
+		private final ArrayList<String> directoryPaths;
+		
+		/**
+		 * @param lastModified The last modification date of the directory
+		 * @param xml The rendered responses of the content of the directory
+		 * @param directoryPaths The WebDAV paths of the sub-directories
+		 */
+		public PropfindFragment(long lastModified, String xml, List<String> directoryPaths) {
+			this.lastModified = lastModified;
+			this.xml = xml;
+			this.directoryPaths = new ArrayList<>(directoryPaths);
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		public String getXml() {
+			return xml;
+		}
+
+		public List<String> getDirectoryPaths() {
+			return directoryPaths;
+		}
+	}
+}
@@ -0,0 +1,233 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.webdav.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.olat.core.commons.services.jmx.JMXManager;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Collect the latencies of the requests per WebDAV method in histograms
+ * with logarithmic buckets (precision of 25%) to report percentiles
+ * without keeping every measure.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+@Service
+public class WebDAVStatistics implements WebDAVStatisticsMBean, InitializingBean, DisposableBean {
+	
+	public static final String JMX_OBJECT_NAME = "org.olat.core.commons.services.webdav:type=WebDAVStatistics";
+	/**
+	 * The methods not handled by the WebDAV dispatcher share one histogram
+	 */
+	public static final String OTHER_METHOD = "OTHER";
+	private static final Set<String> KNOWN_METHODS = Set.of("PROPFIND", "PROPPATCH", "MKCOL", "COPY", "MOVE",
+			"LOCK", "UNLOCK", "DELETE", "HEAD", "GET", "OPTIONS", "POST", "PUT");
+	
+	private final ConcurrentMap<String,LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+	@Autowired
+	private JMXManager jmxManager;
+	@Autowired
+	private WebDAVPropfindCache propfindCache;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if(jmxManager != null && jmxManager.isActive()) {
+			jmxManager.registerMBean(JMX_OBJECT_NAME, this);
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if(jmxManager != null && jmxManager.isActive()) {
+			jmxManager.unregisterMBean(JMX_OBJECT_NAME);
+		}
+	}
+	
+	/**
+	 * @param method The WebDAV method
+	 * @param nanos The duration of the request in nanoseconds
+	 */
+	public void record(String method, long nanos) {
+		latencies.computeIfAbsent(toKey(method), m -> new LatencyHistogram())
+			.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+	}
+	
+	/**
+	 * The method is sent by the client, only the known ones have their
+	 * own histogram to keep the number of histograms bounded.
+	 */
+	private static String toKey(String method) {
+		return method != null && KNOWN_METHODS.contains(method) ? method : OTHER_METHOD;
+	}
+	
+	public long getCount(String method) {
+		LatencyHistogram histogram = latencies.get(toKey(method));
+		return histogram == null ? 0l : histogram.getCount();
+	}
+	
+	/**
+	 * @param method The WebDAV method
+	 * @param percentile The percentile between 0.0 and 100.0
+	 * @return The latency in microseconds, 0 if no request was recorded
+	 */
+	public long getPercentile(String method, double percentile) {
+		LatencyHistogram histogram = latencies.get(toKey(method));
+		return histogram == null ? 0l : histogram.getPercentile(percentile);
+	}
+
+	@Override
+	public String[] getLatencies() {
+		Map<String,LatencyHistogram> sorted = new TreeMap<>(latencies);
+		List<String> lines = new ArrayList<>(sorted.size());
+		for(Map.Entry<String,LatencyHistogram> entry:sorted.entrySet()) {
+			LatencyHistogram histogram = entry.getValue();
+			lines.add(String.format(Locale.ENGLISH, "%s count=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+					entry.getKey(), histogram.getCount(),
+					toMillis(histogram.getPercentile(50.0d)), toMillis(histogram.getPercentile(90.0d)),
+					toMillis(histogram.getPercentile(99.0d)), toMillis(histogram.getMax())));
+		}
+		return lines.toArray(new String[lines.size()]);
+	}
+	
+	private static double toMillis(long micros) {
+		return micros / 1000.0d;
+	}
+
+	@Override
+	public long getPropfindCacheHits() {
+		return propfindCache.getHits();
+	}
+
+	@Override
+	public long getPropfindCacheMisses() {
+		return propfindCache.getMisses();
+	}
+
+	@Override
+	public long getPropfindCacheInvalidations() {
+		return propfindCache.getInvalidations();
+	}
+
+	@Override
+	public int getPropfindCacheSize() {
+		return propfindCache.getSize();
+	}
+
+	@Override
+	public void reset() {
+		latencies.clear();
+	}
+	
+	/**
+	 * Histogram with 4 linear sub-buckets per power of two.
+	 * 
+	 * Initial date: 17 oct. 2026<br>
+	 *
+	 */
+	static class LatencyHistogram {
+		
+		private static final int SUB_BUCKETS = 4;
+		private static final int BUCKETS = SUB_BUCKETS + (62 * SUB_BUCKETS);
+		
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+		private final LongAdder count = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Long::max, 0l);
+		
+		void record(long value) {
+			if(value < 0l) {
+				value = 0l;
+			}
+			buckets.incrementAndGet(indexOf(value));
+			count.increment();
+			max.accumulate(value);
+		}
+		
+		long getCount() {
+			return count.sum();
+		}
+		
+		long getMax() {
+			return max.get();
+		}
+		
+		/**
+		 * @param percentile The percentile between 0.0 and 100.0
+		 * @return The upper bound of the bucket which contains the percentile
+		 */
+		long getPercentile(double percentile) {
+			long total = 0l;
+			long[] snapshot = new long[BUCKETS];
+			for(int i=0; i<BUCKETS; i++) {
+				snapshot[i] = buckets.get(i);
+				total += snapshot[i];
+			}
+			if(total == 0l) {
+				return 0l;
+			}
+			
+			long rank = (long)Math.ceil((Math.min(100.0d, Math.max(0.0d, percentile)) / 100.0d) * total);
+			rank = Math.max(1l, rank);
+			long seen = 0l;
+			for(int i=0; i<BUCKETS; i++) {
+				seen += snapshot[i];
+				if(seen >= rank) {
+					return Math.min(upperBoundOf(i), getMax());
+				}
+			}
+			return getMax();
+		}
+		
+		static int indexOf(long value) {
+			if(value < SUB_BUCKETS) {
+				return (int)value;
+			}
+			int exponent = 63 - Long.numberOfLeadingZeros(value);
+			int subBucket = (int)((value >> (exponent - 2)) & (SUB_BUCKETS - 1));
+			return SUB_BUCKETS + (exponent - 2) * SUB_BUCKETS + subBucket;
+		}
+		
+		static long upperBoundOf(int index) {
+			if(index < SUB_BUCKETS) {
+				return index;
+			}
+			int exponent = ((index - SUB_BUCKETS) / SUB_BUCKETS) + 2;
+			int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+			return ((SUB_BUCKETS + subBucket + 1l) << (exponent - 2)) - 1l;
+		}
+	}
+}
@@ -26,8 +26,11 @@ import java.io.RandomAccessFile;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.Normalizer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.Hashtable;
@@ -35,9 +38,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Stack;
 import java.util.TimeZone;
 import java.util.Vector;
+import java.util.zip.CRC32;
 
 import javax.servlet.DispatcherType;
 import javax.servlet.RequestDispatcher;
@@ -53,9 +56,14 @@ import org.apache.logging.log4j.Logger;
 import org.olat.core.commons.services.webdav.WebDAVDispatcher;
 import org.olat.core.commons.services.webdav.WebDAVManager;
 import org.olat.core.commons.services.webdav.WebDAVModule;
+import org.olat.core.commons.services.webdav.manager.WebDAVPropfindCache;
+import org.olat.core.commons.services.webdav.manager.WebDAVPropfindCache.PropfindFragment;
+import org.olat.core.commons.services.webdav.manager.WebDAVPropfindCache.PropfindKey;
+import org.olat.core.commons.services.webdav.manager.WebDAVStatistics;
 import org.olat.core.dispatcher.Dispatcher;
 import org.olat.core.gui.media.ServletUtil;
 import org.olat.core.helpers.Settings;
+import org.olat.core.id.Identity;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.UserSession;
@@ -239,6 +247,10 @@ public class WebDAVDispatcherImpl
     private WebDAVManager webDAVManager;
     @Autowired
     private WebDAVModule webDAVModule;
+    @Autowired
+    private WebDAVStatistics webDAVStatistics;
+    @Autowired
+    private WebDAVPropfindCache propfindCache;
 
     public WebDAVDispatcherImpl() {
     	//
@@ -321,32 +333,46 @@ public class WebDAVDispatcherImpl
             log.debug("[" + method + "] " + path);
         }
         
-        if (method.equals(METHOD_PROPFIND)) {
-            doPropfind(req, resp);
-        } else if (method.equals(METHOD_PROPPATCH)) {
-            doProppatch(req, resp);
-        } else if (method.equals(METHOD_MKCOL)) {
-            doMkcol(req, resp);
-        } else if (method.equals(METHOD_COPY)) {
-            doCopy(req, resp);
-        } else if (method.equals(METHOD_MOVE)) {
-            doMove(req, resp);
-        } else if (method.equals(METHOD_LOCK)) {
-            doLock(req, resp);
-        } else if (method.equals(METHOD_UNLOCK)) {
-            doUnlock(req, resp);
-        } else if (method.equals(METHOD_GET)) {
-            doGet(req, resp);
-        } else if (method.equals(METHOD_HEAD)) {
-            doHead(req, resp);
-        } else if (method.equals(METHOD_POST)) {
-            doPost(req, resp);
-        } else if (method.equals(METHOD_PUT)) {
-            doPut(req, resp);
-        } else if (method.equals(METHOD_DELETE)) {
-            doDelete(req, resp);
-        } else if (method.equals(METHOD_OPTIONS)) {
-            doOptions(req,resp);  
+        long start = System.nanoTime();
+        try {
+            if (method.equals(METHOD_PROPFIND)) {
+                doPropfind(req, resp);
+            } else if (method.equals(METHOD_PROPPATCH)) {
+                doProppatch(req, resp);
+                invalidatePropfindCache(req, path);
+            } else if (method.equals(METHOD_MKCOL)) {
+                doMkcol(req, resp);
+                invalidatePropfindCache(req, path);
+            } else if (method.equals(METHOD_COPY)) {
+                doCopy(req, resp);
+                invalidatePropfindCache(req, getDestinationPath(req));
+            } else if (method.equals(METHOD_MOVE)) {
+                doMove(req, resp);
+                invalidatePropfindCache(req, path);
+                invalidatePropfindCache(req, getDestinationPath(req));
+            } else if (method.equals(METHOD_LOCK)) {
+                doLock(req, resp);
+                invalidatePropfindCache(req, path);
+            } else if (method.equals(METHOD_UNLOCK)) {
+                doUnlock(req, resp);
+                invalidatePropfindCache(req, path);
+            } else if (method.equals(METHOD_GET)) {
+                doGet(req, resp);
+            } else if (method.equals(METHOD_HEAD)) {
+                doHead(req, resp);
+            } else if (method.equals(METHOD_POST)) {
+                doPost(req, resp);
+            } else if (method.equals(METHOD_PUT)) {
+                doPut(req, resp);
+                invalidatePropfindCache(req, path);
+            } else if (method.equals(METHOD_DELETE)) {
+                doDelete(req, resp);
+                invalidatePropfindCache(req, path);
+            } else if (method.equals(METHOD_OPTIONS)) {
+                doOptions(req,resp);  
+            }
+        } finally {
+            webDAVStatistics.record(method, System.nanoTime() - start);
         }
     }
 
@@ -601,75 +627,136 @@ public class WebDAVDispatcherImpl
             return;
         }
 
-        resp.setStatus(WebdavStatus.SC_MULTI_STATUS);
-
-        resp.setContentType("text/xml; charset=UTF-8");
-
-        // Create multistatus object
-        XMLWriter generatedXML = new XMLWriter(resp.getWriter());
+        // Create multistatus object, buffered to calculate the ETag
+        XMLWriter generatedXML = new XMLWriter();
         generatedXML.writeXMLHeader();
 
         generatedXML.writeElement("D", DEFAULT_NAMESPACE, "multistatus", XMLWriter.OPENING);
 
-        if (depth == 0) {
-            parseProperties(req, generatedXML, path, type,
-                            properties);
-        } else {
-            // The stack always contains the object of the current level
-            Stack<String> stack = new Stack<>();
-            stack.push(path);
-
-            // Stack of the objects one level below
-            Stack<String> stackBelow = new Stack<>();
-
-            while ((!stack.isEmpty()) && (depth >= 0)) {
-
-                final String currentPath = stack.pop();
-                parseProperties(req, generatedXML, currentPath, type, properties);
-
-                resource = resources.getResource(currentPath);
-
-                if (resource.isDirectory() && (depth > 0)) {
-
-                    Collection<VFSItem> entries = resources.list(currentPath);
-                    for (VFSItem entry : entries) {
-                        String newPath = currentPath;
-                        if (!(newPath.endsWith("/")))
-                                newPath += "/";
-                        newPath += entry.getName();
-                        stackBelow.push(newPath);
-                    }
-
-                    // Displaying the lock-null resources present in that
-                    // collection
-                    String lockPath = currentPath;
-                    if (lockPath.endsWith("/")) {
-                        lockPath = lockPath.substring(0, lockPath.length() - 1);
-                    }
-                    
-                    List<String> currentLockNullResources = lockManager.getLockNullResource(resource);
-                    if (currentLockNullResources != null) {
-                        for(String lockNullPath : currentLockNullResources) {
-                            parseLockNullProperties(req, generatedXML, lockNullPath, type, properties);
-                        }
+        parseProperties(req, generatedXML, path, resource, type, properties);
+        if (depth > 0 && resource.isDirectory()) {
+            // Breadth first, one listing per directory
+            List<String> directories = Collections.singletonList(path);
+            for (int level = depth; level > 0 && !directories.isEmpty(); level--) {
+                List<String> directoriesBelow = new ArrayList<>();
+                for (String directory : directories) {
+                    List<String> subDirectories = parseDirectoryProperties(req, generatedXML, resources,
+                            directory, type, properties);
+                    if (level > 1) {
+                        directoriesBelow.addAll(subDirectories);
                     }
                 }
-
-                if (stack.isEmpty()) {
-                    depth--;
-                    stack = stackBelow;
-                    stackBelow = new Stack<>();
-                }
-
-                generatedXML.sendData();
-
+                directories = directoriesBelow;
             }
         }
 
         generatedXML.writeElement("D", "multistatus", XMLWriter.CLOSING);
 
-        generatedXML.sendData();
+        // PROPFIND is safe, answer a matching If-None-Match like a GET
+        String body = generatedXML.toString();
+        String eTag = getMultistatusETag(body);
+        if (matchIfNoneMatch(req, eTag)) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            resp.setHeader("ETag", eTag);
+            return;
+        }
 
+        resp.setStatus(WebdavStatus.SC_MULTI_STATUS);
+        resp.setContentType("text/xml; charset=UTF-8");
+        resp.setHeader("ETag", eTag);
+        resp.getWriter().write(body);
+    }
+    
+    /**
+     * Write the responses of the content of a directory. The content of
+     * the directories of the file system are cached.
+     * 
+     * @return The paths of the sub-directories
+     */
+    private List<String> parseDirectoryProperties(HttpServletRequest req, XMLWriter generatedXML,
+            WebResourceRoot resources, String path, int type, Vector<String> properties) {
+        
+        WebResource resource = resources.getResource(path);
+        if (!resource.isDirectory()) {
+            return Collections.emptyList();
+        }
+        
+        PropfindKey cacheKey = null;
+        String storagePath = resource.getStoragePath();
+        Identity identity = resources.getIdentity();
+        long lastModified = resource.getLastModified();
+        if (storagePath != null && identity != null && propfindCache.isEnabled()) {
+            String props = type + (properties == null ? "" : properties.toString());
+            cacheKey = new PropfindKey(identity.getKey(), storagePath, path, req.getContextPath() + req.getServletPath(), props);
+            PropfindFragment fragment = propfindCache.get(cacheKey, lastModified);
+            if (fragment != null) {
+                generatedXML.writeText(fragment.getXml());
+                return fragment.getDirectoryPaths();
+            }
+        }
+        
+        XMLWriter fragmentXML = new XMLWriter();
+        List<String> directories = new ArrayList<>();
+        for (WebResource entry : resources.listResources(path)) {
+            parseProperties(req, fragmentXML, entry.getPath(), entry, type, properties);
+            if (entry.isDirectory()) {
+                directories.add(entry.getPath());
+            }
+        }
+
+        // Displaying the lock-null resources present in that collection
+        List<String> currentLockNullResources = lockManager.getLockNullResource(resource);
+        if (currentLockNullResources != null) {
+            for (String lockNullPath : currentLockNullResources) {
+                parseLockNullProperties(req, fragmentXML, lockNullPath, type, properties);
+            }
+        }
+        
+        String xml = fragmentXML.toString();
+        if (cacheKey != null) {
+            propfindCache.put(cacheKey, new PropfindFragment(lastModified, xml, directories));
+        }
+        generatedXML.writeText(xml);
+        return directories;
+    }
+    
+    private String getMultistatusETag(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + body.length() + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+    
+    private boolean matchIfNoneMatch(HttpServletRequest req, String eTag) {
+        String headerValue = req.getHeader("If-None-Match");
+        if (headerValue == null) {
+            return false;
+        }
+        for (String token : headerValue.split(",")) {
+            if (token.trim().equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Invalidate the cached listings which can be changed by the
+     * modification of the resource at the specified path.
+     */
+    private void invalidatePropfindCache(HttpServletRequest req, String path) {
+        if (path == null || !propfindCache.isEnabled()) {
+            return;
+        }
+        
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        WebResourceRoot resources = getResources(req);
+        propfindCache.invalidate(resources.getResource(path).getStoragePath());
+        int slash = path.lastIndexOf('/');
+        if (slash > 0) {
+            propfindCache.invalidate(resources.getResource(path.substring(0, slash)).getStoragePath());
+        }
     }
 
 
@@ -721,7 +808,7 @@ public class WebDAVDispatcherImpl
         generatedXML.writeXMLHeader();
         generatedXML.writeElement("D", DEFAULT_NAMESPACE, "multistatus", XMLWriter.OPENING);
         
-        parseProperties( req, generatedXML, path, 32, new Vector<String>());
+        parseProperties( req, generatedXML, path, resources.getResource(path), 32, new Vector<String>());
 
         generatedXML.writeElement("D", "multistatus", XMLWriter.CLOSING);
         generatedXML.sendData();
@@ -1969,21 +2056,21 @@ public class WebDAVDispatcherImpl
      * @param resources Resources object associated with this context
      * @param generatedXML XML response to the Propfind request
      * @param path Path of the current resource
+     * @param resource The current resource
      * @param type Propfind type
      * @param propertiesVector If the propfind type is find properties by
      * name, then this Vector contains those properties
      */
     private void parseProperties(HttpServletRequest req,
                                  XMLWriter generatedXML,
-                                 final String path, int type,
+                                 final String path,
+                                 final WebResource resource, int type,
                                  Vector<String> propertiesVector) {
 
         // Exclude any resource in the /WEB-INF and /META-INF subdirectories
         if (isSpecialPath(path))
             return;
 
-        final WebResourceRoot resources = getResources(req);
-        final WebResource resource = resources.getResource(path);
         if (!resource.exists()) {
             // File is in directory listing but doesn't appear to exist
             // Broken symlink or odd permission settings?
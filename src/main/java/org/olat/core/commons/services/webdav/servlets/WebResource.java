@@ -99,6 +99,15 @@ public interface WebResource {
      * {@link #getLastModified()} will be returned.
      */
     long getCreation();
+    
+    /**
+     * The path of the directory in the file system which backs this resource.
+     * It's used to share and invalidate the cached listings of the directory.
+     * 
+     * @return The relative path of the directory or <code>null</code> if the
+     *          resource is not a directory of the file system
+     */
+    String getStoragePath();
 
     
 	/**
@@ -18,13 +18,20 @@ package org.olat.core.commons.services.webdav.servlets;
 
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 
+import org.olat.core.id.Identity;
 import org.olat.core.util.vfs.QuotaExceededException;
 import org.olat.core.util.vfs.VFSItem;
 
 
 public interface WebResourceRoot {
 	
+	/**
+	 * @return The user which mounts this root
+	 */
+	public Identity getIdentity();
+	
 	public boolean canWrite(String path);
 	
 	public boolean canRename(String name);
@@ -56,6 +63,19 @@ public interface WebResourceRoot {
      *          then a zero length array will be returned.
      */
     Collection<VFSItem> list(String path);
+    
+    /**
+     * Obtain the resources of the specified directory. The directory is
+     * resolved only once and the metadata of the resources are loaded
+     * in one query.
+     *
+     * @param path  The path of the directory relative to the root
+     *              of the web application. It must start with '/'.
+     *
+     * @return  The list of resources. If path does not refer to a directory
+     *          then an empty list will be returned.
+     */
+    List<WebResource> listResources(String path);
 
     /**
      * Create a new directory at the given path.
@@ -19,9 +19,13 @@
  */
 package org.olat.core.configuration;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * 
- * Marker interface for the pre-warm process.
+ * Interface for the pre-warm process. The pre-warm tasks are run
+ * by the PreWarmScheduler in parallel after the start of the servlet.
  * 
  * Initial date: 09.04.2015<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
@@ -29,4 +33,17 @@ package org.olat.core.configuration;
  */
 public interface PreWarm extends Runnable {
 	
+	/**
+	 * @return The pre-warm tasks which must be done before this one starts
+	 */
+	public default Collection<Class<? extends PreWarm>> getDependencies() {
+		return Collections.emptyList();
+	}
+	
+	/**
+	 * @return The time budget in milliseconds, 0 to use the default of the scheduler
+	 */
+	public default long getTimeBudget() {
+		return 0l;
+	}
 }
@@ -0,0 +1,364 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.configuration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+
+/**
+ * Run the pre-warm tasks on a bounded pool of threads. A task starts
+ * when all its dependencies are done, failed or over their time budget.
+ * A task which is over its time budget is not interrupted, but the tasks
+ * depending on it are released. The scheduler is ready when all the
+ * tasks are released this way.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class PreWarmScheduler {
+	
+	private static final Logger log = Tracing.createLoggerFor(PreWarmScheduler.class);
+	
+	public enum Status {
+		pending,
+		running,
+		done,
+		failed,
+		timedOut
+	}
+	
+	private final DB dbInstance;
+	
+	private int threads;
+	private long defaultTimeBudget;
+
+	private ExecutorService executor;
+	private volatile boolean started = false;
+	private volatile boolean ready = false;
+	private long startTime;
+	private long readyTime;
+	private final Map<String,PreWarmTask> tasks = new LinkedHashMap<>();
+	
+	/**
+	 * [spring]
+	 */
+	public PreWarmScheduler(DB dbInstance) {
+		this.dbInstance = dbInstance;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public void setDefaultTimeBudget(long defaultTimeBudget) {
+		this.defaultTimeBudget = defaultTimeBudget;
+	}
+	
+	/**
+	 * @return true if all the pre-warm tasks are processed
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+	
+	/**
+	 * @return The time between the start and the ready flag in milliseconds
+	 * 		or -1 if not ready
+	 */
+	public long getReadyTime() {
+		return ready ? readyTime : -1l;
+	}
+	
+	public synchronized List<PreWarmTask> getTasks() {
+		return new ArrayList<>(tasks.values());
+	}
+	
+	public synchronized int getNumOfTasks(Status status) {
+		int count = 0;
+		for(PreWarmTask task:tasks.values()) {
+			if(task.getStatus() == status) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Start the pre-warm tasks. The method returns immediately.
+	 * 
+	 * @param preWarms The pre-warm tasks by name
+	 */
+	public synchronized void start(Map<String,PreWarm> preWarms) {
+		if(started) return;
+		started = true;
+		startTime = System.nanoTime();
+		
+		for(Map.Entry<String, PreWarm> entry:preWarms.entrySet()) {
+			PreWarm preWarm = entry.getValue();
+			long budget = preWarm.getTimeBudget() > 0 ? preWarm.getTimeBudget() : defaultTimeBudget;
+			tasks.put(entry.getKey(), new PreWarmTask(entry.getKey(), preWarm, budget, dbInstance));
+		}
+		if(tasks.isEmpty()) {
+			markReady();
+			return;
+		}
+
+		executor = Executors.newFixedThreadPool(Math.max(1, threads), new PreWarmThreadFactory());
+		List<CompletableFuture<Void>> futures = new ArrayList<>(tasks.size());
+		for(PreWarmTask task:tasks.values()) {
+			futures.add(schedule(task, new HashSet<>()));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+			.whenComplete((v, e) -> markReady());
+	}
+	
+	public synchronized void destroy() {
+		if(executor != null) {
+			executor.shutdownNow();
+		}
+	}
+	
+	private CompletableFuture<Void> schedule(PreWarmTask task, Set<PreWarmTask> path) {
+		if(task.getFuture() != null) {
+			return task.getFuture();
+		}
+		
+		path.add(task);
+		List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+		for(PreWarmTask dependency:getDependencies(task)) {
+			if(path.contains(dependency)) {
+				log.warn("Cyclic dependency between pre-warm tasks {} and {} ignored", task.getName(), dependency.getName());
+			} else {
+				dependencies.add(schedule(dependency, path));
+			}
+		}
+		path.remove(task);
+		
+		CompletableFuture<Void> future = CompletableFuture
+				.allOf(dependencies.toArray(new CompletableFuture[dependencies.size()]))
+				.thenCompose(v -> {
+					CompletableFuture<Void> run = CompletableFuture.runAsync(task, executor);
+					if(task.getTimeBudget() > 0) {
+						// the time budget starts with the task, not with the scheduler
+						run = run.completeOnTimeout(null, task.getTimeBudget(), TimeUnit.MILLISECONDS);
+					}
+					return run;
+				})
+				// failures are logged by the task, the dependent tasks must start anyway
+				.exceptionally(e -> null);
+		task.setFuture(future);
+		return future;
+	}
+	
+	private List<PreWarmTask> getDependencies(PreWarmTask task) {
+		Collection<Class<? extends PreWarm>> dependencyTypes = task.getPreWarm().getDependencies();
+		if(dependencyTypes == null || dependencyTypes.isEmpty()) {
+			return List.of();
+		}
+
+		List<PreWarmTask> dependencies = new ArrayList<>(dependencyTypes.size());
+		for(Class<? extends PreWarm> dependencyType:dependencyTypes) {
+			boolean found = false;
+			for(PreWarmTask candidate:tasks.values()) {
+				if(candidate != task && dependencyType.isInstance(candidate.getPreWarm())) {
+					dependencies.add(candidate);
+					found = true;
+				}
+			}
+			if(!found) {
+				log.warn("Dependency {} of pre-warm task {} not found", dependencyType.getSimpleName(), task.getName());
+			}
+		}
+		return dependencies;
+	}
+	
+	private synchronized void markReady() {
+		readyTime = CodeHelper.nanoToMilliTime(startTime);
+		ready = true;
+		if(executor != null) {
+			executor.shutdown();
+		}
+		log.info("Pre-warm ready in (ms): {} ({} done, {} failed, {} over time budget)", readyTime,
+				getNumOfTasks(Status.done), getNumOfTasks(Status.failed), getNumOfTasks(Status.timedOut));
+	}
+	
+	/**
+	 * Process the items with the threads of the pre-warm pool. The calling
+	 * thread processes items too and the method returns when all the items
+	 * are processed. Every helper thread closes its database session.
+	 * 
+	 * @param items The items to process
+	 * @param action The action
+	 */
+	public <T> void forEach(List<T> items, Consumer<T> action) {
+		if(items == null || items.isEmpty()) return;
+		
+		AtomicInteger index = new AtomicInteger(0);
+		Runnable worker = () -> {
+			int i;
+			while((i = index.getAndIncrement()) < items.size()) {
+				try {
+					action.accept(items.get(i));
+				} catch (Exception e) {
+					log.error("", e);
+				}
+			}
+		};
+		
+		List<Future<?>> helpers = new ArrayList<>();
+		ExecutorService pool = executor;
+		if(pool != null && !pool.isShutdown()) {
+			int numOfHelpers = Math.min(threads - 1, items.size() - 1);
+			for(int i=0; i<numOfHelpers; i++) {
+				helpers.add(pool.submit(() -> {
+					try {
+						worker.run();
+					} finally {
+						dbInstance.commitAndCloseSession();
+					}
+				}));
+			}
+		}
+		
+		worker.run();
+		
+		for(Future<?> helper:helpers) {
+			// helpers which have not started yet have nothing to do
+			if(!helper.cancel(false)) {
+				try {
+					helper.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (ExecutionException e) {
+					log.error("", e);
+				}
+			}
+		}
+	}
+	
+	public static class PreWarmTask implements Runnable {
+		
+		private final DB dbInstance;
+		private final String name;
+		private final PreWarm preWarm;
+		private final long timeBudget;
+		private volatile Status status = Status.pending;
+		private volatile long duration = -1l;
+		private CompletableFuture<Void> future;
+		
+		private PreWarmTask(String name, PreWarm preWarm, long timeBudget, DB dbInstance) {
+			this.dbInstance = dbInstance;
+			this.name = name;
+			this.preWarm = preWarm;
+			this.timeBudget = timeBudget;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public PreWarm getPreWarm() {
+			return preWarm;
+		}
+
+		public long getTimeBudget() {
+			return timeBudget;
+		}
+
+		/**
+		 * @return The status, timed out if the task runs longer than its budget
+		 */
+		public Status getStatus() {
+			if(status == Status.running && future != null && future.isDone()) {
+				return Status.timedOut;
+			}
+			return status;
+		}
+
+		/**
+		 * @return The duration in milliseconds or -1 if the task is not finished
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		private CompletableFuture<Void> getFuture() {
+			return future;
+		}
+
+		private void setFuture(CompletableFuture<Void> future) {
+			this.future = future;
+		}
+
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+			status = Status.running;
+			try {
+				preWarm.run();
+				dbInstance.commitAndCloseSession();
+				status = Status.done;
+			} catch (Throwable e) {
+				dbInstance.rollbackAndCloseSession();
+				status = Status.failed;
+				log.error("Pre-warm task {} failed", name, e);
+			} finally {
+				duration = CodeHelper.nanoToMilliTime(start);
+				if(timeBudget > 0 && duration > timeBudget) {
+					log.warn("Pre-warm task {} exceeds its time budget of {}ms: {}ms", name, timeBudget, duration);
+				} else {
+					log.info("Pre-warm task {} {} in (ms): {}", name, status, duration);
+				}
+			}
+		}
+	}
+	
+	private static class PreWarmThreadFactory implements ThreadFactory {
+		
+		private final AtomicInteger counter = new AtomicInteger(0);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "oo-prewarm-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
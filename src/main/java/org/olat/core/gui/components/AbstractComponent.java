@@ -66,6 +66,10 @@ public abstract class AbstractComponent implements Component {
 	private boolean dirty = false;
 	private boolean domReplaceable = true;
 	private boolean domReplacementWrapperRequired = true;
+	// incremented at every dirty marking, key of the render cache
+	private long renderVersion = 0l;
+	private boolean renderCacheable = false;
+	private boolean renderDeferrable = false;
 
 	private final List<ComponentEventListener> listeners;
 	private Translator translator;
@@ -387,6 +391,60 @@ public abstract class AbstractComponent implements Component {
 	 */
 	public void setDirty(boolean dirty) {
 		this.dirty = dirty;
+		if(dirty) {
+			renderVersion++;
+		}
+	}
+
+	@Override
+	public long getRenderVersion() {
+		return renderVersion;
+	}
+
+	@Override
+	public boolean isRenderCacheable() {
+		return renderCacheable;
+	}
+
+	/**
+	 * The HTML of the component is cached and reused by the next renderings
+	 * of the window until the component or one of its children is marked as
+	 * dirty. Set it only if the component marks itself as dirty by every
+	 * change, like the velocity containers.
+	 * <p>
+	 * A cache hit only replays the HTML, the render methods of the component
+	 * and its children are not called. The header includes and the onload
+	 * JavaScript are collected in their own passes and are not affected, but
+	 * every other side effect of the render method (a change of the state of
+	 * the component or of its form, a registration in the render result) is
+	 * skipped. Renderers which register something in the render result are
+	 * detected and never cached, the other side effects are the responsibility
+	 * of the component which sets this flag.
+	 * 
+	 * @param renderCacheable true to cache the HTML of the component
+	 */
+	@Override
+	public void setRenderCacheable(boolean renderCacheable) {
+		this.renderCacheable = renderCacheable;
+	}
+
+	@Override
+	public boolean isRenderDeferrable() {
+		return renderDeferrable;
+	}
+
+	/**
+	 * If several components need to be updated in an AJAX response, an
+	 * expensive component can be replaced by a placeholder and rendered
+	 * by the next request of the browser, which is immediately triggered
+	 * through the push channel of the window. Without push channel, the
+	 * component is rendered as usual.
+	 * 
+	 * @param renderDeferrable true to allow the deferred rendering
+	 */
+	@Override
+	public void setRenderDeferrable(boolean renderDeferrable) {
+		this.renderDeferrable = renderDeferrable;
 	}
 
 	/**
@@ -100,5 +100,26 @@ public interface Component {
 	 *         ID
 	 */
 	public boolean isDomReplacementWrapperRequired();
+	
+	/**
+	 * @return The number of times the component was marked as dirty
+	 */
+	public long getRenderVersion();
+	
+	/**
+	 * @return true if the HTML of the component can be reused as long as
+	 * 		the component and its children are not marked as dirty
+	 */
+	public boolean isRenderCacheable();
+	
+	public void setRenderCacheable(boolean renderCacheable);
+	
+	/**
+	 * @return true if the component can be replaced by a placeholder and
+	 * 		rendered by the next request of the window
+	 */
+	public boolean isRenderDeferrable();
+	
+	public void setRenderDeferrable(boolean renderDeferrable);
 
 }
\ No newline at end of file
@@ -64,6 +64,7 @@ import org.olat.core.gui.control.WindowBackOffice;
 import org.olat.core.gui.control.WindowControl;
 import org.olat.core.gui.control.generic.dtabs.DTabs;
 import org.olat.core.gui.control.info.WindowControlInfo;
+import org.olat.core.gui.control.pushpoll.PushNotifier;
 import org.olat.core.gui.control.winmgr.Command;
 import org.olat.core.gui.control.winmgr.CommandFactory;
 import org.olat.core.gui.control.winmgr.JSCommand;
@@ -74,7 +75,9 @@ import org.olat.core.gui.media.AsyncMediaResponsible;
 import org.olat.core.gui.media.MediaResource;
 import org.olat.core.gui.media.RedirectMediaResource;
 import org.olat.core.gui.media.ServletUtil;
+import org.olat.core.gui.render.RenderCache;
 import org.olat.core.gui.render.RenderResult;
+import org.olat.core.gui.render.RenderStatistics;
 import org.olat.core.gui.render.Renderer;
 import org.olat.core.gui.render.StringOutput;
 import org.olat.core.gui.render.StringOutputPool;
@@ -190,6 +193,11 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 	private final WindowBackOfficeImpl wbackofficeImpl;
 	// mutex for rendering
 	private final Object render_mutex = new Object();
+	// HTML of the cacheable components, created lazily
+	private RenderCache renderCache;
+	private boolean renderCacheInitialized = false;
+	// components replaced by a placeholder, rendered by the next request
+	private final Set<String> deferredComponents = new HashSet<>();
 	// delegate for css and js includes
 	private final JSAndCSSAdderImpl jsAndCssAdder;
 	// the analytics service
@@ -318,6 +326,16 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 	 * @param renderOnly
 	 */
 	public void dispatchRequest(UserRequest ureq, boolean renderOnly) {
+		// the changes made by the request are rendered in the response, they don't need to be pushed
+		Window previousWindow = PushNotifier.enterWindow(this);
+		try {
+			dispatchRequestInternal(ureq, renderOnly);
+		} finally {
+			PushNotifier.exitWindow(previousWindow);
+		}
+	}
+	
+	private void dispatchRequestInternal(UserRequest ureq, boolean renderOnly) {
 		final HttpServletRequest request = ureq.getHttpReq();
 		final HttpServletResponse response = ureq.getHttpResp();
 		final String timestampID = ureq.getTimestampID() == null ? "1" : ureq.getTimestampID();
@@ -844,6 +862,9 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 						// if the timestamp of a request is outdated, simply jump to its bookmarked business control path.
 						URLBuilder ubu = new URLBuilder(uriPrefix, getInstanceId(), newTimestamp, csrfToken);
 						RenderResult renderResult = new RenderResult();
+						renderResult.setRenderCache(getRenderCache());
+						// a full rendering renders the deferred components too
+						deferredComponents.clear();
 						
 						// if we have an around-component-interception
 						// set the handler for this render cycle
@@ -963,6 +984,44 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 		return null;
 	}
 
+	/**
+	 * @return The render cache of the window or null if the cache is disabled
+	 */
+	private RenderCache getRenderCache() {
+		if(!renderCacheInitialized) {
+			renderCache = RenderStatistics.createRenderCache();
+			renderCacheInitialized = true;
+		}
+		return renderCache;
+	}
+
+	/**
+	 * Check without rendering if a component of the window is dirty. The
+	 * method doesn't lock the window, the answer is only a hint.
+	 * 
+	 * @return true if at least one component is dirty
+	 */
+	public boolean hasDirties() {
+		final boolean[] dirty = new boolean[] { false };
+		ComponentVisitor dirtyV = (comp, ureq) -> {
+			if(dirty[0] || comp == null) {
+				return false;
+			}
+			if(comp.isDirty()) {
+				dirty[0] = true;
+				return false;
+			}
+			return comp.isVisible();
+		};
+		try {
+			new ComponentTraverser(dirtyV, getContentPane(), false).visitAll(null);
+		} catch (RuntimeException e) {
+			// concurrent changes, let the standard request decide
+			return true;
+		}
+		return dirty[0];
+	}
+
 	/**
 	 * to be called by Window.java or the AjaxController only!
 	 * this method is synchronized on the Window instance
@@ -1039,6 +1098,10 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 						// not offered (since not usability-useful) is the include of new js-libraries and css-libraries here, since this may invoke a screen reload
 						// which disturbes the user and lets him/her loose the focus and the cursor.
 						AsyncMediaResponsible amr = null;
+						// expensive components can be replaced by placeholders if the browser can be notified to fetch them
+						boolean deferRendering = dCnt > 1 && RenderStatistics.isDeferredRenderingEnabled()
+								&& PushNotifier.hasChannel(wbackofficeImpl);
+						boolean deferred = false;
 	
 						long rstart = 0;
 						if (isDebugLog) {
@@ -1057,6 +1120,24 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 								throw new CannotReplaceDOMFragmentException("cannot replace as dom fragment:"+toRender.getComponentName()+" ("+toRender.getClass().getName()+"),"+toRender.getExtendedDebugInfo());
 							}
 							
+							// render a placeholder, the component stays dirty and is rendered by the next request
+							String dispatchId = toRender.getDispatchID();
+							if (deferRendering && toRender.isRenderDeferrable() && toRender.isVisible()
+									&& deferredComponents.add(dispatchId)) {
+								JSONObject jo = new JSONObject();
+								jo.put("cid", dispatchId);
+								jo.put("cw", toRender.isDomReplacementWrapperRequired());
+								jo.put("cidvis", true);
+								jo.put("hfrag", "<div class='o_render_deferred'><i class='o_icon o_icon_pending o_icon-spin'> </i></div>");
+								jo.put("jsol", "");
+								jo.put("hdr", "");
+								ja.put(jo);
+								deferred = true;
+								RenderStatistics.renderingDeferred();
+								continue;
+							}
+							deferredComponents.remove(dispatchId);
+							
 							Panel wrapper = new Panel("renderpanel");
 							wrapper.setDomReplaceable(false); // to omit <div> around the render helper panel
 							RenderResult renderResult = null;
@@ -1070,6 +1151,7 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 								URLBuilder ubu = new URLBuilder(uriPrefix,getInstanceId(), newTimestamp, csrfToken);
 
 								renderResult = new RenderResult();
+								renderResult.setRenderCache(getRenderCache());
 
 								// if we have an around-component-interception
 								// set the handler for this render cycle
@@ -1133,6 +1215,9 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 							jo.put("hdr", StringOutputPool.freePop(hdr));
 							ja.put(jo);
 						}
+						if (deferred) {
+							PushNotifier.renderingDeferred(wbackofficeImpl);
+						}
 						//polling case should never set the asyncMediaResp. 
 						//to null otherwise it possible that e.g. pdf served as following click within a CP component
 						if (amr != null) {
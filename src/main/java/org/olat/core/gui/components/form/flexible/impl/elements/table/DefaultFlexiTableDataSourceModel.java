@@ -20,9 +20,11 @@
 package org.olat.core.gui.components.form.flexible.impl.elements.table;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntConsumer;
 
 import org.olat.core.commons.persistence.DefaultResultInfos;
 import org.olat.core.commons.persistence.ResultInfos;
@@ -238,6 +240,72 @@ public abstract class DefaultFlexiTableDataSourceModel<U> implements FlexiTableD
 		return new DefaultResultInfos<>(newRows.getNextFirstResult(), newRows.getCorrectedRowCount(), rows);
 	}
 	
+	/**
+	 * Load all the rows page by page for an export. The pages are loaded
+	 * directly from the source delegate: the rows already loaded by the table
+	 * are not skipped and the row count of the table is not changed. The rows
+	 * of a page are set in the model while the consumer is called with their
+	 * index, then released. The rows loaded before the export are kept.
+	 * 
+	 * @param pageSize The number of rows loaded at once
+	 * @param rowConsumer Called with the index of every row of the export
+	 * @return The number of exported rows
+	 */
+	public int exportInPages(String query, List<FlexiTableFilter> filters, List<String> addQueries,
+			int pageSize, IntConsumer rowConsumer, SortKey... orderBy) {
+		if(rows == null) {
+			rows = new ArrayList<>();
+		}
+		
+		final int originalSize = rows.size();
+		BitSet preloaded = new BitSet(originalSize);
+		for(int i=0; i<originalSize; i++) {
+			if(rows.get(i) != null) {
+				preloaded.set(i);
+			}
+		}
+		
+		int numOfRows = 0;
+		try {
+			for(int firstResult=0; ; firstResult += pageSize) {
+				ResultInfos<U> page = sourceDelegate.getRows(query, filters, addQueries, firstResult, pageSize, orderBy);
+				List<U> objects = page.getObjects();
+				int numOfPageRows = objects.size();
+				for(int i=0; i<numOfPageRows; i++) {
+					int rowIndex = firstResult + i;
+					if(rowIndex >= rows.size()) {
+						rows.add(objects.get(i));
+					} else if(!preloaded.get(rowIndex)) {
+						rows.set(rowIndex, objects.get(i));
+					}
+				}
+				
+				try {
+					for(int i=0; i<numOfPageRows; i++) {
+						rowConsumer.accept(firstResult + i);
+					}
+				} finally {
+					for(int i=0; i<numOfPageRows; i++) {
+						int rowIndex = firstResult + i;
+						if(!preloaded.get(rowIndex)) {
+							rows.set(rowIndex, null);
+						}
+					}
+				}
+				numOfRows += numOfPageRows;
+				// the last page, or a delegate which doesn't page
+				if(numOfPageRows != pageSize) {
+					break;
+				}
+			}
+		} finally {
+			while(rows.size() > originalSize) {
+				rows.remove(rows.size() - 1);
+			}
+		}
+		return numOfRows;
+	}
+	
 	@Override
 	public FlexiTableColumnModel getTableColumnModel() {
 		return columnModel;
@@ -1361,8 +1361,8 @@ public class FlexiTableElementImpl extends FormItemImpl implements FlexiTableEle
 	}
 	
 	private void doExport(UserRequest ureq) {
-		// ensure the all rows are loaded to export
-		if(dataSource != null) {
+		// ensure the all rows are loaded to export, the default exporter loads them page by page
+		if(dataSource != null && (dataModel instanceof ExportableFlexiTableDataModel || !XlsFlexiTableExporter.isPaged(component))) {
 			if(dataModel instanceof FlexiTableDataSource) {
 				((FlexiTableDataSource<?>)dataModel).load(getSearchText(), getSelectedFilters(), getConditionalQueries(), 0, -1, orderBy);
 			} else {
@@ -30,6 +30,7 @@ import org.olat.core.gui.components.form.flexible.impl.NameValuePair;
 import org.olat.core.gui.control.winmgr.AJAXFlags;
 import org.olat.core.gui.render.Renderer;
 import org.olat.core.gui.render.StringOutput;
+import org.olat.core.gui.render.StringOutputPool;
 import org.olat.core.gui.render.URLBuilder;
 import org.olat.core.gui.translator.Translator;
 import org.olat.core.logging.Tracing;
@@ -254,14 +255,14 @@ public class StaticFlexiCellRenderer implements FlexiCellRenderer, ActionDelegat
 	private void renderOpenTab(StringOutput target, FlexiTableElementImpl ftE, NameValuePair actionPair, URLBuilder ubu) {
 		String jsCode;
 		URLBuilder subu = ubu.createCopyFor(ftE.getRootForm().getInitialComponent());
-		try(StringOutput href = new StringOutput()) {
+		try(StringOutput href = StringOutputPool.allocStringBuilder(256)) {
 			href.append("o_openTab('");
 			subu.buildURI(href, AJAXFlags.MODE_NORMAL,
 					new NameValuePair("dispatchuri", ftE.getFormDispatchId()),
 					new NameValuePair("dispatchevent", "1"),
 					actionPair);
 			href.append("')");
-			jsCode = href.toString();
+			jsCode = StringOutputPool.freePop(href);
 		} catch(IOException e) {
 			log.error("", e);
 			jsCode = "";
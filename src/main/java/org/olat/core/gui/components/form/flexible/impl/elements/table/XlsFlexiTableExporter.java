@@ -42,7 +42,9 @@ import org.olat.core.util.openxml.OpenXMLWorksheet;
 import org.olat.core.util.openxml.OpenXMLWorksheet.Row;
 
 /**
- * Export as excel file with POI
+ * Export as excel file with POI. The tables backed by a data source
+ * are loaded and written page by page during the download, the
+ * strings are written inline to not hold them until the end.
  * 
  * Initial date: 11.02.2014<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
@@ -51,6 +53,7 @@ import org.olat.core.util.openxml.OpenXMLWorksheet.Row;
 public class XlsFlexiTableExporter implements FlexiTableExporter {
 	private static final Logger log = Tracing.createLoggerFor(XlsFlexiTableExporter.class);
 	private static final URLBuilder ubu = new EmptyURLBuilder();
+	private static final int EXPORT_PAGE_SIZE = 500;
 	
 	@Override
 	public MediaResource export(FlexiTableComponent ftC, List<FlexiColumnModel> columns, Translator translator) {
@@ -63,6 +66,7 @@ public class XlsFlexiTableExporter implements FlexiTableExporter {
 			@Override
 			protected void generate(OutputStream out) {
 				try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(out, 1)) {
+					workbook.setInlineStrings(isPaged(ftC));
 					OpenXMLWorksheet sheet = workbook.nextWorksheet();
 					createHeader(columns, translator, sheet, workbook);
 					createData(ftC, columns, translator, sheet, workbook);
@@ -89,8 +93,23 @@ public class XlsFlexiTableExporter implements FlexiTableExporter {
 		}
 	}
 
+	/**
+	 * @param ftC The table
+	 * @return true if the rows are loaded page by page from the data source of the table
+	 */
+	public static boolean isPaged(FlexiTableComponent ftC) {
+		FlexiTableElementImpl tableEl = ftC.getFlexiTableElement();
+		return tableEl.getTableDataSource() instanceof DefaultFlexiTableDataSourceModel
+				&& tableEl.getTableDataSource() == tableEl.getTableDataModel();
+	}
+
 	protected void createData(FlexiTableComponent ftC, List<FlexiColumnModel> columns, Translator translator,
 			OpenXMLWorksheet sheet, OpenXMLWorkbook workbook) {
+		if(isPaged(ftC)) {
+			createDataInPages(ftC, columns, translator, sheet, workbook);
+			return;
+		}
+		
 		FlexiTableDataModel<?> dataModel = ftC.getFlexiTableElement().getTableDataModel();
 		
 		int numOfRow = dataModel.getRowCount();
@@ -104,6 +123,27 @@ public class XlsFlexiTableExporter implements FlexiTableExporter {
 		}
 	}
 	
+	/**
+	 * Load the rows page after page with the current search, filters and order
+	 * of the table. The pages are loaded from the source delegate of the model,
+	 * the rows and the row count of the table are not changed by the export.
+	 */
+	private void createDataInPages(FlexiTableComponent ftC, List<FlexiColumnModel> columns, Translator translator,
+			OpenXMLWorksheet sheet, OpenXMLWorkbook workbook) {
+		FlexiTableElementImpl tableEl = ftC.getFlexiTableElement();
+		DefaultFlexiTableDataSourceModel<?> dataSource = (DefaultFlexiTableDataSourceModel<?>)tableEl.getTableDataSource();
+		
+		int numOfColumns = columns.size();
+		dataSource.exportInPages(tableEl.getSearchText(), tableEl.getSelectedFilters(), tableEl.getConditionalQueries(),
+				EXPORT_PAGE_SIZE, r -> {
+			Row dataRow = sheet.newRow();
+			for (int c = 0; c<numOfColumns; c++) {
+				FlexiColumnModel cd = columns.get(c);
+				createCell(ftC, cd, dataRow, r, c, translator, workbook);
+			}
+		}, tableEl.getOrderBy());
+	}
+	
 	protected void createFooter(FlexiTableComponent ftC, List<FlexiColumnModel> columns, Translator translator,
 			OpenXMLWorksheet sheet, OpenXMLWorkbook workbook) {
 		
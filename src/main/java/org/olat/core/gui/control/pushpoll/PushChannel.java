@@ -0,0 +1,261 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletResponse;
+import javax.websocket.Session;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.gui.components.Window;
+import org.olat.core.gui.control.WindowBackOffice;
+import org.olat.core.logging.Tracing;
+
+/**
+ * The push channel of a browser window. The browser holds a WebSocket
+ * or a long-poll request open, and the channel sends a short "dirty"
+ * message as soon as a controller changed the window after an event or
+ * a window command is queued. The browser fetches then the commands with
+ * the standard AJAX request.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class PushChannel {
+	
+	private static final Logger log = Tracing.createLoggerFor(PushChannel.class);
+	
+	public static final String DIRTY = "dirty";
+	
+	private final String id;
+	private final String csrfToken;
+	private final WindowBackOffice wbo;
+	private final PushService pushService;
+	
+	private Session webSocket;
+	private AsyncContext longPoll;
+	/** a signal arrived while no connection was open */
+	private boolean missed = false;
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+	private final AtomicBoolean pendingCommands = new AtomicBoolean(false);
+	
+	PushChannel(String id, String csrfToken, WindowBackOffice wbo, PushService pushService) {
+		this.id = id;
+		this.csrfToken = csrfToken;
+		this.wbo = wbo;
+		this.pushService = pushService;
+	}
+	
+	public String getId() {
+		return id;
+	}
+	
+	boolean checkCsrfToken(String token) {
+		return csrfToken != null && csrfToken.equals(token);
+	}
+	
+	WindowBackOffice getWindowBackOffice() {
+		return wbo;
+	}
+	
+	/**
+	 * Signal that something maybe changed. The message is sent asynchronously
+	 * if some components of the window are dirty, multiple signals within
+	 * a short delay are sent once.
+	 * 
+	 * @param commands true if window commands are waiting, the message is
+	 * 		sent even if no component is dirty
+	 */
+	public void signal(boolean commands) {
+		if(commands) {
+			pendingCommands.set(true);
+		}
+		if(scheduled.compareAndSet(false, true)) {
+			pushService.schedule(this);
+		}
+	}
+	
+	/**
+	 * Send the "dirty" message to the open connection.
+	 * 
+	 * @return true if the message was sent
+	 */
+	synchronized boolean flush() {
+		scheduled.set(false);
+		boolean commands = pendingCommands.getAndSet(false);
+		if(!commands) {
+			Window window = wbo.getWindow();
+			if(window == null || !window.hasDirties()) {
+				return false;
+			}
+		}
+		
+		if(webSocket != null && webSocket.isOpen()) {
+			try {
+				webSocket.getBasicRemote().sendText(DIRTY);
+				return true;
+			} catch (IOException | IllegalStateException e) {
+				log.debug("Cannot push to web socket: {}", id, e);
+				if(closeWebSocket(webSocket)) {
+					pushService.webSocketClosed();
+				}
+			}
+		} else if(longPoll != null) {
+			AsyncContext ctx = longPoll;
+			longPoll = null;
+			pushService.longPollClosed();
+			if(respond(ctx, HttpServletResponse.SC_OK, DIRTY)) {
+				return true;
+			}
+		}
+		missed = true;
+		if(commands) {
+			pendingCommands.set(true);
+		}
+		return false;
+	}
+	
+	synchronized boolean isConnected() {
+		return (webSocket != null && webSocket.isOpen()) || longPoll != null;
+	}
+	
+	/**
+	 * Attach a new WebSocket to the channel, an older one is closed.
+	 * 
+	 * @param session The WebSocket session
+	 * @return true if a signal was missed and must be pushed now
+	 */
+	synchronized boolean openWebSocket(Session session) {
+		Session previous = webSocket;
+		webSocket = session;
+		if(previous != null && previous != session) {
+			pushService.webSocketClosed();
+			try {
+				previous.close();
+			} catch (IOException e) {
+				log.debug("", e);
+			}
+		}
+		return consumeMissed();
+	}
+	
+	synchronized boolean closeWebSocket(Session session) {
+		if(webSocket == session) {
+			webSocket = null;
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Park the long-poll request. If a signal was missed, the request
+	 * is answered immediately.
+	 * 
+	 * @param ctx The async. context of the request
+	 * @return true if the request is parked, false if it was answered
+	 */
+	synchronized boolean openLongPoll(AsyncContext ctx) {
+		if(consumeMissed()) {
+			respond(ctx, HttpServletResponse.SC_OK, DIRTY);
+			return false;
+		}
+		
+		AsyncContext previous = longPoll;
+		longPoll = ctx;
+		if(previous != null) {
+			pushService.longPollClosed();
+			respond(previous, HttpServletResponse.SC_NO_CONTENT, null);
+		}
+		return true;
+	}
+	
+	/**
+	 * The long-poll request timed out or failed.
+	 * 
+	 * @param ctx The async. context of the request
+	 * @param status The status to send or -1 to only detach the request
+	 * @return true if the request was parked in this channel
+	 */
+	synchronized boolean closeLongPoll(AsyncContext ctx, int status) {
+		if(longPoll == ctx) {
+			longPoll = null;
+			if(status > 0) {
+				respond(ctx, status, null);
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Close the connections, the channel will not be used anymore.
+	 */
+	synchronized void close() {
+		if(webSocket != null) {
+			Session session = webSocket;
+			webSocket = null;
+			pushService.webSocketClosed();
+			try {
+				session.close();
+			} catch (IOException e) {
+				log.debug("", e);
+			}
+		}
+		if(longPoll != null) {
+			AsyncContext ctx = longPoll;
+			longPoll = null;
+			pushService.longPollClosed();
+			respond(ctx, HttpServletResponse.SC_NOT_FOUND, null);
+		}
+	}
+	
+	private boolean consumeMissed() {
+		boolean m = missed;
+		missed = false;
+		return m;
+	}
+	
+	private boolean respond(AsyncContext ctx, int status, String message) {
+		try {
+			HttpServletResponse response = (HttpServletResponse)ctx.getResponse();
+			response.setStatus(status);
+			if(message != null) {
+				response.setContentType("text/plain;charset=utf-8");
+				PrintWriter writer = response.getWriter();
+				writer.write(message);
+				writer.flush();
+			}
+			return true;
+		} catch (IOException | IllegalStateException e) {
+			log.debug("Cannot answer long-poll: {}", id, e);
+			return false;
+		} finally {
+			try {
+				ctx.complete();
+			} catch (IllegalStateException e) {
+				// already completed
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.olat.core.CoreSpringFactory;
+import org.olat.core.gui.media.ServletUtil;
+
+/**
+ * Long-poll fallback of the push channels if WebSocket cannot be used.
+ * The request is held open until something changes in the window (200
+ * with "dirty") or the timeout (204). The servlet must be mapped with
+ * async. support.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class PushLongPollServlet extends HttpServlet {
+
+	private static final long serialVersionUID = 2893476539217466215L;
+
+	@Override
+	protected void service(HttpServletRequest req, HttpServletResponse resp)
+	throws ServletException, IOException {
+		PushService pushService = CoreSpringFactory.getImpl(PushService.class);
+		if(!pushService.isEnabled() || !req.isAsyncSupported()) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		
+		String channelId = req.getPathInfo();
+		if(channelId != null && channelId.startsWith("/")) {
+			channelId = channelId.substring(1);
+		}
+		ServletUtil.setNoCacheHeaders(resp);
+		pushService.longPoll(channelId, req.getParameter("_csrf"), req, resp);
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import org.olat.core.gui.components.Window;
+import org.olat.core.gui.control.Controller;
+import org.olat.core.gui.control.WindowBackOffice;
+import org.olat.core.gui.control.WindowControl;
+import org.olat.core.logging.AssertException;
+
+/**
+ * Static hooks of the push channels. The changes of a window made while
+ * the window dispatches a request are rendered with the response and
+ * don't need to be pushed. The controllers which receive an event outside
+ * of the requests of their window are the origin of the asynchronous
+ * changes.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public final class PushNotifier {
+	
+	private static final ThreadLocal<Window> dispatchingWindow = new ThreadLocal<>();
+	
+	private static volatile PushService pushService;
+	
+	private PushNotifier() {
+		//
+	}
+	
+	static void setPushService(PushService service) {
+		pushService = service;
+	}
+	
+	/**
+	 * Mark the current thread as dispatching a request of the specified window.
+	 * 
+	 * @param window The window
+	 * @return The window dispatched before, to restore with exitWindow
+	 */
+	public static Window enterWindow(Window window) {
+		if(pushService == null) return null;
+		
+		Window previous = dispatchingWindow.get();
+		dispatchingWindow.set(window);
+		return previous;
+	}
+	
+	public static void exitWindow(Window previous) {
+		if(pushService == null) return;
+		
+		if(previous == null) {
+			dispatchingWindow.remove();
+		} else {
+			dispatchingWindow.set(previous);
+		}
+	}
+	
+	/**
+	 * @param window The window
+	 * @return true if the current thread dispatches a request of the window
+	 */
+	public static boolean isDispatching(Window window) {
+		return pushService != null && window != null && dispatchingWindow.get() == window;
+	}
+	
+	/**
+	 * @param wbo The window back office
+	 * @return true if the window has a push channel
+	 */
+	public static boolean hasChannel(WindowBackOffice wbo) {
+		PushService service = pushService;
+		return service != null && wbo != null && service.hasChannel(wbo);
+	}
+	
+	/**
+	 * Some dirty components of the window were replaced by placeholders,
+	 * ask the browser to fetch them.
+	 * 
+	 * @param wbo The window back office
+	 */
+	public static void renderingDeferred(WindowBackOffice wbo) {
+		PushService service = pushService;
+		if(service != null && wbo != null) {
+			service.windowChanged(wbo);
+		}
+	}
+	
+	/**
+	 * The controller has received an event from the event bus and has maybe
+	 * changed some components.
+	 * 
+	 * @param controller The controller
+	 */
+	public static void controllerNotified(Controller controller) {
+		PushService service = pushService;
+		if(service == null || !service.hasChannels()) return;
+		
+		try {
+			WindowControl wControl = controller.getWindowControlForDebug();
+			WindowBackOffice wbo = wControl == null ? null : wControl.getWindowBackOffice();
+			if(wbo != null && !isDispatching(wbo.getWindow())) {
+				service.windowChanged(wbo);
+			}
+		} catch (AssertException e) {
+			// controller without window control
+		}
+	}
+}
@@ -0,0 +1,409 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
+import javax.websocket.DeploymentException;
+import javax.websocket.Session;
+import javax.websocket.server.ServerContainer;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.services.jmx.JMXManager;
+import org.olat.core.gui.control.WindowBackOffice;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.WebappHelper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.ServletContextAware;
+
+/**
+ * Manage the push channels of the browser windows of this node. The browser
+ * opens a WebSocket (or a long-poll request if WebSocket are not available)
+ * and is notified when something changed in the window. An idle window
+ * doesn't send any request, except a keep alive of the HTTP session at a
+ * long interval.<br>
+ * The number of connections per node is limited. A browser which cannot
+ * open a connection uses the standard polling.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+@Service
+public class PushService implements PushServiceMBean, ServletContextAware, InitializingBean, DisposableBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(PushService.class);
+	
+	public static final String JMX_OBJECT_NAME = "org.olat.core.gui.control.pushpoll:type=PushService";
+	public static final String WEBSOCKET_PATH = "/push/ws/";
+	public static final String LONG_POLL_PATH = "/push/poll/";
+	
+	/** coalesce the signals of a burst of changes */
+	private static final long PUSH_DELAY = 50l;
+	
+	@Value("${push.enabled:false}")
+	private boolean enabled;
+	@Value("${push.max.connections:5000}")
+	private int maxConnections;
+	@Value("${push.longpoll.timeout:30000}")
+	private long longPollTimeout;
+	@Value("${push.keepalive.period:300000}")
+	private int keepAlivePeriod;
+	
+	private final JMXManager jmxManager;
+	private ServletContext servletContext;
+	
+	private boolean webSocketAvailable = false;
+	private ScheduledExecutorService executor;
+	
+	private final ConcurrentMap<String,PushChannel> channels = new ConcurrentHashMap<>();
+	private final ConcurrentMap<WindowBackOffice,PushChannel> windowChannels = new ConcurrentHashMap<>();
+	
+	private final AtomicInteger openWebSockets = new AtomicInteger();
+	private final AtomicInteger openLongPolls = new AtomicInteger();
+	private final AtomicLong rejectedCounter = new AtomicLong();
+	private final AtomicLong signalCounter = new AtomicLong();
+	private final AtomicLong pushCounter = new AtomicLong();
+	private final AtomicLong timeoutCounter = new AtomicLong();
+	
+	@Autowired
+	public PushService(JMXManager jmxManager) {
+		this.jmxManager = jmxManager;
+	}
+
+	@Override
+	public void setServletContext(ServletContext servletContext) {
+		this.servletContext = servletContext;
+	}
+	
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	public void setLongPollTimeout(long longPollTimeout) {
+		this.longPollTimeout = longPollTimeout;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if(!enabled) return;
+		
+		executor = Executors.newScheduledThreadPool(2, r -> {
+			Thread thread = new Thread(r, "oo-push");
+			thread.setDaemon(true);
+			return thread;
+		});
+		registerWebSocketEndpoint();
+		PushNotifier.setPushService(this);
+		
+		if(jmxManager != null && jmxManager.isActive()) {
+			jmxManager.registerMBean(JMX_OBJECT_NAME, this);
+		}
+		log.info("Push channels enabled (WebSocket: {}, max. connections: {})", webSocketAvailable, maxConnections);
+	}
+	
+	private void registerWebSocketEndpoint() {
+		if(servletContext == null) return;
+		
+		Object container = servletContext.getAttribute(ServerContainer.class.getName());
+		if(container instanceof ServerContainer) {
+			try {
+				ServerEndpointConfig config = ServerEndpointConfig.Builder
+						.create(PushWebSocketEndpoint.class, WEBSOCKET_PATH + "{channel}")
+						.build();
+				((ServerContainer)container).addEndpoint(config);
+				webSocketAvailable = true;
+			} catch (DeploymentException | IllegalStateException e) {
+				log.warn("Cannot register the push WebSocket endpoint, only long-polling is available", e);
+			}
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if(executor == null) return;
+		
+		PushNotifier.setPushService(null);
+		for(PushChannel channel:channels.values()) {
+			channel.close();
+		}
+		channels.clear();
+		windowChannels.clear();
+		executor.shutdownNow();
+		
+		if(jmxManager != null && jmxManager.isActive()) {
+			jmxManager.unregisterMBean(JMX_OBJECT_NAME);
+		}
+	}
+	
+	public boolean isEnabled() {
+		return enabled && executor != null;
+	}
+	
+	public boolean isWebSocketAvailable() {
+		return webSocketAvailable;
+	}
+	
+	/**
+	 * @return The interval in milliseconds of the polling which keeps the
+	 * 		HTTP session alive while the push channel is connected
+	 */
+	public int getKeepAlivePeriod() {
+		return keepAlivePeriod;
+	}
+	
+	/**
+	 * @param channel The channel
+	 * @return The path (with context path) of the WebSocket endpoint, or null if not available
+	 */
+	public String getWebSocketPath(PushChannel channel) {
+		return webSocketAvailable ? WebappHelper.getServletContextPath() + WEBSOCKET_PATH + channel.getId() : null;
+	}
+	
+	/**
+	 * @param channel The channel
+	 * @return The URL (with context path) of the long-poll
+	 */
+	public String getLongPollPath(PushChannel channel) {
+		return WebappHelper.getServletContextPath() + LONG_POLL_PATH + channel.getId();
+	}
+	
+	public PushChannel createChannel(WindowBackOffice wbo, String csrfToken) {
+		String id = UUID.randomUUID().toString().replace("-", "");
+		PushChannel channel = new PushChannel(id, csrfToken, wbo, this);
+		channels.put(id, channel);
+		windowChannels.put(wbo, channel);
+		return channel;
+	}
+	
+	public void closeChannel(PushChannel channel) {
+		if(channel == null) return;
+		
+		channels.remove(channel.getId());
+		windowChannels.remove(channel.getWindowBackOffice(), channel);
+		channel.close();
+	}
+	
+	PushChannel getChannel(String id) {
+		return id == null ? null : channels.get(id);
+	}
+	
+	boolean hasChannels() {
+		return !channels.isEmpty();
+	}
+	
+	boolean hasChannel(WindowBackOffice wbo) {
+		return windowChannels.containsKey(wbo);
+	}
+	
+	void windowChanged(WindowBackOffice wbo) {
+		PushChannel channel = windowChannels.get(wbo);
+		if(channel != null) {
+			channel.signal(false);
+		}
+	}
+	
+	void schedule(PushChannel channel) {
+		if(executor == null) return;
+		
+		signalCounter.incrementAndGet();
+		try {
+			executor.schedule(() -> {
+				if(channel.flush()) {
+					pushCounter.incrementAndGet();
+				}
+			}, PUSH_DELAY, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			log.debug("Push service stopped");
+		}
+	}
+	
+	/**
+	 * Attach the WebSocket to its channel.
+	 * 
+	 * @param channelId The channel identifier
+	 * @param csrfToken The CSRF token of the window
+	 * @param session The WebSocket session
+	 * @return null if accepted, or the reason to close the WebSocket
+	 */
+	CloseReason openWebSocket(String channelId, String csrfToken, Session session) {
+		PushChannel channel = getChannel(channelId);
+		if(channel == null || !channel.checkCsrfToken(csrfToken)) {
+			return new CloseReason(CloseCodes.VIOLATED_POLICY, "Unknown channel");
+		}
+		if(!acquireConnection()) {
+			return new CloseReason(CloseCodes.TRY_AGAIN_LATER, "Too many connections");
+		}
+		
+		openWebSockets.incrementAndGet();
+		if(channel.openWebSocket(session)) {
+			channel.signal(false);
+		}
+		return null;
+	}
+	
+	void closeWebSocket(String channelId, Session session) {
+		PushChannel channel = getChannel(channelId);
+		if(channel != null && channel.closeWebSocket(session)) {
+			webSocketClosed();
+		}
+	}
+	
+	void webSocketClosed() {
+		openWebSockets.decrementAndGet();
+	}
+	
+	/**
+	 * Park the long-poll request until something changes or the timeout.
+	 * 
+	 * @param channelId The channel identifier
+	 * @param csrfToken The CSRF token of the window
+	 * @param request The request
+	 * @param response The response
+	 */
+	void longPoll(String channelId, String csrfToken, HttpServletRequest request, HttpServletResponse response)
+	throws IOException {
+		PushChannel channel = getChannel(channelId);
+		if(channel == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		if(!channel.checkCsrfToken(csrfToken)) {
+			response.sendError(HttpServletResponse.SC_FORBIDDEN);
+			return;
+		}
+		if(!acquireConnection()) {
+			response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			return;
+		}
+		
+		final AsyncContext ctx = request.startAsync(request, response);
+		ctx.setTimeout(longPollTimeout);
+		ctx.addListener(new AsyncListener() {
+			@Override
+			public void onTimeout(AsyncEvent event) {
+				if(channel.closeLongPoll(ctx, HttpServletResponse.SC_NO_CONTENT)) {
+					longPollClosed();
+					timeoutCounter.incrementAndGet();
+				}
+			}
+			
+			@Override
+			public void onError(AsyncEvent event) {
+				if(channel.closeLongPoll(ctx, -1)) {
+					longPollClosed();
+				}
+			}
+			
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+				//
+			}
+			
+			@Override
+			public void onComplete(AsyncEvent event) {
+				//
+			}
+		});
+		
+		openLongPolls.incrementAndGet();
+		if(!channel.openLongPoll(ctx)) {
+			// answered immediately
+			longPollClosed();
+		}
+	}
+	
+	void longPollClosed() {
+		openLongPolls.decrementAndGet();
+	}
+	
+	private boolean acquireConnection() {
+		if(openWebSockets.get() + openLongPolls.get() >= maxConnections) {
+			rejectedCounter.incrementAndGet();
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int getChannels() {
+		return channels.size();
+	}
+
+	@Override
+	public int getOpenWebSockets() {
+		return openWebSockets.get();
+	}
+
+	@Override
+	public int getOpenLongPolls() {
+		return openLongPolls.get();
+	}
+
+	@Override
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	@Override
+	public long getRejectedConnections() {
+		return rejectedCounter.get();
+	}
+
+	@Override
+	public long getSignals() {
+		return signalCounter.get();
+	}
+
+	@Override
+	public long getPushes() {
+		return pushCounter.get();
+	}
+
+	@Override
+	public long getLongPollTimeouts() {
+		return timeoutCounter.get();
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.CoreSpringFactory;
+import org.olat.core.logging.Tracing;
+
+/**
+ * The WebSocket endpoint of the push channels. The browser only receives
+ * messages, the messages it sends are keep alive for the proxies and
+ * are ignored.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class PushWebSocketEndpoint extends Endpoint {
+	
+	private static final Logger log = Tracing.createLoggerFor(PushWebSocketEndpoint.class);
+
+	@Override
+	public void onOpen(Session session, EndpointConfig config) {
+		String channelId = session.getPathParameters().get("channel");
+		List<String> csrfTokens = session.getRequestParameterMap().get("_csrf");
+		String csrfToken = csrfTokens == null || csrfTokens.isEmpty() ? null : csrfTokens.get(0);
+
+		session.addMessageHandler(String.class, new MessageHandler.Whole<String>() {
+			@Override
+			public void onMessage(String message) {
+				// keep alive
+			}
+		});
+		
+		CloseReason reason = getPushService().openWebSocket(channelId, csrfToken, session);
+		if(reason != null) {
+			try {
+				session.close(reason);
+			} catch (IOException e) {
+				log.debug("", e);
+			}
+		}
+	}
+
+	@Override
+	public void onClose(Session session, CloseReason closeReason) {
+		String channelId = session.getPathParameters().get("channel");
+		getPushService().closeWebSocket(channelId, session);
+	}
+
+	@Override
+	public void onError(Session session, Throwable thr) {
+		log.debug("Push WebSocket error", thr);
+	}
+	
+	private PushService getPushService() {
+		return CoreSpringFactory.getImpl(PushService.class);
+	}
+}
@@ -58,6 +58,9 @@ import org.olat.core.gui.control.ChiefController;
 import org.olat.core.gui.control.DefaultController;
 import org.olat.core.gui.control.Event;
 import org.olat.core.gui.control.WindowBackOffice;
+import org.olat.core.gui.control.pushpoll.PushChannel;
+import org.olat.core.gui.control.pushpoll.PushNotifier;
+import org.olat.core.gui.control.pushpoll.PushService;
 import org.olat.core.gui.control.pushpoll.WindowCommand;
 import org.olat.core.gui.media.DefaultMediaResource;
 import org.olat.core.gui.media.MediaResource;
@@ -106,7 +109,10 @@ public class AjaxController extends DefaultController {
 	private boolean ajaxEnabled;
 	
 	private WindowBackOffice wboImpl;
+	private PushChannel pushChannel;
 	
+	@Autowired
+	private PushService pushService;
 	@Autowired
 	private SessionStatsManager statsManager;
 
@@ -179,6 +185,14 @@ public class AjaxController extends DefaultController {
 		final String csrfToken = ureq.getUserSession().getCsrfToken();
 		myContent.contextPut("csrfToken", csrfToken);
 		
+		// push channel, the browser is notified of the changes instead of polling
+		if(ajaxEnabled && pushService.isEnabled()) {
+			pushChannel = pushService.createChannel(wboImpl, csrfToken);
+			myContent.contextPut("pushWebSocketUri", pushService.getWebSocketPath(pushChannel));
+			myContent.contextPut("pushLongPollUri", pushService.getLongPollPath(pushChannel));
+			myContent.contextPut("pushKeepAlivePeriod", Integer.valueOf(pushService.getKeepAlivePeriod()));
+		}
+		
 		mainP = new Panel("ajaxMainPanel");
 		mainP.setContent(myContent);
 		
@@ -410,6 +424,7 @@ public class AjaxController extends DefaultController {
 		mappers.add(mKey);
 		mappers.add(sbmKey);
 		CoreSpringFactory.getImpl(MapperService.class).cleanUp(mappers);
+		pushService.closeChannel(pushChannel);
 		if (ajaxEnabled && pollCount == 0) {
 			//the controller should be older than 40s otherwise poll may not started yet
 			if ((System.currentTimeMillis() - creationTime) > 40000) log.warn("Client did not send a single polling request though ajax is enabled!");
@@ -423,6 +438,9 @@ public class AjaxController extends DefaultController {
 		synchronized (windowcommands) { //o_clusterOK by:fj
 			windowcommands.add(wco);
 		}
+		if(pushChannel != null && !PushNotifier.isDispatching(wboImpl.getWindow())) {
+			pushChannel.signal(true);
+		}
 	}
 
 	/**
@@ -0,0 +1,42 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.io.File;
+
+/**
+ * A media resource which content is a file of the local file system. The
+ * ServletUtil transfers the content of these resources directly from the
+ * file channel to the response, without copying it through a buffer.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public interface FileBackedMediaResource extends MediaResource {
+	
+	/**
+	 * The file must deliver exactly the same content as the input stream
+	 * of the resource.
+	 * 
+	 * @return The file or null if the resource is not backed by a local file
+	 */
+	public File getFile();
+
+}
@@ -28,6 +28,7 @@ package org.olat.core.gui.media;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -35,6 +36,13 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -68,6 +76,12 @@ public class ServletUtil {
 	public static final long CACHE_ONE_HOUR = 60l * 60l;
 	public static final long CACHE_ONE_DAY = 24l * 60l * 60l;
 	
+	private static final String MIME_BOUNDARY = "OPENOLAT_MIME_BOUNDARY";
+	/**
+	 * Requests with more ranges are served with the full content
+	 */
+	private static final int MAX_RANGES = 32;
+	
 	
 	public static final void printOutRequestParameters(HttpServletRequest request) {
 		for(Enumeration<String> names=request.getParameterNames(); names.hasMoreElements(); ) {
@@ -106,10 +120,25 @@ public class ServletUtil {
 	public static void serveResource(HttpServletRequest httpReq, HttpServletResponse httpResp, MediaResource mr) {
 		boolean debug = log.isDebugEnabled();
 		try {
+			File file = getFile(mr);
+			String etag = file == null ? null : getETag(file);
+			if(etag != null) {
+				httpResp.setHeader("ETag", etag);
+			}
+			
+			String ifNoneMatch = etag == null ? null : httpReq.getHeader("If-None-Match");
+			if(ifNoneMatch != null) {
+				// If-None-Match has precedence over If-Modified-Since
+				if(matchETag(ifNoneMatch, etag, false)) {
+					httpResp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+					return;
+				}
+			}
+			
 			Long lastModified = mr.getLastModified();
 			if (lastModified != null) {
 				// give browser a chance to cache images
-				long ifModifiedSince = httpReq.getDateHeader("If-Modified-Since");
+				long ifModifiedSince = ifNoneMatch == null ? httpReq.getDateHeader("If-Modified-Since") : -1l;
 				long lastMod = lastModified.longValue();
 				if (ifModifiedSince >= (lastMod / 1000L) * 1000L) {
 					httpResp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
@@ -126,7 +155,11 @@ public class ServletUtil {
 				if (mime != null) {
 					httpResp.setContentType(mime);
 				}
-				serveFullResource(httpReq, httpResp, mr);
+				if(file != null) {
+					serveFileResource(httpReq, httpResp, mr, file, etag);
+				} else {
+					serveFullResource(httpReq, httpResp, mr);
+				}
 			}
 			
 			// else there is no stream, but probably just headers
@@ -213,7 +246,10 @@ public class ServletUtil {
 					httpResp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
 
 					int bufferSize = httpResp.getBufferSize();
+					long start = System.nanoTime();
 					copy(out, in, range, bufferSize);
+					CoreSpringFactory.getImpl(SessionStatsManager.class)
+						.addStreamedResource(length, System.nanoTime() - start, false);
 				} else {
 					if (size != null) {
 						httpResp.setContentLengthLong(size.longValue());
@@ -221,7 +257,10 @@ public class ServletUtil {
 					int bufferSize = httpResp.getBufferSize();
 					// buffer input stream
 					bis = new BufferedInputStream(in, bufferSize);
-					IOUtils.copyLarge(bis, out, new byte[bufferSize]);
+					long start = System.nanoTime();
+					long bytes = IOUtils.copyLarge(bis, out, new byte[bufferSize]);
+					CoreSpringFactory.getImpl(SessionStatsManager.class)
+						.addStreamedResource(bytes, System.nanoTime() - start, false);
 				}
 				
 				if (debug) {
@@ -238,6 +277,197 @@ public class ServletUtil {
 		}
 	}
 	
+	/**
+	 * Deliver the content of a file backed resource. The data are transferred
+	 * directly from the file channel to the response (full, single and multiple
+	 * ranges), without copying them through a buffer of the heap.
+	 */
+	private static void serveFileResource(HttpServletRequest httpReq, HttpServletResponse httpResp,
+			MediaResource mr, File file, String etag) {
+		boolean debug = log.isDebugEnabled();
+		
+		SessionStatsManager stats = CoreSpringFactory.getImpl(SessionStatsManager.class);
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// cache-control first
+			setCacheHeaders(httpResp, mr.getCacheControlDuration());
+			
+			long size = channel.size();
+			List<Range> ranges = null;
+			if(mr.acceptRanges()) {
+				httpResp.setHeader("Accept-Ranges", "bytes");
+				Long lastModified = mr.getLastModified();
+				ranges = parseRange(httpReq, httpResp, (lastModified == null ? -1 : lastModified.longValue()), etag, size);
+				if(httpResp.isCommitted()) {
+					return;// range not satisfiable
+				}
+				if(ranges != null && ranges.size() > MAX_RANGES) {
+					ranges = null;
+				}
+			}
+			
+			// maybe some more preparations
+			mr.prepare(httpResp);
+			
+			OutputStream out;
+			if (Settings.isDebuging()) {
+				SlowBandWidthSimulator sbs = Windows.getWindows(CoreSpringFactory.getImpl(UserSessionManager.class).getUserSession(httpReq)).getSlowBandWidthSimulator();
+				out = sbs.wrapOutputStream(httpResp.getOutputStream());
+			} else {
+				out = httpResp.getOutputStream();
+			}
+			WritableByteChannel target = Channels.newChannel(out);
+			
+			long bytes = 0;
+			long start = System.nanoTime();
+			try {
+				stats.incrementConcurrentStreamCounter();
+				if(ranges == null || ranges.isEmpty()) {
+					httpResp.setContentLengthLong(size);
+					bytes = transfer(channel, 0, size, target);
+				} else if(ranges.size() == 1) {
+					Range range = ranges.get(0);
+					long length = range.end - range.start + 1;
+					httpResp.addHeader("Content-Range", "bytes " + range.start + "-" + range.end + "/" + range.length);
+					httpResp.setContentLengthLong(length);
+					httpResp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+					bytes = transfer(channel, range.start, length, target);
+				} else {
+					bytes = transferRanges(httpResp, channel, ranges, out, target);
+				}
+			} finally {
+				stats.decrementConcurrentStreamCounter();
+				stats.addStreamedResource(bytes, System.nanoTime() - start, true);
+			}
+			
+			if (debug) {
+				log.debug("time to serve (mr={}) {} bytes: {}ms", mr.getClass().getName(), bytes,
+						((System.nanoTime() - start) / 1000000l));
+			}
+		} catch (IOException e) {
+			handleIOException("client browser probably abort when serving media resource", e);
+		}
+	}
+	
+	private static long transferRanges(HttpServletResponse httpResp, FileChannel channel, List<Range> ranges,
+			OutputStream out, WritableByteChannel target) throws IOException {
+		String mime = httpResp.getContentType();
+		
+		List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+		long contentLength = 0;
+		for(Range range:ranges) {
+			StringBuilder sb = new StringBuilder(128);
+			sb.append("\r\n--").append(MIME_BOUNDARY).append("\r\n");
+			if(mime != null) {
+				sb.append("Content-Type: ").append(mime).append("\r\n");
+			}
+			sb.append("Content-Range: bytes ").append(range.start).append("-").append(range.end)
+			  .append("/").append(range.length).append("\r\n\r\n");
+			byte[] partHeader = sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+			partHeaders.add(partHeader);
+			contentLength += partHeader.length + (range.end - range.start + 1);
+		}
+		byte[] closeBoundary = ("\r\n--" + MIME_BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+		contentLength += closeBoundary.length;
+		
+		httpResp.setContentType("multipart/byteranges; boundary=" + MIME_BOUNDARY);
+		httpResp.setContentLengthLong(contentLength);
+		httpResp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+		
+		long bytes = 0;
+		for(int i=0; i<ranges.size(); i++) {
+			Range range = ranges.get(i);
+			byte[] partHeader = partHeaders.get(i);
+			out.write(partHeader);
+			bytes += partHeader.length;
+			bytes += transfer(channel, range.start, range.end - range.start + 1, target);
+		}
+		out.write(closeBoundary);
+		return bytes + closeBoundary.length;
+	}
+	
+	/**
+	 * Transfer the specified region of the file to the target channel. Depending
+	 * of the operating system and of the target, the data are copied by the kernel
+	 * without passing through the heap.
+	 * 
+	 * @return The number of bytes transferred
+	 */
+	protected static long transfer(FileChannel channel, long position, long count, WritableByteChannel target)
+	throws IOException {
+		long transferred = 0;
+		while(transferred < count) {
+			long n = channel.transferTo(position + transferred, count - transferred, target);
+			if(n <= 0) {
+				break;// end of file, the file was truncated
+			}
+			transferred += n;
+		}
+		return transferred;
+	}
+	
+	private static File getFile(MediaResource mr) {
+		if(mr instanceof FileBackedMediaResource) {
+			File file = ((FileBackedMediaResource)mr).getFile();
+			if(file != null && file.isFile() && file.canRead()) {
+				return file;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * A strong entity tag based on the size, the last modification
+	 * date (in milliseconds) and the identity (inode) of the file.
+	 * 
+	 * @param file The file
+	 * @return The entity tag with its quotes or null if the attributes cannot be read
+	 */
+	protected static String getETag(File file) {
+		try {
+			BasicFileAttributes attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			StringBuilder sb = new StringBuilder(48);
+			sb.append('"').append(Long.toHexString(attrs.size()))
+			  .append('-').append(Long.toHexString(attrs.lastModifiedTime().toMillis()));
+			Object fileKey = attrs.fileKey();
+			if(fileKey != null) {
+				sb.append('-').append(Integer.toHexString(fileKey.hashCode()));
+			}
+			return sb.append('"').toString();
+		} catch (IOException e) {
+			log.debug("Cannot read attributes of file: {}", file, e);
+			return null;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param header The value of a If-None-Match or If-Range header
+	 * @param etag The entity tag of the resource
+	 * @param strong true to use the strong comparison (If-Range), false to use the weak one
+	 * @return true if one of the tags of the header matches the entity tag
+	 */
+	protected static boolean matchETag(String header, String etag, boolean strong) {
+		if(header == null || etag == null) return false;
+		
+		String trimmedHeader = header.trim();
+		if("*".equals(trimmedHeader)) {
+			return !strong;
+		}
+		for(StringTokenizer tokenizer = new StringTokenizer(trimmedHeader, ","); tokenizer.hasMoreTokens(); ) {
+			String tag = tokenizer.nextToken().trim();
+			if(tag.startsWith("W/")) {
+				if(strong) {
+					continue;
+				}
+				tag = tag.substring(2);
+			}
+			if(etag.equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	public static final void handleIOException(String msg, Exception e) {
 		try {
 			String className = e.getClass().getSimpleName();
@@ -306,10 +536,20 @@ public class ServletUtil {
 
 	protected static List<Range> parseRange(HttpServletRequest request, HttpServletResponse response, long lastModified, long fileLength)
 			throws IOException {
+		return parseRange(request, response, lastModified, null, fileLength);
+	}
+	
+	protected static List<Range> parseRange(HttpServletRequest request, HttpServletResponse response, long lastModified, String etag, long fileLength)
+			throws IOException {
 		
 		String headerValue = request.getHeader("If-Range");
 
-    if (headerValue != null) {
+    if (headerValue != null && (headerValue.startsWith("\"") || headerValue.startsWith("W/"))) {
+        // If the entity tag the client got doesn't match the current one,
+        // the entire entity is returned.
+        if (!matchETag(headerValue, etag, true))
+            return Collections.emptyList();
+    } else if (headerValue != null) {
         long headerValueTime = (-1L);
         try {
           headerValueTime = request.getDateHeader("If-Range");
@@ -0,0 +1,211 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.render;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.olat.core.gui.components.Component;
+import org.olat.core.gui.components.ComponentCollection;
+
+/**
+ * Cache of the HTML of the components of a window which are flagged as
+ * cacheable. An entry is valid as long as the fingerprint of the component
+ * is the same: the timestamps, the render versions and the visibility of
+ * the component and of all its children, the window timestamp used by the
+ * URLs, the locale and the render arguments. The size of the cache is
+ * limited by the total number of characters, the least recently used
+ * entries are removed first.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class RenderCache {
+	
+	private static final long FNV_OFFSET = 0xcbf29ce484222325l;
+	private static final long FNV_PRIME = 0x100000001b3l;
+	
+	private final long maxChars;
+	private long chars = 0l;
+	private final Map<String,CachedFragment> fragments = new LinkedHashMap<>(16, 0.75f, true);
+	
+	public RenderCache(long maxChars) {
+		this.maxChars = maxChars;
+	}
+	
+	/**
+	 * @param cmp The component
+	 * @param fingerprint The current fingerprint of the component
+	 * @return The cached HTML or null if not cached or outdated
+	 */
+	public synchronized String get(Component cmp, long fingerprint) {
+		CachedFragment fragment = fragments.get(cmp.getDispatchID());
+		if(fragment != null && fragment.fingerprint == fingerprint) {
+			RenderStatistics.cacheHit();
+			return fragment.html;
+		}
+		RenderStatistics.cacheMiss();
+		return null;
+	}
+	
+	/**
+	 * Fragments larger than a quarter of the budget of the cache
+	 * are not cached.
+	 * 
+	 * @param cmp The component
+	 * @param fingerprint The fingerprint of the component
+	 * @param html The HTML of the component
+	 */
+	public synchronized void put(Component cmp, long fingerprint, String html) {
+		remove(cmp);
+		if(html.length() > maxChars / 4) {
+			return;
+		}
+		
+		fragments.put(cmp.getDispatchID(), new CachedFragment(fingerprint, html));
+		chars += html.length();
+		for(Iterator<CachedFragment> it=fragments.values().iterator(); chars > maxChars && it.hasNext(); ) {
+			chars -= it.next().html.length();
+			it.remove();
+		}
+	}
+	
+	public synchronized void remove(Component cmp) {
+		CachedFragment fragment = fragments.remove(cmp.getDispatchID());
+		if(fragment != null) {
+			chars -= fragment.html.length();
+		}
+	}
+	
+	public synchronized void clear() {
+		fragments.clear();
+		chars = 0l;
+	}
+	
+	public synchronized int size() {
+		return fragments.size();
+	}
+	
+	public synchronized long getChars() {
+		return chars;
+	}
+	
+	/**
+	 * Calculate the fingerprint of the component and of all its visible children.
+	 * 
+	 * @param cmp The component
+	 * @param ubu The URL builder of the component
+	 * @param args The render arguments
+	 * @param ajax If the AJAX mode is on
+	 * @return The fingerprint or null if a component of the tree changes without dirty marking
+	 */
+	public static Fingerprint fingerprint(Component cmp, URLBuilder ubu, String[] args, boolean ajax) {
+		long hash = FNV_OFFSET;
+		hash = mix(hash, ubu.getUriPrefix());
+		hash = mix(hash, ubu.getTimestampID());
+		hash = mix(hash, ajax ? 1l : 0l);
+		if(args != null) {
+			for(String arg:args) {
+				hash = mix(hash, arg);
+			}
+		}
+		Locale locale = cmp.getTranslator() == null ? null : cmp.getTranslator().getLocale();
+		hash = mix(hash, locale == null ? null : locale.toString());
+		
+		boolean dirty = false;
+		Deque<Component> toVisit = new ArrayDeque<>();
+		toVisit.add(cmp);
+		while(!toVisit.isEmpty()) {
+			Component current = toVisit.poll();
+			if(current.isSilentlyDynamicalCmp()) {
+				return null;
+			}
+			dirty |= current.isDirty();
+			hash = mix(hash, current.getDispatchID());
+			hash = mix(hash, current.getTimestamp());
+			hash = mix(hash, current.getRenderVersion());
+			hash = mix(hash, current.isVisible() ? 1l : 0l);
+			if(current.isVisible() && current instanceof ComponentCollection) {
+				for(Component child:((ComponentCollection)current).getComponents()) {
+					if(child != null) {
+						toVisit.add(child);
+					}
+				}
+			}
+		}
+		return new Fingerprint(hash, dirty);
+	}
+	
+	private static long mix(long hash, String value) {
+		if(value == null) {
+			return mix(hash, -1l);
+		}
+		for(int i=0; i<value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= FNV_PRIME;
+		}
+		return mix(hash, value.length());
+	}
+	
+	private static long mix(long hash, long value) {
+		for(int i=0; i<8; i++) {
+			hash ^= (value >>> (i * 8)) & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+	
+	public static class Fingerprint {
+		
+		private final long value;
+		private final boolean dirty;
+		
+		public Fingerprint(long value, boolean dirty) {
+			this.value = value;
+			this.dirty = dirty;
+		}
+		
+		public long getValue() {
+			return value;
+		}
+		
+		/**
+		 * @return true if the component or one of its children is dirty
+		 */
+		public boolean isDirty() {
+			return dirty;
+		}
+	}
+	
+	private static class CachedFragment {
+		
+		private final long fingerprint;
+		private final String html;
+		
+		public CachedFragment(long fingerprint, String html) {
+			this.fingerprint = fingerprint;
+			this.html = html;
+		}
+	}
+}
@@ -39,6 +39,11 @@ public class RenderResult {
 	private AsyncMediaResponsible asyncMediaResponsible;
 	private int nestedLevel = 0;
 	private InterceptHandlerInstance interceptHandlerInstance;
+	private RenderCache renderCache;
+	// time spent by the children of the component being rendered
+	private long childRenderNanos = 0l;
+	// number of changes made by the renderers, see the render cache
+	private int changes = 0;
 	
 	
 	/**
@@ -61,6 +66,7 @@ public class RenderResult {
 	 */
 	public void setAsyncMediaResponsible(AsyncMediaResponsible asyncMediaResponsible) {
 		this.asyncMediaResponsible = asyncMediaResponsible;
+		changes++;
 	}
 
 	/**
@@ -95,6 +101,7 @@ public class RenderResult {
 		if (this.logMsg == null) {
 			this.logMsg = logMsg;
 			this.renderException = renderException;
+			changes++;
 		}
 	}
 
@@ -124,6 +131,34 @@ public class RenderResult {
 	 */
 	public void setInterceptHandlerRenderInstance(InterceptHandlerInstance interceptHandlerInstance) {
 		this.interceptHandlerInstance = interceptHandlerInstance;
+		changes++;
+	}
+
+	/**
+	 * @return The render cache of the window or null
+	 */
+	public RenderCache getRenderCache() {
+		return renderCache;
+	}
+
+	public void setRenderCache(RenderCache renderCache) {
+		this.renderCache = renderCache;
+	}
+
+	long getChildRenderNanos() {
+		return childRenderNanos;
+	}
+
+	void setChildRenderNanos(long childRenderNanos) {
+		this.childRenderNanos = childRenderNanos;
+	}
+	
+	/**
+	 * @return The number of times the render result was changed, a component
+	 * 		which changes it while rendering cannot be cached
+	 */
+	int getChanges() {
+		return changes;
 	}
 
 
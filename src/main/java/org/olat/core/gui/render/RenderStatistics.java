@@ -0,0 +1,245 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.render;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.olat.core.commons.services.jmx.JMXManager;
+import org.olat.core.gui.components.Component;
+import org.olat.core.gui.components.velocity.VelocityContainer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Collect the render times per type of component (the template for the
+ * velocity containers) to see which components dominate the latency of
+ * the pages. The time of a component is measured with and without the
+ * time spent by its children. It holds the settings of the render cache
+ * and of the deferred rendering, the static methods are used by the
+ * renderer and the windows which are not managed by Spring.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+@Service
+public class RenderStatistics implements RenderStatisticsMBean, InitializingBean, DisposableBean {
+	
+	public static final String JMX_OBJECT_NAME = "org.olat.core.gui.render:type=RenderStatistics";
+	
+	private static final int MAX_KEYS = 1000;
+	private static final int MAX_LINES = 50;
+	private static final String OTHER_KEY = "other";
+	
+	private static volatile RenderStatistics instance;
+	
+	@Value("${render.statistics.enabled:true}")
+	private boolean statisticsEnabled;
+	@Value("${render.cache.enabled:true}")
+	private boolean cacheEnabled;
+	@Value("${render.cache.max.chars:500000}")
+	private long cacheMaxChars;
+	@Value("${render.deferred.enabled:true}")
+	private boolean deferredEnabled;
+	
+	private final ConcurrentMap<String,RenderTimes> times = new ConcurrentHashMap<>();
+	private final LongAdder cacheHits = new LongAdder();
+	private final LongAdder cacheMisses = new LongAdder();
+	private final LongAdder deferredRenderings = new LongAdder();
+
+	@Autowired
+	private JMXManager jmxManager;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		instance = this;
+		if(jmxManager != null && jmxManager.isActive()) {
+			jmxManager.registerMBean(JMX_OBJECT_NAME, this);
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		instance = null;
+		if(jmxManager != null && jmxManager.isActive()) {
+			jmxManager.unregisterMBean(JMX_OBJECT_NAME);
+		}
+	}
+	
+	/**
+	 * @return A new render cache for a window or null if the cache is disabled
+	 */
+	public static RenderCache createRenderCache() {
+		RenderStatistics statistics = instance;
+		if(statistics == null || !statistics.cacheEnabled || statistics.cacheMaxChars <= 0) {
+			return null;
+		}
+		return new RenderCache(statistics.cacheMaxChars);
+	}
+	
+	public static boolean isDeferredRenderingEnabled() {
+		RenderStatistics statistics = instance;
+		return statistics != null && statistics.deferredEnabled;
+	}
+	
+	/**
+	 * @param cmp The rendered component
+	 * @param totalNanos The render time of the component and its children
+	 * @param selfNanos The render time of the component without its children
+	 */
+	static void record(Component cmp, long totalNanos, long selfNanos) {
+		RenderStatistics statistics = instance;
+		if(statistics != null && statistics.statisticsEnabled) {
+			statistics.getTimes(cmp).record(totalNanos, selfNanos);
+		}
+	}
+	
+	static void cacheHit() {
+		RenderStatistics statistics = instance;
+		if(statistics != null) {
+			statistics.cacheHits.increment();
+		}
+	}
+	
+	static void cacheMiss() {
+		RenderStatistics statistics = instance;
+		if(statistics != null) {
+			statistics.cacheMisses.increment();
+		}
+	}
+	
+	public static void renderingDeferred() {
+		RenderStatistics statistics = instance;
+		if(statistics != null) {
+			statistics.deferredRenderings.increment();
+		}
+	}
+	
+	private RenderTimes getTimes(Component cmp) {
+		String key = getKey(cmp);
+		RenderTimes renderTimes = times.get(key);
+		if(renderTimes == null) {
+			if(times.size() >= MAX_KEYS) {
+				key = OTHER_KEY;
+			}
+			renderTimes = times.computeIfAbsent(key, k -> new RenderTimes());
+		}
+		return renderTimes;
+	}
+	
+	private static String getKey(Component cmp) {
+		if(cmp instanceof VelocityContainer) {
+			String page = ((VelocityContainer)cmp).getPage();
+			return page == null ? "VelocityContainer" : page;
+		}
+		String name = cmp.getClass().getSimpleName();
+		return name.isEmpty() ? cmp.getClass().getName() : name;
+	}
+
+	@Override
+	public String[] getSlowestComponents() {
+		// snapshot, the times change while sorting
+		List<TimesSnapshot> snapshots = new ArrayList<>(times.size());
+		for(Map.Entry<String,RenderTimes> entry:times.entrySet()) {
+			snapshots.add(new TimesSnapshot(entry.getKey(), entry.getValue()));
+		}
+		snapshots.sort(Comparator.comparingLong((TimesSnapshot snapshot) -> snapshot.selfNanos).reversed());
+		
+		int numOfLines = Math.min(MAX_LINES, snapshots.size());
+		String[] lines = new String[numOfLines];
+		for(int i=0; i<numOfLines; i++) {
+			TimesSnapshot snapshot = snapshots.get(i);
+			lines[i] = String.format(Locale.ENGLISH, "%s count=%d self=%.1fms avg=%.2fms max=%.1fms total=%.1fms",
+					snapshot.key, snapshot.count, toMillis(snapshot.selfNanos),
+					toMillis(snapshot.selfNanos / Math.max(1l, snapshot.count)),
+					toMillis(snapshot.maxSelfNanos), toMillis(snapshot.totalNanos));
+		}
+		return lines;
+	}
+	
+	private static double toMillis(long nanos) {
+		return nanos / 1000000.0d;
+	}
+
+	@Override
+	public long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	@Override
+	public long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+
+	@Override
+	public long getDeferredRenderings() {
+		return deferredRenderings.sum();
+	}
+
+	@Override
+	public void reset() {
+		times.clear();
+		cacheHits.reset();
+		cacheMisses.reset();
+		deferredRenderings.reset();
+	}
+	
+	private static class RenderTimes {
+		
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAdder selfNanos = new LongAdder();
+		private final LongAccumulator maxSelfNanos = new LongAccumulator(Long::max, 0l);
+		
+		void record(long total, long self) {
+			count.increment();
+			totalNanos.add(total);
+			selfNanos.add(self);
+			maxSelfNanos.accumulate(self);
+		}
+	}
+	
+	private static class TimesSnapshot {
+		
+		private final String key;
+		private final long count;
+		private final long totalNanos;
+		private final long selfNanos;
+		private final long maxSelfNanos;
+		
+		public TimesSnapshot(String key, RenderTimes renderTimes) {
+			this.key = key;
+			count = renderTimes.count.sum();
+			totalNanos = renderTimes.totalNanos.sum();
+			selfNanos = renderTimes.selfNanos.sum();
+			maxSelfNanos = renderTimes.maxSelfNanos.get();
+		}
+	}
+}
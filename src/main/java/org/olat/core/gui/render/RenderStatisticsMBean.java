@@ -0,0 +1,45 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.render;
+
+/**
+ * JMX view of the render times of the components and of the render cache.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public interface RenderStatisticsMBean {
+	
+	/**
+	 * @return One line per type of component with the count and the render
+	 * 		times (ms), ordered by the total time spent by the component itself
+	 * 		without its children
+	 */
+	public String[] getSlowestComponents();
+	
+	public long getCacheHits();
+	
+	public long getCacheMisses();
+	
+	public long getDeferredRenderings();
+	
+	public void reset();
+
+}
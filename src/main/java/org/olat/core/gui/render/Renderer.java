@@ -230,7 +230,7 @@ public class Renderer {
 			
 			try {
 				int preRenderLength = sb.length();
-				cr.render(this, sb, source, cubu, componentTranslator, renderResult, args);
+				renderComponent(sb, source, cr, cubu, componentTranslator, args, ajaxon || forceDebugDivs, dhi != null);
 				if (preRenderLength == sb.length()) {
 					// Add bugfix for IE min-height on empty div problem: min-height does
 					// not get applied when div contains an empty comment.
@@ -274,6 +274,45 @@ public class Renderer {
 		}
 	}
 
+	/**
+	 * Render the component or take its HTML from the render cache, and
+	 * record the render time of the component.
+	 */
+	private void renderComponent(StringOutput sb, Component source, ComponentRenderer cr, URLBuilder cubu,
+			Translator componentTranslator, String[] args, boolean ajax, boolean intercepted) {
+		RenderCache cache = renderResult.getRenderCache();
+		RenderCache.Fingerprint fingerprint = null;
+		if(cache != null && !intercepted && source.isRenderCacheable()) {
+			fingerprint = RenderCache.fingerprint(source, cubu, args, ajax);
+			if(fingerprint != null && !fingerprint.isDirty()) {
+				String html = cache.get(source, fingerprint.getValue());
+				if(html != null) {
+					sb.append(html);
+					return;
+				}
+			}
+		}
+		
+		int start = sb.length();
+		int changes = renderResult.getChanges();
+		long parentChildNanos = renderResult.getChildRenderNanos();
+		renderResult.setChildRenderNanos(0l);
+		long startNanos = System.nanoTime();
+		try {
+			cr.render(this, sb, source, cubu, componentTranslator, renderResult, args);
+		} finally {
+			long duration = System.nanoTime() - startNanos;
+			RenderStatistics.record(source, duration, duration - renderResult.getChildRenderNanos());
+			renderResult.setChildRenderNanos(parentChildNanos + duration);
+		}
+		
+		// a cache hit only replays the HTML, components which register something
+		// in the render result (asynchronous media, error...) are not cached
+		if(fingerprint != null && changes == renderResult.getChanges()) {
+			cache.put(source, fingerprint.getValue(), sb.getBuffer().substring(start));
+		}
+	}
+
 	private ComponentRenderer findComponentRenderer(Component toRender) {
 		return toRender.getHTMLRendererSingleton();
 	}
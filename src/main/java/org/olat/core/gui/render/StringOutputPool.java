@@ -21,116 +21,228 @@ package org.olat.core.gui.render;
 
 import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * the pool is based on the implementation of Slobodan Celenkovic:<br/>
- * http://www.jroller.com/slobodan/date/20050309<br/>
+ * Recycle the string outputs used by the rendering. Every thread has its
+ * own pool, no lock is needed to allocate or free a buffer. The buffers
+ * are sorted in size classes with a limited number of slots. The small
+ * buffers are hold strongly, the medium and large ones only softly to let
+ * the garbage collector reclaim them under memory pressure. Buffers larger
+ * than the biggest class are never retained.<br>
+ * A buffer can be freed by another thread than the one which allocated it,
+ * it lands simply in the pool of the thread which frees it.
  * 
  * Initial date: 10.01.2013<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
  *
  */
 public class StringOutputPool {
+	
+	/** Upper limit (exclusive) of the capacity of the small buffers */
+	protected static final int SMALL_CAPACITY = 4096;
+	/** Upper limit (exclusive) of the capacity of the medium buffers */
+	protected static final int MEDIUM_CAPACITY = 65536;
+	/** Upper limit (exclusive) of the capacity of retained buffers, too big, don't return it to prevent memory leak */
+	protected static final int MAX_CAPACITY = 262144;
+	
+	protected static final int SMALL_SLOTS = 8;
+	protected static final int MEDIUM_SLOTS = 4;
+	protected static final int LARGE_SLOTS = 2;
+	
+	private static final ThreadLocal<ThreadPool> pools = ThreadLocal.withInitial(ThreadPool::new);
+	
+	private static final LongAdder recycled = new LongAdder();
+	private static final LongAdder allocated = new LongAdder();
+	private static final LongAdder discarded = new LongAdder();
+	
+	private StringOutputPool() {
+		//
+	}
 
-	/** Max pool size */
-  protected final static int MAX_STR_BUILDER_POOL_SIZE = 50;
-
-  /** General purpose pool for StringBuilder instances. */
-  private static List<Reference<StringOutput>> stringBuilders = new ArrayList<>(MAX_STR_BUILDER_POOL_SIZE+1);
-
-  /** Auxiliary pool for small size builders. It is a simple sparse array with
-      elements not sorted. Buffers are simply placed in and taken out. In
-      general, when storing buffers preference is given to large buffers. */
-  private static final StringOutput auxStringBuilders[] =
-    new StringOutput[ 10 ];
-
-
-  /** Allocates a string builder instance using recycling. Doesn't guarantee
-      that the returned object will have the requested size!
-      @param size (optional) builder size
-      @return builder instance */
-  public static StringOutput allocStringBuilder(final int size)  {
-    assert size > 0;
-    if ( size < 4096 ) {        // Smaller buffer? -> use auxiliary pool
-      synchronized ( auxStringBuilders ) {
-        for(int index=0; index < auxStringBuilders.length; index++)
-          if ((auxStringBuilders[index] != null) &&
-              (auxStringBuilders[index].capacity() >= size)) {
-          	StringOutput res = auxStringBuilders[ index ];
-            auxStringBuilders[ index ] = null;
-            return res;
-          }
-      }
-      return new StringOutput(size);
-    } else {// Bigger buffers? -> use primary pool
-      synchronized ( stringBuilders ) { // pool lookup
-        if ( stringBuilders.isEmpty())  {
-        	return new StringOutput(size);
-        }
-
-        StringOutput res =null;
-        for (Iterator<Reference<StringOutput>> seq=stringBuilders.iterator(); seq.hasNext(); ) {
-          res = seq.next().get();
-          if ( res == null ) {
-          	seq.remove(); // no longer available, cleanup
-          }  else if ( res.capacity() >= size ) {
-            seq.remove();
-            return res;
-          }
-        } // for
-      } // sync
-    } // else
-
-    return new StringOutput(size);
-  } // allocStringBuilder
-  
-  /** Supplies object instance for recycling. The object could have been
-  allocated using any means. Caller must not continue using it after this
-  method call.
-  @param obj discarded builder instance */
+	/**
+	 * Allocates a string builder instance using recycling. Doesn't guarantee
+	 * that the returned object will have the requested size!
+	 * 
+	 * @param size (optional) builder size
+	 * @return builder instance
+	 */
+	public static StringOutput allocStringBuilder(final int size) {
+		StringOutput res = size < MAX_CAPACITY ? pools.get().alloc(size) : null;
+		if(res == null) {
+			allocated.increment();
+			res = new StringOutput(size);
+		} else {
+			recycled.increment();
+		}
+		return res;
+	}
+	
+	/**
+	 * Supplies object instance for recycling. The object could have been
+	 * allocated using any means. Caller must not continue using it after this
+	 * method call.
+	 * 
+	 * @param obj discarded builder instance
+	 */
 	public static void free(final StringOutput obj) {
-		if ( obj.capacity() < 4096 ) { // Smaller buffer? -> use auxiliary pool
-		  synchronized ( auxStringBuilders ) {
-		    int minIndex =-1, minSize = Integer.MAX_VALUE, size =0;
-		    for(int index=0; index < auxStringBuilders.length; index++) {
-		      if ( auxStringBuilders[index] == null ) {
-		        obj.setLength(0);
-		        auxStringBuilders[ index ] = obj;
-		        return;
-		      }
-		
-		      if ((size= auxStringBuilders[index].capacity()) < minSize) {
-		        minIndex = index;
-		        minSize = size;
-		      }
-		    }
+		if(obj == null) return;
 		
-		    if ( minSize < obj.capacity() ) {
-		      obj.setLength(0);
-		      auxStringBuilders[minIndex] = obj;
-		    }
-		  }
-		} else if(obj.capacity() < 250000) {
-			// Bigger buffers? -> use primary pool, too big, don't return it to prevent memory leak
-		  synchronized ( stringBuilders ) {
-	      obj.setLength(0);
-		    stringBuilders.add(0, new SoftReference<>(obj));
-		    if ( stringBuilders.size() > MAX_STR_BUILDER_POOL_SIZE ) {
-		      stringBuilders.remove(MAX_STR_BUILDER_POOL_SIZE);
-		    }
-		  }
+		if(obj.capacity() < MAX_CAPACITY) {
+			obj.setLength(0);
+			if(!pools.get().free(obj)) {
+				discarded.increment();
+			}
+		} else {
+			discarded.increment();
 		}
-	} // free
+	}
 	
-	/** Frees the string builder and returns its contents before cleanup.
-	  @param obj buffer to free
-	  @return buffer's contents before cleanup */
+	/**
+	 * Frees the string builder and returns its contents before cleanup.
+	 * 
+	 * @param obj buffer to free
+	 * @return buffer's contents before cleanup
+	 */
 	public static String freePop(final StringOutput obj) {
 		String res = obj.toString();
-		free( obj );
+		free(obj);
 		return res;
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * @return The number of buffers served from the pools
+	 */
+	public static long getRecycled() {
+		return recycled.sum();
+	}
+	
+	/**
+	 * @return The number of buffers which were allocated because no buffer
+	 * 		was available in the pool
+	 */
+	public static long getAllocated() {
+		return allocated.sum();
+	}
+	
+	/**
+	 * @return The number of buffers freed but not retained by the pools
+	 */
+	public static long getDiscarded() {
+		return discarded.sum();
+	}
+	
+	/**
+	 * The pool of a thread. It's only used by its own thread
+	 * and doesn't need any synchronization.
+	 */
+	private static class ThreadPool {
+		
+		private final StringOutput[] small = new StringOutput[SMALL_SLOTS];
+		@SuppressWarnings("unchecked")
+		private final Reference<StringOutput>[] medium = new Reference[MEDIUM_SLOTS];
+		@SuppressWarnings("unchecked")
+		private final Reference<StringOutput>[] large = new Reference[LARGE_SLOTS];
+		
+		StringOutput alloc(int size) {
+			StringOutput res = null;
+			if(size < SMALL_CAPACITY) {
+				res = take(small, size);
+			}
+			if(res == null && size < MEDIUM_CAPACITY) {
+				res = take(medium, size);
+			}
+			if(res == null) {
+				res = take(large, size);
+			}
+			return res;
+		}
+		
+		boolean free(StringOutput obj) {
+			int capacity = obj.capacity();
+			if(capacity < SMALL_CAPACITY) {
+				return put(small, obj);
+			}
+			if(capacity < MEDIUM_CAPACITY) {
+				return put(medium, obj);
+			}
+			return put(large, obj);
+		}
+		
+		private static StringOutput take(StringOutput[] slots, int size) {
+			for(int i=slots.length; i-->0; ) {
+				StringOutput candidate = slots[i];
+				if(candidate != null && candidate.capacity() >= size) {
+					slots[i] = null;
+					return candidate;
+				}
+			}
+			return null;
+		}
+		
+		private static StringOutput take(Reference<StringOutput>[] slots, int size) {
+			for(int i=slots.length; i-->0; ) {
+				Reference<StringOutput> ref = slots[i];
+				if(ref != null) {
+					StringOutput candidate = ref.get();
+					if(candidate == null) {
+						slots[i] = null;// reclaimed by the garbage collector
+					} else if(candidate.capacity() >= size) {
+						slots[i] = null;
+						return candidate;
+					}
+				}
+			}
+			return null;
+		}
+		
+		/**
+		 * Take a free slot or replace the smallest buffer if the new one is bigger.
+		 */
+		private static boolean put(StringOutput[] slots, StringOutput obj) {
+			int minIndex = -1;
+			int minCapacity = Integer.MAX_VALUE;
+			for(int i=0; i<slots.length; i++) {
+				StringOutput slot = slots[i];
+				if(slot == null) {
+					slots[i] = obj;
+					return true;
+				} else if(slot == obj) {
+					return true;// freed twice
+				} else if(slot.capacity() < minCapacity) {
+					minIndex = i;
+					minCapacity = slot.capacity();
+				}
+			}
+			
+			if(minCapacity < obj.capacity()) {
+				slots[minIndex] = obj;
+				return true;
+			}
+			return false;
+		}
+		
+		private static boolean put(Reference<StringOutput>[] slots, StringOutput obj) {
+			int minIndex = -1;
+			int minCapacity = Integer.MAX_VALUE;
+			for(int i=0; i<slots.length; i++) {
+				StringOutput slot = slots[i] == null ? null : slots[i].get();
+				if(slot == null) {
+					slots[i] = new SoftReference<>(obj);
+					return true;
+				} else if(slot == obj) {
+					return true;// freed twice
+				} else if(slot.capacity() < minCapacity) {
+					minIndex = i;
+					minCapacity = slot.capacity();
+				}
+			}
+			
+			if(minCapacity < obj.capacity()) {
+				slots[minIndex] = new SoftReference<>(obj);
+				return true;
+			}
+			return false;
+		}
+	}
+}
@@ -308,4 +308,8 @@ public class URLBuilder {
 	String getUriPrefix() {
 		return uriPrefix;
 	}
+
+	String getTimestampID() {
+		return timestampID;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,284 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.logging.activity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.EntityManager;
+
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.jmx.JMXManager;
+import org.olat.core.logging.Tracing;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Write the user activity log entries in batches in a background thread.
+ * The entries are queued in a bounded buffer. If the buffer is full, the
+ * caller waits a short time (back-pressure) and the entry is dropped if
+ * there is still no space available. The buffer is flushed when a batch
+ * is full, after the flush interval and at shutdown.
+ *
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class UserActivityLogWriter implements UserActivityLogWriterMBean, InitializingBean, DisposableBean {
+
+	private static final Logger log = Tracing.createLoggerFor(UserActivityLogWriter.class);
+
+	public static final String JMX_OBJECT_NAME = "org.olat.core.logging.activity:type=UserActivityLogWriter";
+
+	private final DB dbInstance;
+	private final JMXManager jmxManager;
+
+	private boolean enabled;
+	private int queueSize;
+	private int batchSize;
+	private long flushInterval;
+	private long offerTimeout;
+
+	private BlockingQueue<LoggingObject> queue;
+	private Thread flusher;
+	private volatile boolean running = false;
+
+	private final AtomicLong queuedCounter = new AtomicLong();
+	private final AtomicLong flushedCounter = new AtomicLong();
+	private final AtomicLong droppedCounter = new AtomicLong();
+	private final AtomicLong failedCounter = new AtomicLong();
+	private final AtomicLong overflowCounter = new AtomicLong();
+	private final AtomicLong batchCounter = new AtomicLong();
+
+	/**
+	 * [spring]
+	 */
+	public UserActivityLogWriter(DB dbInstance, JMXManager jmxManager) {
+		this.dbInstance = dbInstance;
+		this.jmxManager = jmxManager;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	public void setOfferTimeout(long offerTimeout) {
+		this.offerTimeout = offerTimeout;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if(!enabled) {
+			log.info("Asynchronous user activity logging disabled");
+			return;
+		}
+
+		queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+		running = true;
+		flusher = new Thread(this::flushLoop, "oo-activity-log-writer");
+		flusher.setDaemon(true);
+		flusher.start();
+
+		if(jmxManager != null && jmxManager.isActive()) {
+			jmxManager.registerMBean(JMX_OBJECT_NAME, this);
+		}
+		log.info("Asynchronous user activity logging started (queue: {}, batch: {}, interval: {}ms)",
+				queueSize, batchSize, flushInterval);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if(!running) return;
+
+		running = false;
+		if(flusher != null) {
+			flusher.interrupt();
+			try {
+				flusher.join(10000);
+			} catch (InterruptedException e) {
+				log.warn("Interrupted while waiting the activity log writer", e);
+				Thread.currentThread().interrupt();
+			}
+		}
+		// flush what is left
+		flushAll();
+
+		if(jmxManager != null && jmxManager.isActive()) {
+			jmxManager.unregisterMBean(JMX_OBJECT_NAME);
+		}
+		log.info("Asynchronous user activity logging stopped (flushed: {}, dropped: {})",
+				flushedCounter.get(), droppedCounter.get());
+	}
+
+	/**
+	 * @return true if the writer accepts log entries
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Queue the log entry. If the writer is not running, the log entry
+	 * is saved synchronously within the current transaction.
+	 *
+	 * @param logObj The log entry to write
+	 */
+	public void write(LoggingObject logObj) {
+		if(!running) {
+			dbInstance.saveObject(logObj);
+			return;
+		}
+
+		if(queue.offer(logObj)) {
+			queuedCounter.incrementAndGet();
+			return;
+		}
+
+		// back-pressure: the buffer is full, wait a little
+		overflowCounter.incrementAndGet();
+		try {
+			if(offerTimeout > 0 && queue.offer(logObj, offerTimeout, TimeUnit.MILLISECONDS)) {
+				queuedCounter.incrementAndGet();
+			} else {
+				droppedCounter.incrementAndGet();
+				log.debug("Activity log buffer full, log entry dropped: {}", logObj);
+			}
+		} catch (InterruptedException e) {
+			droppedCounter.incrementAndGet();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Write synchronously all the entries of the buffer.
+	 */
+	public void flushAll() {
+		if(queue == null) return;
+
+		List<LoggingObject> batch = new ArrayList<>(batchSize);
+		while(queue.drainTo(batch, batchSize) > 0) {
+			writeBatch(batch);
+			batch.clear();
+		}
+	}
+
+	private void flushLoop() {
+		List<LoggingObject> batch = new ArrayList<>(batchSize);
+		while(running) {
+			try {
+				LoggingObject first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+				if(first != null) {
+					batch.add(first);
+					queue.drainTo(batch, batchSize - 1);
+					writeBatch(batch);
+					batch.clear();
+				}
+			} catch (InterruptedException e) {
+				// shutdown, the rest is flushed by destroy()
+				break;
+			} catch (Exception e) {
+				log.error("", e);
+			}
+		}
+
+		if(!batch.isEmpty()) {
+			writeBatch(batch);
+		}
+	}
+
+	private void writeBatch(List<LoggingObject> batch) {
+		if(batch.isEmpty()) return;
+
+		try {
+			EntityManager em = dbInstance.getCurrentEntityManager();
+			Session session = em.unwrap(Session.class);
+			if(session != null) {
+				session.setJdbcBatchSize(batchSize);
+			}
+			for(LoggingObject logObj:batch) {
+				em.persist(logObj);
+			}
+			dbInstance.commitAndCloseSession();
+			flushedCounter.addAndGet(batch.size());
+			batchCounter.incrementAndGet();
+		} catch (Exception e) {
+			log.error("Cannot write {} activity log entries", batch.size(), e);
+			dbInstance.rollbackAndCloseSession();
+			failedCounter.addAndGet(batch.size());
+		}
+	}
+
+	@Override
+	public long getQueued() {
+		return queuedCounter.get();
+	}
+
+	@Override
+	public long getFlushed() {
+		return flushedCounter.get();
+	}
+
+	@Override
+	public long getDropped() {
+		return droppedCounter.get();
+	}
+
+	@Override
+	public long getFailed() {
+		return failedCounter.get();
+	}
+
+	@Override
+	public long getOverflows() {
+		return overflowCounter.get();
+	}
+
+	@Override
+	public long getBatches() {
+		return batchCounter.get();
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return queue == null ? 0 : queue.size();
+	}
+
+	@Override
+	public int getQueueCapacity() {
+		return queue == null ? 0 : queueSize;
+	}
+}
@@ -726,7 +726,7 @@ public class UserActivityLoggerImpl implements IUserActivityLogger {
 			//@TODO: lower to log_.info once we checked that it doesn't occur very often (best for 6.4)
 			log_.warn("log: DB is in Error state therefore the UserActivityLoggerImpl cannot store the following logging action into the loggingtable: "+logObj);
 		} else {
-			DBFactory.getInstance().saveObject(logObj);
+			CoreSpringFactory.getImpl(UserActivityLogWriter.class).write(logObj);
 		}
 		if (log_.isDebugEnabled()) {
 			Long logEnd = System.currentTimeMillis();
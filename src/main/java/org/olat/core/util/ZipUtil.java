@@ -40,11 +40,17 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
@@ -56,6 +62,7 @@ import org.olat.core.commons.services.vfs.manager.MetaInfoReader;
 import org.olat.core.id.Identity;
 import org.olat.core.logging.OLATRuntimeException;
 import org.olat.core.logging.Tracing;
+import org.olat.core.util.io.ParallelZipOutputStream;
 import org.olat.core.util.io.ShieldInputStream;
 import org.olat.core.util.io.ShieldOutputStream;
 import org.olat.core.util.vfs.LocalFileImpl;
@@ -115,6 +122,91 @@ public class ZipUtil {
 		}
 	}
 	
+	/**
+	 * Unzip a file to a directory. The entries are decompressed and written
+	 * in parallel by the specified workers. Entries which would be written
+	 * outside of the target directory are skipped.
+	 * 
+	 * @param zipFile The zip file to unzip
+	 * @param targetDir The directory to unzip the file to
+	 * @param executor The workers
+	 * @return True if successful, false otherwise
+	 */
+	public static boolean unzip(File zipFile, File targetDir, ExecutorService executor) {
+		long start = System.nanoTime();
+		Path target = targetDir.toPath().toAbsolutePath().normalize();
+		List<Future<Long>> futures = new ArrayList<>();
+		try(ZipFile zip = new ZipFile(zipFile)) {
+			// decode all the names before submitting anything, the fallback
+			// must not run with tasks still writing the same files
+			List<Path> directories = new ArrayList<>();
+			List<ZipEntry> files = new ArrayList<>();
+			List<Path> filesPaths = new ArrayList<>();
+			for(Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+				ZipEntry entry = entries.nextElement();
+				Path of = target.resolve(entry.getName()).normalize();
+				if(!of.startsWith(target)) {
+					log.warn("Skip zip entry outside of the target directory: {}", entry.getName());
+				} else if(entry.isDirectory()) {
+					directories.add(of);
+				} else {
+					files.add(entry);
+					filesPaths.add(of);
+				}
+			}
+			for(Path directory:directories) {
+				Files.createDirectories(directory);
+			}
+			
+			for(int i=0; i<files.size(); i++) {
+				ZipEntry entry = files.get(i);
+				Path of = filesPaths.get(i);
+				futures.add(executor.submit(() -> unzipEntry(zip, entry, of)));
+			}
+			
+			long bytes = 0l;
+			Exception error = null;
+			for(Future<Long> future:futures) {
+				try {
+					bytes += future.get();
+				} catch (ExecutionException e) {
+					error = e;
+				}
+			}
+			if(error != null) {
+				handleIOException("I/O failure while unzipping " + zipFile.getAbsolutePath() + " to " + targetDir.getAbsolutePath(), error);
+				return false;
+			}
+			
+			long duration = Math.max(1l, (System.nanoTime() - start) / 1000000l);
+			log.info("Unzipped {} entries ({} MB) of {} in {}ms ({} MB/s)", futures.size(), bytes / (1024l * 1024l),
+					zipFile.getName(), duration, Math.round((bytes / (1024d * 1024d)) / (duration / 1000d)));
+			return true;
+		} catch (ZipException | IllegalArgumentException e) {
+			// not readable with random access (encoding of the names...), try the sequential way
+			log.debug("Unzip sequentially: {}", zipFile, e);
+			return unzip(zipFile, targetDir);
+		} catch (IOException e) {
+			handleIOException("I/O failure while unzipping " + zipFile.getAbsolutePath() + " to " + targetDir.getAbsolutePath(), e);
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			for(Future<Long> future:futures) {
+				future.cancel(true);
+			}
+			log.warn("Interrupted while unzipping: {}", zipFile);
+			return false;
+		}
+	}
+	
+	private static long unzipEntry(ZipFile zip, ZipEntry entry, Path of) throws IOException {
+		Files.createDirectories(of.getParent());
+		try(InputStream in = zip.getInputStream(entry);
+				OutputStream out = new BufferedOutputStream(Files.newOutputStream(of), FileUtils.BSIZE)) {
+			return in.transferTo(out);
+		}
+	}
+	
 	/**
 	 * Unzip a VFSLeaf (zip zip archive file) to a directory
 	 * @param zipLeaf	zip archive file to unzip
@@ -663,10 +755,14 @@ public class ZipUtil {
 					}
 				} else {
 					VFSLeaf leaf = (VFSLeaf)vfsItem;
-					ZipEntry entry = new ZipEntry(itemName);
-					out.putNextEntry(entry);
-					copyShielded(leaf, out);
-					out.closeEntry();
+					if(out instanceof ParallelZipOutputStream && leaf instanceof LocalFileImpl) {
+						((ParallelZipOutputStream)out).putFile(itemName, ((LocalFileImpl)leaf).getBasefile().toPath());
+					} else {
+						ZipEntry entry = new ZipEntry(itemName);
+						out.putNextEntry(entry);
+						copyShielded(leaf, out);
+						out.closeEntry();
+					}
 					
 					if(withMetadata && leaf.canMeta() == VFSConstants.YES) {
 						byte[] metadata = MetaInfoReader.toBinaries(leaf.getMetaInfo());
@@ -723,15 +819,11 @@ public class ZipUtil {
 					if(!attrs.isDirectory()) {
 						Path relativeFile = path.relativize(file);
 						String names = baseDirName + "/" + relativeFile.toString();
-						zout.putNextEntry(new ZipEntry(names));
-						
-						try(InputStream in=Files.newInputStream(file)) {
-							FileUtils.copy(in, zout);
-						} catch (Exception e) {
+						try {
+							addFile(names, file, zout);
+						} catch (IOException e) {
 							handleIOException("", e);
 						}
-						
-						zout.closeEntry();
 					}
 					return FileVisitResult.CONTINUE;
 				}
@@ -748,25 +840,38 @@ public class ZipUtil {
 	 * @param exportStream
 	 */
 	public static void addFileToZip(String path, File file, ZipOutputStream exportStream) {
-		try(InputStream source = new FileInputStream(file)) {
-			exportStream.putNextEntry(new ZipEntry(path));
-			FileUtils.copy(source, exportStream);
-			exportStream.closeEntry();
-		} catch(IOException e) {
-			handleIOException("", e);
-		}
+		addFileToZip(path, file.toPath(), exportStream);
 	}
 	
 	public static void addFileToZip(String path, Path file, ZipOutputStream exportStream) {
-		try(InputStream source = Files.newInputStream(file)) {
-			exportStream.putNextEntry(new ZipEntry(path));
-			FileUtils.copy(source, exportStream);
-			exportStream.closeEntry();
+		try {
+			addFile(path, file, exportStream);
 		} catch(IOException e) {
 			handleIOException("", e);
 		}
 	}
 	
+	/**
+	 * Add a file as a new entry. A parallel zip stream reads the
+	 * file itself on its workers.
+	 * 
+	 * @param name The name of the entry
+	 * @param file The file
+	 * @param zout The zip stream
+	 * @throws IOException If the entry cannot be created
+	 */
+	private static void addFile(String name, Path file, ZipOutputStream zout) throws IOException {
+		if(zout instanceof ParallelZipOutputStream) {
+			((ParallelZipOutputStream)zout).putFile(name, file);
+		} else {
+			try(InputStream in=Files.newInputStream(file)) {
+				zout.putNextEntry(new ZipEntry(name));
+				FileUtils.copy(in, zout);
+				zout.closeEntry();
+			}
+		}
+	}
+	
 	/**
 	 * Add a directory to a zip stream. The files path are relative to the
 	 * specified directory. The name of the directory is not part of
@@ -783,15 +888,11 @@ public class ZipUtil {
 					if(!attrs.isDirectory()) {
 						Path relativeFile = path.relativize(file);
 						String names = relativeFile.toString();
-						exportStream.putNextEntry(new ZipEntry(names));
-						
-						try(InputStream in=Files.newInputStream(file)) {
-							FileUtils.copy(in, exportStream);
-						} catch (Exception e) {
+						try {
+							addFile(names, file, exportStream);
+						} catch (IOException e) {
 							handleIOException("", e);
 						}
-						
-						exportStream.closeEntry();
 					}
 					return FileVisitResult.CONTINUE;
 				}
@@ -821,15 +922,11 @@ public class ZipUtil {
 						if(StringHelper.containsNonWhitespace(path)) {
 							name = path + "/" + name;
 						}
-						exportStream.putNextEntry(new ZipEntry(name));
-						
-						try(InputStream in=Files.newInputStream(file)) {
-							FileUtils.cpio(in, exportStream, "");
-						} catch (Exception e) {
+						try {
+							addFile(name, file, exportStream);
+						} catch (IOException e) {
 							handleIOException("", e);
 						}
-						
-						exportStream.closeEntry();
 					}
 					return FileVisitResult.CONTINUE;
 				}
@@ -32,6 +32,7 @@ import java.util.WeakHashMap;
 
 import org.apache.logging.log4j.Logger;
 import org.olat.core.gui.control.Controller;
+import org.olat.core.gui.control.pushpoll.PushNotifier;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
 import org.olat.core.logging.Tracing;
@@ -159,6 +160,8 @@ public abstract class AbstractEventBus implements EventBus {
 								listener.event(event);
 							}
 						}, UserActivityLoggerImpl.newLoggerForEventBus(dCtrl));
+						// the controller has maybe changed its window
+						PushNotifier.controllerNotified(dCtrl);
 					}
 				} else if(listener != null) {
 					if(log.isDebugEnabled()){
@@ -80,6 +80,23 @@ public class MultiUserEvent extends Event {
 		return vm_marker == WebappHelper.getNodeId();
 	}
 	
+	/**
+	 * @return The id of the node which created the event
+	 */
+	public int getOriginNodeId() {
+		return vm_marker;
+	}
+	
+	/**
+	 * Only used to restore events which are not transported
+	 * with the java serialization.
+	 * 
+	 * @param nodeId The id of the node which created the event
+	 */
+	public void setOriginNodeId(int nodeId) {
+		vm_marker = nodeId;
+	}
+	
 	@Override
 	public int hashCode() { 
 		int hc = 3;
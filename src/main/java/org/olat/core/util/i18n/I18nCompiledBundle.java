@@ -0,0 +1,127 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.i18n;
+
+import java.text.Format;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A flattened, immutable translation table of a bundle for a locale. The
+ * fallbacks (overlay, variant, country, default and fallback locales) and the
+ * references to other keys are already resolved, the messages with arguments
+ * are parsed once.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+class I18nCompiledBundle {
+	
+	private final Map<String,CompiledMessage> messages;
+	
+	/**
+	 * @param resolvedMessages The resolved messages of the bundle
+	 */
+	I18nCompiledBundle(Map<String,String> resolvedMessages) {
+		Map<String,CompiledMessage> compiledMessages = new HashMap<>();
+		for(Map.Entry<String,String> entry:resolvedMessages.entrySet()) {
+			compiledMessages.put(entry.getKey(), new CompiledMessage(entry.getValue()));
+		}
+		messages = Map.copyOf(compiledMessages);
+	}
+	
+	public int size() {
+		return messages.size();
+	}
+	
+	/**
+	 * @param key The key
+	 * @param args The arguments or null
+	 * @return The formatted message or null if the key is not translated
+	 */
+	public String getLocalizedString(String key, Object[] args) {
+		CompiledMessage message = messages.get(key);
+		if(message == null) {
+			return null;
+		}
+		return args == null ? message.getMessage() : message.format(args);
+	}
+	
+	private static class CompiledMessage {
+		
+		private final String message;
+		private final MessageFormat format;
+		private final boolean shareable;
+		
+		public CompiledMessage(String message) {
+			this.message = message;
+			
+			MessageFormat messageFormat = null;
+			boolean messageFormatShareable = false;
+			if(message.indexOf('{') >= 0) {
+				try {
+					messageFormat = new MessageFormat(escape(message));
+					messageFormatShareable = isShareable(messageFormat);
+				} catch (IllegalArgumentException e) {
+					// malformed, the error is thrown by format()
+				}
+			}
+			format = messageFormat;
+			shareable = messageFormatShareable;
+		}
+		
+		public String getMessage() {
+			return message;
+		}
+		
+		public String format(Object[] args) {
+			if(format == null) {
+				if(message.indexOf('{') < 0) {
+					return message;
+				}
+				return MessageFormat.format(escape(message), args);
+			}
+			// the sub-formats (number, date...) are not thread safe
+			MessageFormat messageFormat = shareable ? format : (MessageFormat)format.clone();
+			return messageFormat.format(args);
+		}
+		
+		/**
+		 * Escape single quotes with single quotes. Single quotes have special meaning
+		 * in MessageFormat, see OLAT-5107, OLAT-5756
+		 */
+		private static String escape(String msg) {
+			if (msg.indexOf('\'') > -1) {
+				return msg.replace("'", "''");
+			}
+			return msg;
+		}
+		
+		private static boolean isShareable(MessageFormat messageFormat) {
+			for(Format subformat:messageFormat.getFormats()) {
+				if(subformat != null) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
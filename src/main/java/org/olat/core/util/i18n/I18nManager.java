@@ -46,10 +46,13 @@ import java.util.Comparator;
 import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
@@ -140,6 +143,7 @@ public class I18nManager {
 	private ConcurrentMap<String, Properties> cachedBundles = new ConcurrentHashMap<>();
 	private ConcurrentMap<String, String> cachedJSTranslatorData = new ConcurrentHashMap<>();
 	private ConcurrentMap<String, Deque<String>> referencingBundlesIndex = new ConcurrentHashMap<>();
+	private volatile ConcurrentMap<CompiledBundleKey, I18nCompiledBundle> compiledBundles = new ConcurrentHashMap<>();
 	private boolean cachingEnabled = true;
 	
 	private final I18nModule i18nModule;
@@ -201,8 +205,87 @@ public class I18nManager {
 	 *         possible and not found
 	 */
 	public String getLocalizedString(String bundleName, String key, Object[] args, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		if(cachingEnabled && locale != null && !isCurrentThreadMarkLocalizedStringsEnabled()) {
+			I18nCompiledBundle compiledBundle = getCompiledBundle(bundleName, locale, overlayEnabled, fallBackToDefaultLocale);
+			return compiledBundle.getLocalizedString(key, args);
+		}
 		return getLocalizedString(bundleName, key, args, locale, overlayEnabled, fallBackToDefaultLocale, true, true, true, 0);
 	}
+	
+	/**
+	 * Return the flattened translation table of the bundle. The table is compiled
+	 * on demand and is replaced as a whole when the caches are cleared.
+	 */
+	I18nCompiledBundle getCompiledBundle(String bundleName, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		// compile against the current generation of tables
+		ConcurrentMap<CompiledBundleKey, I18nCompiledBundle> bundles = compiledBundles;
+		CompiledBundleKey bundleKey = new CompiledBundleKey(bundleName, locale, overlayEnabled, fallBackToDefaultLocale);
+		I18nCompiledBundle compiledBundle = bundles.get(bundleKey);
+		if(compiledBundle == null) {
+			compiledBundle = compileBundle(bundleName, locale, overlayEnabled, fallBackToDefaultLocale);
+			I18nCompiledBundle currentBundle = bundles.putIfAbsent(bundleKey, compiledBundle);
+			if(currentBundle != null) {
+				compiledBundle = currentBundle;
+			}
+		}
+		return compiledBundle;
+	}
+	
+	private I18nCompiledBundle compileBundle(String bundleName, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		// collect the keys of all the properties files in the lookup chain
+		Set<String> keys = new HashSet<>();
+		for(Locale lookupLocale:getLookupLocales(locale, overlayEnabled, fallBackToDefaultLocale)) {
+			Properties properties = getProperties(lookupLocale, bundleName, true, 0);
+			if(properties != null) {
+				keys.addAll(properties.stringPropertyNames());
+			}
+		}
+		
+		// resolve the keys with the standard lookup
+		Map<String,String> messages = new HashMap<>();
+		for(String key:keys) {
+			String msg = getLocalizedString(bundleName, key, null, locale, overlayEnabled, fallBackToDefaultLocale, true, true, false, 0);
+			if(msg != null) {
+				messages.put(key, msg);
+			}
+		}
+		
+		if(log.isDebugEnabled()) {
+			log.debug("Compiled bundle::{} for locale::{} with {} keys", bundleName, locale, messages.size());
+		}
+		return new I18nCompiledBundle(messages);
+	}
+	
+	/**
+	 * @return The locales (with their overlays) which can be visited by
+	 * 		the lookup of a key, see getLocalizedString()
+	 */
+	private Set<Locale> getLookupLocales(Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		Set<Locale> locales = new LinkedHashSet<>();
+		addLookupLocales(locales, locale, overlayEnabled);
+		if(fallBackToDefaultLocale) {
+			addLookupLocales(locales, I18nModule.getDefaultLocale(), overlayEnabled);
+		}
+		addLookupLocales(locales, i18nModule.getFallbackLocale(), overlayEnabled);
+		return locales;
+	}
+	
+	private void addLookupLocales(Set<Locale> locales, Locale locale, boolean overlayEnabled) {
+		if(locale == null) return;
+		
+		if(overlayEnabled) {
+			Locale overlayLocale = i18nModule.getOverlayLocales().get(locale);
+			if(overlayLocale != null) {
+				locales.add(overlayLocale);
+			}
+		}
+		locales.add(locale);
+		if(!locale.getVariant().equals("")) {
+			addLookupLocales(locales, i18nModule.getAllLocales().get(locale.getLanguage() + "_" + locale.getCountry()), overlayEnabled);
+		} else if(!locale.getCountry().equals("")) {
+			addLookupLocales(locales, i18nModule.getAllLocales().get(locale.getLanguage()), overlayEnabled);
+		}
+	}
 
 	public String getLocalizedString(String bundleName, String key, Object[] args, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale,
 			boolean fallBackToFallbackLocale, boolean resolveRecursively, int recursionLevel) {
@@ -714,6 +797,7 @@ public class I18nManager {
 					cachedBundles.remove(bundleName);
 				}
 			}
+			clearCompiledBundles();
 		}
 
 	}
@@ -1030,6 +1114,7 @@ public class I18nManager {
 				getResolvedProperties(locale, bundleName);
 			}
 		}
+		clearCompiledBundles();
 	}
 
 	/**
@@ -1050,6 +1135,7 @@ public class I18nManager {
 				// initialization will happen lazy
 				if (cachedJSTranslatorData.containsKey(key)) cachedJSTranslatorData.remove(key);
 			}
+			clearCompiledBundles();
 		}
 		// 2) Remove from filesystem
 		File baseDir = i18nModule.getPropertyFilesBaseDir(locale, bundleName);
@@ -1632,6 +1718,17 @@ public class I18nManager {
 		cachedBundles.clear();
 		cachedJSTranslatorData.clear();
 		referencingBundlesIndex.clear();
+		clearCompiledBundles();
+	}
+	
+	/**
+	 * Replace the compiled translation tables with a new, empty generation.
+	 * The tables are compiled again on demand. Call it only after the
+	 * properties caches are updated, a table compiled in between would
+	 * otherwise land in the new generation with the old values.
+	 */
+	private void clearCompiledBundles() {
+		compiledBundles = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -1651,6 +1748,7 @@ public class I18nManager {
 			cachedJSTranslatorData = new AlwaysEmptyMap<>();
 			referencingBundlesIndex = new AlwaysEmptyMap<>();
 		}
+		clearCompiledBundles();
 		cachingEnabled = useCache;
 	}
 
@@ -1988,6 +2086,47 @@ public class I18nManager {
 		}
 	}
 
+	/**
+	 * The key of a compiled translation table: bundle, locale and the
+	 * flags used to resolve it.
+	 */
+	private static final class CompiledBundleKey {
+		
+		private final String bundleName;
+		private final Locale locale;
+		private final boolean overlayEnabled;
+		private final boolean fallBackToDefaultLocale;
+		private final int hashCode;
+		
+		public CompiledBundleKey(String bundleName, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+			this.bundleName = bundleName;
+			this.locale = locale;
+			this.overlayEnabled = overlayEnabled;
+			this.fallBackToDefaultLocale = fallBackToDefaultLocale;
+			hashCode = Objects.hash(bundleName, locale, overlayEnabled, fallBackToDefaultLocale);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof CompiledBundleKey) {
+				CompiledBundleKey key = (CompiledBundleKey)obj;
+				return overlayEnabled == key.overlayEnabled
+						&& fallBackToDefaultLocale == key.fallBackToDefaultLocale
+						&& bundleName.equals(key.bundleName)
+						&& locale.equals(key.locale);
+			}
+			return false;
+		}
+	}
+
 	/**
 	 * Description:<br>
 	 * A per-thread Locale that is used to translate messages that don't
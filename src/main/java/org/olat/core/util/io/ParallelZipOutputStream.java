@@ -0,0 +1,772 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.WebappHelper;
+import org.olat.core.util.async.ProgressDelegate;
+
+/**
+ * A drop-in replacement of the ZipOutputStream which compresses the
+ * entries on a pool of workers. The entries are written in the order
+ * they were closed, the memory used is bounded by the number of pending
+ * entries and the content of large entries is spooled to temporary files.<br>
+ * Files with an already compressed format (images, videos, archives...)
+ * are stored without compression, as well as the entries which doesn't
+ * shrink after compression.<br>
+ * The stream writes ZIP64 records if needed and only writes the sizes
+ * and the checksum in the local headers (no data descriptors), the
+ * archives can be read with the ZipInputStream of the JDK.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class ParallelZipOutputStream extends ZipOutputStream {
+	
+	private static final Logger log = Tracing.createLoggerFor(ParallelZipOutputStream.class);
+	
+	/**
+	 * Entries up to this size are kept in memory, larger are spooled to temporary files
+	 */
+	private static final int MEMORY_THRESHOLD = 4 * 1024 * 1024;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private static final long LOCSIG = 0x04034b50l;
+	private static final long CENSIG = 0x02014b50l;
+	private static final long ENDSIG = 0x06054b50l;
+	private static final long ZIP64_ENDSIG = 0x06064b50l;
+	private static final long ZIP64_LOCSIG = 0x07064b50l;
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFl;
+	private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+	private static final int ZIP64_EXTID = 0x0001;
+	private static final int UTF8_FLAG = 0x0800;
+	
+	private static final Set<String> COMPRESSED_SUFFIXES = Set.of(
+			"zip", "jar", "war", "gz", "tgz", "bz2", "xz", "7z", "rar", "epub", "h5p", "imscc",
+			"docx", "xlsx", "pptx", "odt", "ods", "odp", "odg",
+			"png", "jpg", "jpeg", "gif", "webp", "heic",
+			"mp4", "m4v", "m4a", "mov", "webm", "mkv", "avi", "mpg", "mpeg", "flv", "ogv",
+			"mp3", "ogg", "oga", "aac", "flac", "opus");
+	
+	private final OutputStream target;
+	private final ExecutorService executor;
+	private final int maxPendingEntries;
+	
+	private int level = Deflater.DEFAULT_COMPRESSION;
+	private byte[] comment;
+	private ProgressDelegate progress;
+	
+	private OpenEntry current;
+	private long written = 0l;
+	private boolean finished = false;
+	private boolean closed = false;
+	
+	private final Set<String> names = new HashSet<>();
+	private final Deque<PendingEntry> pending = new ArrayDeque<>();
+	private final List<CentralEntry> centralDirectory = new ArrayList<>();
+	
+	private final long start = System.nanoTime();
+	private long uncompressedBytes = 0l;
+	private long storedEntries = 0l;
+	
+	/**
+	 * @param out The underlying stream
+	 * @param executor The workers which compress the entries
+	 * @param maxPendingEntries Maximum number of entries compressed or waiting to be written
+	 */
+	public ParallelZipOutputStream(OutputStream out, ExecutorService executor, int maxPendingEntries) {
+		super(out);
+		this.target = new BufferedOutputStream(out, BUFFER_SIZE);
+		this.executor = executor;
+		this.maxPendingEntries = Math.max(1, maxPendingEntries);
+	}
+	
+	public void setProgressDelegate(ProgressDelegate progress) {
+		this.progress = progress;
+	}
+	
+	/**
+	 * @param name The name of an entry
+	 * @return true if the entry will be stored without compression
+	 */
+	public static boolean isCompressedFormat(String name) {
+		if(name == null) return false;
+		int index = name.lastIndexOf('.');
+		if(index < 0 || index < name.lastIndexOf('/')) return false;
+		return COMPRESSED_SUFFIXES.contains(name.substring(index + 1).toLowerCase(Locale.ROOT));
+	}
+
+	@Override
+	public void setComment(String comment) {
+		this.comment = comment == null ? null : comment.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void setLevel(int level) {
+		if((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+			throw new IllegalArgumentException("invalid compression level");
+		}
+		this.level = level;
+	}
+
+	@Override
+	public void putNextEntry(ZipEntry e) throws IOException {
+		ensureOpen();
+		closeEntry();
+		checkName(e.getName());
+		boolean stored = e.getMethod() == ZipEntry.STORED || e.isDirectory() || isCompressedFormat(e.getName());
+		current = new OpenEntry(e.getName(), e.getTime(), stored);
+	}
+	
+	/**
+	 * Add a file as a new entry. The file is read by the workers, the
+	 * calling thread doesn't copy its content. The file must not be deleted
+	 * before the entry is written, see {@link #writePendingEntries()}.
+	 * 
+	 * @param name The name of the entry
+	 * @param file The file
+	 * @throws IOException
+	 */
+	public void putFile(String name, Path file) throws IOException {
+		ensureOpen();
+		closeEntry();
+		long time = Files.getLastModifiedTime(file).toMillis();
+		long size = Files.size(file);
+		checkName(name);
+		submit(name, time, isCompressedFormat(name), new FileSource(file, size, false));
+	}
+	
+	private void checkName(String name) throws ZipException {
+		if(!names.add(name)) {
+			throw new ZipException("duplicate entry: " + name);
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte)b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		if(current == null) {
+			throw new ZipException("no current ZIP entry");
+		}
+		current.buffer.write(b, off, len);
+	}
+
+	@Override
+	public void closeEntry() throws IOException {
+		ensureOpen();
+		if(current != null) {
+			OpenEntry entry = current;
+			current = null;
+			submit(entry.name, entry.time, entry.stored, entry.buffer.toSource());
+		}
+	}
+	
+	private void submit(String name, long time, boolean stored, EntrySource source) throws IOException {
+		Future<CompressedEntry> future = executor.submit(() -> compress(source, stored));
+		pending.add(new PendingEntry(name, time, source, future));
+		
+		// write what is ready, wait if too much entries are pending
+		while(!pending.isEmpty() && (pending.peek().future.isDone() || pending.size() > maxPendingEntries)) {
+			writeEntry(pending.poll());
+		}
+	}
+	
+	/**
+	 * Wait until all the queued entries are compressed and written. Call it
+	 * before deleting the files added with {@link #putFile(String, Path)}.
+	 * The entry currently open is not closed.
+	 * 
+	 * @throws IOException The first error of the pending entries
+	 */
+	public void writePendingEntries() throws IOException {
+		ensureOpen();
+		IOException error = null;
+		while(!pending.isEmpty()) {
+			try {
+				writeEntry(pending.poll());
+			} catch(IOException e) {
+				if(error == null) {
+					error = e;
+				} else {
+					error.addSuppressed(e);
+				}
+			}
+		}
+		if(error != null) {
+			throw error;
+		}
+	}
+	
+	private CompressedEntry compress(EntrySource source, boolean stored) throws IOException {
+		if(stored) {
+			return new CompressedEntry(ZipEntry.STORED, crc(source), source);
+		}
+		
+		CRC32 crc = new CRC32();
+		SpoolOutputStream buffer = new SpoolOutputStream();
+		Deflater deflater = new Deflater(level, true);
+		try(InputStream in = source.open();
+				DeflaterOutputStream dout = new DeflaterOutputStream(buffer, deflater, BUFFER_SIZE)) {
+			byte[] b = new byte[BUFFER_SIZE];
+			int read;
+			while((read = in.read(b)) != -1) {
+				crc.update(b, 0, read);
+				dout.write(b, 0, read);
+			}
+		} catch(IOException e) {
+			buffer.toSource().release();
+			throw e;
+		} finally {
+			deflater.end();
+		}
+		
+		EntrySource compressed = buffer.toSource();
+		if(compressed.size() >= source.size()) {
+			// doesn't shrink, store it
+			compressed.release();
+			return new CompressedEntry(ZipEntry.STORED, crc.getValue(), source);
+		}
+		return new CompressedEntry(ZipEntry.DEFLATED, crc.getValue(), compressed);
+	}
+	
+	private static long crc(EntrySource source) throws IOException {
+		CRC32 crc = new CRC32();
+		try(InputStream in = source.open()) {
+			byte[] b = new byte[BUFFER_SIZE];
+			int read;
+			while((read = in.read(b)) != -1) {
+				crc.update(b, 0, read);
+			}
+		}
+		return crc.getValue();
+	}
+	
+	private void writeEntry(PendingEntry entry) throws IOException {
+		CompressedEntry compressed;
+		try {
+			compressed = entry.future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			entry.source.release();
+			throw new IOException("Interrupted while compressing: " + entry.name, e);
+		} catch (ExecutionException e) {
+			entry.source.release();
+			Throwable cause = e.getCause();
+			throw cause instanceof IOException ? (IOException)cause : new IOException("Cannot compress: " + entry.name, cause);
+		}
+
+		try {
+			byte[] nameBytes = entry.name.getBytes(StandardCharsets.UTF_8);
+			long size = entry.source.size();
+			long csize = compressed.data.size();
+			boolean zip64 = size >= ZIP64_MAGIC || csize >= ZIP64_MAGIC;
+			CentralEntry centralEntry = new CentralEntry(nameBytes, compressed.method, dosTime(entry.time),
+					compressed.crc, size, csize, written, zip64);
+			
+			writeInt(LOCSIG);
+			writeShort(centralEntry.version());
+			writeShort(UTF8_FLAG);
+			writeShort(compressed.method);
+			writeInt(centralEntry.dosTime);
+			writeInt(compressed.crc);
+			writeInt(zip64 ? ZIP64_MAGIC : csize);
+			writeInt(zip64 ? ZIP64_MAGIC : size);
+			writeShort(nameBytes.length);
+			writeShort(zip64 ? 20 : 0);
+			writeBytes(nameBytes);
+			if(zip64) {
+				writeShort(ZIP64_EXTID);
+				writeShort(16);
+				writeLong(size);
+				writeLong(csize);
+			}
+			try(InputStream in = compressed.data.open()) {
+				byte[] b = new byte[BUFFER_SIZE];
+				int read;
+				while((read = in.read(b)) != -1) {
+					target.write(b, 0, read);
+					written += read;
+				}
+			}
+			
+			centralDirectory.add(centralEntry);
+			uncompressedBytes += size;
+			if(compressed.method == ZipEntry.STORED) {
+				storedEntries++;
+			}
+			if(progress != null) {
+				progress.setActual(centralDirectory.size());
+				progress.setInfo(entry.name);
+			}
+		} finally {
+			compressed.data.release();
+			entry.source.release();
+		}
+	}
+	
+	@Override
+	public void finish() throws IOException {
+		ensureOpen();
+		if(finished) return;
+		
+		closeEntry();
+		while(!pending.isEmpty()) {
+			writeEntry(pending.poll());
+		}
+		
+		long cenOffset = written;
+		for(CentralEntry entry:centralDirectory) {
+			writeCentralEntry(entry);
+		}
+		long cenSize = written - cenOffset;
+		int count = centralDirectory.size();
+		
+		if(count >= ZIP64_MAGIC_COUNT || cenOffset >= ZIP64_MAGIC || cenSize >= ZIP64_MAGIC) {
+			long zip64EndOffset = written;
+			writeInt(ZIP64_ENDSIG);
+			writeLong(44l);
+			writeShort(45);
+			writeShort(45);
+			writeInt(0);
+			writeInt(0);
+			writeLong(count);
+			writeLong(count);
+			writeLong(cenSize);
+			writeLong(cenOffset);
+			
+			writeInt(ZIP64_LOCSIG);
+			writeInt(0);
+			writeLong(zip64EndOffset);
+			writeInt(1);
+		}
+
+		writeInt(ENDSIG);
+		writeShort(0);
+		writeShort(0);
+		writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+		writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+		writeInt(Math.min(cenSize, ZIP64_MAGIC));
+		writeInt(Math.min(cenOffset, ZIP64_MAGIC));
+		if(comment == null) {
+			writeShort(0);
+		} else {
+			writeShort(comment.length);
+			writeBytes(comment);
+		}
+		target.flush();
+		finished = true;
+		
+		log.debug("Zip written: {} entries ({} stored), {} bytes -> {} bytes in {}ms",
+				count, storedEntries, uncompressedBytes, written, getDuration());
+	}
+	
+	private void writeCentralEntry(CentralEntry entry) throws IOException {
+		boolean offset64 = entry.offset >= ZIP64_MAGIC;
+		int extraLength = 0;
+		if(entry.zip64 || offset64) {
+			extraLength = 4 + (entry.zip64 ? 16 : 0) + (offset64 ? 8 : 0);
+		}
+		
+		int version = offset64 ? 45 : entry.version();
+		writeInt(CENSIG);
+		writeShort(version);
+		writeShort(version);
+		writeShort(UTF8_FLAG);
+		writeShort(entry.method);
+		writeInt(entry.dosTime);
+		writeInt(entry.crc);
+		writeInt(entry.zip64 ? ZIP64_MAGIC : entry.csize);
+		writeInt(entry.zip64 ? ZIP64_MAGIC : entry.size);
+		writeShort(entry.name.length);
+		writeShort(extraLength);
+		writeShort(0);// comment
+		writeShort(0);// disk number
+		writeShort(0);// internal attributes
+		writeInt(isDirectory(entry.name) ? 0x10 : 0);
+		writeInt(offset64 ? ZIP64_MAGIC : entry.offset);
+		writeBytes(entry.name);
+		if(extraLength > 0) {
+			writeShort(ZIP64_EXTID);
+			writeShort(extraLength - 4);
+			if(entry.zip64) {
+				writeLong(entry.size);
+				writeLong(entry.csize);
+			}
+			if(offset64) {
+				writeLong(entry.offset);
+			}
+		}
+	}
+	
+	private static boolean isDirectory(byte[] name) {
+		return name.length > 0 && name[name.length - 1] == '/';
+	}
+
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		target.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(closed) return;
+		
+		try {
+			finish();
+		} finally {
+			closed = true;
+			abortPending();
+			def.end();
+			target.close();
+		}
+	}
+	
+	private void abortPending() {
+		if(current != null) {
+			try {
+				current.buffer.toSource().release();
+			} catch (IOException e) {
+				log.debug("", e);
+			}
+			current = null;
+		}
+		for(PendingEntry entry:pending) {
+			entry.future.cancel(false);
+			try {
+				if(!entry.future.isCancelled()) {
+					entry.future.get().data.release();
+				}
+			} catch (Exception e) {
+				log.debug("", e);
+			}
+			entry.source.release();
+		}
+		pending.clear();
+	}
+	
+	private void ensureOpen() throws IOException {
+		if(closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+	
+	/**
+	 * @return The number of entries written
+	 */
+	public int getEntries() {
+		return centralDirectory.size();
+	}
+	
+	/**
+	 * @return The sum of the sizes of the entries written
+	 */
+	public long getUncompressedBytes() {
+		return uncompressedBytes;
+	}
+	
+	/**
+	 * @return The number of bytes written in the underlying stream
+	 */
+	public long getWrittenBytes() {
+		return written;
+	}
+	
+	/**
+	 * @return The duration since the creation of the stream in milliseconds
+	 */
+	public long getDuration() {
+		return (System.nanoTime() - start) / 1000000l;
+	}
+	
+	/**
+	 * @return The throughput in MB (uncompressed) per second
+	 */
+	public double getThroughput() {
+		long duration = Math.max(1l, getDuration());
+		return (uncompressedBytes / (1024d * 1024d)) / (duration / 1000d);
+	}
+	
+	private static long dosTime(long time) {
+		if(time < 0) {
+			time = System.currentTimeMillis();
+		}
+		LocalDateTime ldt = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+		int year = ldt.getYear() - 1980;
+		if(year < 0) {
+			return (1 << 21) | (1 << 16);
+		}
+		return ((long)year << 25 | ldt.getMonthValue() << 21 | ldt.getDayOfMonth() << 16
+				| ldt.getHour() << 11 | ldt.getMinute() << 5 | ldt.getSecond() >> 1) & ZIP64_MAGIC;
+	}
+	
+	private void writeShort(int v) throws IOException {
+		target.write(v & 0xff);
+		target.write((v >>> 8) & 0xff);
+		written += 2;
+	}
+
+	private void writeInt(long v) throws IOException {
+		target.write((int)(v & 0xff));
+		target.write((int)((v >>> 8) & 0xff));
+		target.write((int)((v >>> 16) & 0xff));
+		target.write((int)((v >>> 24) & 0xff));
+		written += 4;
+	}
+
+	private void writeLong(long v) throws IOException {
+		writeInt(v & ZIP64_MAGIC);
+		writeInt(v >>> 32);
+	}
+	
+	private void writeBytes(byte[] b) throws IOException {
+		target.write(b);
+		written += b.length;
+	}
+	
+	private static class OpenEntry {
+		
+		private final String name;
+		private final long time;
+		private final boolean stored;
+		private final SpoolOutputStream buffer = new SpoolOutputStream();
+		
+		public OpenEntry(String name, long time, boolean stored) {
+			this.name = name;
+			this.time = time;
+			this.stored = stored;
+		}
+	}
+	
+	private static class PendingEntry {
+		
+		private final String name;
+		private final long time;
+		private final EntrySource source;
+		private final Future<CompressedEntry> future;
+		
+		public PendingEntry(String name, long time, EntrySource source, Future<CompressedEntry> future) {
+			this.name = name;
+			this.time = time;
+			this.source = source;
+			this.future = future;
+		}
+	}
+	
+	private static class CompressedEntry {
+		
+		private final int method;
+		private final long crc;
+		private final EntrySource data;
+		
+		public CompressedEntry(int method, long crc, EntrySource data) {
+			this.method = method;
+			this.crc = crc;
+			this.data = data;
+		}
+	}
+	
+	private static class CentralEntry {
+		
+		private final byte[] name;
+		private final int method;
+		private final long dosTime;
+		private final long crc;
+		private final long size;
+		private final long csize;
+		private final long offset;
+		private final boolean zip64;
+		
+		public CentralEntry(byte[] name, int method, long dosTime, long crc, long size, long csize, long offset, boolean zip64) {
+			this.name = name;
+			this.method = method;
+			this.dosTime = dosTime;
+			this.crc = crc;
+			this.size = size;
+			this.csize = csize;
+			this.offset = offset;
+			this.zip64 = zip64;
+		}
+		
+		public int version() {
+			if(zip64) return 45;
+			return method == ZipEntry.DEFLATED ? 20 : 10;
+		}
+	}
+	
+	/**
+	 * The content of an entry, in memory or in a file.
+	 */
+	private interface EntrySource {
+		
+		public long size();
+		
+		public InputStream open() throws IOException;
+		
+		public void release();
+	}
+	
+	private static class MemorySource implements EntrySource {
+		
+		private final byte[] data;
+		private final int length;
+		
+		public MemorySource(byte[] data, int length) {
+			this.data = data;
+			this.length = length;
+		}
+
+		@Override
+		public long size() {
+			return length;
+		}
+
+		@Override
+		public InputStream open() {
+			return new ByteArrayInputStream(data, 0, length);
+		}
+
+		@Override
+		public void release() {
+			//
+		}
+	}
+	
+	private static class FileSource implements EntrySource {
+		
+		private final Path file;
+		private final long size;
+		private final boolean temporary;
+		
+		public FileSource(Path file, long size, boolean temporary) {
+			this.file = file;
+			this.size = size;
+			this.temporary = temporary;
+		}
+
+		@Override
+		public long size() {
+			return size;
+		}
+
+		@Override
+		public InputStream open() throws IOException {
+			return Files.newInputStream(file);
+		}
+
+		@Override
+		public void release() {
+			if(temporary) {
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException e) {
+					log.warn("Cannot delete temporary file: {}", file, e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Buffer the data in memory and spool them to a temporary
+	 * file if they exceed the memory threshold.
+	 */
+	private static class SpoolOutputStream extends OutputStream {
+		
+		private byte[] buffer = new byte[1024];
+		private int count = 0;
+		private long size = 0l;
+		private Path file;
+		private OutputStream fileOut;
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte)b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if(fileOut == null && count + len > MEMORY_THRESHOLD) {
+				file = Files.createTempFile(Paths.get(WebappHelper.getTmpDir()), "zip", ".tmp");
+				fileOut = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+				fileOut.write(buffer, 0, count);
+				buffer = null;
+			}
+			
+			if(fileOut == null) {
+				if(count + len > buffer.length) {
+					buffer = Arrays.copyOf(buffer, Math.min(MEMORY_THRESHOLD, Math.max(buffer.length * 2, count + len)));
+				}
+				System.arraycopy(b, off, buffer, count, len);
+				count += len;
+			} else {
+				fileOut.write(b, off, len);
+			}
+			size += len;
+		}
+		
+		public EntrySource toSource() throws IOException {
+			if(fileOut != null) {
+				fileOut.close();
+				fileOut = null;
+				return new FileSource(file, size, true);
+			}
+			if(file != null) {
+				return new FileSource(file, size, true);
+			}
+			return new MemorySource(buffer, count);
+		}
+	}
+}
@@ -0,0 +1,680 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.mail.Address;
+import javax.mail.Authenticator;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.services.jmx.JMXManager;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.StringHelper;
+import org.olat.core.util.WebappHelper;
+import org.olat.core.util.mail.MailerSMTPAuthenticator;
+import org.olat.core.util.mail.manager.SmtpTransportPool.PooledTransport;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+/**
+ * Send the e-mails through a pool of reusable SMTP connections instead of
+ * opening a new connection (and TLS handshake) for every message.
+ * <br>
+ * The messages sent asynchronously are first written in a spool directory
+ * of the node and delivered by a few workers. A message which cannot be
+ * delivered is retried with an exponential backoff and moved to the failed
+ * directory after the maximum number of attempts. A message refused with a
+ * temporary SMTP error (4xx, greylisting, mailbox temporarily unavailable)
+ * is retried the same way, only for the recipients which were refused. A
+ * permanent refusal (5xx) moves it directly to the failed directory. The
+ * spool is reloaded at startup.<br>
+ * An optional rate limit (messages per second) is applied per SMTP host.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+@Service
+public class MailDispatcher implements MailDispatcherMBean, InitializingBean, DisposableBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(MailDispatcher.class);
+	
+	public static final String JMX_OBJECT_NAME = "org.olat.core.util.mail:type=MailDispatcher";
+	
+	private static final String SPOOL_SUFFIX = ".eml";
+	private static final String TMP_SUFFIX = ".tmp";
+
+	@Value("${mail.dispatcher.enabled:false}")
+	private boolean enabled;
+	@Value("${mail.dispatcher.pool.size:4}")
+	private int poolSize;
+	@Value("${mail.dispatcher.pool.timeout:30000}")
+	private long poolTimeout;
+	@Value("${mail.dispatcher.connection.idle:60000}")
+	private long connectionIdle;
+	@Value("${mail.dispatcher.connection.max.messages:500}")
+	private int connectionMaxMessages;
+	@Value("${mail.dispatcher.rate.limit:0}")
+	private int rateLimit;
+	@Value("${mail.dispatcher.workers:2}")
+	private int workers;
+	@Value("${mail.dispatcher.retry.max:5}")
+	private int retryMax;
+	@Value("${mail.dispatcher.retry.delay:60000}")
+	private long retryDelay;
+	
+	private File spoolDirectory;
+	private File failedDirectory;
+	
+	private final JMXManager jmxManager;
+	
+	private SmtpTransportPool pool;
+	private final DelayQueue<QueuedMail> queue = new DelayQueue<>();
+	private final List<Thread> dispatchers = new ArrayList<>();
+	private final ConcurrentHashMap<String,AtomicLong> nextSlots = new ConcurrentHashMap<>();
+	private volatile boolean running = false;
+	
+	private final AtomicLong sentCounter = new AtomicLong();
+	private final AtomicLong failedCounter = new AtomicLong();
+	private final AtomicLong queuedCounter = new AtomicLong();
+	private final AtomicLong retriesCounter = new AtomicLong();
+	private final AtomicLong deadLettersCounter = new AtomicLong();
+	private final AtomicLong rateLimitWaitsCounter = new AtomicLong();
+	private final AtomicLong sendTime = new AtomicLong();
+	private final AtomicLong openedCounter = new AtomicLong();
+	private final AtomicLong reusedCounter = new AtomicLong();
+	
+	@Autowired
+	public MailDispatcher(JMXManager jmxManager) {
+		this.jmxManager = jmxManager;
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public void setPoolSize(int poolSize) {
+		this.poolSize = poolSize;
+	}
+
+	public void setPoolTimeout(long poolTimeout) {
+		this.poolTimeout = poolTimeout;
+	}
+
+	public void setConnectionIdle(long connectionIdle) {
+		this.connectionIdle = connectionIdle;
+	}
+
+	public void setConnectionMaxMessages(int connectionMaxMessages) {
+		this.connectionMaxMessages = connectionMaxMessages;
+	}
+
+	public void setRateLimit(int rateLimit) {
+		this.rateLimit = rateLimit;
+	}
+
+	public void setWorkers(int workers) {
+		this.workers = workers;
+	}
+
+	public void setRetryMax(int retryMax) {
+		this.retryMax = retryMax;
+	}
+
+	public void setRetryDelay(long retryDelay) {
+		this.retryDelay = retryDelay;
+	}
+
+	public void setSpoolDirectory(File spoolDirectory) {
+		this.spoolDirectory = spoolDirectory;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if(!enabled) return;
+		
+		if(spoolDirectory == null) {
+			spoolDirectory = new File(new File(WebappHelper.getUserDataRoot(), "mailspool"), "node" + WebappHelper.getNodeId());
+		}
+		failedDirectory = new File(spoolDirectory, "failed");
+		failedDirectory.mkdirs();
+		recoverSpool();
+		
+		running = true;
+		for(int i=0; i<Math.max(1, workers); i++) {
+			Thread dispatcher = new Thread(this::dispatchLoop, "oo-mail-dispatcher-" + (i + 1));
+			dispatcher.setDaemon(true);
+			dispatcher.start();
+			dispatchers.add(dispatcher);
+		}
+		
+		if(jmxManager != null && jmxManager.isActive()) {
+			jmxManager.registerMBean(JMX_OBJECT_NAME, this);
+		}
+		log.info("Mail dispatcher started (connections: {}, workers: {}, rate limit: {}/s, spool: {})",
+				poolSize, workers, rateLimit, spoolDirectory);
+	}
+	
+	@Override
+	public void destroy() throws Exception {
+		if(!running) return;
+		
+		running = false;
+		for(Thread dispatcher:dispatchers) {
+			dispatcher.interrupt();
+		}
+		for(Thread dispatcher:dispatchers) {
+			try {
+				dispatcher.join(10000);
+			} catch (InterruptedException e) {
+				log.warn("Interrupted while waiting the mail dispatcher", e);
+				Thread.currentThread().interrupt();
+			}
+		}
+		dispatchers.clear();
+		
+		synchronized(this) {
+			if(pool != null) {
+				pool.close();
+				pool = null;
+			}
+		}
+		
+		if(jmxManager != null && jmxManager.isActive()) {
+			jmxManager.unregisterMBean(JMX_OBJECT_NAME);
+		}
+		log.info("Mail dispatcher stopped (sent: {}, failed: {}, still queued: {})",
+				sentCounter.get(), failedCounter.get(), queue.size());
+	}
+	
+	/**
+	 * Send the message synchronously with a pooled connection. A connection
+	 * from the pool which is found broken is replaced once.
+	 * 
+	 * @param msg The message
+	 * @throws MessagingException
+	 */
+	public void send(MimeMessage msg) throws MessagingException {
+		send(msg, msg.getAllRecipients());
+	}
+	
+	private void send(MimeMessage msg, Address[] recipients) throws MessagingException {
+		long start = System.nanoTime();
+		try {
+			doSend(msg, recipients);
+			sentCounter.incrementAndGet();
+		} catch (MessagingException e) {
+			failedCounter.incrementAndGet();
+			throw e;
+		} finally {
+			sendTime.addAndGet(System.nanoTime() - start);
+		}
+	}
+	
+	private void doSend(MimeMessage msg, Address[] recipients) throws MessagingException {
+		if(recipients == null || recipients.length == 0) {
+			throw new SendFailedException("No recipient addresses");
+		}
+		
+		SmtpTransportPool transportPool = getPool();
+		acquireRate(WebappHelper.getMailConfig("mailhost"));
+		for(int attempt=0; ; attempt++) {
+			PooledTransport transport = borrow(transportPool);
+			boolean broken = false;
+			try {
+				transport.getTransport().sendMessage(msg, recipients);
+				transport.incrementMessages();
+				return;
+			} catch(SendFailedException e) {
+				// the server refused the message or some addresses, the connection
+				// is still fine unless the server is closing it
+				transport.incrementMessages();
+				broken = e instanceof SMTPSendFailedException
+						&& ((SMTPSendFailedException)e).getReturnCode() == 421;
+				throw e;
+			} catch(MessagingException e) {
+				broken = true;
+				if(attempt == 0 && transport.isReused()) {
+					log.debug("Reused SMTP connection broken, retry with a new one", e);
+				} else {
+					throw e;
+				}
+			} finally {
+				transportPool.release(transport, broken);
+			}
+		}
+	}
+	
+	private PooledTransport borrow(SmtpTransportPool transportPool) throws MessagingException {
+		try {
+			PooledTransport transport = transportPool.borrow(poolTimeout);
+			if(transport.isReused()) {
+				reusedCounter.incrementAndGet();
+			} else {
+				openedCounter.incrementAndGet();
+			}
+			return transport;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessagingException("Interrupted while waiting an SMTP connection", e);
+		}
+	}
+	
+	private void acquireRate(String host) throws MessagingException {
+		if(rateLimit <= 0) return;
+		
+		long interval = TimeUnit.SECONDS.toNanos(1) / rateLimit;
+		AtomicLong nextSlot = nextSlots.computeIfAbsent(host == null ? "" : host, h -> new AtomicLong(System.nanoTime()));
+		long now = System.nanoTime();
+		long previous = nextSlot.getAndUpdate(next -> Math.max(next, now) + interval);
+		long wait = Math.max(previous, now) - now;
+		if(wait > 0) {
+			rateLimitWaitsCounter.incrementAndGet();
+			try {
+				TimeUnit.NANOSECONDS.sleep(wait);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new MessagingException("Interrupted while rate limited", e);
+			}
+		}
+	}
+	
+	/**
+	 * Write the message in the spool directory. The message will be sent
+	 * by the workers of the dispatcher.
+	 * 
+	 * @param msg The message
+	 * @return true if the message is queued, false if the dispatcher is
+	 * 		not running or the message cannot be spooled
+	 */
+	public boolean queue(MimeMessage msg) {
+		if(!running) return false;
+		
+		String name = System.currentTimeMillis() + "-" + UUID.randomUUID().toString();
+		File tmpFile = new File(spoolDirectory, name + TMP_SUFFIX);
+		File spoolFile = new File(spoolDirectory, name + SPOOL_SUFFIX);
+		try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath()))) {
+			msg.writeTo(out);
+		} catch(IOException | MessagingException e) {
+			log.error("Cannot spool e-mail", e);
+			deleteQuietly(tmpFile);
+			return false;
+		}
+		
+		try {
+			Files.move(tmpFile.toPath(), spoolFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.error("Cannot spool e-mail", e);
+			deleteQuietly(tmpFile);
+			return false;
+		}
+		
+		queuedCounter.incrementAndGet();
+		queue.add(new QueuedMail(spoolFile, null, 0, 0l));
+		return true;
+	}
+	
+	private void recoverSpool() {
+		File[] files = spoolDirectory.listFiles();
+		if(files == null) return;
+		
+		int recovered = 0;
+		for(File file:files) {
+			if(file.isFile() && file.getName().endsWith(TMP_SUFFIX)) {
+				deleteQuietly(file);
+			} else if(file.isFile() && file.getName().endsWith(SPOOL_SUFFIX)) {
+				queue.add(new QueuedMail(file, null, 0, 0l));
+				recovered++;
+			}
+		}
+		if(recovered > 0) {
+			log.info("{} e-mails recovered from the spool", recovered);
+		}
+	}
+	
+	private void dispatchLoop() {
+		while(running) {
+			try {
+				QueuedMail mail = queue.poll(connectionIdle, TimeUnit.MILLISECONDS);
+				if(mail == null) {
+					evictIdleConnections();
+				} else {
+					dispatch(mail);
+				}
+			} catch (InterruptedException e) {
+				// shutdown, the spool is reloaded at the next start
+				break;
+			} catch (Exception e) {
+				log.error("", e);
+			}
+		}
+	}
+	
+	private void dispatch(QueuedMail mail) {
+		File file = mail.getFile();
+		if(!file.exists()) return;
+		
+		Address[] recipients = mail.getRecipients();
+		try {
+			MimeMessage msg;
+			try(InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+				msg = new MimeMessage(getPool().getSession(), in);
+			}
+			if(recipients == null) {
+				recipients = msg.getAllRecipients();
+			}
+			send(msg, recipients);
+			deleteQuietly(file);
+		} catch(SendFailedException e) {
+			Address[] retryRecipients = getRetryRecipients(e, recipients);
+			if(retryRecipients == null) {
+				// permanently refused, retrying will not help
+				log.warn("Could not send spooled mail {}: {}", file.getName(), e.getMessage());
+				moveToFailed(file);
+			} else {
+				retry(mail, retryRecipients, e);
+			}
+		} catch(MessagingException | IOException e) {
+			retry(mail, recipients, e);
+		}
+	}
+	
+	private void retry(QueuedMail mail, Address[] recipients, Exception e) {
+		File file = mail.getFile();
+		int attempts = mail.getAttempts() + 1;
+		if(attempts >= retryMax) {
+			log.warn("Give up to send spooled mail {} after {} attempts: {}", file.getName(), attempts, e.getMessage());
+			moveToFailed(file);
+		} else {
+			long delay = retryDelay << Math.min(attempts - 1, 16);
+			log.info("Could not send spooled mail {} (attempt {}), retry in {}ms: {}", file.getName(), attempts, delay, e.getMessage());
+			retriesCounter.incrementAndGet();
+			queue.add(new QueuedMail(file, recipients, attempts, delay));
+		}
+	}
+	
+	/**
+	 * Analyze the SMTP return codes of the failure. The recipients refused
+	 * with a temporary error (4xx) can be retried later. If the whole
+	 * transaction was refused temporarily (MAIL FROM, DATA), all the recipients
+	 * which were not refused permanently can be retried.
+	 * 
+	 * @param e The exception
+	 * @param recipients The recipients of the transaction
+	 * @return The recipients to retry or null if the failure is permanent
+	 */
+	static Address[] getRetryRecipients(SendFailedException e, Address[] recipients) {
+		boolean transactionTemporary = false;
+		List<Address> temporaryRecipients = new ArrayList<>();
+		List<Address> permanentRecipients = new ArrayList<>();
+		for(Exception next=e; next != null; ) {
+			if(next instanceof SMTPAddressFailedException) {
+				SMTPAddressFailedException afe = (SMTPAddressFailedException)next;
+				if(isTemporary(afe.getReturnCode())) {
+					temporaryRecipients.add(afe.getAddress());
+				} else if(afe.getReturnCode() >= 500) {
+					permanentRecipients.add(afe.getAddress());
+				}
+			} else if(next instanceof SMTPSendFailedException) {
+				int returnCode = ((SMTPSendFailedException)next).getReturnCode();
+				if(isTemporary(returnCode)) {
+					transactionTemporary = true;
+				} else if(returnCode >= 500) {
+					return null;
+				}
+			}
+			next = next instanceof MessagingException ? ((MessagingException)next).getNextException() : null;
+		}
+		
+		if(transactionTemporary && recipients != null) {
+			temporaryRecipients = new ArrayList<>(Arrays.asList(recipients));
+			temporaryRecipients.removeAll(permanentRecipients);
+		}
+		return temporaryRecipients.isEmpty() ? null : temporaryRecipients.toArray(new Address[temporaryRecipients.size()]);
+	}
+	
+	private static boolean isTemporary(int returnCode) {
+		return returnCode >= 400 && returnCode < 500;
+	}
+	
+	private void moveToFailed(File file) {
+		deadLettersCounter.incrementAndGet();
+		try {
+			Files.move(file.toPath(), new File(failedDirectory, file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			log.error("Cannot move the mail {} to the failed directory", file, e);
+		}
+	}
+	
+	private void deleteQuietly(File file) {
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			log.warn("Cannot delete file: {}", file, e);
+		}
+	}
+	
+	private synchronized void evictIdleConnections() {
+		if(pool != null) {
+			pool.evict();
+		}
+	}
+	
+	/**
+	 * The pool is recreated if the SMTP configuration changed.
+	 * 
+	 * @return The pool for the current SMTP configuration
+	 */
+	private synchronized SmtpTransportPool getPool() {
+		String key = getConfigurationKey();
+		if(pool == null || !pool.getKey().equals(key)) {
+			if(pool != null) {
+				pool.close();
+			}
+			pool = new SmtpTransportPool(key, createSession(), poolSize, connectionIdle, connectionMaxMessages);
+		}
+		return pool;
+	}
+	
+	private String getConfigurationKey() {
+		StringBuilder sb = new StringBuilder(128);
+		for(String config:new String[] { "mailhost", "mailport", "mailTimeout", "sslEnabled", "sslCheckCertificate", "smtpStarttls", "smtpUser", "smtpFrom" }) {
+			sb.append(WebappHelper.getMailConfig(config)).append('|');
+		}
+		sb.append(Objects.hashCode(WebappHelper.getMailConfig("smtpPwd")));
+		return sb.toString();
+	}
+	
+	/**
+	 * Same configuration as the sessions of the messages
+	 * created by the mail manager.
+	 */
+	private Session createSession() {
+		String mailhost = WebappHelper.getMailConfig("mailhost");
+		String mailport = WebappHelper.getMailConfig("mailport");
+		String mailhostTimeout = WebappHelper.getMailConfig("mailTimeout");
+		boolean sslEnabled = Boolean.parseBoolean(WebappHelper.getMailConfig("sslEnabled"));
+		boolean sslCheckCertificate = Boolean.parseBoolean(WebappHelper.getMailConfig("sslCheckCertificate"));
+		boolean startTls = Boolean.parseBoolean(WebappHelper.getMailConfig("smtpStarttls"));
+		String smtpFrom = WebappHelper.getMailConfig("smtpFrom");
+		
+		Properties p = new Properties();
+		p.put("mail.smtp.host", mailhost);
+		if(StringHelper.containsNonWhitespace(mailport)) {
+			p.put("mail.smtp.port", mailport);
+		}
+		if(StringHelper.containsNonWhitespace(mailhostTimeout)) {
+			p.put("mail.smtp.timeout", mailhostTimeout);
+			p.put("mail.smtp.connectiontimeout", mailhostTimeout);
+		}
+		p.put("mail.smtp.ssl.enable", sslEnabled);
+		p.put("mail.smtp.ssl.checkserveridentity", sslCheckCertificate);
+		if(startTls) {
+			p.put("mail.smtp.starttls.enable", "true");
+			p.put("mail.smtp.ssl.trust", mailhost);
+		}
+		p.put("mail.smtp.sendpartial", Boolean.TRUE);
+		if(StringHelper.containsNonWhitespace(smtpFrom)) {
+			// envelope from of the spooled messages
+			p.put("mail.smtp.from", smtpFrom);
+		}
+		
+		Session session;
+		if (WebappHelper.isMailHostAuthenticationEnabled()) {
+			p.put("mail.smtp.auth", "true");
+			Authenticator smtpAuth = new MailerSMTPAuthenticator(WebappHelper.getMailConfig("smtpUser"), WebappHelper.getMailConfig("smtpPwd"));
+			session = Session.getInstance(p, smtpAuth);
+		} else {
+			session = Session.getInstance(p);
+		}
+		if (log.isDebugEnabled()) {
+			session.setDebug(true);
+		}
+		return session;
+	}
+
+	@Override
+	public long getSent() {
+		return sentCounter.get();
+	}
+
+	@Override
+	public long getFailed() {
+		return failedCounter.get();
+	}
+
+	@Override
+	public long getQueued() {
+		return queuedCounter.get();
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	@Override
+	public long getRetries() {
+		return retriesCounter.get();
+	}
+
+	@Override
+	public long getDeadLetters() {
+		return deadLettersCounter.get();
+	}
+
+	@Override
+	public long getConnectionsOpened() {
+		return openedCounter.get();
+	}
+
+	@Override
+	public long getConnectionsReused() {
+		return reusedCounter.get();
+	}
+
+	@Override
+	public long getRateLimitWaits() {
+		return rateLimitWaitsCounter.get();
+	}
+
+	@Override
+	public double getAverageSendTime() {
+		long count = sentCounter.get() + failedCounter.get();
+		return count == 0 ? 0.0d : (sendTime.get() / 1000000.0d) / count;
+	}
+	
+	private static class QueuedMail implements Delayed {
+		
+		private final File file;
+		private final Address[] recipients;
+		private final int attempts;
+		private final long due;
+		
+		/**
+		 * @param file The spooled message
+		 * @param recipients The envelope recipients or null for all the
+		 * 		recipients of the message. They are not spooled, after a
+		 * 		restart the message is sent again to all its recipients.
+		 * @param attempts The number of attempts made
+		 * @param delay The delay in milliseconds
+		 */
+		public QueuedMail(File file, Address[] recipients, int attempts, long delay) {
+			this.file = file;
+			this.recipients = recipients;
+			this.attempts = attempts;
+			due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		public Address[] getRecipients() {
+			return recipients;
+		}
+
+		public int getAttempts() {
+			return attempts;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(due - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed o) {
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+		}
+	}
+}
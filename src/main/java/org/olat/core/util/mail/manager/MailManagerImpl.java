@@ -149,6 +149,8 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 	private final MailModule mailModule;
 	@Autowired
 	private GUISettings guiSettings;
+	@Autowired
+	private MailDispatcher mailDispatcher;
 
 	private FileStorage attachmentStorage;
 	
@@ -683,6 +685,21 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 
 	@Override
 	public MailerResult sendMessage(MailBundle... bundles) {
+		return sendMessage(false, bundles);
+	}
+	
+	/**
+	 * Send the messages in the bulk queue of the mail dispatcher if it is
+	 * enabled, the messages are sent directly else.
+	 * 
+	 * @param bundles The messages
+	 * @return The result of the rendering
+	 */
+	public MailerResult sendMessageQueued(MailBundle... bundles) {
+		return sendMessage(true, bundles);
+	}
+	
+	private MailerResult sendMessage(boolean queued, MailBundle... bundles) {
 		MailerResult result = new MailerResult();
 		for(MailBundle bundle:bundles) {
 			MailContent content = decorateMail(bundle);
@@ -693,7 +710,7 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 			} else {
 				sendExternMessage(mimeFrom, bundle.getFromId(), bundle.getFrom(),
 						bundle.getToId(), bundle.getTo(), bundle.getCc(),
-						bundle.getContactLists(), content, result);
+						bundle.getContactLists(), content, result, queued);
 			}
 		}
 		return result;
@@ -872,7 +889,7 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 		}
 		Address mimeFrom = createMimeFrom(bundle.getMimeFromEmail(), bundle.getMimeFromName());
 		return sendExternMessage(mimeFrom, bundle.getFromId(), bundle.getFrom(), bundle.getToId(), bundle.getTo(),
-				bundle.getCc(), bundle.getContactLists(), content, result);
+				bundle.getCc(), bundle.getContactLists(), content, result, false);
 	}
 	
 	
@@ -887,16 +904,17 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 	 * @param subject
 	 * @param body
 	 * @param attachments
+	 * @param queued Queue the message in the mail dispatcher if possible
 	 * @return
 	 */
 	private MailerResult sendExternMessage(Address mimeFrom, Identity fromId, String from, Identity toId, String to,
-			Identity cc, List<ContactList> bccLists, MailContent content, MailerResult result) {
+			Identity cc, List<ContactList> bccLists, MailContent content, MailerResult result, boolean queued) {
 
 		if(result == null) {
 			result = new MailerResult();
 		}
 		MimeMessage mail = createMimeMessage(mimeFrom, fromId, from, toId, to, cc, bccLists, content, result);
-		if(mail != null) {
+		if(mail != null && !(queued && queueMessage(mail, result))) {
 			sendMessage(mail, result);
 			if(result != null && !result.isSuccessful()) {
 				handleErrors(result, fromId, toId, cc, bccLists);
@@ -1794,6 +1812,12 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 		return multipart;
 	}
 
+	private boolean queueMessage(MimeMessage msg, MailerResult result) {
+		return mailDispatcher.isEnabled() && mailModule.isMailHostEnabled()
+				&& result.getReturnCode() == MailerResult.OK && !Settings.isDebuging()
+				&& mailDispatcher.queue(msg);
+	}
+
 	@Override
 	public void sendMessage(MimeMessage msg, MailerResult result) {
 		if (msg == null) return;
@@ -1815,7 +1839,11 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 				if(Settings.isDebuging()) {
 					logMessage(msg);
 				}
-				Transport.send(msg);
+				if(mailDispatcher.isEnabled()) {
+					mailDispatcher.send(msg);
+				} else {
+					Transport.send(msg);
+				}
 			} else if(Settings.isDebuging() && result.getReturnCode() == MailerResult.OK) {
 				logMessage(msg);
 			} else {
@@ -1877,7 +1905,7 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 
 		@Override
 		public void run() {
-			CoreSpringFactory.getImpl(MailManager.class).sendMessage(bundles);
+			CoreSpringFactory.getImpl(MailManagerImpl.class).sendMessageQueued(bundles);
 		}
 	}
 	
@@ -0,0 +1,215 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+
+/**
+ * A small pool of connected SMTP transports. A connection is reused for
+ * several messages and closed after it was idle too long or sent the
+ * maximum number of messages. Connections idle for a few seconds are
+ * checked (NOOP) before being reused.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class SmtpTransportPool {
+	
+	private static final Logger log = Tracing.createLoggerFor(SmtpTransportPool.class);
+	
+	private static final long VALIDATE_AFTER_IDLE = 5000l;
+	
+	private final String key;
+	private final Session session;
+	private final long maxIdle;
+	private final int maxMessages;
+	private final Semaphore permits;
+	private final LinkedBlockingDeque<PooledTransport> idleTransports = new LinkedBlockingDeque<>();
+	
+	private volatile boolean closed = false;
+	
+	/**
+	 * 
+	 * @param key An identifier of the configuration of the session
+	 * @param session The mail session
+	 * @param maxSize The maximum number of connections
+	 * @param maxIdle The time in milliseconds a connection can stay unused in the pool
+	 * @param maxMessages The maximum number of messages sent by a connection
+	 */
+	public SmtpTransportPool(String key, Session session, int maxSize, long maxIdle, int maxMessages) {
+		this.key = key;
+		this.session = session;
+		this.maxIdle = maxIdle;
+		this.maxMessages = maxMessages;
+		permits = new Semaphore(Math.max(1, maxSize), true);
+	}
+	
+	public String getKey() {
+		return key;
+	}
+	
+	public Session getSession() {
+		return session;
+	}
+	
+	public int getIdle() {
+		return idleTransports.size();
+	}
+	
+	/**
+	 * Borrow a connected transport. The caller must give it back with
+	 * the release method.
+	 * 
+	 * @param timeout Maximum time to wait for a free connection in milliseconds
+	 * @return A connected transport
+	 * @throws MessagingException If the connection cannot be opened
+	 * @throws InterruptedException
+	 */
+	public PooledTransport borrow(long timeout) throws MessagingException, InterruptedException {
+		if(closed) {
+			throw new MessagingException("SMTP pool closed");
+		}
+		if(!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+			throw new MessagingException("No SMTP connection available after " + timeout + "ms");
+		}
+		
+		try {
+			long now = System.currentTimeMillis();
+			PooledTransport transport;
+			while((transport = idleTransports.pollFirst()) != null) {
+				if(now - transport.getLastUsed() > maxIdle) {
+					transport.close();
+				} else if(now - transport.getLastUsed() > VALIDATE_AFTER_IDLE && !transport.isConnected()) {
+					transport.close();
+				} else {
+					return transport;
+				}
+			}
+			
+			Transport smtpTransport = session.getTransport("smtp");
+			smtpTransport.connect();
+			return new PooledTransport(smtpTransport);
+		} catch (MessagingException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Give the transport back to the pool.
+	 * 
+	 * @param transport The transport
+	 * @param broken If true, the connection is closed
+	 */
+	public void release(PooledTransport transport, boolean broken) {
+		try {
+			if(broken || closed || transport.getMessages() >= maxMessages) {
+				transport.close();
+			} else {
+				transport.setLastUsed(System.currentTimeMillis());
+				// last in, first out: keep the hot connections busy, the others expire
+				idleTransports.offerFirst(transport);
+			}
+		} finally {
+			permits.release();
+		}
+	}
+	
+	/**
+	 * Close the idle connections which are expired.
+	 */
+	public void evict() {
+		long now = System.currentTimeMillis();
+		for(PooledTransport transport:idleTransports) {
+			if(now - transport.getLastUsed() > maxIdle && idleTransports.remove(transport)) {
+				transport.close();
+			}
+		}
+	}
+	
+	public void close() {
+		closed = true;
+		PooledTransport transport;
+		while((transport = idleTransports.pollFirst()) != null) {
+			transport.close();
+		}
+	}
+	
+	public static class PooledTransport {
+		
+		private final Transport transport;
+		private long lastUsed;
+		private int messages = 0;
+		
+		private PooledTransport(Transport transport) {
+			this.transport = transport;
+			lastUsed = System.currentTimeMillis();
+		}
+		
+		public Transport getTransport() {
+			return transport;
+		}
+		
+		public int getMessages() {
+			return messages;
+		}
+		
+		public void incrementMessages() {
+			messages++;
+		}
+		
+		public boolean isReused() {
+			return messages > 0;
+		}
+		
+		private long getLastUsed() {
+			return lastUsed;
+		}
+		
+		private void setLastUsed(long lastUsed) {
+			this.lastUsed = lastUsed;
+		}
+		
+		private boolean isConnected() {
+			try {
+				return transport.isConnected();
+			} catch (Exception e) {
+				return false;
+			}
+		}
+		
+		private void close() {
+			try {
+				transport.close();
+			} catch (Exception e) {
+				log.debug("Cannot close SMTP connection", e);
+			}
+		}
+	}
+}
@@ -75,6 +75,7 @@ public class OpenXMLWorkbook implements Closeable {
 	
 	private int currentId = 4;
 	private boolean opened;
+	private boolean inlineStrings;
 	
 	private final ZipOutputStream zout;
 	private final int numberOfWorksheet;
@@ -136,6 +137,27 @@ public class OpenXMLWorkbook implements Closeable {
 		}
 	}
 	
+	/**
+	 * @return true if the strings are written in the cells instead of the shared strings table
+	 */
+	public boolean isInlineStrings() {
+		return inlineStrings;
+	}
+
+	/**
+	 * Write the strings directly in the cells. The workbook is a little bigger
+	 * but the strings are not hold in memory until the end of the export.
+	 * 
+	 * @param inlineStrings true to write the strings in the cells
+	 */
+	public void setInlineStrings(boolean inlineStrings) {
+		this.inlineStrings = inlineStrings;
+	}
+	
+	protected String filterXmlCharacters(String string) {
+		return xmlCharactersFilter.filter(string);
+	}
+	
 	public OpenXMLWorkbookStyles getStyles() {
 		return styles;
 	}
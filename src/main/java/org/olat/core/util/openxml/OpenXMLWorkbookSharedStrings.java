@@ -20,8 +20,10 @@
 package org.olat.core.util.openxml;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 
@@ -32,9 +34,10 @@ import java.util.List;
 public class OpenXMLWorkbookSharedStrings implements Iterable<String> {
 
 	private final List<String> sharedStrings = new ArrayList<>();
+	private final Map<String,Integer> sharedStringsIndex = new HashMap<>();
 	
 	public OpenXMLWorkbookSharedStrings() {
-		sharedStrings.add("OpenOLAT");//prevent empty list
+		add("OpenOLAT");//prevent empty list
 	}
 	
 	/**
@@ -43,12 +46,13 @@ public class OpenXMLWorkbookSharedStrings implements Iterable<String> {
 	 * @return
 	 */
 	public int add(String string) {
-		int index = sharedStrings.indexOf(string);
-		if(index < 0) {
+		Integer index = sharedStringsIndex.get(string);
+		if(index == null) {
 			sharedStrings.add(string);
-			index = sharedStrings.size() - 1;
+			index = Integer.valueOf(sharedStrings.size() - 1);
+			sharedStringsIndex.put(string, index);
 		}
-		return index;
+		return index.intValue();
 	}
 
 	@Override
@@ -134,6 +134,20 @@ public class OpenXMLWorksheet {
 					}
 					if(cell.getType() == OpenXMLCellType.sharedString) {
 						writer.writeAttribute("t", "s");
+					} else if(cell.getType() == OpenXMLCellType.inlineString) {
+						writer.writeAttribute("t", "inlineStr");
+						writer.writeStartElement("is");
+						writer.writeStartElement("t");
+						String cleanedString = workbook.filterXmlCharacters(cell.getValue().toString());
+						if(cleanedString.contains("<") || cleanedString.contains(">")) {
+							writer.writeCData(cleanedString);
+						} else {
+							writer.writeCharacters(cleanedString);
+						}
+						writer.writeEndElement();// end t
+						writer.writeEndElement();// end is
+						writer.writeEndElement();// end c
+						continue;
 					}
 					
 					writer.writeStartElement("v");
@@ -373,11 +387,16 @@ public class OpenXMLWorksheet {
 		public Cell addCell(int column, String value, CellStyle style) {
 			Cell cell = getOrCreateCell(column);
 			cell.setStyle(style);
-			cell.setType(OpenXMLCellType.sharedString);
-			if(value != null) {
-				int sharedIndex = workbook.getSharedStrings().add(value);
-				if(sharedIndex >= 0) {
-					cell.setValue(sharedIndex);
+			if(workbook.isInlineStrings()) {
+				cell.setType(OpenXMLCellType.inlineString);
+				cell.setValue(value);
+			} else {
+				cell.setType(OpenXMLCellType.sharedString);
+				if(value != null) {
+					int sharedIndex = workbook.getSharedStrings().add(value);
+					if(sharedIndex >= 0) {
+						cell.setValue(sharedIndex);
+					}
 				}
 			}
 			return cell;
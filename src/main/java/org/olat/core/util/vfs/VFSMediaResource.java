@@ -26,16 +26,17 @@
 
 package org.olat.core.util.vfs;
 
+import java.io.File;
 import java.io.InputStream;
 
 import javax.servlet.http.HttpServletResponse;
 
-import org.olat.core.gui.media.MediaResource;
+import org.olat.core.gui.media.FileBackedMediaResource;
 import org.olat.core.gui.media.ServletUtil;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.WebappHelper;
 
-public class VFSMediaResource implements MediaResource {
+public class VFSMediaResource implements FileBackedMediaResource {
 
 	private static final String MIME_TYPE_OCTET_STREAM = "application/octet-stream";
 	//use this pseudo mime-type to force download on ie 6
@@ -109,6 +110,15 @@ public class VFSMediaResource implements MediaResource {
 		return getLeaf().getInputStream();
 	}
 
+	@Override
+	public File getFile() {
+		VFSLeaf leaf = getLeaf();
+		if(leaf instanceof LocalFileImpl) {
+			return ((LocalFileImpl)leaf).getBasefile();
+		}
+		return null;
+	}
+
 	@Override
 	public Long getLastModified() {
 		long lastModified = getLeaf().getLastModified();
@@ -104,6 +104,7 @@ import org.olat.course.editor.EditorMainController;
 import org.olat.course.editor.PublishProcess;
 import org.olat.course.editor.PublishSetInformations;
 import org.olat.course.editor.StatusDescription;
+import org.olat.course.export.CourseZipManager;
 import org.olat.course.groupsandrights.CourseGroupManager;
 import org.olat.course.groupsandrights.PersistingCourseGroupManager;
 import org.olat.course.nodeaccess.NodeAccessService;
@@ -574,7 +575,7 @@ public class CourseFactory {
 		// Unzip course structure in new course
 		LocalFolderImpl courseBaseContainer = newCourse.getCourseBaseContainer();
 		File fCanonicalCourseBasePath = courseBaseContainer.getBasefile();
-		if (ZipUtil.unzip(zipFile, fCanonicalCourseBasePath)) {
+		if (CoreSpringFactory.getImpl(CourseZipManager.class).unzip(zipFile, fCanonicalCourseBasePath)) {
 			// Load course structure now
 			try {
 				newCourse.load();
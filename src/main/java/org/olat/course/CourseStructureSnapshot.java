@@ -0,0 +1,160 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.helpers.Settings;
+import org.olat.core.logging.Tracing;
+
+/**
+ * The snapshot is a binary copy of the run structure written next to
+ * the runstructure.xml and used to load the course without XStream.
+ * The header contains a format version, the build of OpenOlat and the
+ * length and CRC32 checksum of the XML file it was created from. If
+ * one of them doesn't match, the snapshot is stale and the XML file
+ * must be used. Only the classes of OpenOLAT and of the JDK can be read
+ * from the snapshot.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class CourseStructureSnapshot {
+	
+	private static final Logger log = Tracing.createLoggerFor(CourseStructureSnapshot.class);
+	
+	public static final String RUNSTRUCTURE_SNAPSHOT = "runstructure.snapshot";
+	
+	private static final int MAGIC = 0x4f4f5253;
+	private static final int FORMAT_VERSION = 1;
+	// old structures can still contain hibernate collections
+	private static final ObjectInputFilter STRUCTURE_FILTER = ObjectInputFilter.Config
+			.createFilter("org.olat.**;de.bps.**;de.tuchemnitz.**;org.hibernate.collection.**;java.lang.*;java.util.**;java.math.*;java.time.**;java.sql.Timestamp;java.sql.Date;!*");
+	
+	private CourseStructureSnapshot() {
+		//
+	}
+	
+	/**
+	 * Write the snapshot of the structure saved in the specified XML file.
+	 * 
+	 * @param structure The run structure
+	 * @param xmlFile The XML file of the same structure
+	 * @param snapshotFile The snapshot file
+	 * @return true if successful
+	 */
+	public static boolean write(Structure structure, File xmlFile, File snapshotFile) {
+		File tmpFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+		try {
+			long checksum = checksum(xmlFile);
+			try(OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath()), 65536);
+					DataOutputStream out = new DataOutputStream(fileOut)) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(getBuild());
+				out.writeLong(xmlFile.length());
+				out.writeLong(checksum);
+				
+				ObjectOutputStream objectOut = new ObjectOutputStream(out);
+				objectOut.writeObject(structure);
+				objectOut.flush();
+			}
+			// never let an other thread or node read a half written snapshot
+			Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		} catch (Exception e) {
+			log.warn("Cannot write course structure snapshot: {}", snapshotFile, e);
+			delete(tmpFile);
+			delete(snapshotFile);
+			return false;
+		}
+	}
+	
+	/**
+	 * Read the snapshot if it is up-to-date with the XML file.
+	 * 
+	 * @param xmlFile The XML file of the run structure
+	 * @param snapshotFile The snapshot file
+	 * @return The run structure or null if the snapshot is missing, stale or unreadable
+	 */
+	public static Structure read(File xmlFile, File snapshotFile) {
+		if(!snapshotFile.exists() || !xmlFile.exists()) {
+			return null;
+		}
+		
+		try(InputStream fileIn = new BufferedInputStream(Files.newInputStream(snapshotFile.toPath()), 65536);
+				DataInputStream in = new DataInputStream(fileIn)) {
+			if(in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+					|| !getBuild().equals(in.readUTF())
+					|| in.readLong() != xmlFile.length()
+					|| in.readLong() != checksum(xmlFile)) {
+				log.debug("Stale course structure snapshot: {}", snapshotFile);
+				return null;
+			}
+
+			ObjectInputStream objectIn = new ObjectInputStream(in);
+			objectIn.setObjectInputFilter(STRUCTURE_FILTER);
+			Object obj = objectIn.readObject();
+			return obj instanceof Structure ? (Structure)obj : null;
+		} catch (Exception e) {
+			log.warn("Cannot read course structure snapshot: {}", snapshotFile, e);
+			return null;
+		}
+	}
+	
+	private static long checksum(File file) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[65536];
+		try(InputStream in = Files.newInputStream(file.toPath())) {
+			int read;
+			while((read = in.read(buffer)) >= 0) {
+				crc.update(buffer, 0, read);
+			}
+		}
+		return crc.getValue();
+	}
+	
+	private static String getBuild() {
+		String build = Settings.getBuildIdentifier();
+		return build == null ? "" : build;
+	}
+	
+	private static void delete(File file) {
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			log.debug("Cannot delete: {}", file, e);
+		}
+	}
+}
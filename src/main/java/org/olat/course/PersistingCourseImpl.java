@@ -97,6 +97,8 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 	private String courseTitle = null;
 	/** courseTitleSyncObj is a final Object only used for synchronizing the courseTitle getter - see OLAT-5654 */
 	private final Object courseTitleSyncObj = new Object();
+	/** the editor tree model is only loaded if needed */
+	private final Object editorTreeModelSyncObj = new Object();
 	private static final Logger log = Tracing.createLoggerFor(PersistingCourseImpl.class);
 	
 	//an PersistingCourseImpl instance could be readOnly if readAndWrite == false, or readAndWrite 
@@ -141,7 +143,12 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 
 	@Override
 	public CourseEditorTreeModel getEditorTreeModel() {
-		return editorTreeModel;
+		synchronized(editorTreeModelSyncObj) {
+			if(editorTreeModel == null && runStructure != null) {
+				editorTreeModel = loadEditorTreeModel();
+			}
+			return editorTreeModel;
+		}
 	}
 
 	@Override
@@ -270,6 +277,7 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 	 */
 	void saveRunStructure() {
 		writeObject(RUNSTRUCTURE_XML, getRunStructure());
+		writeRunStructureSnapshot(getRunStructure());
 		log.debug("saveRunStructure");
 	}
 
@@ -319,15 +327,31 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 		 * remember that loading of the courseConfiguration is already done within
 		 * the constructor !
 		 */
-		Object obj;
-		obj = readObject(RUNSTRUCTURE_XML);
-		if (!(obj instanceof Structure)) throw new AssertException("Error reading course run structure.");
-		runStructure = (Structure) obj;
+		File baseDir = getCourseBaseContainer().getBasefile();
+		Structure structure = CourseStructureSnapshot.read(new File(baseDir, RUNSTRUCTURE_XML),
+				new File(baseDir, CourseStructureSnapshot.RUNSTRUCTURE_SNAPSHOT));
+		if(structure == null) {
+			// no or stale snapshot, read the XML and renew the snapshot
+			Object obj = readObject(RUNSTRUCTURE_XML);
+			if (!(obj instanceof Structure)) throw new AssertException("Error reading course run structure.");
+			structure = (Structure) obj;
+			writeRunStructureSnapshot(structure);
+		}
+		runStructure = structure;
 		initHasAssessableNodes();
-		
-		obj = readObject(EDITORTREEMODEL_XML);
+		// the editor tree model is loaded on demand, see getEditorTreeModel()
+	}
+	
+	private CourseEditorTreeModel loadEditorTreeModel() {
+		Object obj = readObject(EDITORTREEMODEL_XML);
 		if (!(obj instanceof CourseEditorTreeModel)) throw new AssertException("Error reading course editor tree model.");
-		editorTreeModel = (CourseEditorTreeModel) obj;	
+		return (CourseEditorTreeModel) obj;
+	}
+	
+	private void writeRunStructureSnapshot(Structure structure) {
+		File baseDir = getCourseBaseContainer().getBasefile();
+		CourseStructureSnapshot.write(structure, new File(baseDir, RUNSTRUCTURE_XML),
+				new File(baseDir, CourseStructureSnapshot.RUNSTRUCTURE_SNAPSHOT));
 	}
 
 	/**
@@ -388,7 +412,9 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 	 * @param editorTreeModel
 	 */
 	void setEditorTreeModel(CourseEditorTreeModel editorTreeModel) {
-		this.editorTreeModel = editorTreeModel;
+		synchronized(editorTreeModelSyncObj) {
+			this.editorTreeModel = editorTreeModel;
+		}
 	}
 
 	/**
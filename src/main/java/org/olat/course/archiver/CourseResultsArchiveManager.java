@@ -0,0 +1,426 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.archiver;
+
+import java.io.File;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.taskexecutor.TaskExecutorManager;
+import org.olat.core.id.Identity;
+import org.olat.core.id.IdentityEnvironment;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.logging.OLATRuntimeException;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.ExportUtil;
+import org.olat.course.CourseFactory;
+import org.olat.course.ICourse;
+import org.olat.course.assessment.CourseAssessmentService;
+import org.olat.course.assessment.handler.AssessmentConfig;
+import org.olat.course.assessment.handler.AssessmentConfig.Mode;
+import org.olat.course.nodes.CourseNode;
+import org.olat.course.run.environment.CourseEnvironment;
+import org.olat.course.run.scoring.AssessmentAccounting;
+import org.olat.course.run.scoring.AssessmentEvaluation;
+import org.olat.course.run.scoring.ScoreAccounting;
+import org.olat.course.run.userview.UserCourseEnvironment;
+import org.olat.course.run.userview.UserCourseEnvironmentImpl;
+import org.olat.modules.assessment.AssessmentEntry;
+import org.olat.modules.assessment.AssessmentService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evaluates the results of the participants of a course for the results
+ * archive. The assessment entries are loaded in bulk for a batch of users,
+ * the users of the batch are evaluated in parallel. The archives started
+ * by the users run as background tasks which can be tracked.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+@Service
+public class CourseResultsArchiveManager implements InitializingBean, DisposableBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(CourseResultsArchiveManager.class);
+	
+	/**
+	 * Number of users evaluated by a worker in one go
+	 */
+	private static final int CHUNK_SIZE = 20;
+	/**
+	 * Time a finished task is kept for the user which started it
+	 */
+	private static final long FINISHED_TASK_TTL = 24l * 60l * 60l * 1000l;
+	
+	@Value("${course.results.archive.workers:4}")
+	private int workers;
+	
+	private ThreadPoolExecutor executor;
+	private final ConcurrentMap<String,CourseResultsArchiveTask> tasks = new ConcurrentHashMap<>();
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private AssessmentService assessmentService;
+	@Autowired
+	private TaskExecutorManager taskExecutorManager;
+	@Autowired
+	private CourseAssessmentService courseAssessmentService;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		int numOfWorkers = Math.max(1, workers);
+		executor = new ThreadPoolExecutor(numOfWorkers, numOfWorkers, 60l, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(numOfWorkers * 8), new CustomizableThreadFactory("oo-results-archive-"),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if(executor != null) {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * @param nodes The course nodes to archive
+	 * @return The columns configurations of the course nodes
+	 */
+	public List<ArchivedNode> getArchivedNodes(List<CourseNode> nodes) {
+		List<ArchivedNode> archivedNodes = new ArrayList<>(nodes.size());
+		for(CourseNode node:nodes) {
+			AssessmentConfig assessmentConfig = courseAssessmentService.getAssessmentConfig(node);
+			archivedNodes.add(new ArchivedNode(node, assessmentConfig));
+		}
+		return archivedNodes;
+	}
+	
+	/**
+	 * Evaluate the results of the specified users. The assessment entries
+	 * of all the users are loaded with one query, the users are evaluated
+	 * in parallel by their score accounting, fed with the loaded entries.
+	 * 
+	 * @param identities A batch of users
+	 * @param nodes The course nodes to evaluate
+	 * @param courseEnv The course environment
+	 * @return The results in the same order as the users
+	 */
+	public List<UserResults> evaluate(List<Identity> identities, List<ArchivedNode> nodes, CourseEnvironment courseEnv) {
+		if(identities.isEmpty()) return Collections.emptyList();
+		
+		List<Long> identityKeys = identities.stream()
+				.map(Identity::getKey)
+				.collect(Collectors.toList());
+		Map<Long,Map<String,AssessmentEntry>> identityToEntries = new HashMap<>();
+		List<AssessmentEntry> entries = assessmentService
+				.loadAssessmentEntriesByAssessedIdentities(courseEnv.getCourseGroupManager().getCourseEntry(), identityKeys);
+		for(AssessmentEntry entry:entries) {
+			identityToEntries
+				.computeIfAbsent(entry.getIdentity().getKey(), key -> new HashMap<>())
+				.put(entry.getSubIdent(), entry);
+		}
+		
+		List<Future<List<UserResults>>> futures = new ArrayList<>();
+		for(int i=0; i<identities.size(); i += CHUNK_SIZE) {
+			List<Identity> chunk = identities.subList(i, Math.min(identities.size(), i + CHUNK_SIZE));
+			futures.add(executor.submit(() -> evaluateChunk(chunk, nodes, identityToEntries, courseEnv)));
+		}
+
+		List<UserResults> results = new ArrayList<>(identities.size());
+		try {
+			for(Future<List<UserResults>> future:futures) {
+				results.addAll(future.get());
+			}
+		} catch (InterruptedException e) {
+			futures.forEach(future -> future.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new OLATRuntimeException("Evaluation of the course results interrupted", e);
+		} catch (ExecutionException e) {
+			futures.forEach(future -> future.cancel(true));
+			throw new OLATRuntimeException("Cannot evaluate the course results", e.getCause());
+		}
+		return results;
+	}
+	
+	private List<UserResults> evaluateChunk(List<Identity> identities, List<ArchivedNode> nodes,
+			Map<Long,Map<String,AssessmentEntry>> identityToEntries, CourseEnvironment courseEnv) {
+		try {
+			DateFormat df = new SimpleDateFormat("yyyy-MM-dd hh:mm");
+			List<UserResults> results = new ArrayList<>(identities.size());
+			for(Identity identity:identities) {
+				Map<String,AssessmentEntry> entries = identityToEntries.getOrDefault(identity.getKey(), Collections.emptyMap());
+				results.add(evaluate(identity, nodes, entries, courseEnv, df));
+			}
+			return results;
+		} finally {
+			dbInstance.commitAndCloseSession();
+		}
+	}
+	
+	private UserResults evaluate(Identity identity, List<ArchivedNode> nodes, Map<String,AssessmentEntry> entries,
+			CourseEnvironment courseEnv, DateFormat df) {
+		// create a identenv with no roles, no attributes, no locale
+		IdentityEnvironment ienv = new IdentityEnvironment();
+		ienv.setIdentity(identity);
+		UserCourseEnvironment uce = new UserCourseEnvironmentImpl(ienv, courseEnv);
+		// only participants are evaluated, see UserCourseEnvironmentImpl.getScoreAccounting()
+		ScoreAccounting scoreAccounting = uce.getScoreAccounting();
+		if(scoreAccounting instanceof AssessmentAccounting) {
+			((AssessmentAccounting)scoreAccounting).evaluateAll(entries.values());
+		} else {
+			scoreAccounting.evaluateAll();
+		}
+		
+		List<NodeResults> nodesResults = new ArrayList<>(nodes.size());
+		for(ArchivedNode node:nodes) {
+			Date lastUploaded = null;
+			if(node.isTask()) {
+				lastUploaded = getLastUploaded(node.getCourseNode(), uce, df);
+			}
+			
+			AssessmentEntry entry = entries.get(node.getCourseNode().getIdent());
+			AssessmentEvaluation evaluation = scoreAccounting.evalCourseNode(node.getCourseNode());
+			nodesResults.add(new NodeResults(lastUploaded, evaluation, entry));
+		}
+		return new UserResults(identity, nodesResults);
+	}
+	
+	private Date getLastUploaded(CourseNode courseNode, UserCourseEnvironment uce, DateFormat df) {
+		Date lastUploaded = null;
+		try {
+			String auditLog = courseAssessmentService.getAuditLog(courseNode, uce);
+			auditLog = auditLog.toLowerCase();
+			auditLog = auditLog.substring(0, auditLog.lastIndexOf("submit"));
+			auditLog = auditLog.substring(auditLog.lastIndexOf("date:"));
+			String date = auditLog.split("\n")[0].substring(6);
+			lastUploaded = df.parse(date);
+		} catch (Exception e) {
+			//
+		}
+		return lastUploaded;
+	}
+	
+	/**
+	 * @param doer The user which started the archive
+	 * @param course The course
+	 * @return The last archive task of the user for the course or null
+	 */
+	public CourseResultsArchiveTask getArchiveTask(Identity doer, OLATResourceable course) {
+		return tasks.get(getTaskKey(doer, course));
+	}
+	
+	/**
+	 * Archive the results of the course in the export directory of the user
+	 * in a background task. If an archive of the user for the course is
+	 * already running, the running task is returned.
+	 * 
+	 * @param doer The user which starts the archive
+	 * @param course The course
+	 * @param locale The language of the archive
+	 * @return The task
+	 */
+	public CourseResultsArchiveTask archiveInBackground(Identity doer, ICourse course, Locale locale) {
+		String key = getTaskKey(doer, course);
+		// forget the finished tasks nobody came back for
+		long expiration = System.currentTimeMillis() - FINISHED_TASK_TTL;
+		tasks.values().removeIf(t -> !t.isRunning() && t.getFinishedAt() < expiration);
+		
+		String courseTitle = course.getCourseTitle();
+		String fileName = ExportUtil.createFileNameWithTimeStamp(courseTitle, "zip");
+		File exportDirectory = CourseFactory.getOrCreateDataExportDirectory(doer, courseTitle);
+		CourseResultsArchiveTask task = new CourseResultsArchiveTask(course.getResourceableId(), locale,
+				new File(exportDirectory, fileName));
+		
+		CourseResultsArchiveTask currentTask = tasks.compute(key, (k, current) ->
+			current != null && current.isRunning() ? current : task);
+		if(currentTask == task) {
+			log.info("Start archiving the results of course {} for {}", course.getResourceableId(), doer.getKey());
+			taskExecutorManager.execute(task);
+		}
+		return currentTask;
+	}
+	
+	/**
+	 * Forget the task if it's finished.
+	 * 
+	 * @param doer The user which started the archive
+	 * @param course The course
+	 * @param task The task
+	 */
+	public void removeArchiveTask(Identity doer, OLATResourceable course, CourseResultsArchiveTask task) {
+		if(!task.isRunning()) {
+			tasks.remove(getTaskKey(doer, course), task);
+		}
+	}
+	
+	private String getTaskKey(Identity doer, OLATResourceable course) {
+		return doer.getKey() + "-" + course.getResourceableId();
+	}
+	
+	public static class ArchivedNode {
+		
+		private final CourseNode courseNode;
+		private final AssessmentConfig assessmentConfig;
+		private final boolean task;
+		private final boolean scoreOk;
+		private final boolean passedOk;
+		private final boolean attemptsOk;
+		private final boolean commentOk;
+		
+		public ArchivedNode(CourseNode courseNode, AssessmentConfig assessmentConfig) {
+			this.courseNode = courseNode;
+			this.assessmentConfig = assessmentConfig;
+			task = "ita".equals(courseNode.getType());
+			scoreOk = Mode.none != assessmentConfig.getScoreMode();
+			passedOk = Mode.none != assessmentConfig.getPassedMode();
+			attemptsOk = assessmentConfig.hasAttempts();
+			commentOk = assessmentConfig.hasComment();
+		}
+
+		public CourseNode getCourseNode() {
+			return courseNode;
+		}
+
+		public AssessmentConfig getAssessmentConfig() {
+			return assessmentConfig;
+		}
+		
+		/**
+		 * @return true if the course node is a task (ita)
+		 */
+		public boolean isTask() {
+			return task;
+		}
+
+		public boolean isScoreOk() {
+			return scoreOk;
+		}
+
+		public boolean isPassedOk() {
+			return passedOk;
+		}
+
+		public boolean isAttemptsOk() {
+			return attemptsOk;
+		}
+
+		public boolean isCommentOk() {
+			return commentOk;
+		}
+		
+		public boolean hasResults() {
+			return scoreOk || passedOk || commentOk || attemptsOk;
+		}
+	}
+	
+	public static class UserResults {
+		
+		private final Identity identity;
+		private final List<NodeResults> nodesResults;
+		
+		public UserResults(Identity identity, List<NodeResults> nodesResults) {
+			this.identity = identity;
+			this.nodesResults = nodesResults;
+		}
+
+		public Identity getIdentity() {
+			return identity;
+		}
+
+		/**
+		 * @return The results in the same order as the archived nodes
+		 */
+		public List<NodeResults> getNodesResults() {
+			return nodesResults;
+		}
+	}
+	
+	public static class NodeResults {
+		
+		private final Date lastUploaded;
+		private final Float score;
+		private final Boolean passed;
+		private final int attempts;
+		private final Date lastModified;
+		private final String comment;
+		private final String coachComment;
+		
+		public NodeResults(Date lastUploaded, AssessmentEvaluation evaluation, AssessmentEntry entry) {
+			this.lastUploaded = lastUploaded;
+			score = evaluation.getScore();
+			passed = evaluation.getPassed();
+			attempts = entry == null || entry.getAttempts() == null ? 0 : entry.getAttempts().intValue();
+			lastModified = entry == null ? null : entry.getLastModified();
+			comment = entry == null ? null : entry.getComment();
+			coachComment = entry == null ? null : entry.getCoachComment();
+		}
+
+		public Date getLastUploaded() {
+			return lastUploaded;
+		}
+
+		public Float getScore() {
+			return score;
+		}
+
+		public Boolean getPassed() {
+			return passed;
+		}
+
+		public int getAttempts() {
+			return attempts;
+		}
+
+		public Date getLastModified() {
+			return lastModified;
+		}
+
+		public String getComment() {
+			return comment;
+		}
+
+		public String getCoachComment() {
+			return coachComment;
+		}
+	}
+}
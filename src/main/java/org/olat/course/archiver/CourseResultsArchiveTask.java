@@ -0,0 +1,144 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.archiver;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.id.Identity;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.FileUtils;
+import org.olat.core.util.async.ProgressDelegate;
+import org.olat.course.CourseFactory;
+import org.olat.course.ICourse;
+import org.olat.course.nodes.CourseNode;
+
+/**
+ * The background task which writes the results archive of a course. The
+ * progress and the status of the task can be followed by the user interface.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class CourseResultsArchiveTask implements Runnable, ProgressDelegate {
+	
+	private static final Logger log = Tracing.createLoggerFor(CourseResultsArchiveTask.class);
+	
+	public enum Status {
+		pending,
+		running,
+		done,
+		failed
+	}
+	
+	private final Long courseId;
+	private final Locale locale;
+	private final File archiveFile;
+	
+	private volatile Status status = Status.pending;
+	private volatile float max;
+	private volatile float actual;
+	private volatile long finishedAt;
+	
+	public CourseResultsArchiveTask(Long courseId, Locale locale, File archiveFile) {
+		this.courseId = courseId;
+		this.locale = locale;
+		this.archiveFile = archiveFile;
+	}
+	
+	public Status getStatus() {
+		return status;
+	}
+	
+	/**
+	 * @return The time in milliseconds the task finished, 0 if it's still running
+	 */
+	public long getFinishedAt() {
+		return finishedAt;
+	}
+	
+	public boolean isRunning() {
+		return status == Status.pending || status == Status.running;
+	}
+	
+	/**
+	 * @return The archive, available when the task is done
+	 */
+	public File getArchiveFile() {
+		return archiveFile;
+	}
+	
+	/**
+	 * @return The progress in percent
+	 */
+	public int getProgress() {
+		float total = max;
+		if(total <= 0.0f) {
+			return 0;
+		}
+		return Math.min(100, Math.round((actual / total) * 100.0f));
+	}
+
+	@Override
+	public void setMax(float max) {
+		this.max = max;
+	}
+
+	@Override
+	public void setActual(float value) {
+		this.actual = value;
+	}
+
+	@Override
+	public void setInfo(String message) {
+		//
+	}
+
+	@Override
+	public void finished() {
+		actual = max;
+	}
+
+	@Override
+	public void run() {
+		status = Status.running;
+		try {
+			ICourse course = CourseFactory.loadCourse(courseId);
+			List<Identity> users = ScoreAccountingHelper.loadUsers(course.getCourseEnvironment());
+			List<CourseNode> nodes = ScoreAccountingHelper.loadAssessableNodes(course.getCourseEnvironment());
+			try(OutputStream fOut = new FileOutputStream(archiveFile);
+					ZipOutputStream zout = new ZipOutputStream(fOut)) {
+				ScoreAccountingHelper.createCourseResultsOverview(users, nodes, course, locale, zout, this);
+			}
+			status = Status.done;
+		} catch(Exception e) {
+			log.error("Cannot archive the results of course: {}", courseId, e);
+			FileUtils.deleteFile(archiveFile);
+			status = Status.failed;
+		} finally {
+			finishedAt = System.currentTimeMillis();
+		}
+	}
+}
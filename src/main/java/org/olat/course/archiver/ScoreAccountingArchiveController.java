@@ -26,29 +26,24 @@
 package org.olat.course.archiver;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
-import java.util.List;
-import java.util.zip.ZipOutputStream;
 
 import org.olat.core.gui.UserRequest;
 import org.olat.core.gui.components.Component;
 import org.olat.core.gui.components.link.Link;
 import org.olat.core.gui.components.link.LinkFactory;
 import org.olat.core.gui.components.panel.StackedPanel;
+import org.olat.core.gui.components.progressbar.ProgressBar;
 import org.olat.core.gui.components.velocity.VelocityContainer;
 import org.olat.core.gui.control.Event;
 import org.olat.core.gui.control.WindowControl;
 import org.olat.core.gui.control.controller.BasicController;
 import org.olat.core.gui.media.FileMediaResource;
 import org.olat.core.gui.media.MediaResource;
-import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
-import org.olat.core.util.ExportUtil;
 import org.olat.course.CourseFactory;
 import org.olat.course.ICourse;
-import org.olat.course.nodes.CourseNode;
+import org.olat.course.archiver.CourseResultsArchiveTask.Status;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * Description: Course-Results-Archiver using ScoreAccountingHelper.class
@@ -57,13 +52,20 @@ import org.olat.course.nodes.CourseNode;
  * @author gnaegi
  */
 public class ScoreAccountingArchiveController extends BasicController {
+	
+	private static final int POLL_INTERVAL = 3000;
 
 	private final OLATResourceable ores;
 	private StackedPanel myPanel;
 	private VelocityContainer myContent;
 	private Link startButton;
+	private Link refreshButton;
 	private Link downloadButton;
+	private ProgressBar progressBar;
+	private VelocityContainer vcOngoing;
 	
+	@Autowired
+	private CourseResultsArchiveManager archiveManager;
 
 	/**
 	 * Constructor for the score accounting archive controller
@@ -78,13 +80,27 @@ public class ScoreAccountingArchiveController extends BasicController {
 		myPanel = putInitialPanel(myPanel);
 		myContent = createVelocityContainer("start");
 		startButton = LinkFactory.createButton("cmd.start", myContent, this);
-		myPanel.setContent(myContent);
+		
+		CourseResultsArchiveTask task = archiveManager.getArchiveTask(getIdentity(), ores);
+		if(task == null) {
+			myPanel.setContent(myContent);
+		} else if(task.isRunning()) {
+			showExportOngoing();
+		} else {
+			showExportFinished(task);
+		}
 	}
 
 	@Override
 	public void event(UserRequest ureq, Component source, Event event) {
 		if (source == startButton) {
 			doStartExport();
+		} else if(source == refreshButton) {
+			doRefresh();
+		} else if(source == vcOngoing) {
+			if("refresh".equals(event.getCommand())) {
+				doRefresh();
+			}
 		} else if(source == downloadButton) {
 			File file = (File)downloadButton.getUserObject();
 			if(file != null) {
@@ -96,26 +112,63 @@ public class ScoreAccountingArchiveController extends BasicController {
 	
 	private void doStartExport() {
 		ICourse course = CourseFactory.loadCourse(ores);
-		List<Identity> users = ScoreAccountingHelper.loadUsers(course.getCourseEnvironment());
-		List<CourseNode> nodes = ScoreAccountingHelper.loadAssessableNodes(course.getCourseEnvironment());
-		
-		String courseTitle = course.getCourseTitle();
-		String fileName = ExportUtil.createFileNameWithTimeStamp(courseTitle, "zip");
-		// location for data export
-		File exportDirectory = CourseFactory.getOrCreateDataExportDirectory(getIdentity(), courseTitle);
-		File downloadFile = new File(exportDirectory, fileName);
-		try(OutputStream fOut = new FileOutputStream(downloadFile);
-				ZipOutputStream zout = new ZipOutputStream(fOut)) {
-			ScoreAccountingHelper.createCourseResultsOverview(users, nodes, course, getLocale(), zout);
-		} catch(IOException e) {
-			logError("", e);
+		CourseResultsArchiveTask task = archiveManager.archiveInBackground(getIdentity(), course, getLocale());
+		if(task.isRunning()) {
+			showExportOngoing();
+		} else {
+			showExportFinished(task);
+		}
+	}
+	
+	/**
+	 * The view polls the state of the task, the progress and the
+	 * end of the archive are rendered by the request thread.
+	 */
+	private void doRefresh() {
+		CourseResultsArchiveTask task = archiveManager.getArchiveTask(getIdentity(), ores);
+		if(task == null) {
+			myPanel.setContent(myContent);
+		} else if(task.isRunning()) {
+			if(progressBar == null) {
+				showExportOngoing();
+			} else {
+				progressBar.setActual(task.getProgress());
+				vcOngoing.setDirty(true);
+			}
+		} else {
+			showExportFinished(task);
+		}
+	}
+	
+	private void showExportOngoing() {
+		vcOngoing = createVelocityContainer("ongoing");
+		vcOngoing.contextPut("body", translate("course.res.ongoing"));
+		vcOngoing.contextPut("pollInterval", Integer.valueOf(POLL_INTERVAL));
+		progressBar = new ProgressBar("progress", 100, 0.0f, 100.0f, "%");
+		CourseResultsArchiveTask task = archiveManager.getArchiveTask(getIdentity(), ores);
+		if(task != null) {
+			progressBar.setActual(task.getProgress());
+		}
+		vcOngoing.put("progress", progressBar);
+		refreshButton = LinkFactory.createButtonSmall("cmd.refresh", vcOngoing, this);
+		myPanel.setContent(vcOngoing);
+	}
+	
+	private void showExportFinished(CourseResultsArchiveTask task) {
+		vcOngoing = null;
+		progressBar = null;
+		archiveManager.removeArchiveTask(getIdentity(), ores, task);
+		if(task.getStatus() == Status.done) {
+			File downloadFile = task.getArchiveFile();
+			VelocityContainer vcFeedback = createVelocityContainer("feedback");
+			vcFeedback.contextPut("body", translate("course.res.feedback", new String[] { downloadFile.getName() }));
+			downloadButton = LinkFactory.createButtonSmall("cmd.download", vcFeedback, this);
+			downloadButton.setUserObject(downloadFile);
+			myPanel.setContent(vcFeedback);
+		} else {
+			myPanel.setContent(myContent);
+			showError("course.res.failed");
 		}
-
-		VelocityContainer vcFeedback = createVelocityContainer("feedback");
-		vcFeedback.contextPut("body", translate("course.res.feedback", new String[] { downloadFile.getName() }));
-		downloadButton = LinkFactory.createButtonSmall("cmd.download", vcFeedback, this);
-		downloadButton.setUserObject(downloadFile);
-		myPanel.setContent(vcFeedback);
 	}
 
 	@Override
@@ -28,8 +28,6 @@ package org.olat.course.archiver;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -47,20 +45,22 @@ import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DBFactory;
 import org.olat.core.gui.translator.Translator;
 import org.olat.core.id.Identity;
-import org.olat.core.id.IdentityEnvironment;
 import org.olat.core.id.context.BusinessControlFactory;
 import org.olat.core.id.context.ContextEntry;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.Util;
 import org.olat.core.util.ZipUtil;
+import org.olat.core.util.async.ProgressDelegate;
 import org.olat.core.util.io.ShieldOutputStream;
 import org.olat.core.util.openxml.OpenXMLWorkbook;
 import org.olat.core.util.openxml.OpenXMLWorksheet;
 import org.olat.core.util.openxml.OpenXMLWorksheet.Row;
 import org.olat.course.ICourse;
+import org.olat.course.archiver.CourseResultsArchiveManager.ArchivedNode;
+import org.olat.course.archiver.CourseResultsArchiveManager.NodeResults;
+import org.olat.course.archiver.CourseResultsArchiveManager.UserResults;
 import org.olat.course.assessment.AssessmentHelper;
-import org.olat.course.assessment.AssessmentManager;
 import org.olat.course.assessment.CourseAssessmentService;
 import org.olat.course.assessment.handler.AssessmentConfig;
 import org.olat.course.assessment.handler.AssessmentConfig.Mode;
@@ -71,10 +71,6 @@ import org.olat.course.nodes.CourseNode;
 import org.olat.course.nodes.IQTESTCourseNode;
 import org.olat.course.nodes.MSCourseNode;
 import org.olat.course.run.environment.CourseEnvironment;
-import org.olat.course.run.scoring.ScoreAccounting;
-import org.olat.course.run.scoring.ScoreEvaluation;
-import org.olat.course.run.userview.UserCourseEnvironment;
-import org.olat.course.run.userview.UserCourseEnvironmentImpl;
 import org.olat.group.BusinessGroupService;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryEntryRelationType;
@@ -91,16 +87,45 @@ public class ScoreAccountingHelper {
 	
 	private static final Logger log = Tracing.createLoggerFor(ScoreAccountingHelper.class);
 	
+	/**
+	 * Number of users evaluated and written together
+	 */
+	private static final int BATCH_SIZE = 200;
+	
 	public static void createCourseResultsOverview(List<Identity> identities, List<CourseNode> nodes, ICourse course, Locale locale, ZipOutputStream zout) {
+		createCourseResultsOverview(identities, nodes, course, locale, zout, null);
+	}
+	
+	/**
+	 * Write the results table and the assessment documents in the zip.
+	 * 
+	 * @param identities The users to archive
+	 * @param nodes The assessable course nodes
+	 * @param course The course
+	 * @param locale The language of the archive
+	 * @param zout The zip
+	 * @param progress Follow the progress of the archive (optional)
+	 */
+	public static void createCourseResultsOverview(List<Identity> identities, List<CourseNode> nodes, ICourse course, Locale locale,
+			ZipOutputStream zout, ProgressDelegate progress) {
+		if(progress != null) {
+			progress.setMax(identities.size() + (float)nodes.size());
+		}
+		
 		try(OutputStream out = new ShieldOutputStream(zout)) {
 			zout.putNextEntry(new ZipEntry("Course_results.xlsx"));
-			createCourseResultsOverviewXMLTable(identities, nodes, course, locale, out);
+			createCourseResultsOverviewXMLTable(identities, nodes, course, locale, out, progress);
 			zout.closeEntry();
 		} catch(IOException e) {
 			log.error("", e);
 		}
 
+		int nodeCount = 0;
 		for(CourseNode node:nodes) {
+			if(progress != null) {
+				progress.setActual(identities.size() + (float)nodeCount++);
+			}
+
 			String dir = "Assessment_documents/" + StringHelper.transformDisplayNameToFileSystemName(node.getShortName());
 			if(node instanceof IQTESTCourseNode
 					|| node.getModuleConfiguration().getBooleanSafe(MSCourseNode.CONFIG_KEY_HAS_INDIVIDUAL_ASSESSMENT_DOCS, false)) {
@@ -121,6 +146,10 @@ public class ScoreAccountingHelper {
 				DBFactory.getInstance().commitAndCloseSession();
 			}
 		}
+		
+		if(progress != null) {
+			progress.finished();
+		}
 	}
 	
 	/**
@@ -135,15 +164,24 @@ public class ScoreAccountingHelper {
 	 * @param bos The output stream (which will be closed at the end, if you use a zip stream don't forget to shield it).
 	 */
 	public static void createCourseResultsOverviewXMLTable(List<Identity> identities, List<CourseNode> myNodes, ICourse course, Locale locale, OutputStream bos) {
+		createCourseResultsOverviewXMLTable(identities, myNodes, course, locale, bos, null);
+	}
+	
+	private static void createCourseResultsOverviewXMLTable(List<Identity> identities, List<CourseNode> myNodes, ICourse course, Locale locale,
+			OutputStream bos, ProgressDelegate progress) {
 		try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(bos, 1)) {
-			createCourseResultsOverviewXMLTable(identities, myNodes, course, locale, workbook);
+			// the rows are streamed, don't collect the strings in memory
+			workbook.setInlineStrings(true);
+			createCourseResultsOverviewXMLTable(identities, myNodes, course, locale, workbook, progress);
 		} catch(Exception e) {
 			log.error("", e);
 		}
 	}
 	
-	private static void createCourseResultsOverviewXMLTable(List<Identity> identities, List<CourseNode> myNodes, ICourse course, Locale locale, OpenXMLWorkbook workbook) {
+	private static void createCourseResultsOverviewXMLTable(List<Identity> identities, List<CourseNode> myNodes, ICourse course, Locale locale,
+			OpenXMLWorkbook workbook, ProgressDelegate progress) {
 		CourseAssessmentService courseAssessmentService = CoreSpringFactory.getImpl(CourseAssessmentService.class);
+		CourseResultsArchiveManager archiveManager = CoreSpringFactory.getImpl(CourseResultsArchiveManager.class);
 		OpenXMLWorksheet sheet = workbook.nextWorksheet();
 		sheet.setHeaderRows(2);
 		
@@ -236,127 +274,106 @@ public class ScoreAccountingHelper {
 		CourseEnvironment courseEnvironment = course.getCourseEnvironment();
 
 		int rowNumber = 0;
-		DateFormat df = new SimpleDateFormat("yyyy-MM-dd hh:mm");
 		UserCourseInformationsManager mgr = CoreSpringFactory.getImpl(UserCourseInformationsManager.class);
 		OLATResource courseResource = courseEnvironment.getCourseGroupManager().getCourseResource();
-		Map<Long,Date> firstTimes = mgr.getInitialLaunchDates(courseResource, identities);
+		List<ArchivedNode> archivedNodes = archiveManager.getArchivedNodes(myNodes);
 
-		for (Identity identity:identities) {
-			Row dataRow = sheet.newRow();
-			int dataColCnt = 0;
-			ContextEntry ce = BusinessControlFactory.getInstance().createContextEntry(identity);
-			String uname = BusinessControlFactory.getInstance().getAsURIString(Collections.singletonList(ce), false);
-
-			dataRow.addCell(dataColCnt++, ++rowNumber, null);
-			dataRow.addCell(dataColCnt++, uname, null);
-
-			if(firstTimes.containsKey(identity.getKey())) {
-				dataRow.addCell(dataColCnt++, firstTimes.get(identity.getKey()), workbook.getStyles().getDateStyle());
-			} else {
-				dataRow.addCell(dataColCnt++, mi);
-			}
-
-			// add dynamic user properties
-			for (UserPropertyHandler propertyHandler : userPropertyHandlers) {
-				String value = propertyHandler.getUserProperty(identity.getUser(), t.getLocale());
-				dataRow.addCell(dataColCnt++, (StringHelper.containsNonWhitespace(value) ? value : na));
-			}
-
-			// create a identenv with no roles, no attributes, no locale
-			IdentityEnvironment ienv = new IdentityEnvironment();
-			ienv.setIdentity(identity);
-			UserCourseEnvironment uce = new UserCourseEnvironmentImpl(ienv, course.getCourseEnvironment());
-			ScoreAccounting scoreAccount = uce.getScoreAccounting();
-			scoreAccount.evaluateAll();
-			AssessmentManager am = course.getCourseEnvironment().getAssessmentManager();
-
-			for (CourseNode acnode:myNodes) {
-				AssessmentConfig assessmentConfig = courseAssessmentService.getAssessmentConfig(acnode);
-				boolean scoreOk = Mode.none != assessmentConfig.getScoreMode();
-				boolean passedOk = Mode.none != assessmentConfig.getPassedMode();
-				boolean attemptsOk = assessmentConfig.hasAttempts();
-				boolean commentOk = assessmentConfig.hasComment();
-
-				if (acnode.getType().equals("ita")) {
-					String log = courseAssessmentService.getAuditLog(acnode, uce);
-					String date = null;
-					Date lastUploaded = null;
-					try {
-						log = log.toLowerCase();
-						log = log.substring(0, log.lastIndexOf("submit"));
-						log = log.substring(log.lastIndexOf("date:"));
-						date = log.split("\n")[0].substring(6);
-						lastUploaded = df.parse(date);
-					} catch (Exception e) {
-						//
-					}
-					if (lastUploaded != null) {
-						dataRow.addCell(dataColCnt++, lastUploaded, workbook.getStyles().getDateStyle());
-					} else { // date == null
-						dataRow.addCell(dataColCnt++, mi);
-					}
+		// evaluate and write the users batch by batch, the memory used doesn't depend on the number of users
+		for(int i=0; i<identities.size(); i += BATCH_SIZE) {
+			List<Identity> batch = identities.subList(i, Math.min(identities.size(), i + BATCH_SIZE));
+			Map<Long,Date> firstTimes = mgr.getInitialLaunchDates(courseResource, batch);
+			List<UserResults> batchResults = archiveManager.evaluate(batch, archivedNodes, courseEnvironment);
+			
+			for (UserResults userResults:batchResults) {
+				Identity identity = userResults.getIdentity();
+				Row dataRow = sheet.newRow();
+				int dataColCnt = 0;
+				ContextEntry ce = BusinessControlFactory.getInstance().createContextEntry(identity);
+				String uname = BusinessControlFactory.getInstance().getAsURIString(Collections.singletonList(ce), false);
+	
+				dataRow.addCell(dataColCnt++, ++rowNumber, null);
+				dataRow.addCell(dataColCnt++, uname, null);
+	
+				if(firstTimes.containsKey(identity.getKey())) {
+					dataRow.addCell(dataColCnt++, firstTimes.get(identity.getKey()), workbook.getStyles().getDateStyle());
+				} else {
+					dataRow.addCell(dataColCnt++, mi);
 				}
-
-				if (scoreOk || passedOk || commentOk || attemptsOk) {
-					ScoreEvaluation se = scoreAccount.evalCourseNode(acnode);
-
-					if (scoreOk) {
-						Float score = se.getScore();
-						if (score != null) {
-							dataRow.addCell(dataColCnt++, AssessmentHelper.getRoundedScore(score), null);
-						} else { // score == null
+	
+				// add dynamic user properties
+				for (UserPropertyHandler propertyHandler : userPropertyHandlers) {
+					String value = propertyHandler.getUserProperty(identity.getUser(), t.getLocale());
+					dataRow.addCell(dataColCnt++, (StringHelper.containsNonWhitespace(value) ? value : na));
+				}
+	
+				List<NodeResults> nodesResults = userResults.getNodesResults();
+				for (int j=0; j<archivedNodes.size(); j++) {
+					ArchivedNode archivedNode = archivedNodes.get(j);
+					NodeResults nodeResults = nodesResults.get(j);
+	
+					if (archivedNode.isTask()) {
+						Date lastUploaded = nodeResults.getLastUploaded();
+						if (lastUploaded != null) {
+							dataRow.addCell(dataColCnt++, lastUploaded, workbook.getStyles().getDateStyle());
+						} else { // date == null
 							dataRow.addCell(dataColCnt++, mi);
 						}
 					}
-
-					if (passedOk) {
-						Boolean passed = se.getPassed();
-						if (passed != null) {
-							String yesno;
-							if (passed.booleanValue()) {
-								yesno = yes;
-							} else {
-								yesno = no;
+	
+					if (archivedNode.hasResults()) {
+						if (archivedNode.isScoreOk()) {
+							Float score = nodeResults.getScore();
+							if (score != null) {
+								dataRow.addCell(dataColCnt++, AssessmentHelper.getRoundedScore(score), null);
+							} else { // score == null
+								dataRow.addCell(dataColCnt++, mi);
+							}
+						}
+	
+						if (archivedNode.isPassedOk()) {
+							Boolean passed = nodeResults.getPassed();
+							if (passed != null) {
+								dataRow.addCell(dataColCnt++, passed.booleanValue() ? yes : no);
+							} else { // passed == null
+								dataRow.addCell(dataColCnt++, mi);
 							}
-							dataRow.addCell(dataColCnt++, yesno);
-						} else { // passed == null
+						}
+	
+						if (archivedNode.isAttemptsOk()) {
+							dataRow.addCell(dataColCnt++, nodeResults.getAttempts(), null);
+						}
+	
+						Date lastModified = nodeResults.getLastModified();
+						if(lastModified != null) {
+							dataRow.addCell(dataColCnt++, lastModified, workbook.getStyles().getDateStyle());
+						} else {
 							dataRow.addCell(dataColCnt++, mi);
 						}
-					}
-
-					if (attemptsOk) {
-						Integer attempts = am.getNodeAttempts(acnode, identity);
-						int a = attempts == null ? 0 : attempts.intValue();
-						dataRow.addCell(dataColCnt++, a, null);
-					}
-
-					Date lastModified = am.getScoreLastModifiedDate(acnode, identity);
-					if(lastModified != null) {
-						dataRow.addCell(dataColCnt++, lastModified, workbook.getStyles().getDateStyle());
-					} else {
-						dataRow.addCell(dataColCnt++, mi);
-					}
-
-					if (commentOk) {
-						// Comments for user
-						String comment = am.getNodeComment(acnode, identity);
-						if (comment != null) {
-							dataRow.addCell(dataColCnt++, comment);
+	
+						if (archivedNode.isCommentOk()) {
+							// Comments for user
+							String comment = nodeResults.getComment();
+							if (comment != null) {
+								dataRow.addCell(dataColCnt++, comment);
+							} else {
+								dataRow.addCell(dataColCnt++, mi);
+							}
+						}
+	
+						// Always export comments for tutors
+						String coachComment = nodeResults.getCoachComment();
+						if (coachComment != null) {
+							dataRow.addCell(dataColCnt++, coachComment);
 						} else {
 							dataRow.addCell(dataColCnt++, mi);
 						}
 					}
-
-					// Always export comments for tutors
-					String coachComment = am.getNodeCoachComment(acnode, identity);
-					if (coachComment != null) {
-						dataRow.addCell(dataColCnt++, coachComment);
-					} else {
-						dataRow.addCell(dataColCnt++, mi);
-					}
 				}
 			}
 			DBFactory.getInstance().commitAndCloseSession();
+			if(progress != null) {
+				progress.setActual(i + (float)batch.size());
+			}
 		}
 
 		//min. max. informations
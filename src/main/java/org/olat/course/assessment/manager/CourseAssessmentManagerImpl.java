@@ -335,7 +335,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		}
 		assessmentService.updateAssessmentEntry(nodeAssessment);
 		DBFactory.getInstance().commit();
-		userCourseEnv.getScoreAccounting().evaluateAll(true);
+		userCourseEnv.getScoreAccounting().evaluate(List.of(courseNode));
 		DBFactory.getInstance().commit();
 		
 		AssessmentConfig assessmentConfig = courseAssessmentService.getAssessmentConfig(courseNode);
@@ -388,7 +388,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		assessmentService.updateAssessmentEntry(nodeAssessment);
 		DBFactory.getInstance().commit();
 		
-		userCourseEnv.getScoreAccounting().evaluateAll(true);
+		userCourseEnv.getScoreAccounting().evaluate(List.of(courseNode));
 		AssessmentConfig assessmentConfig = courseAssessmentService.getAssessmentConfig(courseNode);
 		if(assessmentConfig.isAssessable()) {
 			efficiencyStatementManager.updateUserEfficiencyStatement(userCourseEnv);
@@ -445,7 +445,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		DBFactory.getInstance().commit();
 		
 		ScoreAccounting scoreAccounting = userCourseEnvironment.getScoreAccounting();
-		scoreAccounting.evaluateAll(true);
+		scoreAccounting.evaluate(List.of(courseNode));
 		DBFactory.getInstance().commit();
 	}
 
@@ -468,7 +468,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		DBFactory.getInstance().commit();
 		
 		ScoreAccounting scoreAccounting = userCourseEnvironment.getScoreAccounting();
-		scoreAccounting.evaluateAll(true);
+		scoreAccounting.evaluate(List.of(courseNode));
 		DBFactory.getInstance().commit();
 		
 		updateUserEfficiencyStatement(userCourseEnvironment);
@@ -539,7 +539,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		
 		//reevalute the tree
 		ScoreAccounting scoreAccounting = userCourseEnv.getScoreAccounting();
-		scoreAccounting.evaluateAll(true);
+		scoreAccounting.evaluate(List.of(courseNode));
 		DBFactory.getInstance().commit();
 		
 		// node log
@@ -611,7 +611,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		DBFactory.getInstance().commit();
 		
 		ScoreAccounting scoreAccounting = userCourseEnvironment.getScoreAccounting();
-		scoreAccounting.evaluateAll(true);
+		scoreAccounting.evaluate(List.of(rootNode));
 		DBFactory.getInstance().commit();
 		
 		logAuditPassed(rootNode, coach, Role.coach, userCourseEnvironment, passed);
@@ -649,7 +649,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		DBFactory.getInstance().commit();
 		
 		ScoreAccounting scoreAccounting = userCourseEnvironment.getScoreAccounting();
-		scoreAccounting.evaluateAll(true);
+		scoreAccounting.evaluate(List.of(rootNode));
 		DBFactory.getInstance().commit();
 		
 		logAuditPassed(rootNode, coach, Role.coach, userCourseEnvironment, passed);
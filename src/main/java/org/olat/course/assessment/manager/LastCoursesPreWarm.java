@@ -19,13 +19,16 @@
  */
 package org.olat.course.assessment.manager;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.olat.core.configuration.PreWarm;
+import org.olat.core.configuration.PreWarmScheduler;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.CodeHelper;
 import org.olat.course.CourseFactory;
+import org.olat.course.nodes.CourseNodeFactory;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.manager.RepositoryEntryDAO;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,17 +45,22 @@ public class LastCoursesPreWarm implements PreWarm {
 	
 	private static final Logger log = Tracing.createLoggerFor(LastCoursesPreWarm.class);
 	
+	@Autowired
+	private PreWarmScheduler preWarmScheduler;
 	@Autowired
 	private RepositoryEntryDAO repositoryEntryDao;
+	
+	@Override
+	public Collection<Class<? extends PreWarm>> getDependencies() {
+		return List.of(CourseNodeFactory.class);
+	}
 
 	@Override
 	public void run() {
 		long start = System.nanoTime();
 		List<RepositoryEntry> entries = repositoryEntryDao
 				.getLastUsedRepositoryEntries("CourseModule", 0, 100);
-		for(RepositoryEntry entry:entries) {
-			CourseFactory.loadCourse(entry);
-		}
+		preWarmScheduler.forEach(entries, CourseFactory::loadCourse);
 		log.info(entries.size() + " Courses preloaded in (ms): " + CodeHelper.nanoToMilliTime(start));
 	}
 }
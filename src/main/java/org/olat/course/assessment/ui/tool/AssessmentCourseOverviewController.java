@@ -87,6 +87,8 @@ public class AssessmentCourseOverviewController extends BasicController {
 		setTranslator(Util.createPackageTranslator(AssessmentModule.class, getLocale(), getTranslator()));
 		
 		mainVC = createVelocityContainer("course_overview");
+		mainVC.setRenderCacheable(true);
+		mainVC.setRenderDeferrable(true);
 		
 		ICourse course = CourseFactory.loadCourse(courseEntry);
 		boolean hasAssessableNodes = course.hasAssessableNodes();
@@ -0,0 +1,113 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.condition.interpreter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.olat.course.run.userview.UserCourseEnvironment;
+
+import com.neemsoft.jmep.Environment;
+import com.neemsoft.jmep.Expression;
+import com.neemsoft.jmep.XExpression;
+
+/**
+ * Cache of the parsed condition expressions, keyed by the text of the
+ * expression and shared by all users. The expressions are parsed against
+ * a single environment whose functions and variables use the user course
+ * environment of the current evaluation.<br>
+ * An expression instance is only used by one thread at a time, the
+ * cache holds a small pool of them for every text.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class CompiledExpressions {
+	
+	private static final int MAX_EXPRESSIONS = 10000;
+	private static final int MAX_POOLED_EXPRESSIONS = 16;
+	
+	private final Environment environment;
+	private final ConcurrentMap<String,Queue<Expression>> expressions = new ConcurrentHashMap<>();
+	
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	
+	CompiledExpressions() {
+		environment = ConditionInterpreter.createEnvironment(new ThreadBoundUserCourseEnvironment());
+	}
+	
+	public long getHits() {
+		return hits.get();
+	}
+	
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	public int size() {
+		return expressions.size();
+	}
+	
+	public void clear() {
+		expressions.clear();
+	}
+	
+	/**
+	 * Evaluate the expression for the specified user.
+	 * 
+	 * @param text The expression
+	 * @param userCourseEnv The user course environment
+	 * @return The result of the evaluation
+	 * @throws XExpression If the expression cannot be parsed or evaluated
+	 */
+	public Object evaluate(String text, UserCourseEnvironment userCourseEnv) throws XExpression {
+		Queue<Expression> pool = expressions.get(text);
+		Expression expression = pool == null ? null : pool.poll();
+		if(expression == null) {
+			misses.incrementAndGet();
+			expression = new Expression(text, environment);
+		} else {
+			hits.incrementAndGet();
+		}
+		
+		Object result;
+		UserCourseEnvironment previousEnv = ThreadBoundUserCourseEnvironment.bind(userCourseEnv);
+		try {
+			result = expression.evaluate();
+		} finally {
+			ThreadBoundUserCourseEnvironment.bind(previousEnv);
+		}
+		
+		if(pool == null) {
+			if(expressions.size() >= MAX_EXPRESSIONS) {
+				expressions.clear();
+			}
+			pool = expressions.computeIfAbsent(text, t -> new ConcurrentLinkedQueue<>());
+		}
+		if(pool.size() < MAX_POOLED_EXPRESSIONS) {
+			pool.offer(expression);
+		}
+		return result;
+	}
+}
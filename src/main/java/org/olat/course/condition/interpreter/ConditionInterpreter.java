@@ -67,6 +67,9 @@ public class ConditionInterpreter {
 	public static final Integer INT_TRUE = Integer.valueOf(1);
 	/** static Integer(0) object */
 	public static final Integer INT_FALSE = Integer.valueOf(0);
+	
+	private static final CompiledExpressions compiledExpressions = new CompiledExpressions();
+	
 	protected Environment env;
 	protected Translator translator;
 	protected UserCourseEnvironment uce;
@@ -83,8 +86,18 @@ public class ConditionInterpreter {
 		if (cev != null) {
 			translator = Util.createPackageTranslator(ConditionInterpreter.class, cev.getEditorEnvLocale());
 		}
+	}
+	
 
-		env = new Environment();
+	/**
+	 * Create the environment with all the variables, functions and units
+	 * of the course conditions.
+	 * 
+	 * @param userCourseEnv The user course environment used by the functions
+	 * @return A new environment
+	 */
+	static Environment createEnvironment(UserCourseEnvironment userCourseEnv) {
+		Environment env = new Environment();
 
 		// constants: add for user convenience
 		env.addConstant("true", 1);
@@ -173,8 +186,39 @@ public class ConditionInterpreter {
 		env.addUnit("d", new DayUnit());
 		env.addUnit("w", new WeekUnit());
 		env.addUnit("m", new MonthUnit());
+		return env;
 	}
 	
+	/**
+	 * @return The compiled expressions shared by all users
+	 */
+	public static CompiledExpressions getCompiledExpressions() {
+		return compiledExpressions;
+	}
+	
+	/**
+	 * Remove all the compiled expressions, on publish for example.
+	 */
+	public static void clearCompiledExpressions() {
+		compiledExpressions.clear();
+	}
+	
+	protected Environment getEnvironment() {
+		if(env == null) {
+			env = createEnvironment(uce);
+		}
+		return env;
+	}
+	
+	/**
+	 * The compiled expressions are only used in the run environment, the
+	 * editor needs the errors of the functions of the current expression.
+	 * 
+	 * @return true if the expressions can be compiled and shared
+	 */
+	protected boolean isCompiledExpressions() {
+		return uce.getCourseEditorEnv() == null;
+	}
 
 	public UserCourseEnvironment getUserCourseEnvironment() {
 		return uce;
@@ -196,7 +240,7 @@ public class ConditionInterpreter {
 			 * environment.
 			 */
 			String conditionString = condExpr.getExptressionString();
-			Expression exp = new Expression(conditionString, env);
+			Expression exp = new Expression(conditionString, getEnvironment());
 			exp.evaluate();
 			Exception[] condExceptions = condExpr.getExceptions();
 			ConditionErrorMessage[] cems = null;
@@ -323,8 +367,7 @@ public class ConditionInterpreter {
 
 	private float doEvaluateCalculation(String calculation) throws ParseException {
 		try {
-			Expression exp = new Expression(calculation, env);
-			Object result = exp.evaluate();
+			Object result = evaluate(calculation);
 			if (result instanceof Double) {
 				return ((Double) result).floatValue();
 			} else if (result instanceof Integer) {
@@ -344,8 +387,7 @@ public class ConditionInterpreter {
 	 */
 	private boolean doEvaluateCondition(String condition) throws ParseException {
 		try {
-			Expression exp = new Expression(condition, env);
-			Object result = exp.evaluate();
+			Object result = evaluate(condition);
 			if (result instanceof Double) {
 				return (((Double) result).doubleValue() == 1.0);
 			} else if (result instanceof Integer) {
@@ -355,4 +397,12 @@ public class ConditionInterpreter {
 			throw new ParseException("Parse exception for condition: " + condition + ". " + xe.getMessage(), xe.getPosition());
 		}
 	}
-}
\ No newline at end of file
+	
+	private Object evaluate(String expression) throws XExpression {
+		if(isCompiledExpressions()) {
+			return compiledExpressions.evaluate(expression, uce);
+		}
+		Expression exp = new Expression(expression, getEnvironment());
+		return exp.evaluate();
+	}
+}
@@ -123,6 +123,12 @@ public class OnlyGroupConditionInterpreter extends ConditionInterpreter{
 		env.addUnit("w", new WeekUnit());
 		env.addUnit("m", new MonthUnit());
 	}
+	
+	@Override
+	protected boolean isCompiledExpressions() {
+		// use the dummy functions of this environment
+		return false;
+	}
 
 }
 
@@ -0,0 +1,180 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.condition.interpreter;
+
+import java.util.List;
+
+import org.olat.basesecurity.OrganisationRoles;
+import org.olat.core.gui.control.WindowControl;
+import org.olat.core.id.IdentityEnvironment;
+import org.olat.course.editor.CourseEditorEnv;
+import org.olat.course.run.environment.CourseEnvironment;
+import org.olat.course.run.scoring.ScoreAccounting;
+import org.olat.course.run.userview.UserCourseEnvironment;
+import org.olat.group.BusinessGroup;
+import org.olat.modules.curriculum.CurriculumElement;
+import org.olat.repository.model.RepositoryEntryLifecycle;
+
+/**
+ * The user course environment of the functions and variables of the
+ * compiled expressions. It delegates to the user course environment
+ * bound to the current thread during the evaluation.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+class ThreadBoundUserCourseEnvironment implements UserCourseEnvironment {
+	
+	private static final ThreadLocal<UserCourseEnvironment> current = new ThreadLocal<>();
+	
+	/**
+	 * Bind the user course environment to the current thread.
+	 * 
+	 * @param userCourseEnv The user course environment or null to unbind
+	 * @return The previously bound environment
+	 */
+	static UserCourseEnvironment bind(UserCourseEnvironment userCourseEnv) {
+		UserCourseEnvironment previous = current.get();
+		if(userCourseEnv == null) {
+			current.remove();
+		} else {
+			current.set(userCourseEnv);
+		}
+		return previous;
+	}
+	
+	private UserCourseEnvironment get() {
+		UserCourseEnvironment userCourseEnv = current.get();
+		if(userCourseEnv == null) {
+			throw new IllegalStateException("No user course environment bound to the thread");
+		}
+		return userCourseEnv;
+	}
+
+	@Override
+	public CourseEnvironment getCourseEnvironment() {
+		return get().getCourseEnvironment();
+	}
+
+	@Override
+	public CourseEditorEnv getCourseEditorEnv() {
+		return get().getCourseEditorEnv();
+	}
+
+	@Override
+	public ConditionInterpreter getConditionInterpreter() {
+		return get().getConditionInterpreter();
+	}
+
+	@Override
+	public IdentityEnvironment getIdentityEnvironment() {
+		return get().getIdentityEnvironment();
+	}
+
+	@Override
+	public WindowControl getWindowControl() {
+		return get().getWindowControl();
+	}
+
+	@Override
+	public ScoreAccounting getScoreAccounting() {
+		return get().getScoreAccounting();
+	}
+
+	@Override
+	public boolean isAdmin() {
+		return get().isAdmin();
+	}
+
+	@Override
+	public boolean isCoach() {
+		return get().isCoach();
+	}
+
+	@Override
+	public boolean isParticipant() {
+		return get().isParticipant();
+	}
+
+	@Override
+	public boolean isMemberParticipant() {
+		return get().isMemberParticipant();
+	}
+
+	@Override
+	public boolean isIdentityInCourseGroup(Long groupKey) {
+		return get().isIdentityInCourseGroup(groupKey);
+	}
+
+	@Override
+	public boolean isInOrganisation(String organisationIdentifier, OrganisationRoles... roles) {
+		return get().isInOrganisation(organisationIdentifier, roles);
+	}
+
+	@Override
+	public List<BusinessGroup> getParticipatingGroups() {
+		return get().getParticipatingGroups();
+	}
+
+	@Override
+	public List<BusinessGroup> getWaitingLists() {
+		return get().getWaitingLists();
+	}
+
+	@Override
+	public List<BusinessGroup> getCoachedGroups() {
+		return get().getCoachedGroups();
+	}
+
+	@Override
+	public List<CurriculumElement> getCoachedCurriculumElements() {
+		return get().getCoachedCurriculumElements();
+	}
+
+	@Override
+	public boolean isAdministratorOfAnyCourse() {
+		return get().isAdministratorOfAnyCourse();
+	}
+
+	@Override
+	public boolean isCoachOfAnyCourse() {
+		return get().isCoachOfAnyCourse();
+	}
+
+	@Override
+	public boolean isParticipantOfAnyCourse() {
+		return get().isParticipantOfAnyCourse();
+	}
+
+	@Override
+	public RepositoryEntryLifecycle getLifecycle() {
+		return get().getLifecycle();
+	}
+
+	@Override
+	public boolean isCourseReadOnly() {
+		return get().isCourseReadOnly();
+	}
+
+	@Override
+	public boolean hasEfficiencyStatementOrCertificate(boolean update) {
+		return get().hasEfficiencyStatementOrCertificate(update);
+	}
+}
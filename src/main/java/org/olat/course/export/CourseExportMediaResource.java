@@ -42,6 +42,7 @@ import org.olat.core.util.FileUtils;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.WebappHelper;
 import org.olat.core.util.ZipUtil;
+import org.olat.core.util.io.ParallelZipOutputStream;
 import org.olat.core.util.io.ShieldOutputStream;
 import org.olat.core.util.nodes.INode;
 import org.olat.core.util.tree.TreeVisitor;
@@ -84,9 +85,11 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 	private static Logger log = Tracing.createLoggerFor(CourseExportMediaResource.class);
 	
 	private final OLATResourceable resource;
+	private final CourseZipManager zipManager;
 	
 	public CourseExportMediaResource(OLATResourceable resource) {
 		this.resource = resource;
+		zipManager = CoreSpringFactory.getImpl(CourseZipManager.class);
 	}
 
 	@Override
@@ -121,7 +124,7 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 
 	@Override
 	public void write(OutputStream output) throws IOException {
-		try(ZipOutputStream zout = new ZipOutputStream(output)) {
+		try(ParallelZipOutputStream zout = zipManager.createZipOutputStream(output)) {
 			exportCourseToZIP(resource, zout);
 		} catch (Exception e) {
 			log.error("", e);
@@ -136,7 +139,7 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 			log.error("", e);
 		}
 
-		try(ZipOutputStream zout = new ZipOutputStream(hres.getOutputStream())) {
+		try(ParallelZipOutputStream zout = zipManager.createZipOutputStream(hres.getOutputStream())) {
 			RepositoryEntry entry = RepositoryManager.getInstance().lookupRepositoryEntry(resource, true);
 			String label = StringHelper.transformDisplayNameToFileSystemName(entry.getDisplayname());
 			hres.setHeader("Content-Disposition", "attachment; filename*=UTF-8''" + StringHelper.urlEncodeUTF8(label + ".zip"));			
@@ -159,13 +162,17 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 	 * @param fTargetZIP
 	 * @return true if successfully exported, false otherwise.
 	 */
-	private void exportCourseToZIP(OLATResourceable sourceRes, ZipOutputStream outStream) {
+	private void exportCourseToZIP(OLATResourceable sourceRes, ParallelZipOutputStream outStream) throws IOException {
 		PersistingCourseImpl sourceCourse = (PersistingCourseImpl) CourseFactory.loadCourse(sourceRes);
 		log.info("Start course export: {}", sourceRes);
 		synchronized (sourceCourse) { //o_clusterNOK - cannot be solved with doInSync since could take too long (leads to error: "Lock wait timeout exceeded")
 			OLATResource courseResource = sourceCourse.getCourseEnvironment().getCourseGroupManager().getCourseResource();
 			exportToFilesystem(courseResource, sourceCourse, outStream);
+			outStream.finish();
 		}
+		log.info("Course export {}: {} entries, {} MB compressed to {} MB in {}ms ({} MB/s)", sourceRes,
+				outStream.getEntries(), outStream.getUncompressedBytes() / (1024l * 1024l),
+				outStream.getWrittenBytes() / (1024l * 1024l), outStream.getDuration(), Math.round(outStream.getThroughput()));
 	}
 	
 	/**
@@ -185,6 +192,7 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 		} catch(Exception e) {
 			log.error("", e);
 		} finally {
+			writePendingEntries(outStream);
 			FileUtils.deleteDirsAndFiles(fExportDir, true, true);
 		}
 		
@@ -192,6 +200,22 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 		log.info("finished export course '{}' in {}s", sourceCourse.getCourseTitle(), Long.toString((System.currentTimeMillis() - s) / 1000l));
 	}
 
+	/**
+	 * The parallel zip stream reads the files lazily, the temporary files
+	 * must be written in the zip before they are deleted.
+	 * 
+	 * @param zout The zip stream
+	 */
+	private void writePendingEntries(ZipOutputStream zout) {
+		if(zout instanceof ParallelZipOutputStream) {
+			try {
+				((ParallelZipOutputStream)zout).writePendingEntries();
+			} catch (IOException e) {
+				log.error("", e);
+			}
+		}
+	}
+
 	private void exportToFilesystem(PersistingCourseImpl sourceCourse, ZipOutputStream zout, File exportDirectory) {
 		LocalFolderImpl courseBaseContainer = sourceCourse.getCourseBaseContainer();
 		File fCourseBase = courseBaseContainer.getBasefile();
@@ -296,6 +320,7 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 		} catch (Exception e) {
 			log.error("", e);
 		} finally {
+			writePendingEntries(zout);
 			FileUtils.deleteDirsAndFiles(glossaryExportDataDir, true, true);
 			DBFactory.getInstance().commitAndCloseSession();
 		}
@@ -326,7 +351,7 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 			zout.putNextEntry(new ZipEntry("oocoursefolder.zip"));
 			// export course folder
 			try(OutputStream shieldedStream = new ShieldOutputStream(zout);
-					ZipOutputStream exportStream = new ZipOutputStream(shieldedStream)) {
+					ZipOutputStream exportStream = zipManager.createZipOutputStream(shieldedStream)) {
 				for(VFSItem child:hasChildren) {
 					ZipUtil.addToZip(child, "", exportStream, new VFSSystemItemFilter(), true);
 				}
@@ -348,6 +373,7 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 		} catch (Exception e) {
 			log.error("", e);
 		} finally {
+			writePendingEntries(zout);
 			FileUtils.deleteDirsAndFiles(groupExportDataDir, true, true);
 			DBFactory.getInstance().commitAndCloseSession();
 		}	
@@ -378,6 +404,7 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 		} catch (Exception e) {
 			log.error("", e);
 		} finally {
+			writePendingEntries(zout);
 			FileUtils.deleteDirsAndFiles(nodeExportDataDir, true, true);
 			DBFactory.getInstance().commitAndCloseSession();
 		}
@@ -390,7 +417,11 @@ public class CourseExportMediaResource implements MediaResource, StreamingOutput
 			String nodeDirectory = ZipUtil.concat(ICourse.EXPORTED_DATA_FOLDERNAME, courseNode.getIdent());
 			zout.putNextEntry(new ZipEntry(ZipUtil.concat(nodeDirectory, "oonode.zip")));
 			
-			ZipUtil.zip(nodeContainer, fOut, new VFSRevisionsAndThumbnailsFilter(), true);
+			try(ZipOutputStream nodeZip = zipManager.createZipOutputStream(fOut)) {
+				for(VFSItem item:nodeContainer.getItems(new VFSSystemItemFilter())) {
+					ZipUtil.addToZip(item, "", nodeZip, new VFSRevisionsAndThumbnailsFilter(), true);
+				}
+			}
 			
 			zout.closeEntry();
 		} catch (IOException e) {
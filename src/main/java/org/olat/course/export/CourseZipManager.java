@@ -0,0 +1,87 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.export;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.olat.core.util.ZipUtil;
+import org.olat.core.util.io.ParallelZipOutputStream;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Holds the pool of workers which compress the entries of the course
+ * exports and unzip the course archives at import.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+@Service
+public class CourseZipManager implements InitializingBean, DisposableBean {
+	
+	@Value("${course.zip.workers:4}")
+	private int workers;
+	
+	private ThreadPoolExecutor executor;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		int numOfWorkers = Math.max(1, workers);
+		executor = new ThreadPoolExecutor(numOfWorkers, numOfWorkers, 60l, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(numOfWorkers * 8), new CustomizableThreadFactory("oo-course-zip-"),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if(executor != null) {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * The stream compresses the entries on the workers and need to be closed.
+	 * 
+	 * @param out The underlying stream
+	 * @return A zip stream
+	 */
+	public ParallelZipOutputStream createZipOutputStream(OutputStream out) {
+		return new ParallelZipOutputStream(out, executor, Math.max(1, workers) * 4);
+	}
+	
+	/**
+	 * Unzip the archive with the workers.
+	 * 
+	 * @param zipFile The zip file to unzip
+	 * @param targetDir The directory to unzip the file to
+	 * @return True if successful
+	 */
+	public boolean unzip(File zipFile, File targetDir) {
+		return ZipUtil.unzip(zipFile, targetDir, executor);
+	}
+}
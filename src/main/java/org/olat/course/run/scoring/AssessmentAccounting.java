@@ -21,10 +21,12 @@ package org.olat.course.run.scoring;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -36,6 +38,7 @@ import org.olat.core.util.nodes.INode;
 import org.olat.course.assessment.AssessmentManager;
 import org.olat.course.assessment.CourseAssessmentService;
 import org.olat.course.config.CourseConfig;
+import org.olat.course.learningpath.manager.LearningPathNodeAccessProvider;
 import org.olat.course.nodes.CourseNode;
 import org.olat.course.run.scoring.LastModificationsEvaluator.LastModifications;
 import org.olat.course.run.userview.UserCourseEnvironment;
@@ -101,11 +104,63 @@ public class AssessmentAccounting implements ScoreAccounting {
 		if (update) {
 			Blocker blocker = courseAssessmentService.getEvaluators(root, courseConfig).getBlockerEvaluator()
 					.getChildrenBlocker(null);
-			updateEntryRecursiv(root, blocker);
+			updateEntryRecursiv(root, blocker, null);
 		}
 		
 		return false;
 	}
+	
+	/**
+	 * Evaluate all the course nodes like {@link #evaluateAll()} but with the
+	 * assessment entries already loaded by the caller, e.g. to evaluate the
+	 * users of a course in bulk. The missing entries are not created.
+	 * 
+	 * @param entries The assessment entries of the user in the course
+	 */
+	public void evaluateAll(Collection<AssessmentEntry> entries) {
+		courseNodeToEval.clear();
+		
+		identToEntry = entries.stream()
+				.collect(Collectors.toMap(AssessmentEntry::getSubIdent, Function.identity(), (e1, e2) -> e1));
+		
+		CourseNode root = userCourseEnvironment.getCourseEnvironment().getRunStructure().getRootNode();
+		fillCacheRecursiv(root, false);
+	}
+	
+	@Override
+	public void evaluate(Collection<? extends CourseNode> changedNodes) {
+		if (changedNodes == null || changedNodes.isEmpty()) return;
+		
+		// The blockers of the learning path depend on the order of all course nodes.
+		if (LearningPathNodeAccessProvider.TYPE.equals(courseConfig.getNodeAccessType().getType())) {
+			evaluateAll(true);
+			return;
+		}
+		
+		CourseNode root = userCourseEnvironment.getCourseEnvironment().getRunStructure().getRootNode();
+		CourseNodeDependencies dependencies = new CourseNodeDependencies(root);
+		// Expressions with dates, attempts, groups... can change without any course node.
+		if (dependencies.hasUntrackedDependencies()) {
+			evaluateAll(true);
+			return;
+		}
+		
+		courseNodeToEval.clear();
+		
+		identToEntry = loadAssessmentEntries(getIdentity());
+		
+		fillCacheRecursiv(root);
+		
+		List<String> changedIdents = changedNodes.stream()
+				.map(CourseNode::getIdent)
+				.collect(Collectors.toList());
+		Set<String> affectedIdents = dependencies.getAffectedIdents(changedIdents);
+		log.debug("Evaluate {} course nodes after changes of: {}", affectedIdents.size(), changedIdents);
+		
+		Blocker blocker = courseAssessmentService.getEvaluators(root, courseConfig).getBlockerEvaluator()
+				.getChildrenBlocker(null);
+		updateEntryRecursiv(root, blocker, affectedIdents);
+	}
 
 	private Map<String, AssessmentEntry> loadAssessmentEntries(Identity identity) {
 		return getAssessmentManager()
@@ -115,16 +170,26 @@ public class AssessmentAccounting implements ScoreAccounting {
 	}
 
 	private void fillCacheRecursiv(CourseNode courseNode) {
+		fillCacheRecursiv(courseNode, true);
+	}
+	
+	private void fillCacheRecursiv(CourseNode courseNode, boolean createMissingEntries) {
 		int childCount = courseNode.getChildCount();
 		for (int i = 0; i < childCount; i++) {
 			INode child = courseNode.getChildAt(i);
 			if (child instanceof CourseNode) {
 				CourseNode childCourseNode = (CourseNode) child;
-				fillCacheRecursiv(childCourseNode);
+				fillCacheRecursiv(childCourseNode, createMissingEntries);
 			}
 		}
 		
-		AssessmentEvaluation assessmentEvaluation = getAssessmentEvaluation(courseNode);
+		AssessmentEvaluation assessmentEvaluation;
+		if (createMissingEntries) {
+			assessmentEvaluation = getAssessmentEvaluation(courseNode);
+		} else {
+			AssessmentEntry entry = identToEntry.get(courseNode.getIdent());
+			assessmentEvaluation = courseAssessmentService.toAssessmentEvaluation(entry, courseNode);
+		}
 		courseNodeToEval.put(courseNode, assessmentEvaluation);
 	}
 
@@ -147,10 +212,20 @@ public class AssessmentAccounting implements ScoreAccounting {
 		return entry;
 	}
 	
-	private AccountingResult updateEntryRecursiv(CourseNode courseNode, Blocker blocker) {
+	/**
+	 * @param affectedIdents The identifiers of the course nodes to evaluate or
+	 * 		null to evaluate all course nodes. A course node is affected if one
+	 * 		of its children is, the course nodes which are not affected and
+	 * 		their children keep their current evaluation.
+	 */
+	private AccountingResult updateEntryRecursiv(CourseNode courseNode, Blocker blocker, Set<String> affectedIdents) {
+		AssessmentEvaluation currentEvaluation = evalCourseNode(courseNode);
+		if (affectedIdents != null && !affectedIdents.contains(courseNode.getIdent())) {
+			return new AccountingResult(currentEvaluation);
+		}
+		
 		log.debug("Evaluate course node: type '{}', ident: '{}'", courseNode.getType(), courseNode.getIdent());
 		
-		AssessmentEvaluation currentEvaluation = evalCourseNode(courseNode);
 		AccountingResult result = new AccountingResult(currentEvaluation);
 		blocker.nextCourseNode();
 		
@@ -186,7 +261,7 @@ public class AssessmentAccounting implements ScoreAccounting {
 			INode child = courseNode.getChildAt(i);
 			if (child instanceof CourseNode) {
 				CourseNode childCourseNode = (CourseNode) child;
-				AccountingResult childResult = updateEntryRecursiv(childCourseNode, childrenBlocker);
+				AccountingResult childResult = updateEntryRecursiv(childCourseNode, childrenBlocker, affectedIdents);
 				children.add(childResult);
 			}
 		}
@@ -0,0 +1,159 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.run.scoring;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.olat.core.util.StringHelper;
+import org.olat.core.util.nodes.INode;
+import org.olat.course.condition.interpreter.score.GetAverageScoreFunction;
+import org.olat.course.condition.interpreter.score.GetPassedFunction;
+import org.olat.course.condition.interpreter.score.GetScoreFunction;
+import org.olat.course.nodes.CourseNode;
+import org.olat.course.nodes.STCourseNode;
+
+/**
+ * The dependencies between the course nodes of a run structure used by the
+ * assessment accounting. A course node depends on its children and a
+ * structure node depends on the course nodes referenced by the expressions
+ * of its score calculator (score, passed and failed).<br>
+ * The expressions can depend on other things than the course nodes, the
+ * date (now, date functions, failed after the end date of the course), the
+ * attempts, the groups... These dependencies are not tracked, the course
+ * needs then to be evaluated completely.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class CourseNodeDependencies {
+	
+	private static final Pattern NODE_REFERENCE = Pattern.compile("\"([^\"]+)\"");
+	private static final Pattern IDENTIFIER = Pattern.compile("(?<![\\w.])[A-Za-z_]\\w*");
+	// functions which only depend on the course nodes given as arguments
+	private static final Set<String> TRACKED_IDENTIFIERS = Set.of(GetScoreFunction.name, GetPassedFunction.name,
+			GetAverageScoreFunction.NAME, "true", "false");
+	
+	private final Map<String,Set<String>> identToDependents = new HashMap<>();
+	private boolean untrackedDependencies = false;
+	
+	public CourseNodeDependencies(CourseNode rootNode) {
+		Set<String> idents = new HashSet<>();
+		collectIdents(rootNode, idents);
+		collectDependencies(rootNode, idents);
+	}
+	
+	/**
+	 * @param changedIdents The identifiers of the changed course nodes
+	 * @return The identifiers of the changed course nodes and of all the
+	 * 		course nodes which depend on them, directly or not
+	 */
+	public Set<String> getAffectedIdents(Collection<String> changedIdents) {
+		Set<String> affected = new HashSet<>();
+		Deque<String> toVisit = new ArrayDeque<>(changedIdents);
+		while(!toVisit.isEmpty()) {
+			String ident = toVisit.poll();
+			if(affected.add(ident)) {
+				Set<String> dependents = identToDependents.get(ident);
+				if(dependents != null) {
+					toVisit.addAll(dependents);
+				}
+			}
+		}
+		return affected;
+	}
+	
+	/**
+	 * @return true if an expression depends on something else than the
+	 * 		course nodes it references
+	 */
+	public boolean hasUntrackedDependencies() {
+		return untrackedDependencies;
+	}
+	
+	private void collectIdents(CourseNode courseNode, Set<String> idents) {
+		idents.add(courseNode.getIdent());
+		for(int i=0; i<courseNode.getChildCount(); i++) {
+			INode child = courseNode.getChildAt(i);
+			if(child instanceof CourseNode) {
+				collectIdents((CourseNode)child, idents);
+			}
+		}
+	}
+	
+	private void collectDependencies(CourseNode courseNode, Set<String> idents) {
+		INode parent = courseNode.getParent();
+		if(parent instanceof CourseNode) {
+			addDependent(courseNode.getIdent(), parent.getIdent());
+		}
+		
+		if(courseNode instanceof STCourseNode) {
+			ScoreCalculator scoreCalculator = ((STCourseNode)courseNode).getScoreCalculator();
+			if(scoreCalculator.getFailedType() == FailedEvaluationType.failedAsNotPassedAfterEndDate) {
+				untrackedDependencies = true;
+			}
+			collectReferences(courseNode, scoreCalculator.getScoreExpression(), idents);
+			collectReferences(courseNode, scoreCalculator.getPassedExpression(), idents);
+			collectReferences(courseNode, scoreCalculator.getFailedExpression(), idents);
+		}
+		
+		for(int i=0; i<courseNode.getChildCount(); i++) {
+			INode child = courseNode.getChildAt(i);
+			if(child instanceof CourseNode) {
+				collectDependencies((CourseNode)child, idents);
+			}
+		}
+	}
+	
+	/**
+	 * The references are the string literals of the expression which match
+	 * the identifier of a course node, as getScore("...") or getPassed("...").
+	 */
+	private void collectReferences(CourseNode courseNode, String expression, Set<String> idents) {
+		if(!StringHelper.containsNonWhitespace(expression)) return;
+		
+		Matcher matcher = NODE_REFERENCE.matcher(expression);
+		while(matcher.find()) {
+			String reference = matcher.group(1);
+			if(idents.contains(reference) && !reference.equals(courseNode.getIdent())) {
+				addDependent(reference, courseNode.getIdent());
+			}
+		}
+		
+		// the functions and variables outside of the string literals
+		Matcher identifierMatcher = IDENTIFIER.matcher(NODE_REFERENCE.matcher(expression).replaceAll("\"\""));
+		while(identifierMatcher.find()) {
+			if(!TRACKED_IDENTIFIERS.contains(identifierMatcher.group())) {
+				untrackedDependencies = true;
+			}
+		}
+	}
+	
+	private void addDependent(String ident, String dependentIdent) {
+		identToDependents.computeIfAbsent(ident, i -> new HashSet<>()).add(dependentIdent);
+	}
+}
@@ -19,6 +19,8 @@
  */
 package org.olat.course.run.scoring;
 
+import java.util.Collection;
+
 import org.olat.course.nodes.CourseNode;
 
 /**
@@ -42,6 +44,11 @@ public class NoEvaluationAccounting implements ScoreAccounting {
 		return false;
 	}
 
+	@Override
+	public void evaluate(Collection<? extends CourseNode> changedNodes) {
+		//
+	}
+
 	@Override
 	public AssessmentEvaluation getScoreEvaluation(CourseNode courseNode) {
 		return AssessmentEvaluation.EMPTY_EVAL;
@@ -19,6 +19,8 @@
  */
 package org.olat.course.run.scoring;
 
+import java.util.Collection;
+
 import org.olat.course.nodes.CourseNode;
 
 /**
@@ -36,6 +38,18 @@ public interface ScoreAccounting {
 
 	boolean evaluateAll(boolean update);
 
+	/**
+	 * Evaluate and update only the changed course nodes and the course nodes
+	 * which depend on them: their parents and the structure nodes which
+	 * calculate their score or passed with them. Several changes can be
+	 * evaluated in one pass. If the expressions depend on something else than
+	 * the course nodes (dates, attempts, groups...), all the course nodes are
+	 * evaluated.
+	 * 
+	 * @param changedNodes The course nodes with changed assessment entries
+	 */
+	void evaluate(Collection<? extends CourseNode> changedNodes);
+
 	/**
 	 * Get the score evaluation for a given course node without using the cache.
 	 * @param courseNode
@@ -102,7 +102,7 @@ public class HomeCalendarManager implements PersonalCalendarManager, UserDataDel
 		CalendarUserConfiguration personalCalendarConfig = configMap.get(personalCalendarKey);
 		if(calendarModule.isEnablePersonalCalendar()
 				&& (personalCalendarConfig == null || personalCalendarConfig.isInAggregatedFeed())) {
-			File iCalFile = calendarManager.getCalendarICalFile(CalendarManager.TYPE_USER, identity.getName());
+			File iCalFile = getFeedCalendarFile(CalendarManager.TYPE_USER, identity.getName());
 			if(iCalFile != null) {
 				aggregatedFiles.add(new CalendarFileInfos(identity.getName(), CalendarManager.TYPE_USER, iCalFile));
 			}
@@ -129,7 +129,7 @@ public class HomeCalendarManager implements PersonalCalendarManager, UserDataDel
 				CalendarKey key = new CalendarKey(calendarId, CalendarManager.TYPE_GROUP);
 				CalendarUserConfiguration calendarConfig = configMap.get(key);
 				if(calendarConfig == null || calendarConfig.isInAggregatedFeed()) {
-					File iCalFile = calendarManager.getCalendarICalFile(CalendarManager.TYPE_GROUP, calendarId);
+					File iCalFile = getFeedCalendarFile(CalendarManager.TYPE_GROUP, calendarId);
 					if(iCalFile != null) {
 						aggregatedFiles.add(new CalendarFileInfos(calendarId, CalendarManager.TYPE_GROUP, iCalFile));
 					}
@@ -152,7 +152,7 @@ public class HomeCalendarManager implements PersonalCalendarManager, UserDataDel
 				CalendarKey key = new CalendarKey(calendarId, CalendarManager.TYPE_COURSE);
 				CalendarUserConfiguration calendarConfig = configMap.get(key);
 				if(calendarConfig == null || calendarConfig.isInAggregatedFeed()) {
-					File iCalFile = calendarManager.getCalendarICalFile(CalendarManager.TYPE_COURSE, calendarId);
+					File iCalFile = getFeedCalendarFile(CalendarManager.TYPE_COURSE, calendarId);
 					if(iCalFile != null) {
 						aggregatedFiles.add(new CalendarFileInfos(calendarId, CalendarManager.TYPE_COURSE, iCalFile));
 					}
@@ -163,6 +163,17 @@ public class HomeCalendarManager implements PersonalCalendarManager, UserDataDel
 		return aggregatedFiles;
 	}
 	
+	/**
+	 * The feed reads the calendars with their journal, the file is
+	 * not compacted for it.
+	 * 
+	 * @return The calendar file or null if the calendar doesn't exist
+	 */
+	private File getFeedCalendarFile(String type, String calendarId) {
+		File iCalFile = calendarManager.getCalendarFile(type, calendarId);
+		return iCalFile.exists() ? iCalFile : null;
+	}
+	
 	//
 	
 	@Override
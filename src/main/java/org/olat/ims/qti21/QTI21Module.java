@@ -66,6 +66,10 @@ public class QTI21Module extends AbstractSpringModule {
 	private String resultsVisibleAfterCorrectionWorkflow;
 	@Value("${qti21.import.encoding.fallback:}")
 	private String importEncodingFallback;
+	@Value("${qti21.session.state.binary:false}")
+	private boolean binarySessionState;
+	@Value("${qti21.session.state.compaction.threshold:64}")
+	private int sessionStateCompactionThreshold;
 	
 	@Autowired
 	public QTI21Module(CoordinatorManager coordinatorManager) {
@@ -189,6 +193,22 @@ public class QTI21Module extends AbstractSpringModule {
 		return importEncodingFallback;
 	}
 
+	/**
+	 * @return true if the candidate session states are saved in the append-only
+	 * 		binary format instead of XML
+	 */
+	public boolean isBinarySessionState() {
+		return binarySessionState;
+	}
+
+	/**
+	 * @return The number of records after which a binary session state file
+	 * 		is rewritten with a single full record
+	 */
+	public int getSessionStateCompactionThreshold() {
+		return sessionStateCompactionThreshold;
+	}
+
 	public enum CorrectionWorkflow {
 		anonymous,
 		named
@@ -24,6 +24,7 @@ import java.util.List;
 
 import org.apache.logging.log4j.Logger;
 import org.olat.core.configuration.PreWarm;
+import org.olat.core.configuration.PreWarmScheduler;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.CodeHelper;
 import org.olat.fileresource.FileResourceManager;
@@ -48,6 +49,8 @@ public class AssessmentTestPreWarm implements PreWarm {
 	@Autowired
 	private QTI21Service qtiService;
 	@Autowired
+	private PreWarmScheduler preWarmScheduler;
+	@Autowired
 	private RepositoryEntryDAO repositoryEntryDao;
 	
 	@Override
@@ -56,14 +59,14 @@ public class AssessmentTestPreWarm implements PreWarm {
 		FileResourceManager frm = FileResourceManager.getInstance();
 		List<RepositoryEntry> entries = repositoryEntryDao
 				.getLastUsedRepositoryEntries(ImsQTI21Resource.TYPE_NAME, 0, 20);
-		for(RepositoryEntry entry:entries) {
+		preWarmScheduler.forEach(entries, entry -> {
 			try {
 				File fUnzippedDirRoot = frm.unzipFileResource(entry.getOlatResource());
 				qtiService.loadAndResolveAssessmentTest(fUnzippedDirRoot, false, false);
 			} catch (RuntimeException e) {
 				log.error("Loading the AssessmentTest of repository entry: " + entry.getKey() + " (" + entry.getDisplayname() + ")", e);
 			}
-		}
+		});
 		log.info(entries.size() + " AssessmentTest preloaded in (ms): " + CodeHelper.nanoToMilliTime(start));
 	}
 }
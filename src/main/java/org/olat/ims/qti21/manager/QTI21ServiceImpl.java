@@ -25,6 +25,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Serializable;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.net.URI;
@@ -232,6 +233,7 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 	private CacheWrapper<File,ResolvedAssessmentTest> assessmentTestsCache;
 	private CacheWrapper<File,ResolvedAssessmentItem> assessmentItemsCache;
 	private CacheWrapper<AssessmentTestSession,TestSessionController> testSessionControllersCache;
+	private SessionStateBinaryStore binaryStateStore;
 	
 	private final ConcurrentMap<String,URI> resourceToTestURI = new ConcurrentHashMap<>();
 	
@@ -259,6 +261,7 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
         assessmentTestsCache = cacher.getCache("QTIWorks", "assessmentTests");
         assessmentItemsCache = cacher.getCache("QTIWorks", "assessmentItems");
         testSessionControllersCache = cacher.getCache("QTIWorks", "testSessionControllers");
+        binaryStateStore = new SessionStateBinaryStore(qtiModule.getSessionStateCompactionThreshold(), 4096);
 	}
 
     @Override
@@ -575,7 +578,7 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 			session = null;
 		} else {
 			File sessionFile = getTestSessionStateFile(session);
-			if(!sessionFile.exists()) {
+			if(!sessionFile.exists() && !getBinaryStateFile(sessionFile).exists()) {
 				session = null;
 			}
 		}
@@ -671,25 +674,37 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 
 	@Override
 	public TestSessionState loadTestSessionState(AssessmentTestSession candidateSession) {
-        Document document = loadStateDocument(candidateSession);
-        return document == null ? null: TestSessionStateXmlMarshaller.unmarshal(document.getDocumentElement());
-    }
-	
-    private Document loadStateDocument(AssessmentTestSession candidateSession) {
-        File sessionFile = getTestSessionStateFile(candidateSession);
-        return loadStateDocument(sessionFile);
+		File sessionFile = getTestSessionStateFile(candidateSession);
+		TestSessionState state = loadBinaryState(sessionFile, TestSessionState.class);
+		if(state == null) {
+			Document document = loadStateDocument(sessionFile);
+			state = document == null ? null: TestSessionStateXmlMarshaller.unmarshal(document.getDocumentElement());
+		}
+		return state;
     }
     
     @Override
 	public ItemSessionState loadItemSessionState(AssessmentTestSession session, AssessmentItemSession itemSession) {
-        Document document = loadStateDocument(session, itemSession);
-        return document == null ? null: ItemSessionStateXmlMarshaller.unmarshal(document.getDocumentElement());
+		File sessionFile = getItemSessionStateFile(session, itemSession);
+		ItemSessionState state = loadBinaryState(sessionFile, ItemSessionState.class);
+		if(state == null) {
+			Document document = loadStateDocument(sessionFile);
+			state = document == null ? null: ItemSessionStateXmlMarshaller.unmarshal(document.getDocumentElement());
+		}
+		return state;
 	}
     
-    private Document loadStateDocument(AssessmentTestSession candidateSession, AssessmentItemSession itemSession) {
-        File sessionFile = getItemSessionStateFile(candidateSession, itemSession);
-        return loadStateDocument(sessionFile);
-    }
+	private <U extends Serializable> U loadBinaryState(File sessionFile, Class<U> type) {
+		File binaryFile = getBinaryStateFile(sessionFile);
+		if(binaryFile.exists()) {
+			try {
+				return binaryStateStore.read(binaryFile, type);
+			} catch (IOException e) {
+				log.error("Cannot read the binary session state: {}", binaryFile, e);
+			}
+		}
+		return null;
+	}
     
     private Document loadStateDocument(File sessionFile) {
         if(sessionFile.exists()) {
@@ -1158,6 +1173,7 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 
 		testSessionDao.deleteTestSession(candidateSession);
 		FileUtils.deleteFile(sessionState);
+		binaryStateStore.delete(getBinaryStateFile(sessionState));
 		if(resultFile != null) {
 			FileUtils.deleteFile(resultFile);
 		}
@@ -1319,15 +1335,20 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 	}
 	
 	private void storeTestSessionState(CandidateEvent candidateEvent, TestSessionState testSessionState) {
-		Document stateDocument = TestSessionStateXmlMarshaller.marshal(testSessionState);
 		File sessionFile = getTestSessionStateFile(candidateEvent);
-		storeStateDocument(stateDocument, sessionFile);
+		storeTestSessionState(sessionFile, testSessionState);
 	}
 	
 	private void storeTestSessionState(AssessmentTestSession candidateSession, TestSessionState testSessionState) {
-		Document stateDocument = TestSessionStateXmlMarshaller.marshal(testSessionState);
 		File sessionFile = getTestSessionStateFile(candidateSession);
-		storeStateDocument(stateDocument, sessionFile);
+		storeTestSessionState(sessionFile, testSessionState);
+	}
+	
+	private void storeTestSessionState(File sessionFile, TestSessionState testSessionState) {
+		if(!storeBinaryState(sessionFile, testSessionState)) {
+			Document stateDocument = TestSessionStateXmlMarshaller.marshal(testSessionState);
+			storeStateDocument(stateDocument, sessionFile);
+		}
 	}
 
 	private File getTestSessionStateFile(CandidateEvent candidateEvent) {
@@ -1378,10 +1399,48 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 	}
 
 	public void storeItemSessionState(AssessmentItemSession itemSession, CandidateEvent candidateEvent, ItemSessionState itemSessionState) {
-        Document stateDocument = ItemSessionStateXmlMarshaller.marshal(itemSessionState);
         File sessionFile = getItemSessionStateFile(candidateEvent.getCandidateSession(), itemSession);
-        storeStateDocument(stateDocument, sessionFile);
+        if(!storeBinaryState(sessionFile, itemSessionState)) {
+	        Document stateDocument = ItemSessionStateXmlMarshaller.marshal(itemSessionState);
+	        storeStateDocument(stateDocument, sessionFile);
+        }
     }
+	
+	/**
+	 * Append the state to the binary file if the binary format is enabled. The
+	 * file in the other format is deleted so that the loading doesn't pick an
+	 * outdated state.
+	 * 
+	 * @param sessionFile The XML state file
+	 * @param state The state
+	 * @return true if the state was saved in the binary format
+	 */
+	private boolean storeBinaryState(File sessionFile, Serializable state) {
+		File binaryFile = getBinaryStateFile(sessionFile);
+		if(qtiModule.isBinarySessionState()) {
+			try {
+				binaryStateStore.write(binaryFile, state);
+				if(sessionFile.exists()) {
+					FileUtils.deleteFile(sessionFile);
+				}
+				return true;
+			} catch (IOException e) {
+				log.warn("Cannot save the session state in binary format, fallback to XML: {}", sessionFile, e);
+			}
+		}
+		if(binaryFile.exists()) {
+			binaryStateStore.delete(binaryFile);
+		}
+		return false;
+	}
+	
+	private File getBinaryStateFile(File sessionFile) {
+		String name = sessionFile.getName();
+		if(name.endsWith(".xml")) {
+			name = name.substring(0, name.length() - 4);
+		}
+		return new File(sessionFile.getParentFile(), name + ".bin");
+	}
     
 	private File getItemSessionStateFile(AssessmentTestSession candidateSession, AssessmentItemSession itemSession) {
 		File myStore = testSessionDao.getSessionStorage(candidateSession);
@@ -0,0 +1,350 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.FileUtils;
+
+/**
+ * Append-only binary storage of the candidate session states. The file
+ * starts with a small header followed by records:
+ * <ul>
+ *  <li>a full record with the deflated serialized state</li>
+ *  <li>a delta record with the bytes which changed since the previous
+ *    state (common prefix and suffix are not repeated)</li>
+ * </ul>
+ * Every record has its length and a CRC32 checksum. A truncated or corrupted
+ * record at the end of the file (crash during a write) is ignored and the
+ * last consistent state is returned. The last state of the recently written
+ * files is held in memory to compute the deltas; if it is missing, or the file
+ * was changed by someone else, a full record is written. After a configurable
+ * number of records, the file is compacted to a single full record.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class SessionStateBinaryStore {
+	
+	private static final Logger log = Tracing.createLoggerFor(SessionStateBinaryStore.class);
+	
+	private static final byte[] MAGIC = new byte[] { 'O', 'O', 'Q', 'S' };
+	private static final byte VERSION = 1;
+	private static final int HEADER_LENGTH = MAGIC.length + 1;
+	
+	private static final byte FULL = 1;
+	private static final byte DELTA = 2;
+	
+	private static final ObjectInputFilter STATE_FILTER = ObjectInputFilter.Config
+			.createFilter("maxdepth=256;uk.ac.ed.ph.jqtiplus.**;java.**;javax.xml.namespace.QName;!*");
+	
+	private final int compactionThreshold;
+	private final Map<String,LastState> lastStates;
+	
+	private final AtomicLong bytesWritten = new AtomicLong();
+	private final AtomicLong fullRecords = new AtomicLong();
+	private final AtomicLong deltaRecords = new AtomicLong();
+	
+	public SessionStateBinaryStore(int compactionThreshold, int cacheSize) {
+		this.compactionThreshold = Math.max(1, compactionThreshold);
+		lastStates = new LinkedHashMap<>(Math.max(16, cacheSize), 0.75f, true) {
+			private static final long serialVersionUID = -7165023385386154587L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, LastState> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+	
+	public long getBytesWritten() {
+		return bytesWritten.get();
+	}
+	
+	public long getFullRecords() {
+		return fullRecords.get();
+	}
+	
+	public long getDeltaRecords() {
+		return deltaRecords.get();
+	}
+	
+	/**
+	 * Append the state to the file.
+	 * 
+	 * @param file The state file
+	 * @param state The state
+	 * @return The number of bytes written
+	 * @throws IOException If the state cannot be serialized or written, the
+	 * 		file stays in its previous consistent state
+	 */
+	public long write(File file, Serializable state) throws IOException {
+		byte[] stateBytes = serialize(state);
+		
+		LastState lastState = getLastState(file);
+		synchronized(lastState) {
+			long written;
+			byte[] previous = lastState.bytes;
+			if(previous == null || !file.exists() || file.length() != lastState.fileLength
+					|| lastState.records >= compactionThreshold) {
+				written = writeFull(file, stateBytes);
+				lastState.records = 1;
+			} else {
+				byte[] record = delta(previous, stateBytes);
+				if(record == null) {
+					record = record(FULL, deflate(stateBytes, 0, stateBytes.length));
+					fullRecords.incrementAndGet();
+				} else {
+					deltaRecords.incrementAndGet();
+				}
+				try(OutputStream out = new FileOutputStream(file, true)) {
+					out.write(record);
+				}
+				written = record.length;
+				lastState.records++;
+			}
+			lastState.bytes = stateBytes;
+			lastState.fileLength = file.length();
+			bytesWritten.addAndGet(written);
+			return written;
+		}
+	}
+	
+	/**
+	 * Read the last consistent state saved in the file.
+	 * 
+	 * @param file The state file
+	 * @param type The expected type of the state
+	 * @return The state or null if the file doesn't exist or doesn't contain a valid record
+	 * @throws IOException If the file cannot be read or the state cannot be deserialized
+	 */
+	public <U extends Serializable> U read(File file, Class<U> type) throws IOException {
+		if(!file.exists()) return null;
+
+		LastState lastState = getLastState(file);
+		synchronized(lastState) {
+			byte[] stateBytes = null;
+			int records = 0;
+			long validLength = HEADER_LENGTH;
+			try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				readHeader(in, file);
+				for(;;) {
+					int recordType = in.read();
+					if(recordType < 0) {
+						break;// end of file
+					}
+					int length = in.readInt();
+					long checksum = in.readInt() & 0xffffffffl;
+					byte[] payload = new byte[length];
+					in.readFully(payload);
+					if(checksum(payload) != checksum) {
+						log.warn("Corrupted record in session state file: {}", file);
+						break;
+					}
+					
+					if(recordType == FULL) {
+						stateBytes = inflate(payload);
+					} else if(recordType == DELTA && stateBytes != null) {
+						stateBytes = applyDelta(stateBytes, payload);
+					} else {
+						log.warn("Unexpected record in session state file: {}", file);
+						break;
+					}
+					records++;
+					validLength += 9 + length;
+				}
+			} catch(EOFException e) {
+				log.warn("Truncated record in session state file: {}", file);
+			}
+			
+			if(stateBytes == null) {
+				return null;
+			}
+			
+			U state = deserialize(stateBytes, type);
+			// the next write will be a full record if the file has a broken tail
+			lastState.bytes = stateBytes;
+			lastState.records = records;
+			lastState.fileLength = validLength;
+			return state;
+		}
+	}
+	
+	public void delete(File file) {
+		synchronized(lastStates) {
+			lastStates.remove(file.getAbsolutePath());
+		}
+		FileUtils.deleteFile(file);
+	}
+	
+	private LastState getLastState(File file) {
+		synchronized(lastStates) {
+			return lastStates.computeIfAbsent(file.getAbsolutePath(), path -> new LastState());
+		}
+	}
+	
+	private long writeFull(File file, byte[] stateBytes) throws IOException {
+		byte[] record = record(FULL, deflate(stateBytes, 0, stateBytes.length));
+		File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+		try(OutputStream out = new FileOutputStream(tmpFile)) {
+			out.write(MAGIC);
+			out.write(VERSION);
+			out.write(record);
+		}
+		Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		fullRecords.incrementAndGet();
+		return HEADER_LENGTH + (long)record.length;
+	}
+	
+	private void readHeader(DataInputStream in, File file) throws IOException {
+		byte[] magic = new byte[MAGIC.length];
+		in.readFully(magic);
+		int version = in.read();
+		if(!Arrays.equals(MAGIC, magic) || version != VERSION) {
+			throw new IOException("Not a session state file: " + file);
+		}
+	}
+	
+	/**
+	 * @return The delta record or null if a full record is smaller
+	 */
+	private byte[] delta(byte[] previous, byte[] current) throws IOException {
+		int max = Math.min(previous.length, current.length);
+		int prefix = 0;
+		while(prefix < max && previous[prefix] == current[prefix]) {
+			prefix++;
+		}
+		int suffix = 0;
+		while(suffix < max - prefix
+				&& previous[previous.length - suffix - 1] == current[current.length - suffix - 1]) {
+			suffix++;
+		}
+		
+		int middleLength = current.length - prefix - suffix;
+		if(middleLength > current.length / 2) {
+			return null;
+		}
+		
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(middleLength + 16);
+		try(DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(payload, new Deflater(Deflater.BEST_SPEED)))) {
+			out.writeInt(prefix);
+			out.writeInt(suffix);
+			out.write(current, prefix, middleLength);
+		}
+		return record(DELTA, payload.toByteArray());
+	}
+	
+	private byte[] applyDelta(byte[] previous, byte[] payload) throws IOException {
+		try(DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+			int prefix = in.readInt();
+			int suffix = in.readInt();
+			if(prefix < 0 || suffix < 0 || prefix + suffix > previous.length) {
+				throw new IOException("Invalid delta record");
+			}
+			byte[] middle = in.readAllBytes();
+			byte[] current = new byte[prefix + middle.length + suffix];
+			System.arraycopy(previous, 0, current, 0, prefix);
+			System.arraycopy(middle, 0, current, prefix, middle.length);
+			System.arraycopy(previous, previous.length - suffix, current, prefix + middle.length, suffix);
+			return current;
+		}
+	}
+	
+	private static byte[] record(byte type, byte[] payload) throws IOException {
+		ByteArrayOutputStream record = new ByteArrayOutputStream(payload.length + 9);
+		try(DataOutputStream out = new DataOutputStream(record)) {
+			out.writeByte(type);
+			out.writeInt(payload.length);
+			out.writeInt((int)checksum(payload));
+			out.write(payload);
+		}
+		return record.toByteArray();
+	}
+	
+	private static long checksum(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+		return crc.getValue();
+	}
+	
+	private static byte[] deflate(byte[] data, int offset, int length) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, length / 4));
+		try(OutputStream deflater = new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED))) {
+			deflater.write(data, offset, length);
+		}
+		return out.toByteArray();
+	}
+	
+	private static byte[] inflate(byte[] data) throws IOException {
+		try(InputStream in = new InflaterInputStream(new ByteArrayInputStream(data))) {
+			return in.readAllBytes();
+		}
+	}
+	
+	private static byte[] serialize(Serializable state) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+		try(ObjectOutputStream oos = new ObjectOutputStream(out)) {
+			oos.writeObject(state);
+		}
+		return out.toByteArray();
+	}
+	
+	private static <U> U deserialize(byte[] stateBytes, Class<U> type) throws IOException {
+		try(ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(stateBytes))) {
+			ois.setObjectInputFilter(STATE_FILTER);
+			return type.cast(ois.readObject());
+		} catch(ClassNotFoundException | ClassCastException e) {
+			throw new IOException("Cannot deserialize the session state", e);
+		}
+	}
+	
+	private static class LastState {
+		private byte[] bytes;
+		private long fileLength;
+		private int records;
+	}
+}
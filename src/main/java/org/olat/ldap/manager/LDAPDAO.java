@@ -304,6 +304,24 @@ public class LDAPDAO {
 	 */
 
 	public List<LDAPUser> getUserAttributesModifiedSince(Date syncTime, LdapContext ctx) {
+		LDAPUserVisitor userVisitor = new LDAPUserVisitor(syncConfiguration);
+		searchUserAttributesModifiedSince(syncTime, userVisitor, ctx);
+		List<LDAPUser> ldapUserList = userVisitor.getLdapUserList();
+		if(log.isDebugEnabled()) {
+			log.debug("attrib search returned {} results", ldapUserList.size());
+		}
+		return ldapUserList;
+	}
+	
+	/**
+	 * Search all LDAP users or the users changed since syncTime and let
+	 * the visitor process them page after page.
+	 * 
+	 * @param syncTime The time to search in LDAP for changes since this time or null for all users
+	 * @param userVisitor The visitor
+	 * @param ctx The LDAP system connection
+	 */
+	public void searchUserAttributesModifiedSince(Date syncTime, LDAPUserVisitor userVisitor, LdapContext ctx) {
 		final boolean debug = log.isDebugEnabled();
 		String userFilter = syncConfiguration.getLdapUserFilter();
 		StringBuilder filter = new StringBuilder();
@@ -333,13 +351,8 @@ public class LDAPDAO {
 		}
 
 		String[] userAttrs = getEnhancedUserAttributes();
-		LDAPUserVisitor userVisitor = new LDAPUserVisitor(syncConfiguration);
 		searchInLdap(userVisitor, filter.toString(), userAttrs, ctx);
-		List<LDAPUser> ldapUserList = userVisitor.getLdapUserList();
-		if(debug) {
-			log.debug("attrib search returned {} results", ldapUserList.size());
-		}
-		return ldapUserList;
+		userVisitor.flush();
 	}
 	
 	public String[] getEnhancedUserAttributes() {
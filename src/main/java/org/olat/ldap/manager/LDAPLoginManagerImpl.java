@@ -90,6 +90,7 @@ import org.olat.ldap.LDAPLoginManager;
 import org.olat.ldap.LDAPLoginModule;
 import org.olat.ldap.LDAPSyncConfiguration;
 import org.olat.ldap.model.LDAPGroup;
+import org.olat.ldap.model.LDAPSyncStatistics;
 import org.olat.ldap.model.LDAPUser;
 import org.olat.ldap.model.LDAPValidationResult;
 import org.olat.ldap.ui.LDAPAuthenticationController;
@@ -113,11 +114,14 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, AuthenticationPro
 	private static final Logger log = Tracing.createLoggerFor(LDAPLoginManagerImpl.class);
 
 	private static final String TIMEOUT_KEY = "com.sun.jndi.ldap.connect.timeout";
+	private static final int SYNC_CHUNK_SIZE = 500;
 	private static boolean batchSyncIsRunning = false;
 	private static Date lastSyncDate = null; // first sync is always a full sync
 	
 	private Coordinator coordinator;
 	private TaskExecutorManager taskExecutorManager;
+	private int syncChunkSize = SYNC_CHUNK_SIZE;
+	private LDAPSyncStatistics lastSyncStatistics;
 	
 	@Autowired
 	private DB dbInstance;
@@ -508,6 +512,15 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, AuthenticationPro
 		}
 		
 		Identity identity = securityManager.loadIdentityByKey(identityRef.getKey());
+		updateUserProperties(olatPropertyMap, identity);
+		dbInstance.commit();
+		
+		// check WebDAV authentication
+		CoreSpringFactory.getImpl(OLATAuthManager.class).synchronizeCredentials(identity, identity);
+		return identity;
+	}
+	
+	private void updateUserProperties(Map<String, String> olatPropertyMap, Identity identity) {
 		User user = identity.getUser();
 		// remove user identifyer - can not be changed later
 		olatPropertyMap.remove(LDAPConstants.LDAP_USER_IDENTIFYER);
@@ -540,11 +553,6 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, AuthenticationPro
 			}
 		}
 		userManager.updateUser(user);
-		dbInstance.commit();
-		
-		// check WebDAV authentication
-		CoreSpringFactory.getImpl(OLATAuthManager.class).synchronizeCredentials(identity, identity);
-		return identity;
 	}
 
 	@Override
@@ -997,6 +1005,7 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, AuthenticationPro
 		
 		LdapContext ctx = null;
 		boolean success = false;
+		LDAPSyncStatistics statistics = new LDAPSyncStatistics();
 		try {
 			acquireSyncLock();
 			long startTime = System.currentTimeMillis();
@@ -1012,25 +1021,33 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, AuthenticationPro
 			//check server capabilities
 			// Get time before sync to have a save sync time when sync is successful
 			String sinceSentence = (lastSyncDate == null ? "" : " since last sync from " + lastSyncDate);
+			long phaseStart = System.nanoTime();
 			doBatchSyncDeletedUsers(ctx, sinceSentence);
+			statistics.addPhase("deletedUsers", phaseStart);
 			// bind again to use an initial unmodified context. lookup of server-properties might fail otherwise!
 			ctx.close();
 			ctx = bindSystem();
+			phaseStart = System.nanoTime();
 			Map<String,LDAPUser> dnToIdentityKeyMap = new HashMap<>();
-			List<LDAPUser> ldapUsers = doBatchSyncNewAndModifiedUsers(ctx, sinceSentence, dnToIdentityKeyMap, errors);
+			List<LDAPUser> ldapUsers = doBatchSyncNewAndModifiedUsers(ctx, sinceSentence, dnToIdentityKeyMap, statistics, errors);
+			statistics.addPhase("users", phaseStart);
 			ctx.close();
 			ctx = bindSystem();
 			//sync groups by LDAP groups or attributes
+			phaseStart = System.nanoTime();
 			doBatchSyncGroups(ctx, ldapUsers, dnToIdentityKeyMap, errors);
+			statistics.addPhase("groups", phaseStart);
 			//sync roles
+			phaseStart = System.nanoTime();
 			doBatchSyncRoles(ctx, ldapUsers, dnToIdentityKeyMap, errors);
+			statistics.addPhase("roles", phaseStart);
 			
 			// update sync time and set running flag
 			lastSyncDate = timeBeforeSync;
 			
 			ctx.close();
 			success = true;
-			log.info(Tracing.M_AUDIT, "LDAP batch sync done: " + success + " in " + ((System.currentTimeMillis() - startTime) / 1000) + "s");
+			log.info(Tracing.M_AUDIT, "LDAP batch sync done: " + success + " in " + ((System.currentTimeMillis() - startTime) / 1000) + "s " + statistics);
 			return success;
 		} catch (Exception e) {
 
@@ -1039,6 +1056,7 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, AuthenticationPro
 			success = false;
 			return success;
 		} finally {
+			lastSyncStatistics = statistics;
 			WorkThreadInformations.unsetLongRunningTask("ldapSync");
 			freeSyncLock();
 			if(ctx != null) {
@@ -1258,21 +1276,55 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, AuthenticationPro
 		dbInstance.commitAndCloseSession();
 	}
 	
-	private List<LDAPUser> doBatchSyncNewAndModifiedUsers(LdapContext ctx, String sinceSentence, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors) {
-		// Get new and modified users from LDAP
-		int count = 0;
-		List<LDAPUser> ldapUserList = ldapDao.getUserAttributesModifiedSince(lastSyncDate, ctx);
+	/**
+	 * Read the new and modified users from LDAP page after page and synchronize
+	 * them in chunks: the authentications and users of a chunk are loaded with
+	 * one query, the changes are applied and committed together and the new
+	 * users are created. The attributes of the LDAP users are released after
+	 * the chunk is processed.
+	 * 
+	 * @return The list of the LDAP users without their attributes
+	 */
+	private List<LDAPUser> doBatchSyncNewAndModifiedUsers(LdapContext ctx, String sinceSentence, Map<String,LDAPUser> dnToIdentityKeyMap,
+			LDAPSyncStatistics statistics, LDAPError errors) {
+		List<LDAPUser> ldapUserList = new ArrayList<>();
+		LDAPUserVisitor visitor = new LDAPUserVisitor(syncConfiguration, syncChunkSize, chunk -> {
+			doBatchSyncChunkOfUsers(chunk, dnToIdentityKeyMap, statistics, errors);
+			for(LDAPUser ldapUser:chunk) {
+				ldapUser.setAttributes(null);
+			}
+			ldapUserList.addAll(chunk);
+			if(statistics.getChunks() % 10 == 0) {
+				log.info("LDAP batch sync: {} users processed", ldapUserList.size());
+			}
+		});
+		ldapDao.searchUserAttributesModifiedSince(lastSyncDate, visitor, ctx);
+		dbInstance.commitAndCloseSession();
+		
+		log.info("LDAP batch sync: {} users synced, {} users created{}", statistics.getUpdatedUsers(), statistics.getCreatedUsers(), sinceSentence);
+		return ldapUserList;
+	}
+	
+	private void doBatchSyncChunkOfUsers(List<LDAPUser> chunk, Map<String,LDAPUser> dnToIdentityKeyMap,
+			LDAPSyncStatistics statistics, LDAPError errors) {
+		statistics.incrementChunks();
+		statistics.incrementReadUsers(chunk.size());
+		
+		long phaseStart = System.nanoTime();
+		Map<String,Authentication> authentications = loadLdapAuthentications(chunk);
+		String uidProp = syncConfiguration.getOlatPropertyToLdapAttribute(LDAPConstants.LDAP_USER_IDENTIFYER);
 		
-		// Check for new and modified users
 		List<LDAPUser> newLdapUserList = new ArrayList<>();
-		Map<IdentityRef, Map<String, String>> changedMapIdentityMap = new HashMap<>();
-		for (LDAPUser ldapUser: ldapUserList) {
+		Map<Identity, Map<String, String>> changedMapIdentityMap = new HashMap<>();
+		for (LDAPUser ldapUser: chunk) {
 			String user = null;
 			try {
 				Attributes userAttrs = ldapUser.getAttributes();
-				String uidProp = syncConfiguration.getOlatPropertyToLdapAttribute(LDAPConstants.LDAP_USER_IDENTIFYER);
 				user = getAttributeValue(userAttrs.get(uidProp));
-				Identity identity = findIdentityByLdapAuthentication(userAttrs, errors);
+				Identity identity = findIdentityByLoginAttributes(userAttrs, authentications);
+				if(identity == null) {
+					identity = findIdentityByLdapAuthentication(userAttrs, errors);
+				}
 				if (identity != null) {
 					Map<String, String> changedAttrMap = prepareUserPropertyForSync(userAttrs, identity);
 					if (changedAttrMap != null) {
@@ -1297,76 +1349,129 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, AuthenticationPro
 				// catch here to go on with other users on exeptions!
 				log.error("some error occured in looping over set of changed user-attributes, actual user " + user + ". Will still continue with others.", e);
 				errors.insert("Cannot sync user: " + user);
-			} finally {
-				dbInstance.commit();
-				if(count % 10 == 0) {
-					dbInstance.closeSession();
-				}
-			}
-			if(count % 1000 == 0) {
-				log.info("Retrieve " + count + "/" + ldapUserList.size() + " users in LDAP server");
+				statistics.incrementFailedUsers();
 			}
-			count++;
 		}
+		statistics.addPhase("usersDiff", phaseStart);
 		
 		// sync existing users
-		if (changedMapIdentityMap == null || changedMapIdentityMap.isEmpty()) {
-			log.info("LDAP batch sync: no users to sync" + sinceSentence);
-		} else {
-			int syncCount = 0;
-			for (IdentityRef ident : changedMapIdentityMap.keySet()) {
-				// sync user is exception save, no try/catch needed
-				try {
-					syncCount++;
-					syncUser(changedMapIdentityMap.get(ident), ident);
-				} catch (Exception e) {
-					errors.insert("Cannot sync user: " + ident);
-				} finally {
-					dbInstance.commit();
-					if(syncCount % 20 == 0) {
-						dbInstance.closeSession();
-					}
-				}
-				if(syncCount % 1000 == 0) {
-					log.info("Update " + syncCount + "/" + changedMapIdentityMap.size() + " LDAP users");
-				}
-			}
-			log.info("LDAP batch sync: " + changedMapIdentityMap.size() + " users synced" + sinceSentence);
+		phaseStart = System.nanoTime();
+		if (!changedMapIdentityMap.isEmpty()) {
+			doBatchSyncChangedUsers(changedMapIdentityMap, statistics, errors);
 		}
+		dbInstance.commitAndCloseSession();
+		statistics.addPhase("usersUpdate", phaseStart);
 		
 		// create new users
-		if (newLdapUserList.isEmpty()) {
-			log.info("LDAP batch sync: no users to create {}", sinceSentence);
-		} else {			
-			int newCount = 0;
-			for (LDAPUser ldapUser: newLdapUserList) {
-				Attributes userAttrs = ldapUser.getAttributes();
-				try {
-					newCount++;
-					Identity identity = createAndPersistUser(userAttrs);
-					if(identity != null && StringHelper.containsNonWhitespace(ldapUser.getDn())) {
+		phaseStart = System.nanoTime();
+		for (LDAPUser ldapUser: newLdapUserList) {
+			Attributes userAttrs = ldapUser.getAttributes();
+			try {
+				Identity identity = createAndPersistUser(userAttrs);
+				if(identity != null) {
+					statistics.incrementCreatedUsers();
+					if(StringHelper.containsNonWhitespace(ldapUser.getDn())) {
 						dnToIdentityKeyMap.put(ldapUser.getDn(), ldapUser);
 						ldapUser.setCachedIdentity(new IdentityRefImpl(identity.getKey()));
 					}
-				} catch (Exception e) {
-					// catch here to go on with other users on exeptions!
-					log.error("some error occured while creating new users, actual userAttribs " + userAttrs + ". Will still continue with others.", e);
+				}
+				dbInstance.commit();
+			} catch (Exception e) {
+				// catch here to go on with other users on exeptions!
+				log.error("some error occured while creating new users, actual userAttribs " + userAttrs + ". Will still continue with others.", e);
+				dbInstance.rollbackAndCloseSession();
+				statistics.incrementFailedUsers();
+			}
+		}
+		dbInstance.commitAndCloseSession();
+		statistics.addPhase("usersCreate", phaseStart);
+	}
+	
+	/**
+	 * Apply the changes of a chunk and commit them together. If the commit fails,
+	 * the changes are applied user by user.
+	 */
+	private void doBatchSyncChangedUsers(Map<Identity, Map<String, String>> changedMapIdentityMap,
+			LDAPSyncStatistics statistics, LDAPError errors) {
+		try {
+			for (Map.Entry<Identity, Map<String, String>> changed : changedMapIdentityMap.entrySet()) {
+				updateUserProperties(changed.getValue(), changed.getKey());
+			}
+			dbInstance.commit();
+			
+			OLATAuthManager olatAuthManager = CoreSpringFactory.getImpl(OLATAuthManager.class);
+			for (Identity identity : changedMapIdentityMap.keySet()) {
+				olatAuthManager.synchronizeCredentials(identity, identity);
+			}
+			dbInstance.commit();
+			statistics.incrementUpdatedUsers(changedMapIdentityMap.size());
+		} catch (Exception e) {
+			log.warn("LDAP batch sync: cannot update a chunk of {} users, update them one by one", changedMapIdentityMap.size(), e);
+			dbInstance.rollbackAndCloseSession();
+			
+			for (Map.Entry<Identity, Map<String, String>> changed : changedMapIdentityMap.entrySet()) {
+				try {
+					syncUser(changed.getValue(), changed.getKey());
+					statistics.incrementUpdatedUsers(1);
+				} catch (Exception ex) {
+					log.error("Cannot sync user: {}", changed.getKey().getKey(), ex);
+					errors.insert("Cannot sync user: " + changed.getKey());
+					dbInstance.rollbackAndCloseSession();
+					statistics.incrementFailedUsers();
 				} finally {
 					dbInstance.commit();
-					if(newCount % 20 == 0) {
-						dbInstance.closeSession();
-					}
 				}
-				
-				if(newCount % 1000 == 0) {
-					log.info("Create " + count + "/" + newLdapUserList.size() + " LDAP users");
+			}
+		}
+	}
+	
+	/**
+	 * Load with one query the LDAP authentications of the users of the chunk
+	 * with their identities and users.
+	 * 
+	 * @return A map authentication user name in lower case to authentication
+	 */
+	private Map<String,Authentication> loadLdapAuthentications(List<LDAPUser> chunk) {
+		List<String> loginAttributes = syncConfiguration.getLdapUserLoginAttributes();
+		List<String> tokens = new ArrayList<>(chunk.size() * loginAttributes.size());
+		for(LDAPUser ldapUser:chunk) {
+			Attributes userAttrs = ldapUser.getAttributes();
+			for(String loginAttribute:loginAttributes) {
+				Attribute attr = userAttrs.get(loginAttribute);
+				String token = attr == null ? null : getAttributeValue(attr);
+				if(StringHelper.containsNonWhitespace(token)) {
+					tokens.add(token);
 				}
 			}
-			log.info("LDAP batch sync: " + newLdapUserList.size() + " users created" + sinceSentence);
 		}
-
-		dbInstance.commitAndCloseSession();
-		return ldapUserList;
+		
+		Map<String,Authentication> authentications = new HashMap<>();
+		for(int i=0; i<tokens.size(); i+=500) {
+			List<String> tokenSlice = tokens.subList(i, Math.min(tokens.size(), i + 500));
+			List<Authentication> slice = authenticationDao.getAuthentications(tokenSlice, LDAPAuthenticationController.PROVIDER_LDAP);
+			for(Authentication authentication:slice) {
+				authentications.put(authentication.getAuthusername().toLowerCase(), authentication);
+			}
+		}
+		return authentications;
+	}
+	
+	/**
+	 * The same lookup as the first step of findAuthenticationByLdapAuthentication
+	 * but within the preloaded authentications.
+	 */
+	private Identity findIdentityByLoginAttributes(Attributes attrs, Map<String,Authentication> authentications) {
+		for(String loginAttribute:syncConfiguration.getLdapUserLoginAttributes()) {
+			Attribute attr = attrs.get(loginAttribute);
+			String token = attr == null ? null : getAttributeValue(attr);
+			if(token != null) {
+				Authentication authentication = authentications.get(token.toLowerCase());
+				if(authentication != null) {
+					return authentication.getIdentity();
+				}
+			}
+		}
+		return null;
 	}
 	
 	private void doBatchSyncGroups(LdapContext ctx, List<LDAPUser> ldapUsers, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors)
@@ -1607,6 +1712,20 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, AuthenticationPro
 		}
 	}
 
+	/**
+	 * @return The counters and timings of the last batch synchronization
+	 */
+	public LDAPSyncStatistics getLastSyncStatistics() {
+		return lastSyncStatistics;
+	}
+	
+	/**
+	 * @param syncChunkSize The number of LDAP users synchronized together
+	 */
+	public void setSyncChunkSize(int syncChunkSize) {
+		this.syncChunkSize = syncChunkSize;
+	}
+
 	@Override
 	public Date getLastSyncDate() {
 		return lastSyncDate;
@@ -22,6 +22,7 @@ package org.olat.ldap.manager;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
@@ -45,16 +46,43 @@ public class LDAPUserVisitor implements LDAPVisitor {
 	
 	private static final Logger log = Tracing.createLoggerFor(LDAPUserVisitor.class);
 	
+	private final int chunkSize;
+	private final Consumer<List<LDAPUser>> chunkConsumer;
 	private final LDAPSyncConfiguration syncConfiguration;
 	private final List<LDAPUser> ldapUserList = new ArrayList<>();
 	
 	public LDAPUserVisitor(LDAPSyncConfiguration syncConfiguration) {
+		this(syncConfiguration, 0, null);
+	}
+	
+	/**
+	 * The visitor doesn't collect all the users but hand them over
+	 * to the consumer in chunks.
+	 * 
+	 * @param syncConfiguration The configuration
+	 * @param chunkSize The number of users in a chunk
+	 * @param chunkConsumer The consumer which process the chunks
+	 */
+	public LDAPUserVisitor(LDAPSyncConfiguration syncConfiguration, int chunkSize, Consumer<List<LDAPUser>> chunkConsumer) {
 		this.syncConfiguration = syncConfiguration;
+		this.chunkSize = chunkSize;
+		this.chunkConsumer = chunkConsumer;
 	}
 	
 	public List<LDAPUser> getLdapUserList() {
 		return ldapUserList;
 	}
+	
+	/**
+	 * Hand the last, incomplete chunk over to the consumer.
+	 */
+	public void flush() {
+		if(chunkConsumer != null && !ldapUserList.isEmpty()) {
+			List<LDAPUser> chunk = new ArrayList<>(ldapUserList);
+			ldapUserList.clear();
+			chunkConsumer.accept(chunk);
+		}
+	}
 
 	@Override
 	public void visit(SearchResult searchResult) throws NamingException {
@@ -78,6 +106,9 @@ public class LDAPUserVisitor implements LDAPVisitor {
 		ldapUser.setCoachedGroupIds(coachedGroupList);
 		
 		ldapUserList.add(ldapUser);
+		if(chunkConsumer != null && ldapUserList.size() >= chunkSize) {
+			flush();
+		}
 	}
 	
 	private List<String> parseGroupList(Attributes resAttribs, String attributeName, String attributeSeparator) {
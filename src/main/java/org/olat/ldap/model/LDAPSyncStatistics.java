@@ -0,0 +1,112 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ldap.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counters and timings of the phases of a batch synchronization.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class LDAPSyncStatistics {
+	
+	private int readUsers;
+	private int updatedUsers;
+	private int createdUsers;
+	private int failedUsers;
+	private int chunks;
+	
+	private final Map<String,Long> phases = new LinkedHashMap<>();
+	
+	public int getReadUsers() {
+		return readUsers;
+	}
+	
+	public void incrementReadUsers(int count) {
+		readUsers += count;
+	}
+
+	public int getUpdatedUsers() {
+		return updatedUsers;
+	}
+	
+	public void incrementUpdatedUsers(int count) {
+		updatedUsers += count;
+	}
+
+	public int getCreatedUsers() {
+		return createdUsers;
+	}
+	
+	public void incrementCreatedUsers() {
+		createdUsers++;
+	}
+
+	public int getFailedUsers() {
+		return failedUsers;
+	}
+	
+	public void incrementFailedUsers() {
+		failedUsers++;
+	}
+
+	public int getChunks() {
+		return chunks;
+	}
+	
+	public void incrementChunks() {
+		chunks++;
+	}
+	
+	/**
+	 * @return The duration in milliseconds of the phases in the order they run
+	 */
+	public Map<String,Long> getPhases() {
+		return phases;
+	}
+	
+	/**
+	 * Add the duration to the phase.
+	 * 
+	 * @param phase The name of the phase
+	 * @param startNanos The start of the phase in nanoseconds
+	 */
+	public void addPhase(String phase, long startNanos) {
+		long duration = (System.nanoTime() - startNanos) / 1000000l;
+		phases.merge(phase, Long.valueOf(duration), Long::sum);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("ldapSync[read=").append(readUsers)
+		  .append(",updated=").append(updatedUsers)
+		  .append(",created=").append(createdUsers)
+		  .append(",failed=").append(failedUsers)
+		  .append(",chunks=").append(chunks);
+		for(Map.Entry<String, Long> phase:phases.entrySet()) {
+			sb.append(",").append(phase.getKey()).append("=").append(phase.getValue()).append("ms");
+		}
+		return sb.append("]").toString();
+	}
+}
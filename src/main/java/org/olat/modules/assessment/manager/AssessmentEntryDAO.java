@@ -387,6 +387,29 @@ public class AssessmentEntryDAO {
 				.getResultList();
 	}
 
+	/**
+	 * Load all the assessment entries of a list of users for a specific
+	 * repository entry (typically a course) in one query.
+	 * 
+	 * @param entry The assessed course / repository entry (mandatory)
+	 * @param identityKeys The primary keys of the assessed users
+	 * @return A list of assessment entries
+	 */
+	public List<AssessmentEntry> loadAssessmentEntriesByAssessedIdentities(RepositoryEntryRef entry, Collection<Long> identityKeys) {
+		if (entry == null || identityKeys == null || identityKeys.isEmpty()) return Collections.emptyList();
+		
+		QueryBuilder sb = new QueryBuilder();
+		sb.append("select data from assessmententry data");
+		sb.and().append(" data.repositoryEntry.key=:repositoryEntryKey");
+		sb.and().append(" data.identity.key in (:identityKeys)");
+		
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), AssessmentEntry.class)
+				.setParameter("repositoryEntryKey", entry.getKey())
+				.setParameter("identityKeys", identityKeys)
+				.getResultList();
+	}
+
 	/**
 	 * Load all the assessment entry of the specific group. But aware that the query exclude the default group
 	 * of the repository entry! The query doesn't check the member ship but only the relation to the course.
@@ -27,6 +27,9 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import org.olat.core.CoreSpringFactory;
+import org.olat.core.configuration.PreWarmScheduler;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -73,6 +76,28 @@ public class Ping {
 		return Response.ok("Ping").build();
 	}
 	
+	/**
+	 * Return if the pre-warm tasks after the start of the server are processed.
+	 * The path is open, a load balancer can use it without credentials to wait
+	 * before sending traffic to a new node. The details of the tasks are only
+	 * available in the monitoring.
+	 * 
+	 * @return 200 if the node is ready, 503 if not
+	 */
+	@GET
+	@Path("ready")
+	@Operation(summary = "Return the readiness of the instance", description = "Return if the pre-warm tasks after the start of the server are processed")
+	@ApiResponse(responseCode = "200", description = "The instance is ready")
+	@ApiResponse(responseCode = "503", description = "The instance is not ready")
+	@Produces(MediaType.TEXT_PLAIN)
+	public Response ready() {
+		PreWarmScheduler scheduler = CoreSpringFactory.getImpl(PreWarmScheduler.class);
+		if(scheduler.isReady()) {
+			return Response.ok("Ready").build();
+		}
+		return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("Not ready").build();
+	}
+	
 	/**
 	 * Return a concatenation of the string as parameter and Ping
 	 * 
@@ -33,6 +33,7 @@ import org.olat.search.SearchServiceStatus;
 import org.olat.search.service.SearchServiceFactory;
 import org.olat.search.service.SearchServiceStatusImpl;
 import org.olat.search.service.indexer.FullIndexerStatus;
+import org.olat.search.service.indexer.NRTIndexMetrics;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -145,6 +146,16 @@ public class IndexerWebService {
 			stats.setRunningFolderIndexerCount(fStatus.getNumberRunningFolderIndexer() + lStatus.getNumberRunningFolderIndexer());
 			stats.setAvailableFolderIndexerCount(fStatus.getNumberAvailableFolderIndexer() + lStatus.getNumberAvailableFolderIndexer());
 			stats.setLastFullIndexTime(fStatus.getLastFullIndexDateString());
+			stats.setDocumentsPerSecond(fStatus.getDocumentsPerSecond());
+			stats.setCharactersPerSecond(fStatus.getCharactersPerSecond());
+			stats.setNearRealTime(statusImpl.isNearRealTime());
+			if(statusImpl.isNearRealTime()) {
+				NRTIndexMetrics metrics = statusImpl.getNearRealTimeMetrics();
+				stats.setRefreshLatency(metrics.getAverageRefreshLatency());
+				stats.setMaxRefreshLatency(metrics.getMaxRefreshLatency());
+				stats.setIndexLag(metrics.getCurrentIndexLag());
+				stats.setMaxIndexLag(metrics.getMaxIndexLag());
+			}
 			stats.setStatus(status.getStatus());
 		} else {
 			stats.setStatus(FullIndexerStatus.STATUS_DISABLED);
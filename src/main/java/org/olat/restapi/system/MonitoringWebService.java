@@ -31,10 +31,13 @@ import javax.ws.rs.core.Response;
 import org.olat.admin.registration.SystemRegistrationManager;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DB;
+import org.olat.core.configuration.PreWarmScheduler;
+import org.olat.core.configuration.PreWarmScheduler.Status;
 import org.olat.core.util.StringHelper;
 import org.olat.instantMessaging.InstantMessagingModule;
 import org.olat.restapi.system.vo.MonitoringDependencyVO;
 import org.olat.restapi.system.vo.MonitoringInfosVO;
+import org.olat.restapi.system.vo.ReadinessVO;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -162,6 +165,39 @@ public class MonitoringWebService {
 		return Response.ok(vo).build();
 	}
 	
+	/**
+	 * Return if the pre-warm tasks after the start of the server are processed
+	 * with the counters of the tasks. A load balancer without credentials can
+	 * use the open /ping/ready instead.
+	 * 
+	 * @return 200 if the node is ready, 503 if not
+	 */
+	@GET
+	@Path("ready")
+	@Operation(summary = "Return the readiness of the instance", description = "Return if the pre-warm tasks after the start of the server are processed")
+	@ApiResponse(responseCode = "200", description = "The instance is ready", content = {
+			@Content(mediaType = "application/json", schema = @Schema(implementation = ReadinessVO.class)),
+			@Content(mediaType = "application/xml", schema = @Schema(implementation = ReadinessVO.class)) })
+	@ApiResponse(responseCode = "401", description = "The roles of the authenticated user are not sufficient")
+	@ApiResponse(responseCode = "503", description = "The instance is not ready")
+	@Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON})
+	public Response getReadiness() {
+		PreWarmScheduler scheduler = CoreSpringFactory.getImpl(PreWarmScheduler.class);
+		ReadinessVO vo = new ReadinessVO();
+		vo.setReady(scheduler.isReady());
+		vo.setReadyInMilliseconds(scheduler.getReadyTime());
+		vo.setNumOfTasks(scheduler.getTasks().size());
+		vo.setNumOfPendingTasks(scheduler.getNumOfTasks(Status.pending));
+		vo.setNumOfRunningTasks(scheduler.getNumOfTasks(Status.running));
+		vo.setNumOfDoneTasks(scheduler.getNumOfTasks(Status.done));
+		vo.setNumOfFailedTasks(scheduler.getNumOfTasks(Status.failed));
+		vo.setNumOfTimedOutTasks(scheduler.getNumOfTasks(Status.timedOut));
+		if(scheduler.isReady()) {
+			return Response.ok(vo).build();
+		}
+		return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(vo).build();
+	}
+	
 	public static void takeSample() {
 		memoryWebService.takeSample();
 		threadsWebService.takeSample();
@@ -52,6 +52,20 @@ public class IndexerStatisticsVO {
 	private String fullIndexStartedAt;
 	@XmlAttribute(name="lastFullIndexTime", required=false)
 	private String lastFullIndexTime;
+	@XmlAttribute(name="documentsPerSecond", required=false)
+	private long documentsPerSecond;
+	@XmlAttribute(name="charactersPerSecond", required=false)
+	private long charactersPerSecond;
+	@XmlAttribute(name="nearRealTime", required=false)
+	private boolean nearRealTime;
+	@XmlAttribute(name="refreshLatency", required=false)
+	private long refreshLatency;
+	@XmlAttribute(name="maxRefreshLatency", required=false)
+	private long maxRefreshLatency;
+	@XmlAttribute(name="indexLag", required=false)
+	private long indexLag;
+	@XmlAttribute(name="maxIndexLag", required=false)
+	private long maxIndexLag;
 	
 	
 	public IndexerStatisticsVO() {
@@ -137,4 +151,60 @@ public class IndexerStatisticsVO {
 	public void setLastFullIndexTime(String lastFullIndexTime) {
 		this.lastFullIndexTime = lastFullIndexTime;
 	}
+
+	public long getDocumentsPerSecond() {
+		return documentsPerSecond;
+	}
+
+	public void setDocumentsPerSecond(long documentsPerSecond) {
+		this.documentsPerSecond = documentsPerSecond;
+	}
+
+	public long getCharactersPerSecond() {
+		return charactersPerSecond;
+	}
+
+	public void setCharactersPerSecond(long charactersPerSecond) {
+		this.charactersPerSecond = charactersPerSecond;
+	}
+
+	public boolean isNearRealTime() {
+		return nearRealTime;
+	}
+
+	public void setNearRealTime(boolean nearRealTime) {
+		this.nearRealTime = nearRealTime;
+	}
+
+	public long getRefreshLatency() {
+		return refreshLatency;
+	}
+
+	public void setRefreshLatency(long refreshLatency) {
+		this.refreshLatency = refreshLatency;
+	}
+
+	public long getMaxRefreshLatency() {
+		return maxRefreshLatency;
+	}
+
+	public void setMaxRefreshLatency(long maxRefreshLatency) {
+		this.maxRefreshLatency = maxRefreshLatency;
+	}
+
+	public long getIndexLag() {
+		return indexLag;
+	}
+
+	public void setIndexLag(long indexLag) {
+		this.indexLag = indexLag;
+	}
+
+	public long getMaxIndexLag() {
+		return maxIndexLag;
+	}
+
+	public void setMaxIndexLag(long maxIndexLag) {
+		this.maxIndexLag = maxIndexLag;
+	}
 }
@@ -0,0 +1,117 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.restapi.system.vo;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlRootElement(name = "readinessVO")
+public class ReadinessVO {
+	
+	@XmlAttribute(name="ready", required=true)
+	private boolean ready;
+	@XmlAttribute(name="readyInMilliseconds", required=true)
+	private long readyInMilliseconds;
+	
+	@XmlAttribute(name="numOfTasks", required=true)
+	private int numOfTasks;
+	@XmlAttribute(name="numOfPendingTasks", required=true)
+	private int numOfPendingTasks;
+	@XmlAttribute(name="numOfRunningTasks", required=true)
+	private int numOfRunningTasks;
+	@XmlAttribute(name="numOfDoneTasks", required=true)
+	private int numOfDoneTasks;
+	@XmlAttribute(name="numOfFailedTasks", required=true)
+	private int numOfFailedTasks;
+	@XmlAttribute(name="numOfTimedOutTasks", required=true)
+	private int numOfTimedOutTasks;
+	
+	public boolean isReady() {
+		return ready;
+	}
+	
+	public void setReady(boolean ready) {
+		this.ready = ready;
+	}
+	
+	public long getReadyInMilliseconds() {
+		return readyInMilliseconds;
+	}
+	
+	public void setReadyInMilliseconds(long readyInMilliseconds) {
+		this.readyInMilliseconds = readyInMilliseconds;
+	}
+	
+	public int getNumOfTasks() {
+		return numOfTasks;
+	}
+	
+	public void setNumOfTasks(int numOfTasks) {
+		this.numOfTasks = numOfTasks;
+	}
+	
+	public int getNumOfPendingTasks() {
+		return numOfPendingTasks;
+	}
+	
+	public void setNumOfPendingTasks(int numOfPendingTasks) {
+		this.numOfPendingTasks = numOfPendingTasks;
+	}
+	
+	public int getNumOfRunningTasks() {
+		return numOfRunningTasks;
+	}
+	
+	public void setNumOfRunningTasks(int numOfRunningTasks) {
+		this.numOfRunningTasks = numOfRunningTasks;
+	}
+	
+	public int getNumOfDoneTasks() {
+		return numOfDoneTasks;
+	}
+	
+	public void setNumOfDoneTasks(int numOfDoneTasks) {
+		this.numOfDoneTasks = numOfDoneTasks;
+	}
+	
+	public int getNumOfFailedTasks() {
+		return numOfFailedTasks;
+	}
+	
+	public void setNumOfFailedTasks(int numOfFailedTasks) {
+		this.numOfFailedTasks = numOfFailedTasks;
+	}
+	
+	public int getNumOfTimedOutTasks() {
+		return numOfTimedOutTasks;
+	}
+	
+	public void setNumOfTimedOutTasks(int numOfTimedOutTasks) {
+		this.numOfTimedOutTasks = numOfTimedOutTasks;
+	}
+}
@@ -101,6 +101,10 @@ public class SearchModule extends AbstractSpringModule {
 	private int searchTimeout;
 	@Value("${search.folder.pool.size:3}")
 	private int folderPoolSize;
+	@Value("${search.indexing.parallel.writers:1}")
+	private int parallelWriters;
+	@Value("${search.indexing.checkpoint.max.age:86400000}")
+	private long checkpointMaxAge;
 	@Value("${restart.window.start}")
 	private int restartWindowStart;
 	@Value("${restart.window.end}")
@@ -125,6 +129,13 @@ public class SearchModule extends AbstractSpringModule {
 	private double ramBufferSizeMB;
 	private boolean useCompoundFile = false;
 	
+	@Value("${search.nrt.enabled:false}")
+	private boolean nearRealTime;
+	@Value("${search.nrt.refresh.interval:1000}")
+	private long nearRealTimeRefreshInterval;
+	@Value("${search.nrt.commit.interval:60000}")
+	private long nearRealTimeCommitInterval;
+	
 	@Autowired @Qualifier("fileSizeSuffixes")
 	private ArrayList<String> fileSizeSuffixes;
 	@Autowired @Qualifier("fileBlackList")
@@ -313,6 +324,22 @@ public class SearchModule extends AbstractSpringModule {
 		return folderPoolSize;
 	}
 
+	/**
+	 * @return Number of subtrees of the full index written in parallel, 1 to
+	 * 		write all the documents with a single writer
+	 */
+	public int getParallelWriters() {
+		return parallelWriters;
+	}
+
+	/**
+	 * @return The maximum age in milliseconds of the checkpoint of an
+	 * 		interrupted parallel full index to resume it
+	 */
+	public long getCheckpointMaxAge() {
+		return checkpointMaxAge;
+	}
+
 	/**
 	 * @return Start hour for restart-window.
 	 */
@@ -431,6 +458,30 @@ public class SearchModule extends AbstractSpringModule {
 		this.ramBufferSizeMB = ramBufferSizeMB;
 	}
 
+	/**
+	 * @return true if the updates of the permanent index are searchable
+	 * 		without commit and without reopening the index
+	 */
+	public boolean isNearRealTime() {
+		return nearRealTime;
+	}
+
+	/**
+	 * @return The maximum time in milliseconds before an update of the
+	 * 		index is visible to the searches
+	 */
+	public long getNearRealTimeRefreshInterval() {
+		return nearRealTimeRefreshInterval;
+	}
+
+	/**
+	 * @return The interval in milliseconds between two commits of the
+	 * 		near real-time index
+	 */
+	public long getNearRealTimeCommitInterval() {
+		return nearRealTimeCommitInterval;
+	}
+
 	public boolean getUseCompoundFile() {
 		return useCompoundFile;
 	}
@@ -48,6 +48,7 @@ import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.MultiReader;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
@@ -119,6 +120,7 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 	
 	private ExecutorService searchExecutor;
 	private OOSearcherManager indexSearcherRefMgr;
+	private volatile boolean nearRealTimeReopen;
 
 	private String[] fields = {
 			AbstractOlatDocument.TITLE_FIELD_NAME, AbstractOlatDocument.DESCRIPTION_FIELD_NAME,
@@ -279,6 +281,7 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 			if(indexSearcherRefMgr == null) {
 				if(existIndex()) {
 					indexSearcherRefMgr = new OOSearcherManager(this);
+					startNearRealTimeReopen();
 				}
 			} else {
 				indexSearcherRefMgr.needRefresh();
@@ -288,6 +291,15 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 		}
 	}
 
+	/**
+	 * In near real-time mode, the searcher is refreshed periodically
+	 * in the background and not by the searches.
+	 */
+	private void startNearRealTimeReopen() {
+		double maxStaleSec = Math.max(10l, searchModuleConfig.getNearRealTimeRefreshInterval()) / 1000.0d;
+		nearRealTimeReopen = lifeIndexer.startNearRealTimeReopen(indexSearcherRefMgr, maxStaleSec);
+	}
+
 	@Override
 	public void event(Event event) {
 		if(event instanceof IndexerEvent) {
@@ -490,6 +502,10 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 			stopIndexing();
 		}
 		try {
+			if (nearRealTimeReopen) {
+				lifeIndexer.stopNearRealTimeReopen();
+				nearRealTimeReopen = false;
+			}
 			if (indexSearcherRefMgr != null) {
 				indexSearcherRefMgr.close();
 				indexSearcherRefMgr = null;
@@ -510,7 +526,9 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 			throw new ServiceNotAvailableException("Local search not available");
 		}
 		
-		indexSearcherRefMgr.maybeRefresh();
+		if(!nearRealTimeReopen) {
+			indexSearcherRefMgr.maybeRefresh();
+		}
 		return indexSearcherRefMgr.acquire();
 	}
 	
@@ -526,10 +544,41 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 	
 
 	private IndexSearcher newSearcher() throws IOException {
-		DirectoryReader classicReader = DirectoryReader.open(FSDirectory.open(new File(indexPath).toPath()));
-		DirectoryReader permanentReader = DirectoryReader.open(FSDirectory.open(new File(permanentIndexPath).toPath()));
-		OOMultiReader mReader = new OOMultiReader(classicReader, permanentReader);
-		return new IndexSearcher(mReader);
+		DirectoryReader classicReader = null;
+		DirectoryReader permanentReader = null;
+		try {
+			classicReader = openClassicReader();
+			permanentReader = openPermanentReader();
+			return newSearcher(classicReader, permanentReader);
+		} finally {
+			// the multi reader holds its own references
+			decRef(classicReader);
+			decRef(permanentReader);
+		}
+	}
+	
+	private static IndexSearcher newSearcher(DirectoryReader classicReader, DirectoryReader permanentReader)
+	throws IOException {
+		return new IndexSearcher(new OOMultiReader(classicReader, permanentReader));
+	}
+	
+	private DirectoryReader openClassicReader() throws IOException {
+		return DirectoryReader.open(FSDirectory.open(new File(indexPath).toPath()));
+	}
+	
+	private DirectoryReader openPermanentReader() throws IOException {
+		IndexWriter nearRealTimeWriter = lifeIndexer.getNearRealTimeWriter();
+		if(nearRealTimeWriter != null) {
+			// reopened from the writer by openIfChanged, without commit
+			return DirectoryReader.open(nearRealTimeWriter);
+		}
+		return DirectoryReader.open(FSDirectory.open(new File(permanentIndexPath).toPath()));
+	}
+	
+	private static void decRef(IndexReader reader) throws IOException {
+		if(reader != null) {
+			reader.decRef();
+		}
 	}
 
 	private static class OOMultiReader extends MultiReader {
@@ -537,8 +586,12 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 		private final DirectoryReader reader;
 		private final DirectoryReader permanentReader;
 		
+		/**
+		 * The multi reader increments the references of the sub readers and
+		 * decrements them when it's closed, the sub readers can be shared.
+		 */
 		public OOMultiReader(DirectoryReader reader, DirectoryReader permanentReader) throws IOException {
-			super(reader, permanentReader);
+			super(new IndexReader[] { reader, permanentReader }, false);
 			this.reader = reader;
 			this.permanentReader = permanentReader;
 		}
@@ -576,20 +629,29 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 		@Override
 		protected IndexSearcher refreshIfNeeded(IndexSearcher referenceToRefresh)
 		throws IOException {
-		    IndexSearcher searcher;
-		    if(refresh.getAndSet(false)) {
-		    	searcher = getSearcher(factory);
-		    } else {
-		    	final OOMultiReader r = (OOMultiReader)referenceToRefresh.getIndexReader();
-		    	final IndexReader newReader = DirectoryReader.openIfChanged(r.getReader());
-		    	final IndexReader newPermReader = DirectoryReader.openIfChanged(r.getPermanentReader());  
-		    	if (newReader == null && newPermReader == null) {
-		    		searcher = null;
-		    	} else {
-			    	searcher = getSearcher(factory);
-			    }
-		    }
-		    return searcher;
+			final OOMultiReader r = (OOMultiReader)referenceToRefresh.getIndexReader();
+			DirectoryReader newReader = null;
+			DirectoryReader newPermReader = null;
+			try {
+				if(refresh.getAndSet(false)) {
+					// a new full index was moved in place
+					newReader = factory.openClassicReader();
+				} else {
+					newReader = DirectoryReader.openIfChanged(r.getReader());
+				}
+				newPermReader = DirectoryReader.openIfChanged(r.getPermanentReader());
+				if (newReader == null && newPermReader == null) {
+					return null;
+				}
+				// the unchanged reader is shared with the current searcher
+				return newSearcher(newReader == null ? r.getReader() : newReader,
+						newPermReader == null ? r.getPermanentReader() : newPermReader);
+			} finally {
+				// the new searcher holds its own references, the readers of
+				// the current searcher are released with it by decRef
+				decRef(newReader);
+				decRef(newPermReader);
+			}
 		}
 
 		@Override
@@ -32,6 +32,7 @@ import org.olat.search.SearchServiceStatus;
 import org.olat.search.service.indexer.FullIndexerStatus;
 import org.olat.search.service.indexer.Index;
 import org.olat.search.service.indexer.LifeFullIndexer;
+import org.olat.search.service.indexer.NRTIndexMetrics;
 
 /**
  * Collection of search-service states. Includes state of full-index, index and search.
@@ -42,6 +43,8 @@ public class SearchServiceStatusImpl implements SearchServiceStatus {
 	
 	private final FullIndexerStatus fullIndexerStatus;
 	private final FullIndexerStatus lifeIndexerStatus;
+	private final boolean nearRealTime;
+	private final NRTIndexMetrics nearRealTimeMetrics;
 	
 	private boolean indexExists; 
 	private long queryCount;
@@ -57,6 +60,8 @@ public class SearchServiceStatusImpl implements SearchServiceStatus {
 	public SearchServiceStatusImpl(Index indexer, LifeFullIndexer lifeIndexer, SearchService search) {
 		fullIndexerStatus = indexer.getFullIndexStatus();
 		lifeIndexerStatus = lifeIndexer.getStatus();
+		nearRealTime = lifeIndexer.getNearRealTimeWriter() != null;
+		nearRealTimeMetrics = lifeIndexer.getNearRealTimeMetrics();
 		indexExists = indexer.existIndex();
 		queryCount = search.getQueryCount();
 	}
@@ -89,6 +94,20 @@ public class SearchServiceStatusImpl implements SearchServiceStatus {
 		return lifeIndexerStatus;
 	}
 
+	/**
+	 * @return TRUE if the permanent index is updated in near real-time
+	 */
+	public boolean isNearRealTime() {
+		return nearRealTime;
+	}
+	
+	/**
+	 * @return The refresh latency and the index lag of the near real-time index
+	 */
+	public NRTIndexMetrics getNearRealTimeMetrics() {
+		return nearRealTimeMetrics;
+	}
+
 	@Override
 	public Date getLastFullIndexTime() {
 		long fullTime = fullIndexerStatus.getLastFullIndexTime();
@@ -0,0 +1,147 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.FileUtils;
+
+/**
+ * The progress of a parallel full index. Every subtree of the main indexer
+ * is written in its own directory and marked as done when its writer is
+ * committed. An interrupted full index resumes with the subtrees which
+ * are not done.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class FullIndexerCheckpoint {
+	
+	private static final Logger log = Tracing.createLoggerFor(FullIndexerCheckpoint.class);
+	
+	private static final String CHECKPOINT_FILENAME = "checkpoint.properties";
+	private static final String STARTED = "started";
+	private static final String DONE_PREFIX = "done.";
+	
+	private final File partsDir;
+	private final Properties properties;
+	
+	private FullIndexerCheckpoint(File partsDir, Properties properties) {
+		this.partsDir = partsDir;
+		this.properties = properties;
+	}
+	
+	/**
+	 * Load the checkpoint of the last run if it's younger than the
+	 * specified age, or start a new one and delete the parts of the
+	 * last run.
+	 * 
+	 * @param partsDir The directory of the parts of the index
+	 * @param maxAge The maximum age in milliseconds of a checkpoint to resume
+	 * @return The checkpoint
+	 */
+	public static FullIndexerCheckpoint load(File partsDir, long maxAge) {
+		File file = new File(partsDir, CHECKPOINT_FILENAME);
+		if(file.exists()) {
+			Properties properties = new Properties();
+			try(InputStream in = Files.newInputStream(file.toPath())) {
+				properties.load(in);
+				long started = Long.parseLong(properties.getProperty(STARTED, "0"));
+				if(started + maxAge > System.currentTimeMillis()) {
+					return new FullIndexerCheckpoint(partsDir, properties);
+				}
+				log.info("Full index checkpoint of {} is too old", started);
+			} catch (IOException | NumberFormatException e) {
+				log.warn("Cannot read the full index checkpoint", e);
+			}
+		}
+		
+		FileUtils.deleteDirsAndFiles(partsDir, true, false);
+		partsDir.mkdirs();
+		Properties properties = new Properties();
+		properties.setProperty(STARTED, Long.toString(System.currentTimeMillis()));
+		FullIndexerCheckpoint checkpoint = new FullIndexerCheckpoint(partsDir, properties);
+		checkpoint.save();
+		return checkpoint;
+	}
+	
+	public File getPartDirectory(String name) {
+		return new File(partsDir, name);
+	}
+	
+	public synchronized boolean isDone(String name) {
+		return properties.containsKey(DONE_PREFIX + name);
+	}
+	
+	/**
+	 * @param name The name of the subtree
+	 * @return The number of documents of the subtree when it's done, or -1
+	 */
+	public synchronized int getDocumentCount(String name) {
+		String count = properties.getProperty(DONE_PREFIX + name);
+		return count == null ? -1 : Integer.parseInt(count);
+	}
+	
+	/**
+	 * Mark a subtree as done, its part of the index must be committed.
+	 * 
+	 * @param name The name of the subtree
+	 * @param documentCount The number of documents in its part of the index
+	 */
+	public synchronized void markDone(String name, int documentCount) {
+		properties.setProperty(DONE_PREFIX + name, Integer.toString(documentCount));
+		save();
+	}
+	
+	/**
+	 * Delete the checkpoint and the parts of the index, the next run
+	 * starts from zero.
+	 */
+	public synchronized void clear() {
+		properties.clear();
+		FileUtils.deleteDirsAndFiles(partsDir, true, true);
+	}
+	
+	private void save() {
+		// write and move to never leave a truncated checkpoint
+		File file = new File(partsDir, CHECKPOINT_FILENAME);
+		File tmpFile = new File(partsDir, CHECKPOINT_FILENAME + ".tmp");
+		try(OutputStream out = Files.newOutputStream(tmpFile.toPath())) {
+			properties.store(out, "Full index checkpoint");
+		} catch (IOException e) {
+			log.error("Cannot write the full index checkpoint", e);
+			return;
+		}
+		
+		try {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.error("Cannot write the full index checkpoint", e);
+		}
+	}
+}
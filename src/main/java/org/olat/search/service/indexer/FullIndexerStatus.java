@@ -49,6 +49,7 @@ public class FullIndexerStatus {
 	private String status = STATUS_STOPPED;
 	
 	private int documentCount = 0;
+	private long documentChars = 0l;
 	private int indexSize = 0;
 	private int indexPerMinute = 0;
 	private int[] partDocumentCounters;
@@ -130,6 +131,7 @@ public class FullIndexerStatus {
 		fullIndexStartedAt = System.currentTimeMillis();
 		setStatus(STATUS_RUNNING);
 		setDocumentCount(0);//Reset FullIndex-DocumentCounter
+		documentChars = 0l;
 		resetAllDocumentCounters();
 	}
 
@@ -164,9 +166,48 @@ public class FullIndexerStatus {
 		this.documentCount = documentCount;
 	}
 	
-	public void incrementDocumentCount() {
+	public synchronized void incrementDocumentCount() {
 		documentCount++;
 	}
+	
+	/**
+	 * Count an indexed document and its size.
+	 * 
+	 * @param chars The number of characters of the text of the document
+	 */
+	public synchronized void incrementDocumentCount(long chars) {
+		documentCount++;
+		documentChars += chars;
+	}
+	
+	public long getDocumentChars() {
+		return documentChars;
+	}
+	
+	/**
+	 * @return The number of indexed documents per second of the running
+	 * 		or of the last full index
+	 */
+	public long getDocumentsPerSecond() {
+		return perSecond(documentCount);
+	}
+	
+	/**
+	 * @return The number of characters of the indexed documents per second
+	 * 		of the running or of the last full index
+	 */
+	public long getCharactersPerSecond() {
+		return perSecond(documentChars);
+	}
+	
+	private long perSecond(long value) {
+		if(fullIndexStartedAt <= 0) return 0l;
+		
+		long end = STATUS_RUNNING.equals(status) || lastFullIndexTime < fullIndexStartedAt
+				? System.currentTimeMillis() : lastFullIndexTime;
+		long duration = end - fullIndexStartedAt;
+		return duration <= 0 ? 0l : (value * 1000l) / duration;
+	}
 
 	public void setIndexSize(int indexSize) {
 		this.indexSize  = indexSize;
@@ -227,7 +268,7 @@ public class FullIndexerStatus {
 	}
 
 
-	public void addDocumentCount(int docCount) {
+	public synchronized void addDocumentCount(int docCount) {
 		documentCount += docCount;
 	}
 
@@ -100,6 +100,20 @@ public class IndexWriterHolder {
 		}
 	}
 	
+	/**
+	 * Commit the changes of the writer if it is open.
+	 */
+	public synchronized void commit() {
+		IndexWriter indexWriter = writerRef;
+		if(indexWriter != null && indexWriter.isOpen() && indexWriter.hasUncommittedChanges()) {
+			try {
+				indexWriter.commit();
+			} catch (IOException e) {
+				log.error("", e);
+			}
+		}
+	}
+	
 	public synchronized void close() {
 		IndexWriter indexWriter = writerRef;
 		if(indexWriter != null) {
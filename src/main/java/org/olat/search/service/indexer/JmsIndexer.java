@@ -24,6 +24,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.jms.ConnectionFactory;
 import javax.jms.DeliveryMode;
@@ -42,16 +45,15 @@ import org.apache.logging.log4j.Logger;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.index.LogDocMergePolicy;
 import org.apache.lucene.index.LogMergePolicy;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
 import org.apache.lucene.search.IndexSearcher;
-import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.olat.core.commons.persistence.DBFactory;
@@ -81,11 +83,17 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	private CoordinatorManager coordinatorManager;
 
 	private String permanentIndexPath;
-	private DirectoryReader reader;
 	private IndexWriterHolder permanentIndexWriter;
 	
 	private double ramBufferSizeMB;
 	private boolean indexingNode;
+	
+	private final boolean nearRealTime;
+	private final long nearRealTimeCommitInterval;
+	private IndexWriter nearRealTimeWriter;
+	private ScheduledExecutorService nearRealTimeCommitter;
+	private ControlledRealTimeReopenThread<IndexSearcher> nearRealTimeReopenThread;
+	private final NRTIndexMetrics nearRealTimeMetrics = new NRTIndexMetrics();
 
 	private FullIndexerStatus fullIndexerStatus;
 
@@ -95,6 +103,8 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 		indexingNode = searchModuleConfig.isSearchServiceEnabled();
 		ramBufferSizeMB = searchModuleConfig.getRAMBufferSizeMB();
 		permanentIndexPath = searchModuleConfig.getFullPermanentIndexPath();
+		nearRealTime = indexingNode && searchModuleConfig.isNearRealTime();
+		nearRealTimeCommitInterval = searchModuleConfig.getNearRealTimeCommitInterval();
 		fullIndexerStatus = new FullIndexerStatus(0);
 		this.coordinatorManager = coordinatorManager;
 	}
@@ -188,13 +198,65 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 					IndexerEvent event = new IndexerEvent(IndexerEvent.INDEX_CREATED);
 					coordinatorManager.getCoordinator().getEventBus().fireEventToListenersOf(event, IndexerEvent.INDEX_ORES);
 				}
+				if(nearRealTime) {
+					initNearRealTime();
+				}
 			}
-			reader = DirectoryReader.open(indexPath);
 		} catch (IOException e) {
 			log.error("", e);
 		}
 	}
 	
+	/**
+	 * The writer stays open (and locked) to feed the near real-time readers,
+	 * the changes are committed periodically.
+	 */
+	private void initNearRealTime() throws IOException {
+		nearRealTimeWriter = permanentIndexWriter.getAndLock();
+		nearRealTimeCommitter = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "oo-search-nrt-commit");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = Math.max(1000l, nearRealTimeCommitInterval);
+		nearRealTimeCommitter.scheduleWithFixedDelay(permanentIndexWriter::commit, interval, interval, TimeUnit.MILLISECONDS);
+		log.info("Near real-time indexing enabled (commit every {}ms)", interval);
+	}
+	
+	@Override
+	public IndexWriter getNearRealTimeWriter() {
+		return nearRealTimeWriter;
+	}
+
+	@Override
+	public NRTIndexMetrics getNearRealTimeMetrics() {
+		return nearRealTimeMetrics;
+	}
+	
+	@Override
+	public synchronized boolean startNearRealTimeReopen(ReferenceManager<IndexSearcher> searcherManager, double maxStaleSec) {
+		if(nearRealTimeWriter == null) {
+			return false;
+		}
+		stopNearRealTimeReopen();
+		searcherManager.addListener(nearRealTimeMetrics);
+		nearRealTimeReopenThread = new ControlledRealTimeReopenThread<>(nearRealTimeWriter, searcherManager, maxStaleSec, 0.0d);
+		nearRealTimeReopenThread.setName("oo-search-nrt-reopen");
+		nearRealTimeReopenThread.setDaemon(true);
+		nearRealTimeReopenThread.start();
+		log.info("Near real-time searcher refreshed every {}s", maxStaleSec);
+		return true;
+	}
+	
+	@Override
+	public synchronized void stopNearRealTimeReopen() {
+		if(nearRealTimeReopenThread != null) {
+			// wait the end of a running refresh
+			nearRealTimeReopenThread.close();
+			nearRealTimeReopenThread = null;
+		}
+	}
+	
 	public LogMergePolicy newLogMergePolicy() {
 		LogMergePolicy logmp = new LogDocMergePolicy();
 		logmp.setCalibrateSizeByDeletes(true);
@@ -238,6 +300,13 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	}
 	
 	public void closeWriter() {
+		// the readers are reopened from the writer
+		stopNearRealTimeReopen();
+		if(nearRealTimeCommitter != null) {
+			nearRealTimeCommitter.shutdownNow();
+			nearRealTimeCommitter = null;
+		}
+		nearRealTimeWriter = null;
 		try {
 			permanentIndexWriter.close();
 		} catch (Exception e) {
@@ -319,6 +388,7 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 			for(LifeIndexer indexer:lifeIndexers) {
 				indexer.indexDocument(workUnit.getKeyList(), this);
 			}
+			updated(type, workUnit.getKeyList());
 		}
 	}
 	
@@ -333,23 +403,16 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 					}
 				}
 			}
+			updated(type, workUnit.getKeyList());
 		}
 	}
 	
-	private DirectoryReader getReader() throws IOException {
-		if(reader == null) {
-			File tempIndexDir = new File(permanentIndexPath);
-			Directory indexPath = FSDirectory.open(tempIndexDir.toPath());
-			reader = DirectoryReader.open(indexPath);
-		} else {
-			DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
-			if(newReader != null) {
-				reader = newReader;
-			}
+	private void updated(String type, List<Long> keyList) {
+		if(nearRealTime) {
+			nearRealTimeMetrics.updated(type, keyList == null ? 0 : keyList.size());
 		}
-		return reader;
 	}
-
+	
 	@Override
 	public IndexWriter getAndLockWriter() throws IOException {
 		return permanentIndexWriter.getAndLock();
@@ -375,7 +438,9 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	}
 	
 	/**
-	 * Add or update a lucene document in the permanent index.
+	 * Add or update a lucene document in the permanent index. The update
+	 * replaces the documents with the same resource URL or adds the document
+	 * if there is none, the changes which are not committed yet included.
 	 * @param uuid
 	 * @param document
 	 */
@@ -385,20 +450,10 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 		
 		IndexWriter writer = null;
 		try {
-			DirectoryReader currentReader = getReader();
-			IndexSearcher searcher = new IndexSearcher(currentReader);
 			writer = permanentIndexWriter.getAndLock();
-			
 			for(Document document:documents) {
 				if(document != null) {
-					String resourceUrl = document.get(AbstractOlatDocument.RESOURCEURL_FIELD_NAME);
-					Term uuidTerm = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl);
-					TopDocs hits = searcher.search(new TermQuery(uuidTerm), 10);
-					if(hits.totalHits > 0) {
-						writer.updateDocument(uuidTerm, document);
-					} else {
-						writer.addDocument(document);
-					}
+					updateDocument(document, writer);
 				}
 			}
 		} catch (IOException e) {
@@ -411,18 +466,15 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	@Override
 	public void addDocument(Document document, IndexWriter writer) {
 		try {
-			String resourceUrl = document.get(AbstractOlatDocument.RESOURCEURL_FIELD_NAME);
-			Term uuidTerm = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl);
-			DirectoryReader currentReader = getReader();
-			IndexSearcher searcher = new IndexSearcher(currentReader);
-			TopDocs hits = searcher.search(new TermQuery(uuidTerm), 10);
-			if(hits.totalHits > 0) {
-				writer.updateDocument(uuidTerm, document);
-			} else {
-				writer.addDocument(document);
-			}
+			updateDocument(document, writer);
 		} catch (IOException e) {
 			log.error("", e);
 		}
 	}
+	
+	private void updateDocument(Document document, IndexWriter writer) throws IOException {
+		String resourceUrl = document.get(AbstractOlatDocument.RESOURCEURL_FIELD_NAME);
+		Term uuidTerm = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl);
+		writer.updateDocument(uuidTerm, document);
+	}
 }
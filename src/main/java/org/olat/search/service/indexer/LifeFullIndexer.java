@@ -24,6 +24,8 @@ import java.util.List;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
 
 /**
  * 
@@ -95,5 +97,31 @@ public interface LifeFullIndexer {
 	 * @param resourceUrl
 	 */
 	public void deleteDocument(String resourceUrl);
+	
+	/**
+	 * @return The writer of the permanent index if the near real-time mode
+	 * 		is enabled, or null
+	 */
+	public IndexWriter getNearRealTimeWriter();
+	
+	/**
+	 * @return The metrics of the near real-time index
+	 */
+	public NRTIndexMetrics getNearRealTimeMetrics();
+	
+	/**
+	 * Refresh periodically the searchers of the manager from the near
+	 * real-time writer, until the writer is closed.
+	 * 
+	 * @param searcherManager The searcher manager to refresh
+	 * @param maxStaleSec The maximum time in seconds before a change is searchable
+	 * @return true if the near real-time mode is enabled and the refresh started
+	 */
+	public boolean startNearRealTimeReopen(ReferenceManager<IndexSearcher> searcherManager, double maxStaleSec);
+	
+	/**
+	 * Stop refreshing the searchers from the near real-time writer.
+	 */
+	public void stopNearRealTimeReopen();
 
 }
@@ -0,0 +1,151 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.lucene.search.ReferenceManager.RefreshListener;
+
+/**
+ * Metrics of the near real-time index: the number of updated documents
+ * per type, the latency of the refreshes of the searcher and the lag
+ * between an update of the index and the refresh which makes it visible
+ * to the searches.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class NRTIndexMetrics implements RefreshListener {
+	
+	private final Map<String,LongAdder> updatedDocuments = new ConcurrentHashMap<>();
+	
+	/** Time of the first update not yet visible, 0 if none */
+	private final AtomicLong firstPendingUpdate = new AtomicLong(0l);
+	private volatile long refreshStart;
+	
+	private final AtomicLong refreshCount = new AtomicLong(0l);
+	private final AtomicLong totalRefreshTime = new AtomicLong(0l);
+	private volatile long lastRefreshTime;
+	private volatile long maxRefreshTime;
+	private volatile long lastIndexLag;
+	private volatile long maxIndexLag;
+	
+	/**
+	 * Record an update of the index.
+	 * 
+	 * @param type The type of the indexer
+	 * @param numOfDocuments The number of documents added, updated or deleted
+	 */
+	public void updated(String type, int numOfDocuments) {
+		updatedDocuments.computeIfAbsent(type, t -> new LongAdder()).add(numOfDocuments);
+		firstPendingUpdate.compareAndSet(0l, System.nanoTime());
+	}
+
+	@Override
+	public void beforeRefresh() {
+		refreshStart = System.nanoTime();
+	}
+
+	@Override
+	public void afterRefresh(boolean didRefresh) {
+		long now = System.nanoTime();
+		long duration = now - refreshStart;
+		refreshCount.incrementAndGet();
+		totalRefreshTime.addAndGet(duration);
+		lastRefreshTime = duration;
+		if(duration > maxRefreshTime) {
+			maxRefreshTime = duration;
+		}
+		
+		if(didRefresh) {
+			// only the updates done before the refresh started are visible
+			long pending = firstPendingUpdate.get();
+			if(pending != 0l && pending - refreshStart <= 0
+					&& firstPendingUpdate.compareAndSet(pending, 0l)) {
+				long lag = now - pending;
+				lastIndexLag = lag;
+				if(lag > maxIndexLag) {
+					maxIndexLag = lag;
+				}
+			}
+		}
+	}
+	
+	public long getRefreshCount() {
+		return refreshCount.get();
+	}
+	
+	/**
+	 * @return The duration of the last refresh in milliseconds
+	 */
+	public long getLastRefreshLatency() {
+		return toMillis(lastRefreshTime);
+	}
+	
+	/**
+	 * @return The average duration of the refreshes in milliseconds
+	 */
+	public long getAverageRefreshLatency() {
+		long count = refreshCount.get();
+		return count == 0l ? 0l : toMillis(totalRefreshTime.get() / count);
+	}
+	
+	public long getMaxRefreshLatency() {
+		return toMillis(maxRefreshTime);
+	}
+	
+	/**
+	 * @return The time in milliseconds the last visible update waited for a refresh
+	 */
+	public long getLastIndexLag() {
+		return toMillis(lastIndexLag);
+	}
+	
+	public long getMaxIndexLag() {
+		return toMillis(maxIndexLag);
+	}
+	
+	/**
+	 * @return The time in milliseconds since the oldest update which is not
+	 * 		visible to the searches, 0 if all updates are visible
+	 */
+	public long getCurrentIndexLag() {
+		long pending = firstPendingUpdate.get();
+		return pending == 0l ? 0l : toMillis(System.nanoTime() - pending);
+	}
+	
+	/**
+	 * @return The number of updated documents per type of indexer
+	 */
+	public Map<String,Long> getUpdatedDocuments() {
+		Map<String,Long> copy = new HashMap<>();
+		updatedDocuments.forEach((type, counter) -> copy.put(type, counter.sum()));
+		return copy;
+	}
+	
+	private static long toMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+}
@@ -33,16 +33,25 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Phaser;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -51,6 +60,7 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.index.LogDocMergePolicy;
@@ -79,6 +89,7 @@ public class OlatFullIndexer {
 	private static final int MAX_WAITING_COUNT = 600;// = 10Min
 	private static final IndexerThreadFactory indexWriterThreadFactory = new IndexerThreadFactory("writer");
 	private static final IndexerThreadFactory indexWorkersThreadFactory = new IndexerThreadFactory("worker");
+	private static final IndexerThreadFactory indexSubtreesThreadFactory = new IndexerThreadFactory("subtree");
 
 	private String indexPath;
 	private String tempIndexPath;
@@ -90,13 +101,18 @@ public class OlatFullIndexer {
 	private IndexWriter indexWriter;
 
 	/** Flag to stop indexing. */
-	private boolean stopIndexing;
+	private volatile boolean stopIndexing;
   /** When restartIndexingWhenFinished is true, the restart interval in ms can be set. */
 	private long indexInterval = 500;
 
 	private double ramBufferSizeMB;
 	
 	private final int indexerPoolSize;
+	/** Number of subtrees indexed in parallel, 1 for the single writer mode */
+	private final int parallelWriters;
+	private final long checkpointMaxAge;
+	/** The subtree indexed by the current thread in parallel mode */
+	private final ThreadLocal<Subtree> currentSubtree = new ThreadLocal<>();
 	
 	/** Current status of full-indexer. */
 	private FullIndexerStatus fullIndexerStatus;
@@ -141,6 +157,8 @@ public class OlatFullIndexer {
 		} else {
 			indexerPoolSize = searchModule.getFolderPoolSize() - 1;
 		}
+		parallelWriters = Math.max(1, searchModule.getParallelWriters());
+		checkpointMaxAge = searchModule.getCheckpointMaxAge();
 		indexPath = searchModule.getFullIndexPath();
 		tempIndexPath = searchModule.getFullTempIndexPath();
 		indexInterval = searchModule.getIndexInterval();
@@ -232,6 +250,10 @@ public class OlatFullIndexer {
 				indexerExecutor = new ThreadPoolExecutor(indexerPoolSize, indexerPoolSize, 0L, TimeUnit.MILLISECONDS,
 						queue, indexWorkersThreadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
 			}
+			if(parallelWriters > 1) {
+				doIndexParallel();
+				return;
+			}
 			if(indexerWriterExecutor == null) {
 				BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>(2);
 				indexerWriterExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, queue, indexWriterThreadFactory);
@@ -284,8 +306,87 @@ public class OlatFullIndexer {
 		}
 	}
 	
+	/**
+	 * Index the subtrees of the main indexer in parallel, each with its own
+	 * writer and directory. A subtree is marked as done in the checkpoint when
+	 * its writer is committed, an interrupted run resumes with the subtrees
+	 * which are not done. At the end, the parts are merged in the new index.
+	 * 
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private void doIndexParallel() throws IOException, InterruptedException {
+		searchService.refresh();// make sure all is up-to-date
+		
+		File tempIndexDir = new File(tempIndexPath);
+		FullIndexerCheckpoint checkpoint = FullIndexerCheckpoint.load(new File(tempIndexDir, "parts"), checkpointMaxAge);
+		
+		List<Indexer> indexers = mainIndexer.getChildIndexers();
+		List<String> names = new ArrayList<>(indexers.size());
+		List<Future<Boolean>> futures = new ArrayList<>(indexers.size());
+		ExecutorService subtreesExecutor = Executors.newFixedThreadPool(parallelWriters, indexSubtreesThreadFactory);
+		try {
+			for(int i=0; i<indexers.size(); i++) {
+				Indexer indexer = indexers.get(i);
+				String name = i + "_" + indexer.getClass().getSimpleName();
+				names.add(name);
+				if(checkpoint.isDone(name)) {
+					int documentCount = checkpoint.getDocumentCount(name);
+					fullIndexerStatus.addDocumentCount(documentCount);
+					log.info("Resume full index, subtree {} already done with {} documents", name, documentCount);
+				} else {
+					futures.add(subtreesExecutor.submit(new SubtreeCallable(name, indexer, checkpoint)));
+				}
+			}
+			
+			boolean allDone = true;
+			for(Future<Boolean> future:futures) {
+				try {
+					allDone &= Boolean.TRUE.equals(future.get());
+				} catch (ExecutionException e) {
+					log.error("", e);
+					allDone = false;
+				}
+			}
+			if(!allDone || stopIndexing) {
+				throw new InterruptedException("Full index interrupted, it will resume with the subtrees not done");
+			}
+		} finally {
+			subtreesExecutor.shutdownNow();
+		}
+		
+		log.info("Merge the {} parts of the index", names.size());
+		List<Directory> parts = new ArrayList<>(names.size());
+		Directory tmpIndexPath = FSDirectory.open(new File(tempIndexDir, "main").toPath());
+		try(IndexWriter writer = new IndexWriter(tmpIndexPath, newIndexWriterConfig())) {
+			writer.deleteAll();
+			for(String name:names) {
+				parts.add(FSDirectory.open(checkpoint.getPartDirectory(name).toPath()));
+			}
+			writer.addIndexes(parts.toArray(new Directory[parts.size()]));
+			writer.commit();
+			fullIndexerStatus.setIndexSize(writer.maxDoc());
+		} finally {
+			for(Directory part:parts) {
+				part.close();
+			}
+		}
+		checkpoint.clear();
+	}
+	
 	public Future<Boolean> submit(Callable<Boolean> task) {
 		if(indexerExecutor != null && !indexerExecutor.isShutdown()) {
+			Subtree subtree = currentSubtree.get();
+			if(subtree != null) {
+				SubtreeTask subtreeTask = new SubtreeTask(subtree, task);
+				subtree.register(subtreeTask);
+				try {
+					return indexerExecutor.submit(subtreeTask);
+				} catch (RuntimeException e) {
+					subtreeTask.arrive();
+					throw e;
+				}
+			}
 			return indexerExecutor.submit(task);
 		} else {
 			log.error("Try to submit a task to index executor but it's closed.");
@@ -315,6 +416,8 @@ public class OlatFullIndexer {
 			log.info("full indexing summary: started:           "+status.getFullIndexStartedAt());
 			log.info("full indexing summary: counter:           "+status.getDocumentCount());
 			log.info("full indexing summary: index.per.minute:  "+status.getIndexPerMinute());
+			log.info("full indexing summary: docs.per.second:   "+status.getDocumentsPerSecond());
+			log.info("full indexing summary: chars.per.second:  "+status.getCharactersPerSecond());
 			log.info("full indexing summary: finished:          "+status.getLastFullIndexDateString());
 			log.info("full indexing summary: time:              "+status.getIndexingTime()+" ms");
 			log.info("full indexing summary: size:              "+status.getIndexSize());
@@ -355,7 +458,10 @@ public class OlatFullIndexer {
 	public void addDocument(Document document) throws InterruptedException {
 		DBFactory.getInstance().commitAndCloseSession();
 		
-		if (!stopIndexing && indexerWriterExecutor != null && !indexerWriterExecutor.isShutdown()) {
+		Subtree subtree = currentSubtree.get();
+		if (subtree != null) {
+			addDocument(subtree, document);
+		} else if (!stopIndexing && indexerWriterExecutor != null && !indexerWriterExecutor.isShutdown()) {
 			synchronized(indexerWriterBlock) {//once at a time please, wait, you have enough time
 				Future<Boolean> future = indexerWriterExecutor.submit(new AddDocumentCallable(document));
 				try {
@@ -372,28 +478,50 @@ public class OlatFullIndexer {
 		fullIndexerStatus.setNumberRunningFolderIndexer(indexerExecutor.getActiveCount());
 	}
 	
+	/**
+	 * Lucene's writer is thread-safe, the documents of a subtree are
+	 * added directly by the thread which extracted them.
+	 */
+	private void addDocument(Subtree subtree, Document document) throws InterruptedException {
+		if (stopIndexing || subtree.isAborted()) {
+			throw new InterruptedException("Do stop indexing at subtree=" + subtree.getName());
+		}
+		
+		try {
+			subtree.getWriter().addDocument(document);
+			subtree.incrementDocumentCount();
+			fullIndexerStatus.incrementDocumentCount(getDocumentSize(document));
+		} catch (IOException e) {
+			log.error("", e);
+		}
+	}
+	
+	/**
+	 * @return The number of characters of the text fields of the document
+	 */
+	private static long getDocumentSize(Document document) {
+		long size = 0l;
+		for(IndexableField field:document) {
+			String value = field.stringValue();
+			if(value != null) {
+				size += value.length();
+			}
+		}
+		return size;
+	}
+	
 	private void incrementFileTypeCounter(Document document) {
 		String fileType = document.get(OlatDocument.FILETYPE_FIELD_NAME);
 		if ( (fileType != null) && (!fileType.equals(""))) {
-			int intValue = 0;
-			if (fileTypeCounters.containsKey(fileType)) {
-			  Integer fileCounter = fileTypeCounters.get(fileType);
-			  intValue = fileCounter.intValue();
-			}
-			intValue++;
-			fileTypeCounters.put(fileType, Integer.valueOf(intValue));
+			fileTypeCounters.merge(fileType, Integer.valueOf(1), Integer::sum);
 		}
 	}
 
 	private void incrementDocumentTypeCounter(Document document) {
 		String documentType = document.get(OlatDocument.DOCUMENTTYPE_FIELD_NAME);
-		int intValue = 0;
-		if (documentCounters.containsKey(documentType)) {
-		  Integer docCounter = documentCounters.get(documentType);
-		  intValue = docCounter.intValue();
+		if (documentType != null) {
+			documentCounters.merge(documentType, Integer.valueOf(1), Integer::sum);
 		}
-		intValue++;
-		documentCounters.put(documentType, Integer.valueOf(intValue));
 	}
 
 	private void countIndexPerMinute() {
@@ -467,7 +595,7 @@ public class OlatFullIndexer {
 		@Override
 		public Boolean call() throws Exception {
 			indexWriter.addDocument(document);
-			fullIndexerStatus.incrementDocumentCount();
+			fullIndexerStatus.incrementDocumentCount(getDocumentSize(document));
 			if (indexInterval != 0 && sleepDocumentCounter++ >= documentsPerInterval) {
 				sleepDocumentCounter = 0;
 				Thread.sleep(indexInterval);
@@ -479,6 +607,212 @@ public class OlatFullIndexer {
 		}
 	}
 	
+	private static class Subtree {
+		
+		private final String name;
+		private final IndexWriter writer;
+		/** The subtree thread and the folder indexers it submitted */
+		private final Phaser tasks = new Phaser(1);
+		private final Set<SubtreeTask> submittedTasks = new HashSet<>();
+		private final AtomicInteger documentCount = new AtomicInteger(0);
+		private volatile boolean aborted = false;
+		
+		public Subtree(String name, IndexWriter writer) {
+			this.name = name;
+			this.writer = writer;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public IndexWriter getWriter() {
+			return writer;
+		}
+
+		public Phaser getTasks() {
+			return tasks;
+		}
+		
+		public synchronized void register(SubtreeTask task) {
+			tasks.register();
+			submittedTasks.add(task);
+		}
+		
+		public synchronized void unregister(SubtreeTask task) {
+			submittedTasks.remove(task);
+		}
+		
+		public boolean isAborted() {
+			return aborted;
+		}
+		
+		/**
+		 * Stop the folder indexers of the subtree. The running ones stop at
+		 * their next document, the ones which are not started never run.
+		 */
+		public synchronized void abort() {
+			aborted = true;
+			for(SubtreeTask task:submittedTasks) {
+				task.skip();
+			}
+			submittedTasks.clear();
+		}
+		
+		public int getDocumentCount() {
+			return documentCount.get();
+		}
+		
+		public void incrementDocumentCount() {
+			documentCount.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Index a subtree of the main indexer in its own part of the index.
+	 */
+	private class SubtreeCallable implements Callable<Boolean> {
+		
+		private final String name;
+		private final Indexer indexer;
+		private final FullIndexerCheckpoint checkpoint;
+		
+		public SubtreeCallable(String name, Indexer indexer, FullIndexerCheckpoint checkpoint) {
+			this.name = name;
+			this.indexer = indexer;
+			this.checkpoint = checkpoint;
+		}
+
+		@Override
+		public Boolean call() throws Exception {
+			long start = System.currentTimeMillis();
+			File partDir = checkpoint.getPartDirectory(name);
+			try(Directory directory = FSDirectory.open(partDir.toPath())) {
+				IndexWriter writer = new IndexWriter(directory, newIndexWriterConfig());
+				writer.deleteAll();
+				
+				Subtree subtree = new Subtree(name, writer);
+				currentSubtree.set(subtree);
+				int phase = -1;
+				try {
+					indexer.doIndex(new SearchResourceContext(), null, OlatFullIndexer.this);
+					// wait until the folder indexers of the subtree are finished
+					phase = subtree.getTasks().arrive();
+					subtree.getTasks().awaitAdvanceInterruptibly(phase, 10, TimeUnit.MINUTES);
+				} catch (InterruptedException | TimeoutException e) {
+					log.info("Indexing of subtree {} interrupted", name);
+					rollback(subtree, phase);
+					return Boolean.FALSE;
+				} catch (Exception e) {
+					log.warn("Exception in doIndex of subtree={}, it will be indexed again", name, e);
+					rollback(subtree, phase);
+					return Boolean.FALSE;
+				} finally {
+					currentSubtree.remove();
+					DBFactory.getInstance().commitAndCloseSession();
+				}
+				
+				if(stopIndexing) {
+					writer.rollback();
+					return Boolean.FALSE;
+				}
+				writer.commit();
+				writer.close();
+				checkpoint.markDone(name, subtree.getDocumentCount());
+				log.info("Subtree {} indexed with {} documents in {}ms", name, subtree.getDocumentCount(),
+						(System.currentTimeMillis() - start));
+				return Boolean.TRUE;
+			}
+		}
+		
+		/**
+		 * Stop the folder indexers of the subtree and wait until the running
+		 * ones are finished before discarding the changes of the writer.
+		 * 
+		 * @param subtree The subtree
+		 * @param phase The phase of the tasks if the subtree thread already arrived, or -1
+		 */
+		private void rollback(Subtree subtree, int phase) {
+			subtree.abort();
+			Phaser tasks = subtree.getTasks();
+			if(phase < 0) {
+				phase = tasks.arrive();
+			}
+			
+			boolean interrupted = Thread.interrupted();
+			try {
+				tasks.awaitAdvanceInterruptibly(phase, 1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				interrupted = true;
+				log.warn("Interrupted while waiting the folder indexers of subtree {}", name);
+			} catch (TimeoutException e) {
+				log.warn("Folder indexers of subtree {} still running, rollback anyway", name);
+			}
+			
+			try {
+				subtree.getWriter().rollback();
+			} catch (IOException e) {
+				log.error("Cannot rollback the writer of subtree {}", name, e);
+			} finally {
+				if(interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Run a folder indexer in the context of the subtree which submitted it.
+	 */
+	private class SubtreeTask implements Callable<Boolean> {
+		
+		private final Subtree subtree;
+		private final Callable<Boolean> task;
+		private final AtomicBoolean started = new AtomicBoolean(false);
+		private final AtomicBoolean arrived = new AtomicBoolean(false);
+		
+		public SubtreeTask(Subtree subtree, Callable<Boolean> task) {
+			this.subtree = subtree;
+			this.task = task;
+		}
+		
+		/**
+		 * Prevent the task to run if it's not already started.
+		 */
+		public void skip() {
+			if(started.compareAndSet(false, true)) {
+				arrive();
+			}
+		}
+		
+		public void arrive() {
+			if(arrived.compareAndSet(false, true)) {
+				subtree.getTasks().arriveAndDeregister();
+			}
+		}
+
+		@Override
+		public Boolean call() throws Exception {
+			if(!started.compareAndSet(false, true)) {
+				return Boolean.FALSE;
+			}
+			
+			Subtree previous = currentSubtree.get();
+			currentSubtree.set(subtree);
+			try {
+				return task.call();
+			} finally {
+				if(previous == null) {
+					currentSubtree.remove();
+				} else {
+					currentSubtree.set(previous);
+				}
+				subtree.unregister(this);
+				arrive();
+			}
+		}
+	}
+	
 	private static class IndexerThreadFactory implements ThreadFactory {
 
 		private static final AtomicInteger poolNumber = new AtomicInteger(1);
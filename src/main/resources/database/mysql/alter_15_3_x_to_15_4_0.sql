@@ -1,2 +1,6 @@
 -- Appointments
 alter table o_ap_topic add column a_participation_visible bool default true not null;
+
+-- Cluster syncer leases
+alter table o_plock add column plock_lease_node bigint;
+alter table o_plock add column plock_lease_expiration datetime;
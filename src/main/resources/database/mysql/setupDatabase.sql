@@ -578,6 +578,8 @@ create table if not exists o_plock (
     version mediumint unsigned not null,
     creationdate datetime,
     asset varchar(255) not null unique,
+    plock_lease_node bigint,
+    plock_lease_expiration datetime,
     primary key (plock_id)
 );
 
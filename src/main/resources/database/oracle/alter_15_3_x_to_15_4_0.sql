@@ -1,2 +1,6 @@
 -- Appointments
 alter table o_ap_topic add a_participation_visible number default 1 not null;
+
+-- Cluster syncer leases
+alter table o_plock add plock_lease_node number(20);
+alter table o_plock add plock_lease_expiration date;
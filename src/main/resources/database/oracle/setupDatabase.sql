@@ -635,6 +635,8 @@ CREATE TABLE o_plock (
   version number(20) NOT NULL,
   creationdate date,
   asset varchar2(255 char) NOT NULL,
+  plock_lease_node number(20),
+  plock_lease_expiration date,
   CONSTRAINT u_o_plock UNIQUE (asset),
   PRIMARY KEY (plock_id)
 );
@@ -573,6 +573,8 @@ create table o_plock (
     version int4 not null,
     creationdate timestamp,
     asset varchar(255) not null unique,
+    plock_lease_node int8,
+    plock_lease_expiration timestamp,
     primary key (plock_id)
 );
 
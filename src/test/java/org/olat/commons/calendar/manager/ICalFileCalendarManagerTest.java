@@ -348,6 +348,79 @@ public class ICalFileCalendarManagerTest extends OlatTestCase {
 		Assert.assertTrue(allOk);
 	}
 	
+	/**
+	 * The changes are written in the journal, the whole calendar file
+	 * is written when the iCal file is requested, not when the calendar
+	 * is read for a feed.
+	 */
+	@Test
+	public void testJournalAndExport() {
+		Identity test = JunitTestHelper.createAndPersistIdentityAsRndUser("ical-journal-");
+		Kalendar cal = calendarManager.getPersonalCalendar(test).getKalendar();
+		
+		Date start = new Date();
+		KalendarEvent event1 = new KalendarEvent("id-journal-1", "Journal 1", start, 60 * 60 * 1000);
+		calendarManager.addEventTo(cal, event1);
+		KalendarEvent event2 = new KalendarEvent("id-journal-2", "Journal 2", start, 60 * 60 * 1000);
+		calendarManager.addEventTo(cal, event2);
+		KalendarEvent event3 = new KalendarEvent("id-journal-3", "Journal 3", start, 60 * 60 * 1000);
+		calendarManager.addEventTo(cal, event3);
+		calendarManager.removeEventFrom(cal, event2);
+		
+		File calendarFile = calendarManager.getCalendarFile(CalendarManager.TYPE_USER, test.getName());
+		File journalFile = new File(calendarFile.getParentFile(), calendarFile.getName() + ".journal");
+		Assert.assertTrue(journalFile.exists());
+		
+		// reload from the file and the journal
+		emptyCalendarCache();
+		Kalendar reloadedCal = calendarManager.getPersonalCalendar(test).getKalendar();
+		Assert.assertEquals(2, reloadedCal.size());
+		Assert.assertNotNull(reloadedCal.getEvent("id-journal-1", null));
+		Assert.assertNull(reloadedCal.getEvent("id-journal-2", null));
+		Assert.assertEquals("Journal 3", reloadedCal.getEvent("id-journal-3", null).getSubject());
+		
+		// the feed reads the changes of the journal without compacting it
+		Kalendar feedCal = calendarManager.createKalendar("TEST", "feed", calendarManager.readCalendar(CalendarManager.TYPE_USER, test.getName()));
+		Assert.assertEquals(2, feedCal.size());
+		Assert.assertNull(feedCal.getEvent("id-journal-2", null));
+		Assert.assertNotNull(feedCal.getEvent("id-journal-3", null));
+		Assert.assertTrue(journalFile.exists());
+		
+		// export compacts the journal
+		File icalFile = calendarManager.getCalendarICalFile(CalendarManager.TYPE_USER, test.getName());
+		Assert.assertNotNull(icalFile);
+		Assert.assertFalse(journalFile.exists());
+		Kalendar exportedCal = calendarManager.createKalendar("TEST", "export", calendarManager.readCalendar(icalFile));
+		Assert.assertEquals(2, exportedCal.size());
+		Assert.assertNotNull(exportedCal.getEvent("id-journal-3", null));
+	}
+	
+	@Test
+	public void testListEventsWithIndex() {
+		Kalendar kalendar = new Kalendar("test-index", CalendarManager.TYPE_USER);
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(2026, Calendar.MARCH, 2, 10, 0, 0);
+		Date longBegin = calendar.getTime();
+		kalendar.addEvent(new KalendarEvent("id-index-long", "Long", longBegin, 10 * 24 * 60 * 60 * 1000));
+		calendar.set(2026, Calendar.MARCH, 5, 10, 0, 0);
+		kalendar.addEvent(new KalendarEvent("id-index-short", "Short", calendar.getTime(), 60 * 60 * 1000));
+		calendar.set(2026, Calendar.APRIL, 5, 10, 0, 0);
+		kalendar.addEvent(new KalendarEvent("id-index-later", "Later", calendar.getTime(), 60 * 60 * 1000));
+		
+		calendar.set(2026, Calendar.MARCH, 8, 0, 0, 0);
+		Date from = calendar.getTime();
+		calendar.set(2026, Calendar.MARCH, 9, 0, 0, 0);
+		Date to = calendar.getTime();
+		List<KalendarEvent> events = calendarManager.getEvents(kalendar, from, to, true);
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals("id-index-long", events.get(0).getID());
+		
+		// the index is updated
+		kalendar.addEvent(new KalendarEvent("id-index-new", "New", from, 60 * 60 * 1000));
+		List<KalendarEvent> updatedEvents = calendarManager.getEvents(kalendar, from, to, true);
+		Assert.assertEquals(2, updatedEvents.size());
+	}
+	
 	@Test
 	public void testListEventsForPeriod() {
 		final int numEvents = 10000;
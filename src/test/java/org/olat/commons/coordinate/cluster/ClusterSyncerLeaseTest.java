@@ -0,0 +1,241 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.lock.pessimistic.PLock;
+import org.olat.core.commons.services.lock.pessimistic.PLockImpl;
+import org.olat.core.commons.services.lock.pessimistic.PessimisticLockManager;
+import org.olat.core.id.Identity;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.cluster.ClusterConfig;
+import org.olat.core.util.event.EventBus;
+import org.olat.core.util.event.GenericEventListener;
+import org.olat.core.util.event.MultiUserEvent;
+import org.olat.core.util.resource.OresHelper;
+
+/**
+ * Test the lease mode of the ClusterSyncer with some nodes which share
+ * the lock table and exchange their events on a receiver thread.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class ClusterSyncerLeaseTest {
+	
+	private static final OLATResourceable ASSET = OresHelper.createOLATResourceableInstance("SyncLease", 1l);
+	private static final OLATResourceable OTHER_ASSET = OresHelper.createOLATResourceableInstance("SyncLease", 2l);
+	
+	private final Map<String,PLock> plocks = new ConcurrentHashMap<>();
+	private final List<Node> nodes = new ArrayList<>();
+	
+	@After
+	public void shutdownNodes() {
+		for(Node node:nodes) {
+			node.gate.countDown();
+			node.receiver.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void acquireLease() {
+		Node node = createNode(1, 1024);
+		AtomicInteger executed = new AtomicInteger();
+		node.syncer.doInSync(ASSET, () -> { executed.incrementAndGet(); });
+		
+		PLock plock = getPLock(ASSET);
+		assertThat(executed.get()).isEqualTo(1);
+		assertThat(plock.getLeaseNodeId()).isEqualTo(1l);
+		assertThat(plock.getLeaseExpiration()).isInTheFuture();
+		
+		// the second time, the lease is enough
+		node.syncer.doInSync(ASSET, () -> { executed.incrementAndGet(); });
+		assertThat(executed.get()).isEqualTo(2);
+		assertThat(node.syncer.getDbSyncs()).isEqualTo(1);
+		assertThat(node.syncer.getLeaseSyncs()).isEqualTo(1);
+	}
+	
+	@Test
+	public void releaseLease() {
+		Node node = createNode(1, 1024);
+		node.syncer.doInSync(ASSET, () -> { });
+		assertThat(getPLock(ASSET).getLeaseNodeId()).isEqualTo(1l);
+		
+		// the node ignores its own events
+		node.syncer.event(new SyncLeaseEvent(SyncLeaseEvent.RELEASE, asset(ASSET), Long.valueOf(1l)));
+		assertThat(getPLock(ASSET).getLeaseNodeId()).isEqualTo(1l);
+		
+		node.syncer.event(new SyncLeaseEvent(SyncLeaseEvent.RELEASE, asset(ASSET), Long.valueOf(2l)));
+		assertThat(getPLock(ASSET).getLeaseNodeId()).isNull();
+		assertThat(node.syncer.getReleasedLeases()).isEqualTo(1);
+		
+		// the asset is contended, no new lease
+		node.syncer.doInSync(ASSET, () -> { });
+		assertThat(node.syncer.getDbSyncs()).isEqualTo(2);
+		assertThat(getPLock(ASSET).getLeaseNodeId()).isNull();
+	}
+	
+	@Test(timeout = 20000)
+	public void contention() {
+		Node node1 = createNode(1, 1024);
+		Node node2 = createNode(2, 1024);
+		node1.syncer.doInSync(ASSET, () -> { });
+		assertThat(getPLock(ASSET).getLeaseNodeId()).isEqualTo(1l);
+		
+		AtomicInteger executed = new AtomicInteger();
+		node2.syncer.doInSync(ASSET, () -> { executed.incrementAndGet(); });
+		
+		assertThat(executed.get()).isEqualTo(1);
+		assertThat(node2.syncer.getContentions()).isEqualTo(1);
+		assertThat(node1.syncer.getReleasedLeases()).isEqualTo(1);
+		// contended on both nodes, nobody takes a lease
+		assertThat(getPLock(ASSET).getLeaseNodeId()).isNull();
+		node1.syncer.doInSync(ASSET, () -> { });
+		assertThat(getPLock(ASSET).getLeaseNodeId()).isNull();
+	}
+	
+	/**
+	 * Two nodes wait each for the lease of the other, all the assets share
+	 * the same lock. The thread waiting a lease must not prevent the
+	 * receiver thread of its node to release the leases of the node.
+	 */
+	@Test(timeout = 20000)
+	public void contentionOnSharedLock() throws Exception {
+		Node node1 = createNode(1, 1);
+		Node node2 = createNode(2, 1);
+		node1.syncer.doInSync(ASSET, () -> { });
+		node2.syncer.doInSync(OTHER_ASSET, () -> { });
+		assertThat(getPLock(ASSET).getLeaseNodeId()).isEqualTo(1l);
+		assertThat(getPLock(OTHER_ASSET).getLeaseNodeId()).isEqualTo(2l);
+		
+		// node 1 holds back the release of the lease of ASSET
+		node1.gate = new CountDownLatch(1);
+		AtomicInteger executed = new AtomicInteger();
+		Thread waitingThread = new Thread(() -> node2.syncer.doInSync(ASSET, () -> { executed.incrementAndGet(); }));
+		waitingThread.start();
+		while(node2.syncer.getContentions() == 0) {
+			Thread.sleep(10);
+		}
+		
+		// node 2 waits for the lease of node 1 but can release its own lease
+		node1.syncer.doInSync(OTHER_ASSET, () -> { executed.incrementAndGet(); });
+		assertThat(executed.get()).isEqualTo(1);
+		assertThat(node2.syncer.getReleasedLeases()).isEqualTo(1);
+		
+		node1.gate.countDown();
+		waitingThread.join(10000);
+		assertThat(executed.get()).isEqualTo(2);
+		assertThat(node1.syncer.getReleasedLeases()).isEqualTo(1);
+	}
+	
+	private PLock getPLock(OLATResourceable ores) {
+		return plocks.get(asset(ores));
+	}
+	
+	private static String asset(OLATResourceable ores) {
+		return OresHelper.createStringRepresenting(ores);
+	}
+	
+	private Node createNode(int nodeId, int lockStripes) {
+		PessimisticLockManager lockManager = mock(PessimisticLockManager.class);
+		when(lockManager.findOrPersistPLock(anyString()))
+			.thenAnswer(invocation -> plocks.computeIfAbsent(invocation.getArgument(0), PLockImpl::new));
+		
+		ClusterConfig clusterConfig = new ClusterConfig();
+		clusterConfig.setNodeId(Integer.valueOf(nodeId));
+		
+		Node node = new Node();
+		ClusterSyncer syncer = new ClusterSyncer(lockManager);
+		syncer.setDbInstance(mock(DB.class));
+		syncer.setClusterConfig(clusterConfig);
+		syncer.setEventBus(new NodesEventBus());
+		syncer.setMode(ClusterSyncer.MODE_LEASE);
+		syncer.setLockStripes(lockStripes);
+		syncer.setLeaseWaitInterval(10l);
+		syncer.init();
+		node.syncer = syncer;
+		nodes.add(node);
+		return node;
+	}
+	
+	private static class Node {
+		
+		private ClusterSyncer syncer;
+		private volatile CountDownLatch gate = new CountDownLatch(0);
+		private final ExecutorService receiver = Executors.newSingleThreadExecutor();
+		
+		private void receive(MultiUserEvent event) {
+			CountDownLatch currentGate = gate;
+			receiver.execute(() -> {
+				try {
+					currentGate.await(10, TimeUnit.SECONDS);
+					syncer.event(event);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Send the events to all the nodes, the sender included.
+	 */
+	private class NodesEventBus implements EventBus {
+
+		@Override
+		public void registerFor(GenericEventListener gel, Identity identity, OLATResourceable ores) {
+			//
+		}
+
+		@Override
+		public void deregisterFor(GenericEventListener gel, OLATResourceable ores) {
+			//
+		}
+
+		@Override
+		public void fireEventToListenersOf(MultiUserEvent event, OLATResourceable ores) {
+			for(Node node:nodes) {
+				node.receive(event);
+			}
+		}
+
+		@Override
+		public int getListeningIdentityCntFor(OLATResourceable ores) {
+			return 0;
+		}
+	}
+}
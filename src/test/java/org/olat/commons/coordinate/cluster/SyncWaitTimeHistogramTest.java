@@ -0,0 +1,66 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class SyncWaitTimeHistogramTest {
+	
+	@Test
+	public void recordInBuckets() {
+		SyncWaitTimeHistogram histogram = new SyncWaitTimeHistogram();
+		histogram.record(0);
+		histogram.record(0);
+		histogram.record(5);
+		histogram.record(99);
+		histogram.record(100);
+		histogram.record(20000);
+		
+		assertThat(histogram.getCounts()).containsExactly(2l, 1l, 1l, 1l, 0l, 1l);
+		assertThat(histogram.getCount()).isEqualTo(6l);
+		assertThat(histogram.getMax()).isEqualTo(20000l);
+		assertThat(histogram.getAvg()).isEqualTo(20204l / 6l);
+	}
+	
+	@Test
+	public void emptyHistogram() {
+		SyncWaitTimeHistogram histogram = new SyncWaitTimeHistogram();
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getAvg()).isZero();
+		assertThat(histogram.getMax()).isZero();
+	}
+	
+	@Test
+	public void lockTableStripes() {
+		SyncLockTable table = new SyncLockTable(1000);
+		assertThat(table.size()).isEqualTo(1024);
+		assertThat(table.getLock("CourseModule:1234")).isSameAs(table.getLock("CourseModule:" + 1234));
+		
+		assertThat(new SyncLockTable(1).size()).isEqualTo(1);
+		assertThat(new SyncLockTable(16).size()).isEqualTo(16);
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.event.MultiUserEvent;
+import org.olat.core.util.resource.OresHelper;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class ClusterEventCodecTest {
+	
+	@Test
+	public void encodeDecodeBatch() throws IOException {
+		ClusterEventCodec codec = new ClusterEventCodec(Collections.singletonList(new MultiUserEventSerializer()));
+		
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance("codec", Long.valueOf(42l));
+		OLATResourceable type = OresHelper.createOLATResourceableType("codec-type");
+		MultiUserEvent plainEvent = new MultiUserEvent("plain");
+		plainEvent.setOriginNodeId(3);
+		MultiUserEvent otherEvent = new TestEvent("other", "payload");
+		
+		List<JMSWrapper> wrappers = new ArrayList<>();
+		wrappers.add(new JMSWrapper(Integer.valueOf(3), 12l, ores, plainEvent));
+		wrappers.add(new JMSWrapper(Integer.valueOf(3), 13l, type, otherEvent));
+		
+		byte[] data = codec.encode(Integer.valueOf(3), wrappers);
+		List<JMSWrapper> decoded = codec.decode(data);
+		assertThat(decoded).hasSize(2);
+		
+		JMSWrapper first = decoded.get(0);
+		assertThat(first.getNodeId()).isEqualTo(3);
+		assertThat(first.getMsgId()).isEqualTo(12l);
+		assertThat(first.getOres().getResourceableTypeName()).isEqualTo("codec");
+		assertThat(first.getOres().getResourceableId()).isEqualTo(42l);
+		assertThat(first.getMultiUserEvent().getClass()).isEqualTo(MultiUserEvent.class);
+		assertThat(first.getMultiUserEvent().getCommand()).isEqualTo("plain");
+		assertThat(first.getMultiUserEvent().getOriginNodeId()).isEqualTo(3);
+		
+		JMSWrapper second = decoded.get(1);
+		assertThat(second.getMsgId()).isEqualTo(13l);
+		assertThat(second.getOres().getResourceableTypeName()).isEqualTo("codec-type");
+		assertThat(second.getOres().getResourceableId()).isNull();
+		assertThat(second.getMultiUserEvent()).isInstanceOf(TestEvent.class);
+		assertThat(((TestEvent)second.getMultiUserEvent()).getPayload()).isEqualTo("payload");
+	}
+	
+	@Test(expected=InvalidClassException.class)
+	public void rejectNotAllowedClass() throws IOException {
+		ClusterEventCodec codec = new ClusterEventCodec(Collections.singletonList(new MultiUserEventSerializer()));
+		
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance("codec", Long.valueOf(42l));
+		MultiUserEvent event = new TestObjectEvent("uri", URI.create("https://www.openolat.org"));
+		List<JMSWrapper> wrappers = Collections.singletonList(new JMSWrapper(Integer.valueOf(3), 14l, ores, event));
+		
+		byte[] data = codec.encode(Integer.valueOf(3), wrappers);
+		codec.decode(data);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void duplicateSerializerId() {
+		List<ClusterEventSerializer> serializers = new ArrayList<>();
+		serializers.add(new MultiUserEventSerializer());
+		serializers.add(new MultiUserEventSerializer());
+		new ClusterEventCodec(serializers);
+	}
+	
+	public static class TestEvent extends MultiUserEvent {
+
+		private static final long serialVersionUID = -1616016404926416346L;
+		
+		private final String payload;
+		
+		public TestEvent(String command, String payload) {
+			super(command);
+			this.payload = payload;
+		}
+
+		public String getPayload() {
+			return payload;
+		}
+	}
+	
+	public static class TestObjectEvent extends MultiUserEvent {
+
+		private static final long serialVersionUID = 2380950409165446473L;
+		
+		private final Serializable payload;
+		
+		public TestObjectEvent(String command, Serializable payload) {
+			super(command);
+			this.payload = payload;
+		}
+
+		public Serializable getPayload() {
+			return payload;
+		}
+	}
+}
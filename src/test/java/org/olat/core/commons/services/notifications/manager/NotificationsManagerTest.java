@@ -34,6 +34,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
@@ -54,6 +55,7 @@ import org.olat.core.logging.DBRuntimeException;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.CodeHelper;
+import org.olat.core.util.DateUtils;
 import org.olat.core.util.resource.OresHelper;
 import org.olat.test.JunitTestHelper;
 import org.olat.test.OlatTestCase;
@@ -416,6 +418,59 @@ public class NotificationsManagerTest extends OlatTestCase {
 		Assert.assertNotNull(infos);
 	}
 
+	@Test
+	public void getIdentityKeysAndSubscribersWithNews() {
+		Identity id1 = JunitTestHelper.createAndPersistIdentityAsRndUser("fi1-");
+		Identity id2 = JunitTestHelper.createAndPersistIdentityAsRndUser("fi2-");
+		Identity id3 = JunitTestHelper.createAndPersistIdentityAsRndUser("fi3-");
+		SubscriptionContext context = new SubscriptionContext("Course", Long.valueOf(789522), UUID.randomUUID().toString());
+		PublisherData publisherData = new PublisherData("Forum", "e.g. forumdata=keyofforum", null);
+		SubscriptionContext quietContext = new SubscriptionContext("Course", Long.valueOf(789523), UUID.randomUUID().toString());
+		PublisherData quietPublisherData = new PublisherData("Forum", "e.g. forumdata=keyofquietforum", null);
+		notificationManager.getOrCreatePublisher(context, publisherData);
+		notificationManager.getOrCreatePublisher(quietContext, quietPublisherData);
+		dbInstance.commitAndCloseSession();
+		notificationManager.subscribe(id1, context, publisherData);
+		notificationManager.subscribe(id2, quietContext, quietPublisherData);
+		notificationManager.subscribe(id3, context, publisherData);
+		dbInstance.commitAndCloseSession();
+		
+		// id1 was notified 2 days ago, id2 will be notified in the future, id3 was never notified
+		Subscriber subscriber1 = notificationManager.getSubscriber(id1, context);
+		subscriber1.setLatestEmailed(DateUtils.addDays(new Date(), -2));
+		dbInstance.getCurrentEntityManager().merge(subscriber1);
+		Subscriber subscriber2 = notificationManager.getSubscriber(id2, quietContext);
+		subscriber2.setLatestEmailed(DateUtils.addDays(new Date(), 1));
+		dbInstance.getCurrentEntityManager().merge(subscriber2);
+		Subscriber subscriber3 = notificationManager.getSubscriber(id3, context);
+		subscriber3.setLatestEmailed(null);
+		dbInstance.getCurrentEntityManager().merge(subscriber3);
+		dbInstance.commitAndCloseSession();
+		
+		notificationManager.markPublisherNews(context, null, false);
+		dbInstance.commitAndCloseSession();
+		
+		NotificationsManagerImpl notificationManagerImpl = (NotificationsManagerImpl)notificationManager;
+		Date compareDate = DateUtils.addDays(new Date(), -30);
+		Long lastIdentityKey = Long.valueOf(Math.min(id1.getKey(), id2.getKey()) - 1);
+		List<Long> identityKeys = notificationManagerImpl.getIdentityKeysWithNews(lastIdentityKey, compareDate, 100000);
+		Assert.assertTrue(identityKeys.contains(id1.getKey()));
+		Assert.assertFalse(identityKeys.contains(id2.getKey()));
+		Assert.assertTrue(identityKeys.contains(id3.getKey()));
+		
+		List<Subscriber> subscribers = notificationManagerImpl.getSubscribersWithNews(List.of(id1.getKey(), id2.getKey(), id3.getKey()), compareDate);
+		Assert.assertEquals(2, subscribers.size());
+		Assert.assertEquals(subscriber1, subscribers.get(0));
+		Assert.assertEquals(id1, subscribers.get(0).getIdentity());
+		Assert.assertEquals(subscriber3, subscribers.get(1));
+		Assert.assertEquals(id3, subscribers.get(1).getIdentity());
+		
+		// news older than the compare date are not sent, even if never notified
+		Date futureCompareDate = DateUtils.addDays(new Date(), 1);
+		List<Long> noIdentityKeys = notificationManagerImpl.getIdentityKeysWithNews(lastIdentityKey, futureCompareDate, 100000);
+		Assert.assertFalse(noIdentityKeys.contains(id3.getKey()));
+	}
+
 	@Test
 	public void testSubscriptions() {
 		Identity id1 = JunitTestHelper.createAndPersistIdentityAsRndUser("fi1-");
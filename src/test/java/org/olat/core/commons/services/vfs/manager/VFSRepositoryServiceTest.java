@@ -40,6 +40,7 @@ import org.olat.core.commons.services.license.LicenseType;
 import org.olat.core.commons.services.license.manager.LicenseCleaner;
 import org.olat.core.commons.services.vfs.VFSMetadata;
 import org.olat.core.commons.services.vfs.VFSRepositoryService;
+import org.olat.core.commons.services.vfs.model.VFSThumbnailStatistics;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.FileUtils;
 import org.olat.core.util.vfs.LocalFileImpl;
@@ -70,6 +71,8 @@ public class VFSRepositoryServiceTest extends OlatTestCase {
 	@Autowired
 	private LicenseCleaner licenseCleaner;
 	@Autowired
+	private VFSThumbnailQueue thumbnailQueue;
+	@Autowired
 	private VFSRepositoryService vfsRepositoryService;
 	
 	@Before
@@ -110,6 +113,43 @@ public class VFSRepositoryServiceTest extends OlatTestCase {
 		Assert.assertFalse(metadata.isDirectory());	
 	}
 	
+	@Test
+	public void getThumbnailAsync() {
+		VFSLeaf leaf = createImage();
+		VFSMetadata metadata = vfsRepositoryService.getMetadataFor(leaf);
+		Assert.assertNotNull(metadata);
+		dbInstance.commitAndCloseSession();
+		
+		// first call queues the generation, the sync call waits for it
+		vfsRepositoryService.getThumbnailAsync(leaf, 160, 160, false);
+		VFSLeaf thumbnail = vfsRepositoryService.getThumbnail(leaf, 160, 160, false);
+		Assert.assertNotNull(thumbnail);
+		Assert.assertTrue(thumbnail.getSize() > 32);
+		dbInstance.commitAndCloseSession();
+		
+		// now it's available
+		VFSLeaf cachedThumbnail = vfsRepositoryService.getThumbnailAsync(leaf, 160, 160, false);
+		Assert.assertNotNull(cachedThumbnail);
+		Assert.assertEquals(thumbnail.getName(), cachedThumbnail.getName());
+		
+		VFSThumbnailStatistics stats = vfsRepositoryService.getThumbnailStats();
+		Assert.assertTrue(stats.getThumbnailsAmount() > 0);
+	}
+	
+	@Test
+	public void getThumbnailAsyncNotAvailable() {
+		VFSLeaf leaf = createFile();
+		VFSMetadata metadata = vfsRepositoryService.getMetadataFor(leaf);
+		Assert.assertNotNull(metadata);
+		dbInstance.commitAndCloseSession();
+		
+		// a text file has no thumbnail, nothing is queued
+		long submitted = thumbnailQueue.getSubmitted();
+		VFSLeaf thumbnail = vfsRepositoryService.getThumbnailAsync(leaf, 160, 160, false);
+		Assert.assertNull(thumbnail);
+		Assert.assertEquals(submitted, thumbnailQueue.getSubmitted());
+	}
+	
 	@Test
 	public void deleteMetadata() {
 		VFSLeaf leaf = createImage();
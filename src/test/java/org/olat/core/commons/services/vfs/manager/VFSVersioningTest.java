@@ -22,9 +22,11 @@ package org.olat.core.commons.services.vfs.manager;
 import static org.junit.Assert.assertEquals;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -41,6 +43,7 @@ import org.olat.core.commons.services.vfs.VFSRepositoryService;
 import org.olat.core.commons.services.vfs.VFSRevision;
 import org.olat.core.commons.services.vfs.VFSVersionModule;
 import org.olat.core.commons.services.vfs.model.VFSRevisionImpl;
+import org.olat.core.commons.services.vfs.model.VFSRevisionStatistics;
 import org.olat.core.id.Identity;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
@@ -70,6 +73,8 @@ public class VFSVersioningTest extends OlatTestCase {
 	private VFSVersionModule versionsModule;
 	@Autowired
 	private VFSRepositoryService vfsRepositoryService;
+	@Autowired
+	private VFSRevisionBlobStore revisionBlobStore;
 	
 	@Before
 	public void setUp() throws Exception {
@@ -742,6 +747,55 @@ public class VFSVersioningTest extends OlatTestCase {
 		Assert.assertEquals("Initital version 0", restoredMetadata.getComment());
 	}
 	
+	@Test
+	public void addVersions_deduplicated() throws IOException {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("vers-13");
+		
+		//create two files with the same content
+		VFSContainer rootTest = VFSManager.olatRootContainer("/ver" + UUID.randomUUID(), null);
+		VFSLeaf file1 = rootTest.createChildLeaf(UUID.randomUUID().toString() + ".txt");
+		Assert.assertFalse(copyTestTxt(file1) == 0);
+		VFSLeaf file2 = rootTest.createChildLeaf(UUID.randomUUID().toString() + ".txt");
+		Assert.assertFalse(copyTestTxt(file2) == 0);
+		
+		//save a version of both
+		InputStream in1 = new ByteArrayInputStream("Hello dedup 1".getBytes());
+		vfsRepositoryService.addVersion(file1, id, "Version 1", in1);
+		in1.close();
+		InputStream in2 = new ByteArrayInputStream("Hello dedup 2".getBytes());
+		vfsRepositoryService.addVersion(file2, id, "Version 1", in2);
+		in2.close();
+		dbInstance.commitAndCloseSession();
+		
+		List<VFSRevision> revisions1 = vfsRepositoryService.getRevisions(vfsRepositoryService.getMetadataFor(file1));
+		List<VFSRevision> revisions2 = vfsRepositoryService.getRevisions(vfsRepositoryService.getMetadataFor(file2));
+		Assert.assertEquals(1, revisions1.size());
+		Assert.assertEquals(1, revisions2.size());
+		
+		File revFile1 = vfsRepositoryService.getRevisionFile(revisions1.get(0));
+		File revFile2 = vfsRepositoryService.getRevisionFile(revisions2.get(0));
+		Assert.assertTrue(revFile1.exists());
+		Assert.assertTrue(revFile2.exists());
+		if(revisionBlobStore.isEnabled()) {
+			// same content, same blob
+			Assert.assertTrue(Files.isSameFile(revFile1.toPath(), revFile2.toPath()));
+			VFSRevisionStatistics stats = vfsRepositoryService.getRevisionStats();
+			Assert.assertTrue(stats.getBlobsAmount() > 0);
+		}
+		
+		// current files are not touched by the blobs
+		Assert.assertEquals("Hello dedup 1", IOUtils.toString(file1.getInputStream(), "UTF-8"));
+		Assert.assertEquals("Hello dedup 2", IOUtils.toString(file2.getInputStream(), "UTF-8"));
+		
+		// delete one revision, the other is still there
+		vfsRepositoryService.deleteRevisions(id, revisions1);
+		dbInstance.commitAndCloseSession();
+		Assert.assertFalse(revFile1.exists());
+		Assert.assertTrue(revFile2.exists());
+		revisionBlobStore.deleteUnreferencedBlobs();
+		Assert.assertTrue(revFile2.exists());
+	}
+	
 	private int copyTestTxt(VFSLeaf file) {
 		try(OutputStream out = file.getOutputStream(false);
 				InputStream in = VFSVersioningTest.class.getResourceAsStream("test.txt")) {
@@ -191,6 +191,56 @@ public class WebDAVCommandsTest extends WebDAVTestCase {
 		conn.close();
 	}
 	
+	@Test
+	public void testPropFind_eTag()
+	throws IOException, URISyntaxException {
+		//create a user
+		IdentityWithLogin user = JunitTestHelper.createAndPersistRndUser("webdav-2b-");
+
+		WebDAVConnection conn = new WebDAVConnection();
+		conn.setCredentials(user);
+		
+		//list the private folder
+		URI privateUri = conn.getBaseURI().path("webdav").path("home").path("private").build();
+		HttpPropFind propfind = new HttpPropFind(privateUri);
+		propfind.addHeader("Depth", "1");
+		HttpResponse response = conn.execute(propfind);
+		Assert.assertEquals(207, response.getStatusLine().getStatusCode());
+		Header eTagHeader = response.getFirstHeader("ETag");
+		Assert.assertNotNull(eTagHeader);
+		String eTag = eTagHeader.getValue();
+		EntityUtils.consume(response.getEntity());
+		
+		//the same listing is not modified
+		HttpPropFind conditionalPropfind = new HttpPropFind(privateUri);
+		conditionalPropfind.addHeader("Depth", "1");
+		conditionalPropfind.addHeader("If-None-Match", eTag);
+		HttpResponse notModifiedResponse = conn.execute(conditionalPropfind);
+		Assert.assertEquals(304, notModifiedResponse.getStatusLine().getStatusCode());
+		EntityUtils.consumeQuietly(notModifiedResponse.getEntity());
+		
+		//PUT in the folder
+		URI putUri = UriBuilder.fromUri(privateUri).path("test.txt").build();
+		HttpPut put = conn.createPut(putUri);
+		InputStream dataStream = WebDAVCommandsTest.class.getResourceAsStream("text.txt");
+		put.setEntity(new InputStreamEntity(dataStream, -1));
+		HttpResponse putResponse = conn.execute(put);
+		Assert.assertEquals(201, putResponse.getStatusLine().getStatusCode());
+		EntityUtils.consume(putResponse.getEntity());
+		
+		//the listing has changed
+		HttpPropFind modifiedPropfind = new HttpPropFind(privateUri);
+		modifiedPropfind.addHeader("Depth", "1");
+		modifiedPropfind.addHeader("If-None-Match", eTag);
+		HttpResponse modifiedResponse = conn.execute(modifiedPropfind);
+		Assert.assertEquals(207, modifiedResponse.getStatusLine().getStatusCode());
+		Assert.assertNotEquals(eTag, modifiedResponse.getFirstHeader("ETag").getValue());
+		String xml = EntityUtils.toString(modifiedResponse.getEntity());
+		Assert.assertTrue(xml.indexOf("<D:href>/webdav/home/private/test.txt</D:href>") > 0);
+
+		conn.close();
+	}
+	
 	@Test
 	public void testMkcol_public()
 	throws IOException, URISyntaxException {
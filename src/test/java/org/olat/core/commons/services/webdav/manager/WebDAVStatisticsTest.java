@@ -0,0 +1,79 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.webdav.manager;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.commons.services.webdav.manager.WebDAVStatistics.LatencyHistogram;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class WebDAVStatisticsTest {
+	
+	@Test
+	public void bucketBounds() {
+		for(long value=0; value<100000; value++) {
+			int index = LatencyHistogram.indexOf(value);
+			long upperBound = LatencyHistogram.upperBoundOf(index);
+			Assert.assertTrue(value <= upperBound);
+			// precision of 25%
+			Assert.assertTrue(upperBound <= Math.max(3, value + (value / 4) + 1));
+		}
+		
+		int maxIndex = LatencyHistogram.indexOf(Long.MAX_VALUE);
+		Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(maxIndex));
+	}
+	
+	@Test
+	public void percentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Assert.assertEquals(0l, histogram.getPercentile(50.0d));
+		
+		for(long i=1; i<=1000; i++) {
+			histogram.record(i * 1000l);
+		}
+		Assert.assertEquals(1000l, histogram.getCount());
+		Assert.assertEquals(1000000l, histogram.getMax());
+		
+		long p50 = histogram.getPercentile(50.0d);
+		Assert.assertTrue(p50 >= 500000l && p50 <= 625000l);
+		long p99 = histogram.getPercentile(99.0d);
+		Assert.assertTrue(p99 >= 990000l && p99 <= 1000000l);
+		Assert.assertEquals(1000000l, histogram.getPercentile(100.0d));
+	}
+	
+	@Test
+	public void unknownMethods() {
+		WebDAVStatistics statistics = new WebDAVStatistics();
+		statistics.record("PROPFIND", 2000000l);
+		for(int i=0; i<100; i++) {
+			statistics.record("X-METHOD-" + i, 1000000l);
+		}
+		statistics.record(null, 1000000l);
+		
+		Assert.assertEquals(1l, statistics.getCount("PROPFIND"));
+		Assert.assertEquals(101l, statistics.getCount(WebDAVStatistics.OTHER_METHOD));
+		Assert.assertEquals(101l, statistics.getCount("X-METHOD-1"));
+		Assert.assertEquals(2, statistics.getLatencies().length);
+	}
+}
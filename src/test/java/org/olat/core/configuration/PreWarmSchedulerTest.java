@@ -0,0 +1,210 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.configuration.PreWarmScheduler.Status;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class PreWarmSchedulerTest {
+	
+	private PreWarmScheduler scheduler;
+	
+	@After
+	public void destroyScheduler() {
+		if(scheduler != null) {
+			scheduler.destroy();
+		}
+	}
+	
+	@Test
+	public void dependencies() throws Exception {
+		scheduler = createScheduler(4, 10000);
+		
+		ConcurrentLinkedQueue<String> order = new ConcurrentLinkedQueue<>();
+		Map<String,PreWarm> preWarms = new LinkedHashMap<>();
+		preWarms.put("last", new LastPreWarm(order));
+		preWarms.put("second", new SecondPreWarm(order));
+		preWarms.put("first", new FirstPreWarmImpl(order));
+		scheduler.start(preWarms);
+		
+		waitReady(scheduler);
+		assertThat(order).containsExactly("first", "second", "last");
+		assertThat(scheduler.getNumOfTasks(Status.done)).isEqualTo(3);
+	}
+	
+	@Test
+	public void failedDependency() throws Exception {
+		scheduler = createScheduler(2, 10000);
+		
+		ConcurrentLinkedQueue<String> order = new ConcurrentLinkedQueue<>();
+		Map<String,PreWarm> preWarms = new LinkedHashMap<>();
+		preWarms.put("first", (FirstPreWarm)() -> { throw new IllegalStateException("Failed"); });
+		preWarms.put("second", new SecondPreWarm(order));
+		scheduler.start(preWarms);
+		
+		waitReady(scheduler);
+		assertThat(order).containsExactly("second");
+		assertThat(scheduler.getNumOfTasks(Status.failed)).isEqualTo(1);
+		assertThat(scheduler.getNumOfTasks(Status.done)).isEqualTo(1);
+	}
+	
+	@Test
+	public void timeBudget() throws Exception {
+		scheduler = createScheduler(2, 100);
+		
+		CountDownLatch blocker = new CountDownLatch(1);
+		ConcurrentLinkedQueue<String> order = new ConcurrentLinkedQueue<>();
+		Map<String,PreWarm> preWarms = new LinkedHashMap<>();
+		preWarms.put("first", (FirstPreWarm)() -> {
+			try {
+				blocker.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		preWarms.put("second", new SecondPreWarm(order));
+		scheduler.start(preWarms);
+		
+		waitReady(scheduler);
+		assertThat(order).containsExactly("second");
+		assertThat(scheduler.getNumOfTasks(Status.timedOut)).isEqualTo(1);
+		blocker.countDown();
+	}
+	
+	@Test
+	public void noTasks() {
+		scheduler = createScheduler(2, 100);
+		scheduler.start(Map.of());
+		assertThat(scheduler.isReady()).isTrue();
+	}
+	
+	@Test
+	public void forEach() throws Exception {
+		scheduler = createScheduler(4, 10000);
+
+		List<Integer> items = List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+		AtomicInteger sum = new AtomicInteger();
+		Map<String,PreWarm> preWarms = new LinkedHashMap<>();
+		preWarms.put("first", (FirstPreWarm)() -> scheduler.forEach(items, sum::addAndGet));
+		scheduler.start(preWarms);
+		
+		waitReady(scheduler);
+		assertThat(sum.get()).isEqualTo(55);
+	}
+	
+	private PreWarmScheduler createScheduler(int threads, long timeBudget) {
+		PreWarmScheduler preWarmScheduler = new PreWarmScheduler(mock(DB.class));
+		preWarmScheduler.setThreads(threads);
+		preWarmScheduler.setDefaultTimeBudget(timeBudget);
+		return preWarmScheduler;
+	}
+	
+	private void waitReady(PreWarmScheduler preWarmScheduler) throws InterruptedException {
+		for(int i=0; i<100 && !preWarmScheduler.isReady(); i++) {
+			Thread.sleep(50);
+		}
+		assertThat(preWarmScheduler.isReady()).isTrue();
+	}
+	
+	private interface FirstPreWarm extends PreWarm {
+		//
+	}
+	
+	private static class FirstPreWarmImpl implements FirstPreWarm {
+		
+		private final ConcurrentLinkedQueue<String> order;
+		
+		public FirstPreWarmImpl(ConcurrentLinkedQueue<String> order) {
+			this.order = order;
+		}
+
+		@Override
+		public void run() {
+			sleep(100);
+			order.add("first");
+		}
+	}
+	
+	private static class SecondPreWarm implements PreWarm {
+		
+		private final ConcurrentLinkedQueue<String> order;
+		
+		public SecondPreWarm(ConcurrentLinkedQueue<String> order) {
+			this.order = order;
+		}
+		
+		@Override
+		public Collection<Class<? extends PreWarm>> getDependencies() {
+			return List.of(FirstPreWarm.class);
+		}
+
+		@Override
+		public void run() {
+			sleep(50);
+			order.add("second");
+		}
+	}
+	
+	private static class LastPreWarm implements PreWarm {
+		
+		private final ConcurrentLinkedQueue<String> order;
+		
+		public LastPreWarm(ConcurrentLinkedQueue<String> order) {
+			this.order = order;
+		}
+		
+		@Override
+		public Collection<Class<? extends PreWarm>> getDependencies() {
+			return List.of(SecondPreWarm.class);
+		}
+
+		@Override
+		public void run() {
+			order.add("last");
+		}
+	}
+	
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
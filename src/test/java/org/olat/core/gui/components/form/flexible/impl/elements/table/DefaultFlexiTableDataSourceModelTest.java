@@ -0,0 +1,161 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.components.form.flexible.impl.elements.table;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DefaultResultInfos;
+import org.olat.core.commons.persistence.ResultInfos;
+import org.olat.core.commons.persistence.SortKey;
+import org.olat.core.gui.components.form.flexible.elements.FlexiTableFilter;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class DefaultFlexiTableDataSourceModelTest {
+	
+	/**
+	 * The table shows the first page, the export must not
+	 * be stopped by the rows already loaded.
+	 */
+	@Test
+	public void exportInPagesWithFirstPageLoaded() {
+		TestDelegate delegate = new TestDelegate(1234);
+		TestDataSourceModel model = new TestDataSourceModel(delegate);
+		model.load(null, null, null, 0, 20);
+		Assert.assertEquals(1234, model.getRowCount());
+		
+		List<Integer> exported = new ArrayList<>();
+		int numOfRows = model.exportInPages(null, null, null, 500, r -> exported.add(model.getObject(r)));
+		
+		Assert.assertEquals(1234, numOfRows);
+		assertSequence(exported, 1234);
+		// the table is not changed
+		Assert.assertEquals(1234, model.getRowCount());
+		Assert.assertEquals(20, model.getObjects().size());
+		for(int i=0; i<20; i++) {
+			Assert.assertTrue(model.isRowLoaded(i));
+		}
+		Assert.assertFalse(model.isRowLoaded(20));
+	}
+	
+	@Test
+	public void exportInPagesWithOtherPageLoaded() {
+		TestDelegate delegate = new TestDelegate(1234);
+		TestDataSourceModel model = new TestDataSourceModel(delegate);
+		model.load(null, null, null, 0, 20);
+		model.load(null, null, null, 480, 20);
+		
+		List<Integer> exported = new ArrayList<>();
+		int numOfRows = model.exportInPages(null, null, null, 500, r -> exported.add(model.getObject(r)));
+		
+		Assert.assertEquals(1234, numOfRows);
+		assertSequence(exported, 1234);
+		Assert.assertEquals(1234, model.getRowCount());
+		Assert.assertEquals(500, model.getObjects().size());
+		Assert.assertTrue(model.isRowLoaded(0));
+		Assert.assertFalse(model.isRowLoaded(20));
+		Assert.assertTrue(model.isRowLoaded(480));
+		Assert.assertTrue(model.isRowLoaded(499));
+		Assert.assertFalse(model.isRowLoaded(500));
+	}
+	
+	@Test
+	public void exportInPagesFullPages() {
+		TestDelegate delegate = new TestDelegate(1000);
+		TestDataSourceModel model = new TestDataSourceModel(delegate);
+		
+		List<Integer> exported = new ArrayList<>();
+		int numOfRows = model.exportInPages(null, null, null, 500, r -> exported.add(model.getObject(r)));
+		Assert.assertEquals(1000, numOfRows);
+		assertSequence(exported, 1000);
+		Assert.assertTrue(model.getObjects().isEmpty());
+	}
+	
+	@Test
+	public void exportInPagesEmpty() {
+		TestDelegate delegate = new TestDelegate(0);
+		TestDataSourceModel model = new TestDataSourceModel(delegate);
+		
+		List<Integer> exported = new ArrayList<>();
+		int numOfRows = model.exportInPages(null, null, null, 500, r -> exported.add(model.getObject(r)));
+		Assert.assertEquals(0, numOfRows);
+		Assert.assertTrue(exported.isEmpty());
+	}
+	
+	private static void assertSequence(List<Integer> exported, int numOfRows) {
+		Assert.assertEquals(numOfRows, exported.size());
+		for(int i=0; i<numOfRows; i++) {
+			Assert.assertEquals(Integer.valueOf(i), exported.get(i));
+		}
+	}
+	
+	private static class TestDelegate implements FlexiTableDataSourceDelegate<Integer> {
+		
+		private final int numOfRows;
+		
+		public TestDelegate(int numOfRows) {
+			this.numOfRows = numOfRows;
+		}
+
+		@Override
+		public int getRowCount() {
+			return numOfRows;
+		}
+
+		@Override
+		public List<Integer> reload(List<Integer> rows) {
+			return rows;
+		}
+
+		@Override
+		public ResultInfos<Integer> getRows(String query, List<FlexiTableFilter> filters, List<String> condQueries,
+				int firstResult, int maxResults, SortKey... orderBy) {
+			int lastResult = maxResults <= 0 ? numOfRows : Math.min(numOfRows, firstResult + maxResults);
+			List<Integer> rows = new ArrayList<>();
+			for(int i=firstResult; i<lastResult; i++) {
+				rows.add(Integer.valueOf(i));
+			}
+			return new DefaultResultInfos<>(lastResult, -1, rows);
+		}
+	}
+	
+	private static class TestDataSourceModel extends DefaultFlexiTableDataSourceModel<Integer> {
+		
+		public TestDataSourceModel(FlexiTableDataSourceDelegate<Integer> delegate) {
+			super(delegate, null);
+		}
+
+		@Override
+		public Object getValueAt(int row, int col) {
+			return getObject(row);
+		}
+
+		@Override
+		public DefaultFlexiTableDataSourceModel<Integer> createCopyWithEmptyList() {
+			return new TestDataSourceModel(getSourceDelegate());
+		}
+	}
+}
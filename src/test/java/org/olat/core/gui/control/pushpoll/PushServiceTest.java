@@ -0,0 +1,158 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.olat.core.gui.components.Window;
+import org.olat.core.gui.control.WindowBackOffice;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class PushServiceTest {
+	
+	private PushService pushService;
+	
+	@Before
+	public void startService() throws Exception {
+		pushService = new PushService(null);
+		pushService.setEnabled(true);
+		pushService.setMaxConnections(1);
+		pushService.afterPropertiesSet();
+	}
+	
+	@After
+	public void stopService() throws Exception {
+		pushService.destroy();
+	}
+	
+	@Test
+	public void openWebSocket() {
+		WindowBackOffice wbo = mockWindowBackOffice(true);
+		PushChannel channel = pushService.createChannel(wbo, "csrf-1");
+		Assert.assertTrue(pushService.isEnabled());
+		Assert.assertEquals(1, pushService.getChannels());
+		
+		// wrong token
+		Session session = mock(Session.class);
+		CloseReason reason = pushService.openWebSocket(channel.getId(), "csrf-2", session);
+		Assert.assertNotNull(reason);
+		Assert.assertEquals(CloseCodes.VIOLATED_POLICY, reason.getCloseCode());
+		Assert.assertEquals(0, pushService.getOpenWebSockets());
+		
+		reason = pushService.openWebSocket(channel.getId(), "csrf-1", session);
+		Assert.assertNull(reason);
+		Assert.assertEquals(1, pushService.getOpenWebSockets());
+		
+		pushService.closeWebSocket(channel.getId(), session);
+		Assert.assertEquals(0, pushService.getOpenWebSockets());
+		
+		pushService.closeChannel(channel);
+		Assert.assertEquals(0, pushService.getChannels());
+	}
+	
+	@Test
+	public void maxConnections() {
+		PushChannel channel1 = pushService.createChannel(mockWindowBackOffice(true), "csrf-1");
+		PushChannel channel2 = pushService.createChannel(mockWindowBackOffice(true), "csrf-2");
+		
+		Assert.assertNull(pushService.openWebSocket(channel1.getId(), "csrf-1", mockOpenSession()));
+		CloseReason reason = pushService.openWebSocket(channel2.getId(), "csrf-2", mockOpenSession());
+		Assert.assertNotNull(reason);
+		Assert.assertEquals(CloseCodes.TRY_AGAIN_LATER, reason.getCloseCode());
+		Assert.assertEquals(1, pushService.getRejectedConnections());
+	}
+	
+	@Test
+	public void pushDirtyWindow() throws Exception {
+		WindowBackOffice wbo = mockWindowBackOffice(true);
+		PushChannel channel = pushService.createChannel(wbo, "csrf-1");
+		Session session = mockOpenSession();
+		RemoteEndpoint.Basic remote = session.getBasicRemote();
+		Assert.assertNull(pushService.openWebSocket(channel.getId(), "csrf-1", session));
+		
+		pushService.windowChanged(wbo);
+		verify(remote, timeout(2000)).sendText(PushChannel.DIRTY);
+	}
+	
+	@Test
+	public void pushOnlyChanges() throws Exception {
+		WindowBackOffice wbo = mockWindowBackOffice(false);
+		PushChannel channel = pushService.createChannel(wbo, "csrf-1");
+		Session session = mockOpenSession();
+		RemoteEndpoint.Basic remote = session.getBasicRemote();
+		Assert.assertNull(pushService.openWebSocket(channel.getId(), "csrf-1", session));
+		
+		// nothing is dirty
+		pushService.windowChanged(wbo);
+		verify(remote, after(500).never()).sendText(ArgumentMatchers.anyString());
+		
+		// but a window command waits
+		channel.signal(true);
+		verify(remote, timeout(2000)).sendText(PushChannel.DIRTY);
+	}
+	
+	@Test
+	public void missedSignal() throws Exception {
+		WindowBackOffice wbo = mockWindowBackOffice(true);
+		PushChannel channel = pushService.createChannel(wbo, "csrf-1");
+		channel.signal(false);
+		Thread.sleep(300);
+		
+		// the missed signal is pushed as soon as the browser connects
+		Session session = mockOpenSession();
+		RemoteEndpoint.Basic remote = session.getBasicRemote();
+		Assert.assertNull(pushService.openWebSocket(channel.getId(), "csrf-1", session));
+		verify(remote, timeout(2000)).sendText(PushChannel.DIRTY);
+	}
+	
+	private WindowBackOffice mockWindowBackOffice(boolean dirty) {
+		Window window = mock(Window.class);
+		when(window.hasDirties()).thenReturn(dirty);
+		WindowBackOffice wbo = mock(WindowBackOffice.class);
+		when(wbo.getWindow()).thenReturn(window);
+		return wbo;
+	}
+	
+	private Session mockOpenSession() {
+		Session session = mock(Session.class);
+		RemoteEndpoint.Basic remote = mock(RemoteEndpoint.Basic.class);
+		when(session.isOpen()).thenReturn(true);
+		when(session.getBasicRemote()).thenReturn(remote);
+		return session;
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+import org.olat.test.OlatTestCase;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class ServletUtilTest extends OlatTestCase {
+	
+	private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+	
+	private File file;
+	
+	@Before
+	public void createFile() throws Exception {
+		file = Files.createTempFile("servlet-util", ".txt").toFile();
+		Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	@After
+	public void deleteFile() {
+		FileUtils.deleteFile(file);
+	}
+	
+	@Test
+	public void serveFileResource() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		Assert.assertEquals(CONTENT.length(), response.getContentLength());
+		Assert.assertEquals(CONTENT, response.getContentAsString());
+		Assert.assertEquals("bytes", response.getHeader("Accept-Ranges"));
+		Assert.assertNotNull(response.getHeader("ETag"));
+	}
+	
+	@Test
+	public void serveFileResource_notModified() throws Exception {
+		String etag = ServletUtil.getETag(file);
+		Assert.assertNotNull(etag);
+		
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("If-None-Match", "\"other\", " + etag);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+		Assert.assertEquals(0, response.getContentAsByteArray().length);
+	}
+	
+	@Test
+	public void serveFileResource_range() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("Range", "bytes=10-15");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+		Assert.assertEquals("bytes 10-15/" + CONTENT.length(), response.getHeader("Content-Range"));
+		Assert.assertEquals("abcdef", response.getContentAsString());
+	}
+	
+	@Test
+	public void serveFileResource_ifRangeChanged() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("Range", "bytes=10-15");
+		request.addHeader("If-Range", "\"outdated\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		Assert.assertEquals(CONTENT, response.getContentAsString());
+	}
+	
+	@Test
+	public void serveFileResource_multipleRanges() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("Range", "bytes=0-1, 10-12");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+		Assert.assertTrue(response.getContentType().startsWith("multipart/byteranges"));
+		
+		String body = response.getContentAsString();
+		Assert.assertEquals(body.length(), response.getContentLength());
+		Assert.assertTrue(body.contains("Content-Range: bytes 0-1/" + CONTENT.length() + "\r\n\r\n01\r\n"));
+		Assert.assertTrue(body.contains("Content-Range: bytes 10-12/" + CONTENT.length() + "\r\n\r\nabc\r\n"));
+		Assert.assertTrue(body.endsWith("--\r\n"));
+	}
+	
+	@Test
+	public void serveFileResource_notSatisfiable() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("Range", "bytes=100-200");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+		Assert.assertEquals("bytes */" + CONTENT.length(), response.getHeader("Content-Range"));
+	}
+	
+	@Test
+	public void matchETag() {
+		Assert.assertTrue(ServletUtil.matchETag("\"abc\"", "\"abc\"", true));
+		Assert.assertTrue(ServletUtil.matchETag("W/\"abc\"", "\"abc\"", false));
+		Assert.assertFalse(ServletUtil.matchETag("W/\"abc\"", "\"abc\"", true));
+		Assert.assertTrue(ServletUtil.matchETag("*", "\"abc\"", false));
+		Assert.assertFalse(ServletUtil.matchETag("\"abd\", \"abe\"", "\"abc\"", false));
+	}
+}
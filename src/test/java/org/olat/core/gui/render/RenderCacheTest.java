@@ -0,0 +1,251 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.render;
+
+import static org.mockito.Mockito.mock;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.gui.GlobalSettings;
+import org.olat.core.gui.UserRequest;
+import org.olat.core.gui.WindowManager;
+import org.olat.core.gui.components.AbstractComponent;
+import org.olat.core.gui.components.Component;
+import org.olat.core.gui.components.ComponentRenderer;
+import org.olat.core.gui.components.DefaultComponentRenderer;
+import org.olat.core.gui.components.panel.Panel;
+import org.olat.core.gui.control.winmgr.AJAXFlags;
+import org.olat.core.gui.render.RenderCache.Fingerprint;
+import org.olat.core.gui.translator.Translator;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class RenderCacheTest {
+	
+	@Test
+	public void fingerprintStable() {
+		Panel parent = new Panel("parent");
+		Panel child = new Panel("child");
+		parent.setContent(child);
+		parent.setDirty(false);
+		
+		URLBuilder ubu = new URLBuilder("/olat/auth/", "1", "1", null);
+		Fingerprint first = RenderCache.fingerprint(parent, ubu, null, true);
+		Fingerprint second = RenderCache.fingerprint(parent, ubu, null, true);
+		Assert.assertNotNull(first);
+		Assert.assertFalse(first.isDirty());
+		Assert.assertEquals(first.getValue(), second.getValue());
+	}
+	
+	@Test
+	public void fingerprintDirtyChild() {
+		Panel parent = new Panel("parent");
+		Panel child = new Panel("child");
+		parent.setContent(child);
+		parent.setDirty(false);
+		
+		URLBuilder ubu = new URLBuilder("/olat/auth/", "1", "1", null);
+		Fingerprint clean = RenderCache.fingerprint(parent, ubu, null, true);
+		
+		child.setDirty(true);
+		Fingerprint dirty = RenderCache.fingerprint(parent, ubu, null, true);
+		Assert.assertTrue(dirty.isDirty());
+		Assert.assertNotEquals(clean.getValue(), dirty.getValue());
+		
+		// rendered, but the fingerprint must not return to the old value
+		child.setDirty(false);
+		Fingerprint rendered = RenderCache.fingerprint(parent, ubu, null, true);
+		Assert.assertFalse(rendered.isDirty());
+		Assert.assertNotEquals(clean.getValue(), rendered.getValue());
+	}
+	
+	@Test
+	public void fingerprintWindowTimestamp() {
+		Panel cmp = new Panel("cmp");
+		URLBuilder ubu = new URLBuilder("/olat/auth/", "1", "1", null);
+		URLBuilder nextUbu = new URLBuilder("/olat/auth/", "1", "2", null);
+		Fingerprint fingerprint = RenderCache.fingerprint(cmp, ubu, null, true);
+		Fingerprint nextFingerprint = RenderCache.fingerprint(cmp, nextUbu, null, true);
+		Assert.assertNotEquals(fingerprint.getValue(), nextFingerprint.getValue());
+		
+		Fingerprint noAjax = RenderCache.fingerprint(cmp, ubu, null, false);
+		Assert.assertNotEquals(fingerprint.getValue(), noAjax.getValue());
+	}
+	
+	@Test
+	public void putAndGet() {
+		RenderCache cache = new RenderCache(10000);
+		Panel cmp = new Panel("cmp");
+		cache.put(cmp, 42l, "<div>Hello</div>");
+		
+		Assert.assertEquals("<div>Hello</div>", cache.get(cmp, 42l));
+		Assert.assertNull(cache.get(cmp, 43l));
+		Assert.assertNull(cache.get(new Panel("other"), 42l));
+		
+		cache.remove(cmp);
+		Assert.assertNull(cache.get(cmp, 42l));
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0l, cache.getChars());
+	}
+	
+	@Test
+	public void evictLeastRecentlyUsed() {
+		RenderCache cache = new RenderCache(100);
+		Panel first = new Panel("first");
+		Panel second = new Panel("second");
+		Panel third = new Panel("third");
+		
+		cache.put(first, 1l, repeat('a', 25));
+		cache.put(second, 2l, repeat('b', 25));
+		cache.put(third, 3l, repeat('c', 25));
+		Assert.assertEquals(3, cache.size());
+		Assert.assertEquals(75l, cache.getChars());
+		
+		// use the first, the second is now the least recently used
+		Assert.assertNotNull(cache.get(first, 1l));
+		cache.put(new Panel("fourth"), 4l, repeat('d', 25));
+		cache.put(new Panel("fifth"), 5l, repeat('e', 25));
+		Assert.assertTrue(cache.getChars() <= 100l);
+		Assert.assertNull(cache.get(second, 2l));
+		Assert.assertNotNull(cache.get(first, 1l));
+	}
+	
+	@Test
+	public void doNotCacheLargeFragment() {
+		RenderCache cache = new RenderCache(100);
+		Panel cmp = new Panel("cmp");
+		cache.put(cmp, 1l, repeat('a', 26));
+		Assert.assertNull(cache.get(cmp, 1l));
+		Assert.assertEquals(0, cache.size());
+	}
+	
+	@Test
+	public void renderFromCache() {
+		CountingComponent cmp = new CountingComponent("cmp", false);
+		RenderCache cache = new RenderCache(10000);
+		
+		String html = render(cmp, cache);
+		String cachedHtml = render(cmp, cache);
+		Assert.assertEquals(html, cachedHtml);
+		Assert.assertEquals(1, cmp.getRenderCount());
+		
+		// dirty, rendered again
+		cmp.setDirty(true);
+		render(cmp, cache);
+		Assert.assertEquals(2, cmp.getRenderCount());
+	}
+	
+	/**
+	 * A cache hit doesn't call the renderer, the components which register
+	 * something in the render result must not be cached.
+	 */
+	@Test
+	public void doNotCacheSideEffects() {
+		CountingComponent cmp = new CountingComponent("cmp", true);
+		RenderCache cache = new RenderCache(10000);
+		
+		RenderResult renderResult = new RenderResult();
+		renderResult.setRenderCache(cache);
+		render(cmp, renderResult);
+		Assert.assertNotNull(renderResult.getAsyncMediaResponsible());
+		
+		RenderResult nextRenderResult = new RenderResult();
+		nextRenderResult.setRenderCache(cache);
+		render(cmp, nextRenderResult);
+		Assert.assertNotNull(nextRenderResult.getAsyncMediaResponsible());
+		Assert.assertEquals(2, cmp.getRenderCount());
+		Assert.assertEquals(0, cache.size());
+	}
+	
+	private static String render(Component cmp, RenderCache cache) {
+		RenderResult renderResult = new RenderResult();
+		renderResult.setRenderCache(cache);
+		return render(cmp, renderResult);
+	}
+	
+	private static String render(Component cmp, RenderResult renderResult) {
+		URLBuilder ubu = new URLBuilder("/olat/auth/", "1", "1", null);
+		AJAXFlags ajaxFlags = new AJAXFlags(mock(WindowManager.class));
+		GlobalSettings settings = new GlobalSettings() {
+			@Override
+			public AJAXFlags getAjaxFlags() {
+				return ajaxFlags;
+			}
+
+			@Override
+			public boolean isIdDivsForced() {
+				return false;
+			}
+		};
+		
+		StringOutput sb = new StringOutput();
+		Renderer renderer = Renderer.getInstance(null, null, ubu, renderResult, settings, null);
+		renderer.render(cmp, sb, null);
+		Assert.assertNull(renderResult.getRenderException());
+		return sb.toString();
+	}
+	
+	private static class CountingComponent extends AbstractComponent {
+		
+		private int renderCount = 0;
+		private final boolean asyncMedia;
+		
+		public CountingComponent(String name, boolean asyncMedia) {
+			super(name);
+			this.asyncMedia = asyncMedia;
+			setRenderCacheable(true);
+		}
+		
+		public int getRenderCount() {
+			return renderCount;
+		}
+
+		@Override
+		protected void doDispatchRequest(UserRequest ureq) {
+			//
+		}
+
+		@Override
+		public ComponentRenderer getHTMLRendererSingleton() {
+			return new DefaultComponentRenderer() {
+				@Override
+				public void render(Renderer renderer, StringOutput sb, Component source, URLBuilder ubu,
+						Translator translator, RenderResult renderResult, String[] args) {
+					renderCount++;
+					if(asyncMedia) {
+						renderResult.setAsyncMediaResponsible(ureq -> null);
+					}
+					sb.append("<p>").append(getComponentName()).append("</p>");
+				}
+			};
+		}
+	}
+	
+	private static String repeat(char c, int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for(int i=0; i<length; i++) {
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.render;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class StringOutputPoolTest {
+	
+	@Test
+	public void recycleSmallBuffer() {
+		StringOutput sb = StringOutputPool.allocStringBuilder(256);
+		sb.append("Hello");
+		String content = StringOutputPool.freePop(sb);
+		Assert.assertEquals("Hello", content);
+		
+		long recycledBefore = StringOutputPool.getRecycled();
+		StringOutput recycled = StringOutputPool.allocStringBuilder(128);
+		Assert.assertEquals(recycledBefore + 1, StringOutputPool.getRecycled());
+		Assert.assertEquals(0, recycled.length());
+		StringOutputPool.free(recycled);
+	}
+	
+	@Test
+	public void recycleWithSizeClasses() {
+		StringOutput medium = StringOutputPool.allocStringBuilder(20000);
+		StringOutputPool.free(medium);
+		
+		// too big for the medium buffer
+		StringOutput large = StringOutputPool.allocStringBuilder(100000);
+		Assert.assertNotSame(medium, large);
+		Assert.assertTrue(large.capacity() >= 100000);
+		
+		// a small request can use the medium buffer
+		StringOutput small = StringOutputPool.allocStringBuilder(1000);
+		Assert.assertTrue(small.capacity() >= 1000);
+		StringOutputPool.free(small);
+		StringOutputPool.free(large);
+	}
+	
+	@Test
+	public void doNotRetainHugeBuffers() {
+		StringOutput huge = StringOutputPool.allocStringBuilder(StringOutputPool.MAX_CAPACITY + 1);
+		long discarded = StringOutputPool.getDiscarded();
+		StringOutputPool.free(huge);
+		Assert.assertEquals(discarded + 1, StringOutputPool.getDiscarded());
+		
+		StringOutput next = StringOutputPool.allocStringBuilder(StringOutputPool.MAX_CAPACITY + 1);
+		Assert.assertNotSame(huge, next);
+	}
+	
+	@Test
+	public void cappedRetention() {
+		List<StringOutput> buffers = new ArrayList<>();
+		for(int i=0; i<StringOutputPool.SMALL_SLOTS + 4; i++) {
+			buffers.add(StringOutputPool.allocStringBuilder(64));
+		}
+		long discarded = StringOutputPool.getDiscarded();
+		for(StringOutput buffer:buffers) {
+			StringOutputPool.free(buffer);
+		}
+		// all the slots were taken, the rest has the same size and is dropped
+		Assert.assertTrue(StringOutputPool.getDiscarded() >= discarded + 4);
+	}
+	
+	@Test
+	public void noSharingBetweenThreads() throws InterruptedException {
+		int numOfThreads = 8;
+		int loops = 10000;
+		CountDownLatch latch = new CountDownLatch(numOfThreads);
+		ConcurrentHashMap<String,String> errors = new ConcurrentHashMap<>();
+		for(int i=0; i<numOfThreads; i++) {
+			final String name = "thread-" + i;
+			new Thread(() -> {
+				try {
+					for(int j=0; j<loops; j++) {
+						StringOutput sb = StringOutputPool.allocStringBuilder(j % 2 == 0 ? 64 : 8192);
+						sb.append(name).append(":").append(j);
+						String content = StringOutputPool.freePop(sb);
+						if(!content.equals(name + ":" + j)) {
+							errors.put(name, content);
+						}
+					}
+				} finally {
+					latch.countDown();
+				}
+			}, name).start();
+		}
+		
+		Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+		Assert.assertTrue(errors.isEmpty());
+		Assert.assertTrue(StringOutputPool.getRecycled() > 0);
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.logging.activity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class UserActivityLogWriterTest {
+	
+	private DB dbMock;
+	private EntityManager emMock;
+	
+	@Before
+	public void setUp() {
+		dbMock = mock(DB.class);
+		emMock = mock(EntityManager.class);
+		when(dbMock.getCurrentEntityManager()).thenReturn(emMock);
+	}
+	
+	@Test
+	public void shouldWriteSynchronouslyIfDisabled() throws Exception {
+		UserActivityLogWriter sut = createWriter(false, 10, 5);
+		
+		LoggingObject logObj = new LoggingObject("session", 123l, "u", "launch", "node");
+		sut.write(logObj);
+		
+		verify(dbMock).saveObject(logObj);
+		verify(emMock, never()).persist(any());
+		assertThat(sut.getQueued()).isZero();
+		sut.destroy();
+	}
+	
+	@Test
+	public void shouldFlushAllEntriesOnShutdown() throws Exception {
+		UserActivityLogWriter sut = createWriter(true, 100, 7);
+		
+		for(int i=0; i<50; i++) {
+			sut.write(new LoggingObject("session", 123l, "u", "launch", "node-" + i));
+		}
+		sut.destroy();
+		
+		verify(emMock, times(50)).persist(any(LoggingObject.class));
+		verify(dbMock, never()).saveObject(any());
+		assertThat(sut.getQueued()).isEqualTo(50);
+		assertThat(sut.getFlushed()).isEqualTo(50);
+		assertThat(sut.getDropped()).isZero();
+		assertThat(sut.getBatches()).isGreaterThanOrEqualTo(8);
+		assertThat(sut.getQueueDepth()).isZero();
+	}
+	
+	@Test
+	public void shouldCountFailedBatches() throws Exception {
+		when(emMock.unwrap(any())).thenThrow(new IllegalStateException("Test"));
+		UserActivityLogWriter sut = createWriter(true, 100, 10);
+		
+		for(int i=0; i<10; i++) {
+			sut.write(new LoggingObject("session", 123l, "u", "launch", "node-" + i));
+		}
+		sut.destroy();
+		
+		verify(dbMock, atLeastOnce()).rollbackAndCloseSession();
+		assertThat(sut.getFailed()).isEqualTo(10);
+		assertThat(sut.getFlushed()).isZero();
+	}
+	
+	private UserActivityLogWriter createWriter(boolean enabled, int queueSize, int batchSize) throws Exception {
+		UserActivityLogWriter writer = new UserActivityLogWriter(dbMock, null);
+		writer.setEnabled(enabled);
+		writer.setQueueSize(queueSize);
+		writer.setBatchSize(batchSize);
+		writer.setFlushInterval(60000l);
+		writer.setOfferTimeout(10l);
+		writer.afterPropertiesSet();
+		return writer;
+	}
+}
@@ -695,6 +695,60 @@ public class I18nTest extends OlatTestCase {
 	}
 
 	
+	/**
+	 * The compiled translation tables must deliver the same translations
+	 * as the standard lookup.
+	 */
+	@Test
+	public void compiledBundles() {
+		i18nMgr.setCachingEnabled(true);
+		String bundleName = "org.olat.core";
+		Locale locale = Locale.GERMAN;
+		String[] args = new String[] { "'a'", "b", "c", "d" };
+		
+		Properties properties = i18nMgr.getResolvedProperties(Locale.ENGLISH, bundleName);
+		Assert.assertFalse(properties.isEmpty());
+		for(String key:properties.stringPropertyNames()) {
+			String expected = i18nMgr.getLocalizedString(bundleName, key, null, locale, false, false, true, true, 0);
+			String compiled = i18nMgr.getLocalizedString(bundleName, key, null, locale, false, false);
+			Assert.assertEquals(expected, compiled);
+			
+			String expectedWithArgs = i18nMgr.getLocalizedString(bundleName, key, args, locale, false, false, true, true, 0);
+			String compiledWithArgs = i18nMgr.getLocalizedString(bundleName, key, args, locale, false, false);
+			Assert.assertEquals(expectedWithArgs, compiledWithArgs);
+		}
+		
+		// references resolved
+		assertEquals("Hello world, this is just a test (dont translate it)",
+				i18nMgr.getLocalizedString("org.olat.core.util.i18n.junittestdata.subtest", "recursive.test2", null, locale, false, true));
+		// unknown key
+		Assert.assertNull(i18nMgr.getLocalizedString(bundleName, "not.a.key.of.the.bundle", null, locale, false, false));
+	}
+	
+	/**
+	 * A re-initialization from an other node of the cluster must
+	 * drop the compiled translation tables.
+	 */
+	@Test
+	public void compiledBundlesReInitializeEvent() {
+		i18nMgr.setCachingEnabled(true);
+		String bundleName = "org.olat.core";
+		Locale locale = Locale.GERMAN;
+		
+		I18nCompiledBundle compiledBundle = i18nMgr.getCompiledBundle(bundleName, locale, false, false);
+		Assert.assertSame(compiledBundle, i18nMgr.getCompiledBundle(bundleName, locale, false, false));
+		
+		I18nReInitializeCachesEvent event = new I18nReInitializeCachesEvent();
+		event.setOriginNodeId(event.getOriginNodeId() + 1);
+		Assert.assertFalse(event.isEventOnThisNode());
+		i18nModule.event(event);
+		
+		I18nCompiledBundle rebuiltBundle = i18nMgr.getCompiledBundle(bundleName, locale, false, false);
+		Assert.assertNotSame(compiledBundle, rebuiltBundle);
+		assertEquals(i18nMgr.getLocalizedString(bundleName, "ok", null, locale, false, false, true, true, 0),
+				i18nMgr.getLocalizedString(bundleName, "ok", null, locale, false, false));
+	}
+	
 	/**
 	 * Description:<br>
 	 * Dummy URL builder
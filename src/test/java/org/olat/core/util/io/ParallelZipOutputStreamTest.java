@@ -0,0 +1,186 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class ParallelZipOutputStreamTest {
+	
+	private static ExecutorService executor;
+	
+	@BeforeClass
+	public static void startExecutor() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+	
+	@AfterClass
+	public static void stopExecutor() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void writeAndRead() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(ParallelZipOutputStream zout = new ParallelZipOutputStream(out, executor, 2)) {
+			for(int i=0; i<100; i++) {
+				zout.putNextEntry(new ZipEntry("dir/entry_" + i + ".txt"));
+				zout.write(content(i));
+				zout.closeEntry();
+			}
+			zout.writePendingEntries();
+			Assert.assertEquals(100, zout.getEntries());
+		}
+		
+		List<String> names = new ArrayList<>();
+		try(ZipInputStream zin = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			ZipEntry entry;
+			while((entry = zin.getNextEntry()) != null) {
+				int i = names.size();
+				names.add(entry.getName());
+				Assert.assertEquals("dir/entry_" + i + ".txt", entry.getName());
+				Assert.assertArrayEquals(content(i), zin.readAllBytes());
+			}
+		}
+		Assert.assertEquals(100, names.size());
+	}
+	
+	@Test
+	public void storeCompressedFormats() throws IOException {
+		byte[] video = new byte[32 * 1024];
+		new Random(1).nextBytes(video);
+		Path file = Files.createTempFile("movie", ".mp4");
+		Files.write(file, video);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(ParallelZipOutputStream zout = new ParallelZipOutputStream(out, executor, 4)) {
+			zout.putNextEntry(new ZipEntry("readme.txt"));
+			zout.write(content(200));
+			zout.closeEntry();
+			zout.putFile("media/movie.mp4", file);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+		
+		try(ZipInputStream zin = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			ZipEntry readme = zin.getNextEntry();
+			Assert.assertEquals("readme.txt", readme.getName());
+			Assert.assertEquals(ZipEntry.DEFLATED, readme.getMethod());
+			Assert.assertArrayEquals(content(200), zin.readAllBytes());
+			
+			ZipEntry movie = zin.getNextEntry();
+			Assert.assertEquals("media/movie.mp4", movie.getName());
+			Assert.assertEquals(ZipEntry.STORED, movie.getMethod());
+			Assert.assertArrayEquals(video, zin.readAllBytes());
+			Assert.assertNull(zin.getNextEntry());
+		}
+	}
+	
+	/**
+	 * The temporary files of the exports are deleted as soon as they are
+	 * in the zip, the lazy read of the workers must be done by then.
+	 */
+	@Test
+	public void deleteFileAfterWritePendingEntries() throws IOException {
+		byte[] video = new byte[32 * 1024];
+		new Random(2).nextBytes(video);
+		Path directory = Files.createTempDirectory("export");
+		Path movieFile = Files.write(directory.resolve("movie.mp4"), video);
+		Path textFile = Files.write(directory.resolve("export.xml"), content(300));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(ParallelZipOutputStream zout = new ParallelZipOutputStream(out, executor, 4)) {
+			zout.putFile("export/movie.mp4", movieFile);
+			zout.putFile("export/export.xml", textFile);
+			zout.writePendingEntries();
+			Assert.assertEquals(2, zout.getEntries());
+			
+			Files.delete(movieFile);
+			Files.delete(textFile);
+			Files.delete(directory);
+			
+			zout.putNextEntry(new ZipEntry("readme.txt"));
+			zout.write(content(10));
+			zout.closeEntry();
+		}
+		
+		try(ZipInputStream zin = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			ZipEntry movie = zin.getNextEntry();
+			Assert.assertEquals("export/movie.mp4", movie.getName());
+			Assert.assertArrayEquals(video, zin.readAllBytes());
+			ZipEntry text = zin.getNextEntry();
+			Assert.assertEquals("export/export.xml", text.getName());
+			Assert.assertArrayEquals(content(300), zin.readAllBytes());
+			ZipEntry readme = zin.getNextEntry();
+			Assert.assertEquals("readme.txt", readme.getName());
+			Assert.assertArrayEquals(content(10), zin.readAllBytes());
+			Assert.assertNull(zin.getNextEntry());
+		}
+	}
+	
+	@Test
+	public void isCompressedFormat() {
+		Assert.assertTrue(ParallelZipOutputStream.isCompressedFormat("movie.MP4"));
+		Assert.assertTrue(ParallelZipOutputStream.isCompressedFormat("dir/image.png"));
+		Assert.assertTrue(ParallelZipOutputStream.isCompressedFormat("oocoursefolder.zip"));
+		Assert.assertFalse(ParallelZipOutputStream.isCompressedFormat("course.xml"));
+		Assert.assertFalse(ParallelZipOutputStream.isCompressedFormat("dir.png/readme"));
+		Assert.assertFalse(ParallelZipOutputStream.isCompressedFormat(null));
+	}
+	
+	@Test(expected=ZipException.class)
+	public void duplicateEntry() throws IOException {
+		try(ParallelZipOutputStream zout = new ParallelZipOutputStream(new ByteArrayOutputStream(), executor, 4)) {
+			zout.putNextEntry(new ZipEntry("entry.txt"));
+			zout.closeEntry();
+			zout.putNextEntry(new ZipEntry("entry.txt"));
+		}
+	}
+	
+	private static byte[] content(int i) {
+		StringBuilder sb = new StringBuilder();
+		for(int j=0; j<=i; j++) {
+			sb.append("Line ").append(j).append(" of the entry ").append(i).append('\n');
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
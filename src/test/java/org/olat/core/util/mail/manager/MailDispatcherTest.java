@@ -0,0 +1,249 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+import javax.mail.Address;
+import javax.mail.Message.RecipientType;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.olat.core.util.WebappHelper;
+
+import com.dumbster.smtp.SimpleSmtpServer;
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class MailDispatcherTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private String mailhost;
+	private String mailport;
+	private SimpleSmtpServer smtpServer;
+	private MailDispatcher dispatcher;
+	
+	@Before
+	public void startSmtpServer() throws IOException {
+		mailhost = WebappHelper.getMailConfig("mailhost");
+		mailport = WebappHelper.getMailConfig("mailport");
+		smtpServer = SimpleSmtpServer.start(SimpleSmtpServer.AUTO_SMTP_PORT);
+		WebappHelper.setMailConfig("mailhost", "localhost");
+		WebappHelper.setMailConfig("mailport", String.valueOf(smtpServer.getPort()));
+	}
+	
+	@After
+	public void stopSmtpServer() throws Exception {
+		if(dispatcher != null) {
+			dispatcher.destroy();
+		}
+		smtpServer.stop();
+		WebappHelper.setMailConfig("mailhost", mailhost);
+		WebappHelper.setMailConfig("mailport", mailport);
+	}
+	
+	@Test
+	public void sendReuseConnection() throws Exception {
+		dispatcher = createDispatcher();
+		for(int i=0; i<5; i++) {
+			dispatcher.send(createMessage(i));
+		}
+		
+		Assert.assertEquals(5, dispatcher.getSent());
+		Assert.assertEquals(0, dispatcher.getFailed());
+		Assert.assertEquals(1, dispatcher.getConnectionsOpened());
+		Assert.assertEquals(4, dispatcher.getConnectionsReused());
+		
+		// the server records the messages when the connection is closed
+		dispatcher.destroy();
+		Assert.assertTrue(waitFor(() -> smtpServer.getReceivedEmails().size() == 5));
+	}
+	
+	@Test
+	public void queue() throws Exception {
+		dispatcher = createDispatcher();
+		for(int i=0; i<3; i++) {
+			Assert.assertTrue(dispatcher.queue(createMessage(i)));
+		}
+		
+		Assert.assertTrue(waitFor(() -> dispatcher.getSent() == 3));
+		Assert.assertEquals(3, dispatcher.getQueued());
+		Assert.assertEquals(0, dispatcher.getQueueDepth());
+		Assert.assertEquals(0, countSpooledMails());
+		
+		dispatcher.destroy();
+		Assert.assertTrue(waitFor(() -> smtpServer.getReceivedEmails().size() == 3));
+	}
+	
+	@Test
+	public void queueRetryAndGiveUp() throws Exception {
+		// a port without server
+		try(ServerSocket socket = new ServerSocket(0)) {
+			WebappHelper.setMailConfig("mailport", String.valueOf(socket.getLocalPort()));
+		}
+		
+		dispatcher = createDispatcher();
+		Assert.assertTrue(dispatcher.queue(createMessage(1)));
+		
+		Assert.assertTrue(waitFor(() -> dispatcher.getDeadLetters() == 1));
+		Assert.assertEquals(2, dispatcher.getRetries());
+		Assert.assertEquals(0, dispatcher.getSent());
+		Assert.assertEquals(0, countSpooledMails());
+		Assert.assertEquals(1, new File(folder.getRoot(), "failed").listFiles().length);
+	}
+	
+	@Test
+	public void recoverSpool() throws Exception {
+		// spool a message without workers to send it
+		try(ServerSocket socket = new ServerSocket(0)) {
+			WebappHelper.setMailConfig("mailport", String.valueOf(socket.getLocalPort()));
+		}
+		MailDispatcher stopped = createDispatcher();
+		stopped.setRetryDelay(60000);
+		Assert.assertTrue(stopped.queue(createMessage(1)));
+		stopped.destroy();
+		Assert.assertEquals(1, countSpooledMails());
+		
+		// restart the dispatcher with the right server
+		WebappHelper.setMailConfig("mailport", String.valueOf(smtpServer.getPort()));
+		dispatcher = createDispatcher();
+		Assert.assertTrue(waitFor(() -> dispatcher.getSent() == 1));
+		Assert.assertEquals(0, countSpooledMails());
+	}
+	
+	@Test
+	public void rateLimit() throws Exception {
+		dispatcher = createDispatcher();
+		dispatcher.setRateLimit(20);
+		
+		long start = System.nanoTime();
+		for(int i=0; i<5; i++) {
+			dispatcher.send(createMessage(i));
+		}
+		long duration = (System.nanoTime() - start) / 1000000l;
+		// 5 messages at 20/s need at least 4 * 50ms
+		Assert.assertTrue(duration >= 190);
+		Assert.assertTrue(dispatcher.getRateLimitWaits() >= 4);
+	}
+	
+	@Test
+	public void retryTemporaryRecipients() throws Exception {
+		InternetAddress greylisted = new InternetAddress("rcpt1@openolat.org");
+		InternetAddress unknown = new InternetAddress("rcpt2@openolat.org");
+		InternetAddress delivered = new InternetAddress("rcpt3@openolat.org");
+		Address[] recipients = new Address[] { greylisted, unknown, delivered };
+		
+		SMTPSendFailedException e = new SMTPSendFailedException(".", 250, "OK", null,
+				new Address[] { delivered }, new Address[] { greylisted }, new Address[] { unknown });
+		SMTPAddressFailedException greylistedException = new SMTPAddressFailedException(greylisted, "RCPT TO", 450, "Greylisted");
+		e.setNextException(greylistedException);
+		greylistedException.setNextException(new SMTPAddressFailedException(unknown, "RCPT TO", 550, "User unknown"));
+		
+		Address[] retryRecipients = MailDispatcher.getRetryRecipients(e, recipients);
+		Assert.assertArrayEquals(new Address[] { greylisted }, retryRecipients);
+	}
+	
+	@Test
+	public void retryTemporaryTransaction() throws Exception {
+		InternetAddress unknown = new InternetAddress("rcpt1@openolat.org");
+		InternetAddress valid = new InternetAddress("rcpt2@openolat.org");
+		Address[] recipients = new Address[] { unknown, valid };
+		
+		SMTPSendFailedException e = new SMTPSendFailedException("DATA", 451, "Try again later", null,
+				null, new Address[] { valid }, new Address[] { unknown });
+		e.setNextException(new SMTPAddressFailedException(unknown, "RCPT TO", 550, "User unknown"));
+		
+		Address[] retryRecipients = MailDispatcher.getRetryRecipients(e, recipients);
+		Assert.assertArrayEquals(new Address[] { valid }, retryRecipients);
+	}
+	
+	@Test
+	public void doNotRetryPermanentFailure() throws Exception {
+		InternetAddress unknown = new InternetAddress("rcpt1@openolat.org");
+		Address[] recipients = new Address[] { unknown };
+		
+		SMTPSendFailedException e = new SMTPSendFailedException("MAIL FROM", 553, "Sender refused", null,
+				null, recipients, null);
+		Assert.assertNull(MailDispatcher.getRetryRecipients(e, recipients));
+		
+		SMTPAddressFailedException afe = new SMTPAddressFailedException(unknown, "RCPT TO", 550, "User unknown");
+		Assert.assertNull(MailDispatcher.getRetryRecipients(afe, recipients));
+		
+		// no SMTP return code at all
+		Assert.assertNull(MailDispatcher.getRetryRecipients(new SendFailedException("No recipient addresses"), recipients));
+	}
+	
+	private MailDispatcher createDispatcher() throws Exception {
+		MailDispatcher mailDispatcher = new MailDispatcher(null);
+		mailDispatcher.setEnabled(true);
+		mailDispatcher.setPoolSize(2);
+		mailDispatcher.setPoolTimeout(5000);
+		mailDispatcher.setConnectionIdle(60000);
+		mailDispatcher.setConnectionMaxMessages(100);
+		mailDispatcher.setWorkers(1);
+		mailDispatcher.setRetryMax(3);
+		mailDispatcher.setRetryDelay(50);
+		mailDispatcher.setSpoolDirectory(folder.getRoot());
+		mailDispatcher.afterPropertiesSet();
+		return mailDispatcher;
+	}
+	
+	private MimeMessage createMessage(int i) throws MessagingException {
+		MimeMessage msg = new MimeMessage(Session.getInstance(new Properties()));
+		msg.setFrom(new InternetAddress("sender@openolat.org"));
+		msg.addRecipient(RecipientType.TO, new InternetAddress("rcpt" + i + "@openolat.org"));
+		msg.setSubject("Pooled " + i, "utf-8");
+		msg.setText("Hello " + i, "utf-8");
+		msg.saveChanges();
+		return msg;
+	}
+	
+	private int countSpooledMails() {
+		File[] files = folder.getRoot().listFiles((dir, name) -> name.endsWith(".eml"));
+		return files == null ? 0 : files.length;
+	}
+	
+	private boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+		for(int i=0; i<100 && !condition.getAsBoolean(); i++) {
+			Thread.sleep(100);
+		}
+		return condition.getAsBoolean();
+	}
+}
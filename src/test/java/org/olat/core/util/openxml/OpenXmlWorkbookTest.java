@@ -22,7 +22,11 @@ package org.olat.core.util.openxml;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
@@ -74,6 +78,45 @@ public class OpenXmlWorkbookTest {
 		file.delete();
 	}
 	
+	@Test
+	public void creationOfWorkbookWithInlineStrings() throws IOException {
+		File file = File.createTempFile("workbook", "_inline.xlsx");
+		try(FileOutputStream fileOut = new FileOutputStream(file);
+				OpenXMLWorkbook workbook = new OpenXMLWorkbook(fileOut, 1)) {
+			workbook.setInlineStrings(true);
+			OpenXMLWorksheet sheet = workbook.nextWorksheet();
+			for(int i=0; i<1000; i++) {
+				Row row = sheet.newRow();
+				row.addCell(0, "Row <" + i + ">", null);
+				row.addCell(1, i, null);
+			}
+			// only the default string
+			Assert.assertEquals(1, workbook.getSharedStrings().size());
+		}
+		
+		try(ZipFile zipFile = new ZipFile(file)) {
+			ZipEntry sheetEntry = zipFile.getEntry("xl/worksheets/sheet1.xml");
+			Assert.assertNotNull(sheetEntry);
+			try(InputStream in = zipFile.getInputStream(sheetEntry)) {
+				String sheetXml = IOUtils.toString(in, StandardCharsets.UTF_8);
+				Assert.assertTrue(sheetXml.contains("t=\"inlineStr\""));
+				Assert.assertTrue(sheetXml.contains("Row <999>"));
+			}
+		} finally {
+			file.delete();
+		}
+	}
+	
+	@Test
+	public void sharedStrings() {
+		OpenXMLWorkbookSharedStrings sharedStrings = new OpenXMLWorkbookSharedStrings();
+		int index = sharedStrings.add("Hello");
+		Assert.assertEquals(1, index);
+		Assert.assertEquals(2, sharedStrings.add("World"));
+		Assert.assertEquals(index, sharedStrings.add("Hello"));
+		Assert.assertEquals(3, sharedStrings.size());
+	}
+	
 	/**
 	 * Don't forget that the argument of getColumn is zero based
 	 * @throws IOException
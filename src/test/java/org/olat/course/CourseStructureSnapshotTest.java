@@ -0,0 +1,135 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.olat.core.util.nodes.INode;
+
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class CourseStructureSnapshotTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void writeReadSnapshot() throws IOException {
+		File xmlFile = copyRunStructure();
+		File snapshotFile = new File(xmlFile.getParentFile(), CourseStructureSnapshot.RUNSTRUCTURE_SNAPSHOT);
+		Structure structure = readXml(xmlFile);
+		
+		boolean written = CourseStructureSnapshot.write(structure, xmlFile, snapshotFile);
+		Assert.assertTrue(written);
+		Assert.assertTrue(snapshotFile.exists());
+		
+		Structure snapshot = CourseStructureSnapshot.read(xmlFile, snapshotFile);
+		Assert.assertNotNull(snapshot);
+		Assert.assertEquals(structure.getVersion(), snapshot.getVersion());
+		Assert.assertEquals(collectIdents(structure.getRootNode()), collectIdents(snapshot.getRootNode()));
+		Assert.assertEquals(structure.getRootNode().getShortTitle(), snapshot.getRootNode().getShortTitle());
+	}
+	
+	@Test
+	public void staleSnapshot() throws IOException {
+		File xmlFile = copyRunStructure();
+		File snapshotFile = new File(xmlFile.getParentFile(), CourseStructureSnapshot.RUNSTRUCTURE_SNAPSHOT);
+		Structure structure = readXml(xmlFile);
+		CourseStructureSnapshot.write(structure, xmlFile, snapshotFile);
+		
+		// the XML is changed after the snapshot
+		Files.write(xmlFile.toPath(), "\n".getBytes(), StandardOpenOption.APPEND);
+		
+		Structure snapshot = CourseStructureSnapshot.read(xmlFile, snapshotFile);
+		Assert.assertNull(snapshot);
+	}
+	
+	@Test
+	public void missingSnapshot() throws IOException {
+		File xmlFile = copyRunStructure();
+		File snapshotFile = new File(xmlFile.getParentFile(), CourseStructureSnapshot.RUNSTRUCTURE_SNAPSHOT);
+		Assert.assertNull(CourseStructureSnapshot.read(xmlFile, snapshotFile));
+	}
+	
+	@Test
+	public void corruptedSnapshot() throws IOException {
+		File xmlFile = copyRunStructure();
+		File snapshotFile = new File(xmlFile.getParentFile(), CourseStructureSnapshot.RUNSTRUCTURE_SNAPSHOT);
+		Files.write(snapshotFile.toPath(), "Not a snapshot".getBytes());
+		Assert.assertNull(CourseStructureSnapshot.read(xmlFile, snapshotFile));
+	}
+	
+	@Test
+	public void notAllowedClassInSnapshot() throws IOException {
+		File xmlFile = copyRunStructure();
+		File snapshotFile = new File(xmlFile.getParentFile(), CourseStructureSnapshot.RUNSTRUCTURE_SNAPSHOT);
+		Structure structure = readXml(xmlFile);
+		structure.getRootNode().getModuleConfiguration().set("not.allowed", URI.create("https://www.openolat.org"));
+		CourseStructureSnapshot.write(structure, xmlFile, snapshotFile);
+		Assert.assertTrue(snapshotFile.exists());
+		
+		Assert.assertNull(CourseStructureSnapshot.read(xmlFile, snapshotFile));
+	}
+	
+	private File copyRunStructure() throws IOException {
+		File xmlFile = new File(folder.newFolder(), PersistingCourseImpl.RUNSTRUCTURE_XML);
+		try(InputStream in = CourseStructureSnapshotTest.class.getResourceAsStream("runstructure_allinone.xml")) {
+			Files.copy(in, xmlFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return xmlFile;
+	}
+	
+	private Structure readXml(File xmlFile) throws IOException {
+		XStream xStream = CourseXStreamAliases.getReadCourseXStream();
+		try(InputStream in = Files.newInputStream(xmlFile.toPath())) {
+			return (Structure)xStream.fromXML(in);
+		}
+	}
+	
+	private List<String> collectIdents(INode node) {
+		List<String> idents = new ArrayList<>();
+		collectIdents(node, idents);
+		return idents;
+	}
+	
+	private void collectIdents(INode node, List<String> idents) {
+		idents.add(node.getIdent());
+		for(int i=0; i<node.getChildCount(); i++) {
+			collectIdents(node.getChildAt(i), idents);
+		}
+	}
+}
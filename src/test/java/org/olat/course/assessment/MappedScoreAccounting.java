@@ -19,6 +19,7 @@
  */
 package org.olat.course.assessment;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -50,6 +51,11 @@ public class MappedScoreAccounting implements ScoreAccounting {
 		return false;
 	}
 
+	@Override
+	public void evaluate(Collection<? extends CourseNode> changedNodes) {
+		//
+	}
+
 	@Override
 	public AssessmentEvaluation getScoreEvaluation(CourseNode courseNode) {
 		return nodeToEvaluation.get(courseNode);
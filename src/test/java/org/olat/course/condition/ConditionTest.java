@@ -49,6 +49,26 @@ public class ConditionTest extends OlatTestCase {
 		Assert.assertFalse(result);
 	}
 	
+	@Test
+	public void compiledExpressionSharedByUsers() {
+		UserCourseEnvironment uce = getUserDemoCourseEnvironment();
+		ConditionInterpreter interpreter = new ConditionInterpreter(uce);
+		UserCourseEnvironment otherUce = getUserCourseEnvironment(JunitTestHelper.createAndPersistIdentityAsRndUser("condition-"));
+		ConditionInterpreter otherInterpreter = new ConditionInterpreter(otherUce);
+		
+		String condition = "hasUserProperty(\"firstName\", \"firstcondition\") & (now > date(\"01.01.2010 00:00\"))";
+		long misses = ConditionInterpreter.getCompiledExpressions().getMisses();
+		Assert.assertTrue(interpreter.evaluateCondition(condition));
+		Assert.assertFalse(otherInterpreter.evaluateCondition(condition));
+		Assert.assertTrue(interpreter.evaluateCondition(condition));
+		// parsed only once
+		Assert.assertEquals(misses + 1, ConditionInterpreter.getCompiledExpressions().getMisses());
+		
+		ConditionInterpreter.clearCompiledExpressions();
+		Assert.assertFalse(otherInterpreter.evaluateCondition(condition));
+		Assert.assertEquals(misses + 2, ConditionInterpreter.getCompiledExpressions().getMisses());
+	}
+	
 	@Test
 	public void testTrueFalse(){
 		UserCourseEnvironment uce = getUserDemoCourseEnvironment();
@@ -327,8 +347,12 @@ public class ConditionTest extends OlatTestCase {
 
 	
 	private UserCourseEnvironment getUserDemoCourseEnvironment() {
-		Identity author = JunitTestHelper.createAndPersistIdentityAsRndUser("junit_auth");
 		Identity id = JunitTestHelper.createAndPersistIdentityAsUser("condition");
+		return getUserCourseEnvironment(id);
+	}
+	
+	private UserCourseEnvironment getUserCourseEnvironment(Identity id) {
+		Identity author = JunitTestHelper.createAndPersistIdentityAsRndUser("junit_auth");
 		Roles roles = Roles.userRoles();
 		RepositoryEntry re = JunitTestHelper.deployDemoCourse(author);
 		ICourse course = CourseFactory.loadCourse(re);
@@ -19,9 +19,12 @@
  */
 package org.olat.course.run.scoring;
 
+import java.math.BigDecimal;
 import java.util.Date;
+import java.util.List;
 
 import org.assertj.core.api.SoftAssertions;
+import org.junit.Assert;
 import org.junit.Test;
 import org.olat.core.commons.persistence.DB;
 import org.olat.core.id.Identity;
@@ -33,6 +36,7 @@ import org.olat.course.Structure;
 import org.olat.course.learningpath.LearningPathService;
 import org.olat.course.learningpath.manager.LearningPathNodeAccessProvider;
 import org.olat.course.nodes.CourseNode;
+import org.olat.course.nodes.MSCourseNode;
 import org.olat.course.nodes.SPCourseNode;
 import org.olat.course.nodes.STCourseNode;
 import org.olat.course.run.environment.CourseEnvironment;
@@ -583,6 +587,217 @@ public class AssessmentAccountingTest extends OlatTestCase {
 		softly.assertAll();
 	}
 
+	/**
+	 * Course (conventional, score of ST 1 and ST 2)
+	 *   - ST 1 (score of MS 1)
+	 *     - MS 1
+	 *   - ST 2 (score of MS 1 and MS 3)
+	 *     - MS 2
+	 *   - ST 3
+	 *     - MS 3
+	 */
+	@Test
+	public void testEvaluateChangedCourseNodes() {
+		// Create course
+		Identity author = JunitTestHelper.createAndPersistIdentityAsAuthor("author");
+		RepositoryEntry courseEntry = JunitTestHelper.deployEmptyCourse(author, "Conventional",
+				RepositoryEntryStatusEnum.published, true, false);
+		ICourse course = CourseFactory.loadCourse(courseEntry);
+		CourseEnvironment courseEnv = course.getCourseEnvironment();
+		
+		// Make the course runtime structure
+		Structure runStructure = courseEnv.getRunStructure();
+		STCourseNode root = (STCourseNode)runStructure.getRootNode();
+		STCourseNode st_1 = new STCourseNode();
+		root.addChild(st_1);
+		MSCourseNode ms_1 = new MSCourseNode();
+		st_1.addChild(ms_1);
+		STCourseNode st_2 = new STCourseNode();
+		root.addChild(st_2);
+		MSCourseNode ms_2 = new MSCourseNode();
+		st_2.addChild(ms_2);
+		STCourseNode st_3 = new STCourseNode();
+		root.addChild(st_3);
+		MSCourseNode ms_3 = new MSCourseNode();
+		st_3.addChild(ms_3);
+		
+		st_1.getScoreCalculator().setScoreExpression("getScore(\"" + ms_1.getIdent() + "\")");
+		st_2.getScoreCalculator().setScoreExpression("getScore(\"" + ms_1.getIdent() + "\") + getScore(\"" + ms_3.getIdent() + "\")");
+		root.getScoreCalculator().setScoreExpression("getScore(\"" + st_1.getIdent() + "\") + getScore(\"" + st_2.getIdent() + "\")");
+		
+		// Add a participant to the course
+		Identity participant = JunitTestHelper.createAndPersistIdentityAsUser("participant");
+		IdentityEnvironment identityEnv = new IdentityEnvironment();
+		identityEnv.setIdentity(participant);
+		UserCourseEnvironmentImpl userCourseEnv = new UserCourseEnvironmentImpl(identityEnv, courseEnv);
+		userCourseEnv.setUserRoles(false, false, true);
+		dbInstance.commitAndCloseSession();
+		
+		// Init the AssessmentAccounting
+		ScoreAccounting scoreAccounting = userCourseEnv.getScoreAccounting();
+		scoreAccounting.evaluateAll(true);
+		dbInstance.commitAndCloseSession();
+		
+		// Only the dependencies of ms_1 are evaluated
+		setScore(participant, courseEntry, ms_1, 2.0f);
+		scoreAccounting.evaluate(List.of(ms_1));
+		dbInstance.commitAndCloseSession();
+		
+		SoftAssertions softly = new SoftAssertions();
+		softly.assertThat(scoreAccounting.evalCourseNode(st_1).getScore()).as("st_1").isEqualTo(2.0f);
+		softly.assertThat(scoreAccounting.evalCourseNode(st_2).getScore()).as("st_2").isEqualTo(2.0f);
+		softly.assertThat(scoreAccounting.evalCourseNode(root).getScore()).as("root").isEqualTo(4.0f);
+		softly.assertAll();
+		
+		// Change ms_3, which is referenced by st_2 outside of its children
+		setScore(participant, courseEntry, ms_3, 3.0f);
+		scoreAccounting.evaluate(List.of(ms_3));
+		dbInstance.commitAndCloseSession();
+		
+		softly = new SoftAssertions();
+		softly.assertThat(scoreAccounting.evalCourseNode(st_1).getScore()).as("st_1").isEqualTo(2.0f);
+		softly.assertThat(scoreAccounting.evalCourseNode(st_2).getScore()).as("st_2").isEqualTo(5.0f);
+		softly.assertThat(scoreAccounting.evalCourseNode(root).getScore()).as("root").isEqualTo(7.0f);
+		softly.assertAll();
+		
+		// The entries are the same as after a complete evaluation
+		scoreAccounting.evaluateAll(true);
+		dbInstance.commitAndCloseSession();
+		
+		softly = new SoftAssertions();
+		softly.assertThat(scoreAccounting.evalCourseNode(st_2).getScore()).as("st_2").isEqualTo(5.0f);
+		softly.assertThat(scoreAccounting.evalCourseNode(root).getScore()).as("root").isEqualTo(7.0f);
+		softly.assertThat(assessmentService.loadAssessmentEntry(participant, courseEntry, st_2.getIdent()).getScore())
+			.as("st_2 entry").isEqualByComparingTo(new BigDecimal("5"));
+		softly.assertAll();
+	}
+
+	/**
+	 * Course (conventional)
+	 *   - ST 1 (passed with MS 1 or after a date)
+	 *     - MS 1
+	 *   - MS 2
+	 */
+	@Test
+	public void testEvaluateChangedCourseNodesWithDateExpression() {
+		// Create course
+		Identity author = JunitTestHelper.createAndPersistIdentityAsAuthor("author");
+		RepositoryEntry courseEntry = JunitTestHelper.deployEmptyCourse(author, "Conventional",
+				RepositoryEntryStatusEnum.published, true, false);
+		ICourse course = CourseFactory.loadCourse(courseEntry);
+		CourseEnvironment courseEnv = course.getCourseEnvironment();
+		
+		Structure runStructure = courseEnv.getRunStructure();
+		STCourseNode root = (STCourseNode)runStructure.getRootNode();
+		STCourseNode st_1 = new STCourseNode();
+		root.addChild(st_1);
+		MSCourseNode ms_1 = new MSCourseNode();
+		st_1.addChild(ms_1);
+		MSCourseNode ms_2 = new MSCourseNode();
+		root.addChild(ms_2);
+		st_1.getScoreCalculator().setScoreExpression("getScore(\"" + ms_1.getIdent() + "\")");
+		Assert.assertFalse(new CourseNodeDependencies(root).hasUntrackedDependencies());
+		st_1.getScoreCalculator().setPassedExpression("getPassed(\"" + ms_1.getIdent() + "\") | (now > date(\"01.01.2010 00:00\"))");
+		Assert.assertTrue(new CourseNodeDependencies(root).hasUntrackedDependencies());
+		
+		Identity participant = JunitTestHelper.createAndPersistIdentityAsUser("participant");
+		IdentityEnvironment identityEnv = new IdentityEnvironment();
+		identityEnv.setIdentity(participant);
+		UserCourseEnvironmentImpl userCourseEnv = new UserCourseEnvironmentImpl(identityEnv, courseEnv);
+		userCourseEnv.setUserRoles(false, false, true);
+		dbInstance.commitAndCloseSession();
+		
+		ScoreAccounting scoreAccounting = userCourseEnv.getScoreAccounting();
+		scoreAccounting.evaluateAll(true);
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(Boolean.TRUE, scoreAccounting.evalCourseNode(st_1).getPassed());
+		
+		// Reset the passed of ST 1 as if the date was not reached at the last evaluation
+		AssessmentEntry stEntry = assessmentService.loadAssessmentEntry(participant, courseEntry, st_1.getIdent());
+		stEntry.setPassed(null);
+		assessmentService.updateAssessmentEntry(stEntry);
+		dbInstance.commitAndCloseSession();
+		
+		// MS 2 is not referenced by ST 1 but the date makes ST 1 passed
+		setScore(participant, courseEntry, ms_2, 3.0f);
+		scoreAccounting.evaluate(List.of(ms_2));
+		dbInstance.commitAndCloseSession();
+		
+		SoftAssertions softly = new SoftAssertions();
+		softly.assertThat(scoreAccounting.evalCourseNode(st_1).getPassed()).as("st_1").isTrue();
+		softly.assertThat(assessmentService.loadAssessmentEntry(participant, courseEntry, st_1.getIdent()).getPassed())
+			.as("st_1 entry").isTrue();
+		softly.assertAll();
+	}
+
+	/**
+	 * Course (conventional, score of ST 1)
+	 *   - ST 1 (score of MS 1 and MS 2)
+	 *     - MS 1
+	 *   - MS 2
+	 */
+	@Test
+	public void testEvaluateAllWithLoadedEntries() {
+		// Create course
+		Identity author = JunitTestHelper.createAndPersistIdentityAsAuthor("author");
+		RepositoryEntry courseEntry = JunitTestHelper.deployEmptyCourse(author, "Conventional",
+				RepositoryEntryStatusEnum.published, true, false);
+		ICourse course = CourseFactory.loadCourse(courseEntry);
+		CourseEnvironment courseEnv = course.getCourseEnvironment();
+		
+		Structure runStructure = courseEnv.getRunStructure();
+		STCourseNode root = (STCourseNode)runStructure.getRootNode();
+		STCourseNode st_1 = new STCourseNode();
+		root.addChild(st_1);
+		MSCourseNode ms_1 = new MSCourseNode();
+		st_1.addChild(ms_1);
+		MSCourseNode ms_2 = new MSCourseNode();
+		root.addChild(ms_2);
+		st_1.getScoreCalculator().setScoreExpression("getScore(\"" + ms_1.getIdent() + "\") + getScore(\"" + ms_2.getIdent() + "\")");
+		root.getScoreCalculator().setScoreExpression("getScore(\"" + st_1.getIdent() + "\")");
+		
+		Identity participant = JunitTestHelper.createAndPersistIdentityAsUser("participant");
+		IdentityEnvironment identityEnv = new IdentityEnvironment();
+		identityEnv.setIdentity(participant);
+		UserCourseEnvironmentImpl userCourseEnv = new UserCourseEnvironmentImpl(identityEnv, courseEnv);
+		userCourseEnv.setUserRoles(false, false, true);
+		dbInstance.commitAndCloseSession();
+		
+		userCourseEnv.getScoreAccounting().evaluateAll(true);
+		dbInstance.commitAndCloseSession();
+		setScore(participant, courseEntry, ms_1, 2.0f);
+		setScore(participant, courseEntry, ms_2, 3.0f);
+		userCourseEnv.getScoreAccounting().evaluate(List.of(ms_1, ms_2));
+		dbInstance.commitAndCloseSession();
+		
+		// Evaluate with the entries loaded in bulk, like the results archive
+		List<AssessmentEntry> entries = assessmentService.loadAssessmentEntriesByAssessedIdentity(participant, courseEntry);
+		AssessmentAccounting scoreAccounting = new AssessmentAccounting(userCourseEnv);
+		scoreAccounting.evaluateAll(entries);
+		
+		SoftAssertions softly = new SoftAssertions();
+		softly.assertThat(scoreAccounting.evalCourseNode(ms_1).getScore()).as("ms_1").isEqualTo(2.0f);
+		softly.assertThat(scoreAccounting.evalCourseNode(st_1).getScore()).as("st_1").isEqualTo(5.0f);
+		softly.assertThat(scoreAccounting.evalCourseNode(root).getScore()).as("root").isEqualTo(5.0f);
+		softly.assertAll();
+		
+		// A user without entries gets empty evaluations, no entries are created
+		Identity newParticipant = JunitTestHelper.createAndPersistIdentityAsUser("participant");
+		IdentityEnvironment newIdentityEnv = new IdentityEnvironment();
+		newIdentityEnv.setIdentity(newParticipant);
+		UserCourseEnvironmentImpl newUserCourseEnv = new UserCourseEnvironmentImpl(newIdentityEnv, courseEnv);
+		newUserCourseEnv.setUserRoles(false, false, true);
+		AssessmentAccounting newScoreAccounting = new AssessmentAccounting(newUserCourseEnv);
+		newScoreAccounting.evaluateAll(List.of());
+		dbInstance.commitAndCloseSession();
+		
+		softly = new SoftAssertions();
+		softly.assertThat(newScoreAccounting.evalCourseNode(st_1).getScore()).as("new st_1").isNull();
+		softly.assertThat(assessmentService.loadAssessmentEntriesByAssessedIdentity(newParticipant, courseEntry))
+			.as("new entries").isEmpty();
+		softly.assertAll();
+	}
+
 	private void setDone(Identity identity, RepositoryEntry entry, SPCourseNode courseNode) {
 		AssessmentEntry assessmentEntry = assessmentService.loadAssessmentEntry(identity, entry, courseNode.getIdent());
 		assessmentEntry.setFullyAssessed(Boolean.TRUE);
@@ -591,6 +806,13 @@ public class AssessmentAccountingTest extends OlatTestCase {
 		dbInstance.commitAndCloseSession();
 	}
 
+	private void setScore(Identity identity, RepositoryEntry entry, MSCourseNode courseNode, float score) {
+		AssessmentEntry assessmentEntry = assessmentService.loadAssessmentEntry(identity, entry, courseNode.getIdent());
+		assessmentEntry.setScore(new BigDecimal(score));
+		assessmentService.updateAssessmentEntry(assessmentEntry);
+		dbInstance.commitAndCloseSession();
+	}
+
 	private void setStartInFuture(CourseNode courseNode) {
 		Date future = DateUtils.addDays(new Date(), 1);
 		learningPathService.getConfigs(courseNode).setStartDate(future);
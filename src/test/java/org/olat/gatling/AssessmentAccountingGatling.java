@@ -0,0 +1,144 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.gatling;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.id.Identity;
+import org.olat.core.id.IdentityEnvironment;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+import org.olat.course.CourseFactory;
+import org.olat.course.ICourse;
+import org.olat.course.nodes.MSCourseNode;
+import org.olat.course.nodes.STCourseNode;
+import org.olat.course.run.environment.CourseEnvironment;
+import org.olat.course.run.scoring.ScoreAccounting;
+import org.olat.course.run.userview.UserCourseEnvironmentImpl;
+import org.olat.modules.assessment.AssessmentEntry;
+import org.olat.modules.assessment.AssessmentService;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.RepositoryEntryStatusEnum;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Update the score of one course node and compare the evaluation of
+ * the whole course with the evaluation of the affected course nodes
+ * only, for courses of different sizes.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class AssessmentAccountingGatling extends OlatTestCase {
+	
+	private static final Logger log = Tracing.createLoggerFor(AssessmentAccountingGatling.class);
+	
+	private static final int ROUNDS = 20;
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private AssessmentService assessmentService;
+	
+	@Test
+	public void evaluateCourses() {
+		evaluateCourse(10, 5);
+		evaluateCourse(20, 10);
+		evaluateCourse(40, 25);
+	}
+	
+	private void evaluateCourse(int numOfStructures, int numOfNodesPerStructure) {
+		Identity author = JunitTestHelper.createAndPersistIdentityAsRndAuthor("accounting-author");
+		RepositoryEntry courseEntry = JunitTestHelper.deployEmptyCourse(author, "Accounting",
+				RepositoryEntryStatusEnum.published, true, false);
+		ICourse course = CourseFactory.loadCourse(courseEntry);
+		CourseEnvironment courseEnv = course.getCourseEnvironment();
+		
+		STCourseNode root = (STCourseNode)courseEnv.getRunStructure().getRootNode();
+		List<MSCourseNode> msNodes = new ArrayList<>();
+		StringBuilder rootScore = new StringBuilder();
+		for(int i=0; i<numOfStructures; i++) {
+			STCourseNode st = new STCourseNode();
+			root.addChild(st);
+			StringBuilder stScore = new StringBuilder();
+			for(int j=0; j<numOfNodesPerStructure; j++) {
+				MSCourseNode ms = new MSCourseNode();
+				st.addChild(ms);
+				msNodes.add(ms);
+				appendScore(stScore, ms.getIdent());
+			}
+			st.getScoreCalculator().setScoreExpression(stScore.toString());
+			appendScore(rootScore, st.getIdent());
+		}
+		root.getScoreCalculator().setScoreExpression(rootScore.toString());
+		
+		Identity participant = JunitTestHelper.createAndPersistIdentityAsRndUser("accounting-participant");
+		IdentityEnvironment identityEnv = new IdentityEnvironment();
+		identityEnv.setIdentity(participant);
+		UserCourseEnvironmentImpl userCourseEnv = new UserCourseEnvironmentImpl(identityEnv, courseEnv);
+		userCourseEnv.setUserRoles(false, false, true);
+		ScoreAccounting scoreAccounting = userCourseEnv.getScoreAccounting();
+		scoreAccounting.evaluateAll(true);
+		dbInstance.commitAndCloseSession();
+		
+		MSCourseNode changedNode = msNodes.get(msNodes.size() / 2);
+		
+		long allTime = 0l;
+		long changedTime = 0l;
+		for(int i=0; i<ROUNDS; i++) {
+			setScore(participant, courseEntry, changedNode, i);
+			long startAll = System.nanoTime();
+			scoreAccounting.evaluateAll(true);
+			dbInstance.commitAndCloseSession();
+			allTime += CodeHelper.nanoToMilliTime(startAll);
+			
+			setScore(participant, courseEntry, changedNode, i + 1);
+			long startChanged = System.nanoTime();
+			scoreAccounting.evaluate(List.of(changedNode));
+			dbInstance.commitAndCloseSession();
+			changedTime += CodeHelper.nanoToMilliTime(startChanged);
+		}
+		
+		log.info("Evaluation of a course with {} nodes x {}: all {}ms, changed {}ms",
+				msNodes.size() + numOfStructures + 1, ROUNDS, allTime, changedTime);
+	}
+	
+	private void appendScore(StringBuilder sb, String ident) {
+		if(sb.length() > 0) {
+			sb.append(" + ");
+		}
+		sb.append("getScore(\"").append(ident).append("\")");
+	}
+	
+	private void setScore(Identity identity, RepositoryEntry entry, MSCourseNode courseNode, int score) {
+		AssessmentEntry assessmentEntry = assessmentService.loadAssessmentEntry(identity, entry, courseNode.getIdent());
+		assessmentEntry.setScore(new BigDecimal(score));
+		assessmentService.updateAssessmentEntry(assessmentEntry);
+		dbInstance.commitAndCloseSession();
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.gatling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.id.Identity;
+import org.olat.core.id.IdentityEnvironment;
+import org.olat.core.id.Roles;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+import org.olat.course.CourseFactory;
+import org.olat.course.ICourse;
+import org.olat.course.condition.interpreter.ConditionInterpreter;
+import org.olat.course.run.userview.UserCourseEnvironment;
+import org.olat.course.run.userview.UserCourseEnvironmentImpl;
+import org.olat.repository.RepositoryEntry;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+
+/**
+ * 
+ * Evaluate the visibility and access conditions of a course with
+ * 300 nodes for a set of users, with the expressions parsed at every
+ * evaluation and with the compiled expressions.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class ConditionInterpreterGatling extends OlatTestCase {
+	
+	private static final Logger log = Tracing.createLoggerFor(ConditionInterpreterGatling.class);
+	
+	private static final int NUM_OF_NODES = 300;
+	private static final int NUM_OF_USERS = 20;
+	private static final int ROUNDS = 10;
+	
+	@Test
+	public void evaluateCourseTree() {
+		Identity author = JunitTestHelper.createAndPersistIdentityAsRndUser("cond-author");
+		RepositoryEntry re = JunitTestHelper.deployDemoCourse(author);
+		ICourse course = CourseFactory.loadCourse(re);
+		
+		List<UserCourseEnvironment> userCourseEnvs = new ArrayList<>(NUM_OF_USERS);
+		for(int i=0; i<NUM_OF_USERS; i++) {
+			Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("cond-user-" + i);
+			IdentityEnvironment identityEnv = new IdentityEnvironment(id, Roles.userRoles());
+			userCourseEnvs.add(new UserCourseEnvironmentImpl(identityEnv, course.getCourseEnvironment()));
+		}
+		
+		List<String> conditions = generateConditions();
+		
+		// warm up
+		evaluate(userCourseEnvs, conditions, false);
+		evaluate(userCourseEnvs, conditions, true);
+
+		long startParsed = System.nanoTime();
+		for(int i=0; i<ROUNDS; i++) {
+			evaluate(userCourseEnvs, conditions, false);
+		}
+		long parsedTime = CodeHelper.nanoToMilliTime(startParsed);
+		
+		long startCompiled = System.nanoTime();
+		for(int i=0; i<ROUNDS; i++) {
+			evaluate(userCourseEnvs, conditions, true);
+		}
+		long compiledTime = CodeHelper.nanoToMilliTime(startCompiled);
+		
+		log.info("Evaluation of {} conditions for {} users x {}: parsed {}ms, compiled {}ms",
+				conditions.size(), NUM_OF_USERS, ROUNDS, parsedTime, compiledTime);
+	}
+	
+	private void evaluate(List<UserCourseEnvironment> userCourseEnvs, List<String> conditions, boolean compiled) {
+		for(UserCourseEnvironment userCourseEnv:userCourseEnvs) {
+			ConditionInterpreter interpreter = compiled
+					? new ConditionInterpreter(userCourseEnv) : new ParsingConditionInterpreter(userCourseEnv);
+			int trueConditions = 0;
+			for(String condition:conditions) {
+				if(interpreter.evaluateCondition(condition)) {
+					trueConditions++;
+				}
+			}
+			Assert.assertTrue(trueConditions > 0);
+		}
+	}
+	
+	/**
+	 * A visibility and an access condition for every node.
+	 */
+	private List<String> generateConditions() {
+		List<String> conditions = new ArrayList<>(NUM_OF_NODES * 2);
+		for(int i=0; i<NUM_OF_NODES; i++) {
+			int day = (i % 28) + 1;
+			conditions.add("(now >= date(\"" + day + ".01.2010 08:00\")) & (now <= date(\"" + day + ".12.2099 18:00\"))");
+			conditions.add("isGuest() = false & (hasUserProperty(\"firstName\", \"node" + i + "\") | isUser(\"node" + i + "\") | true)");
+		}
+		return conditions;
+	}
+	
+	private static class ParsingConditionInterpreter extends ConditionInterpreter {
+		
+		public ParsingConditionInterpreter(UserCourseEnvironment userCourseEnv) {
+			super(userCourseEnv);
+		}
+
+		@Override
+		protected boolean isCompiledExpressions() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.gatling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.olat.core.logging.Tracing;
+import org.olat.course.CourseStructureSnapshot;
+import org.olat.course.CourseXStreamAliases;
+import org.olat.course.PersistingCourseImpl;
+import org.olat.course.Structure;
+import org.olat.course.nodes.CourseNode;
+import org.olat.course.nodes.SPCourseNode;
+import org.olat.course.nodes.STCourseNode;
+import org.olat.test.OlatTestCase;
+
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * 
+ * Compare the load time and the allocated memory of the run structure
+ * read from the XML file and from the binary snapshot, with small,
+ * medium and large courses.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class CourseStructureSnapshotGatling extends OlatTestCase {
+	
+	private static final Logger log = Tracing.createLoggerFor(CourseStructureSnapshotGatling.class);
+	
+	private static final int WARMUP = 5;
+	private static final int ITERATIONS = 20;
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void compareLoad() throws IOException {
+		for(int numOfNodes:new int[] { 50, 500, 5000 }) {
+			compareLoad(numOfNodes);
+		}
+	}
+	
+	private void compareLoad(int numOfNodes) throws IOException {
+		Structure structure = generateStructure(numOfNodes);
+		File dir = folder.newFolder();
+		File xmlFile = new File(dir, PersistingCourseImpl.RUNSTRUCTURE_XML);
+		try(OutputStream out = Files.newOutputStream(xmlFile.toPath())) {
+			CourseXStreamAliases.getWriteCourseXStream().toXML(structure, out);
+		}
+		File snapshotFile = new File(dir, CourseStructureSnapshot.RUNSTRUCTURE_SNAPSHOT);
+		Assert.assertTrue(CourseStructureSnapshot.write(structure, xmlFile, snapshotFile));
+		
+		for(int i=0; i<WARMUP; i++) {
+			readXml(xmlFile);
+			CourseStructureSnapshot.read(xmlFile, snapshotFile);
+		}
+
+		long xmlAllocated = allocatedBytes();
+		long xmlStart = System.nanoTime();
+		for(int i=0; i<ITERATIONS; i++) {
+			Assert.assertNotNull(readXml(xmlFile));
+		}
+		long xmlTime = (System.nanoTime() - xmlStart) / ITERATIONS;
+		xmlAllocated = (allocatedBytes() - xmlAllocated) / ITERATIONS;
+		
+		long snapshotAllocated = allocatedBytes();
+		long snapshotStart = System.nanoTime();
+		for(int i=0; i<ITERATIONS; i++) {
+			Assert.assertNotNull(CourseStructureSnapshot.read(xmlFile, snapshotFile));
+		}
+		long snapshotTime = (System.nanoTime() - snapshotStart) / ITERATIONS;
+		snapshotAllocated = (allocatedBytes() - snapshotAllocated) / ITERATIONS;
+		
+		log.info("Run structure with {} nodes: XML {} bytes, {} us, {} bytes allocated / snapshot {} bytes, {} us, {} bytes allocated",
+				numOfNodes, xmlFile.length(), xmlTime / 1000, xmlAllocated,
+				snapshotFile.length(), snapshotTime / 1000, snapshotAllocated);
+	}
+	
+	private Structure readXml(File xmlFile) throws IOException {
+		XStream xStream = CourseXStreamAliases.getReadCourseXStream();
+		try(InputStream in = Files.newInputStream(xmlFile.toPath())) {
+			return (Structure)xStream.fromXML(in);
+		}
+	}
+	
+	private long allocatedBytes() {
+		java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if(threadBean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean)threadBean).getCurrentThreadAllocatedBytes();
+		}
+		return 0l;
+	}
+	
+	/**
+	 * Generate a structure with chapters of 10 pages.
+	 * 
+	 * @param numOfNodes The approximative number of nodes
+	 * @return A run structure
+	 */
+	private Structure generateStructure(int numOfNodes) {
+		STCourseNode root = new STCourseNode();
+		root.setShortTitle("Root");
+		int count = 1;
+		for(int i=0; count<numOfNodes; i++) {
+			STCourseNode chapter = new STCourseNode();
+			chapter.setShortTitle("Chapter " + i);
+			root.addChild(chapter);
+			count++;
+			for(int j=0; j<10 && count<numOfNodes; j++) {
+				CourseNode page = new SPCourseNode();
+				page.setShortTitle("Page " + i + "." + j);
+				page.setLongTitle("A page with a long title " + i + "." + j);
+				chapter.addChild(page);
+				count++;
+			}
+		}
+		
+		Structure structure = new Structure();
+		structure.setRootNode(root);
+		return structure;
+	}
+}
@@ -0,0 +1,167 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.gatling;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+import org.olat.ims.qti21.manager.SessionStateBinaryStore;
+import org.w3c.dom.Document;
+
+import uk.ac.ed.ph.jqtiplus.state.ItemSessionState;
+import uk.ac.ed.ph.jqtiplus.state.marshalling.ItemSessionStateXmlMarshaller;
+import uk.ac.ed.ph.jqtiplus.types.Identifier;
+import uk.ac.ed.ph.jqtiplus.value.StringValue;
+import uk.ac.ed.ph.jqtiplus.xmlutils.xslt.XsltSerializationOptions;
+import uk.ac.ed.ph.jqtiplus.xmlutils.xslt.XsltStylesheetManager;
+
+/**
+ * 
+ * Simulate 1'000 concurrent candidates answering questions and compare
+ * the latency per response and the bytes written of the XML session state
+ * with the append-only binary session state.
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class QTI21SessionStateGatling {
+	
+	private static final Logger log = Tracing.createLoggerFor(QTI21SessionStateGatling.class);
+	
+	private static final int CANDIDATES = 1000;
+	private static final int RESPONSES_PER_CANDIDATE = 30;
+	private static final int RESPONSES_PER_ITEM = 20;
+	private static final int THREADS = 50;
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void candidates() throws Exception {
+		run("XML", new XmlWriter());
+		run("Binary", new BinaryWriter(new SessionStateBinaryStore(64, CANDIDATES)));
+	}
+	
+	private void run(String format, StateWriter writer) throws Exception {
+		File dir = folder.newFolder(format);
+		long[] latencies = new long[CANDIDATES * RESPONSES_PER_CANDIDATE];
+		AtomicLong bytesWritten = new AtomicLong();
+		
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		long start = System.nanoTime();
+		List<Future<?>> futures = new ArrayList<>(CANDIDATES);
+		for(int i=0; i<CANDIDATES; i++) {
+			final int candidate = i;
+			futures.add(executor.submit(() -> {
+				File file = new File(dir, "itemSessionState_" + candidate + "." + format.toLowerCase());
+				ItemSessionState state = createItemSessionState();
+				for(int j=0; j<RESPONSES_PER_CANDIDATE; j++) {
+					state.setResponseValue(Identifier.assumedLegal("RESPONSE_" + (j % RESPONSES_PER_ITEM)),
+							new StringValue("Answer " + j + " of candidate " + candidate));
+					state.setDurationAccumulated(j * 15000l);
+					
+					long startResponse = System.nanoTime();
+					bytesWritten.addAndGet(writer.write(file, state));
+					latencies[candidate * RESPONSES_PER_CANDIDATE + j] = System.nanoTime() - startResponse;
+				}
+				return null;
+			}));
+		}
+		for(Future<?> future:futures) {
+			future.get();
+		}
+		long duration = System.nanoTime() - start;
+		executor.shutdown();
+		
+		Arrays.sort(latencies);
+		long total = 0;
+		for(long latency:latencies) {
+			total += latency;
+		}
+		log.info("{} session state: {} responses in {}ms, latency avg {}ms, p95 {}ms, p99 {}ms, max {}ms, {} bytes written ({} bytes per response)",
+				format, latencies.length, CodeHelper.nanoToMilliTime(duration),
+				CodeHelper.nanoToMilliTime(total / latencies.length),
+				CodeHelper.nanoToMilliTime(latencies[(int)(latencies.length * 0.95)]),
+				CodeHelper.nanoToMilliTime(latencies[(int)(latencies.length * 0.99)]),
+				CodeHelper.nanoToMilliTime(latencies[latencies.length - 1]),
+				bytesWritten.get(), bytesWritten.get() / latencies.length);
+	}
+	
+	private ItemSessionState createItemSessionState() {
+		ItemSessionState state = new ItemSessionState();
+		for(int i=0; i<RESPONSES_PER_ITEM; i++) {
+			state.setResponseValue(Identifier.assumedLegal("RESPONSE_" + i), new StringValue("Not answered"));
+		}
+		return state;
+	}
+	
+	private interface StateWriter {
+		
+		long write(File file, ItemSessionState state) throws Exception;
+	}
+	
+	private static class XmlWriter implements StateWriter {
+		
+		@Override
+		public long write(File file, ItemSessionState state) throws Exception {
+			Document stateDocument = ItemSessionStateXmlMarshaller.marshal(state);
+			XsltSerializationOptions xsltSerializationOptions = new XsltSerializationOptions();
+			xsltSerializationOptions.setIndenting(true);
+			xsltSerializationOptions.setIncludingXMLDeclaration(false);
+			Transformer serializer = XsltStylesheetManager.createSerializer(xsltSerializationOptions);
+			try(OutputStream out = new FileOutputStream(file)) {
+				serializer.transform(new DOMSource(stateDocument), new StreamResult(out));
+			}
+			return file.length();
+		}
+	}
+	
+	private static class BinaryWriter implements StateWriter {
+		
+		private final SessionStateBinaryStore store;
+		
+		public BinaryWriter(SessionStateBinaryStore store) {
+			this.store = store;
+		}
+		
+		@Override
+		public long write(File file, ItemSessionState state) throws Exception {
+			return store.write(file, state);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.ac.ed.ph.jqtiplus.state.ItemSessionState;
+import uk.ac.ed.ph.jqtiplus.types.Identifier;
+import uk.ac.ed.ph.jqtiplus.value.StringValue;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class SessionStateBinaryStoreTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void writeRead() throws Exception {
+		File file = new File(folder.getRoot(), "itemSessionState_1.bin");
+		SessionStateBinaryStore store = new SessionStateBinaryStore(64, 16);
+		
+		ItemSessionState state = createItemSessionState(20);
+		long full = store.write(file, state);
+		for(int i=0; i<10; i++) {
+			state.setResponseValue(Identifier.assumedLegal("RESPONSE_" + i), new StringValue("Changed " + i));
+			long delta = store.write(file, state);
+			Assert.assertTrue(delta < full);
+		}
+		Assert.assertEquals(1, store.getFullRecords());
+		Assert.assertEquals(10, store.getDeltaRecords());
+		Assert.assertEquals(file.length(), store.getBytesWritten());
+		
+		// read with an empty cache
+		SessionStateBinaryStore reader = new SessionStateBinaryStore(64, 16);
+		ItemSessionState reloadedState = reader.read(file, ItemSessionState.class);
+		Assert.assertNotNull(reloadedState);
+		Assert.assertEquals(new StringValue("Changed 9"), reloadedState.getResponseValue(Identifier.assumedLegal("RESPONSE_9")));
+		Assert.assertEquals(new StringValue("Response 15"), reloadedState.getResponseValue(Identifier.assumedLegal("RESPONSE_15")));
+		Assert.assertEquals(state.getDurationAccumulated(), reloadedState.getDurationAccumulated());
+	}
+	
+	@Test
+	public void truncatedRecord() throws Exception {
+		File file = new File(folder.getRoot(), "itemSessionState_2.bin");
+		SessionStateBinaryStore store = new SessionStateBinaryStore(64, 16);
+		
+		ItemSessionState state = createItemSessionState(5);
+		store.write(file, state);
+		state.setResponseValue(Identifier.assumedLegal("RESPONSE_1"), new StringValue("Lost"));
+		store.write(file, state);
+		// simulate a crash during the last write
+		try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - 2);
+		}
+		
+		SessionStateBinaryStore reader = new SessionStateBinaryStore(64, 16);
+		ItemSessionState reloadedState = reader.read(file, ItemSessionState.class);
+		Assert.assertEquals(new StringValue("Response 1"), reloadedState.getResponseValue(Identifier.assumedLegal("RESPONSE_1")));
+		
+		// the next write repairs the file
+		reloadedState.setResponseValue(Identifier.assumedLegal("RESPONSE_2"), new StringValue("Saved"));
+		reader.write(file, reloadedState);
+		ItemSessionState repairedState = new SessionStateBinaryStore(64, 16).read(file, ItemSessionState.class);
+		Assert.assertEquals(new StringValue("Saved"), repairedState.getResponseValue(Identifier.assumedLegal("RESPONSE_2")));
+	}
+	
+	@Test
+	public void compaction() throws Exception {
+		File file = new File(folder.getRoot(), "itemSessionState_3.bin");
+		SessionStateBinaryStore store = new SessionStateBinaryStore(4, 16);
+		
+		ItemSessionState state = createItemSessionState(10);
+		for(int i=0; i<9; i++) {
+			state.setResponseValue(Identifier.assumedLegal("RESPONSE_" + i), new StringValue("Compacted " + i));
+			store.write(file, state);
+		}
+		// 0: full, 1-3: delta, 4: full, 5-7: delta, 8: full
+		Assert.assertEquals(3, store.getFullRecords());
+		Assert.assertEquals(6, store.getDeltaRecords());
+		
+		ItemSessionState reloadedState = new SessionStateBinaryStore(4, 16).read(file, ItemSessionState.class);
+		Assert.assertEquals(new StringValue("Compacted 8"), reloadedState.getResponseValue(Identifier.assumedLegal("RESPONSE_8")));
+	}
+	
+	@Test
+	public void deleteFile() throws Exception {
+		File file = new File(folder.getRoot(), "itemSessionState_4.bin");
+		SessionStateBinaryStore store = new SessionStateBinaryStore(64, 16);
+		store.write(file, createItemSessionState(2));
+		Assert.assertTrue(file.exists());
+		
+		store.delete(file);
+		Assert.assertFalse(file.exists());
+		Assert.assertNull(store.read(file, ItemSessionState.class));
+	}
+	
+	private ItemSessionState createItemSessionState(int numOfResponses) {
+		ItemSessionState state = new ItemSessionState();
+		for(int i=0; i<numOfResponses; i++) {
+			state.setResponseValue(Identifier.assumedLegal("RESPONSE_" + i), new StringValue("Response " + i));
+		}
+		state.setDurationAccumulated(12000l);
+		return state;
+	}
+}
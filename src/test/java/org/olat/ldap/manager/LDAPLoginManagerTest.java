@@ -58,6 +58,7 @@ import org.olat.ldap.LDAPError;
 import org.olat.ldap.LDAPLoginManager;
 import org.olat.ldap.LDAPLoginModule;
 import org.olat.ldap.LDAPSyncConfiguration;
+import org.olat.ldap.model.LDAPSyncStatistics;
 import org.olat.ldap.ui.LDAPAuthenticationController;
 import org.olat.test.JunitTestHelper;
 import org.olat.test.OlatTestCase;
@@ -135,6 +136,36 @@ public class LDAPLoginManagerTest extends OlatTestCase {
 		Assert.assertNotNull(identity);
 	}
 	
+	/**
+	 * Synchronize the users in small chunks.
+	 */
+	@Test
+	public void aSyncUsersInChunks() {
+		Assume.assumeTrue(ldapLoginModule.isLDAPEnabled());
+		
+		LDAPLoginManagerImpl ldapManagerImpl = (LDAPLoginManagerImpl)ldapManager;
+		try {
+			ldapManagerImpl.setSyncChunkSize(2);
+			LDAPError errors = new LDAPError();
+			boolean allOk = ldapManager.doBatchSync(errors);
+			Assert.assertTrue(allOk);
+		} finally {
+			ldapManagerImpl.setSyncChunkSize(500);
+		}
+		
+		LDAPSyncStatistics statistics = ldapManagerImpl.getLastSyncStatistics();
+		Assert.assertNotNull(statistics);
+		Assert.assertEquals(0, statistics.getFailedUsers());
+		Assert.assertEquals(0, statistics.getCreatedUsers());
+		assertThat(statistics.getReadUsers()).isGreaterThan(2);
+		assertThat(statistics.getChunks()).isGreaterThan(1);
+		assertThat(statistics.getPhases())
+			.containsKeys("deletedUsers", "users", "usersDiff", "usersUpdate", "usersCreate", "groups", "roles");
+		
+		Identity identity = userManager.findUniqueIdentityByEmail("hhuerlimann@openolat.com");
+		Assert.assertNotNull(identity);
+	}
+	
 	/**
 	 * Synchronize the member of a LDAP group as participants.
 	 */
@@ -681,6 +681,35 @@ public class AssessmentEntryDAOTest extends OlatTestCase {
 		Assert.assertEquals(0, assessmentEntriesId3.size());
 	}
 	
+	@Test
+	public void loadAssessmentEntriesByAssessedIdentities() {
+		Identity assessedIdentity1 = JunitTestHelper.createAndPersistIdentityAsRndUser("as-node-13b");
+		Identity assessedIdentity2 = JunitTestHelper.createAndPersistIdentityAsRndUser("as-node-14b");
+		Identity assessedIdentity3 = JunitTestHelper.createAndPersistIdentityAsRndUser("as-node-15b");
+		RepositoryEntry entry = JunitTestHelper.createAndPersistRepositoryEntry();
+		RepositoryEntry refEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		String subIdent = UUID.randomUUID().toString();
+		AssessmentEntry nodeAssessmentId1 = assessmentEntryDao.createAssessmentEntry(assessedIdentity1, null, entry,
+				subIdent, null, refEntry);
+		AssessmentEntry nodeAssessmentId2 = assessmentEntryDao.createAssessmentEntry(assessedIdentity2, null, entry,
+				subIdent, null, refEntry);
+		AssessmentEntry nodeAssessmentId3 = assessmentEntryDao.createAssessmentEntry(assessedIdentity3, null, entry,
+				subIdent, null, refEntry);
+		AssessmentEntry nodeAssessmentId4 = assessmentEntryDao.createAssessmentEntry(assessedIdentity1, null, refEntry,
+				subIdent, null, refEntry);
+		dbInstance.commitAndCloseSession();
+		
+		List<Long> identityKeys = List.of(assessedIdentity1.getKey(), assessedIdentity2.getKey());
+		List<AssessmentEntry> assessmentEntries = assessmentEntryDao
+				.loadAssessmentEntriesByAssessedIdentities(entry, identityKeys);
+		Assert.assertNotNull(assessmentEntries);
+		Assert.assertEquals(2, assessmentEntries.size());
+		Assert.assertTrue(assessmentEntries.contains(nodeAssessmentId1));
+		Assert.assertTrue(assessmentEntries.contains(nodeAssessmentId2));
+		Assert.assertFalse(assessmentEntries.contains(nodeAssessmentId3));
+		Assert.assertFalse(assessmentEntries.contains(nodeAssessmentId4));
+	}
+	
 	@Test
 	public void loadAssessmentEntryByGroup() {
 		// a simulated course with 2 groups
@@ -174,6 +174,20 @@ public class RestApiLoginFilterTest extends OlatRestTestCase {
 		c4.shutdown();
 	}
 	
+	/**
+	 * The readiness probe is open, a load balancer doesn't have credentials.
+	 */
+	@Test
+	public void testReadinessWithoutAuthentication() throws IOException, URISyntaxException {
+		RestConnection conn = new RestConnection();
+		URI uri = UriBuilder.fromUri(getContextURI()).path("/ping/ready").build();
+		HttpGet method = conn.createGet(uri, MediaType.TEXT_PLAIN, false);
+		HttpResponse response = conn.execute(method);
+		int statusCode = response.getStatusLine().getStatusCode();
+		assertTrue(statusCode == 200 || statusCode == 503);
+		conn.shutdown();
+	}
+	
 	/**
 	 * Test if the token survive several requests
 	 * @throws HttpException
@@ -0,0 +1,83 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class FullIndexerCheckpointTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void resume() throws Exception {
+		File partsDir = new File(folder.getRoot(), "parts");
+		FullIndexerCheckpoint checkpoint = FullIndexerCheckpoint.load(partsDir, 60000l);
+		checkpoint.markDone("0_GroupIndexer", 12);
+		Assert.assertTrue(checkpoint.isDone("0_GroupIndexer"));
+		Assert.assertFalse(checkpoint.isDone("1_RepositoryIndexer"));
+		
+		// an interrupted run resumes
+		FullIndexerCheckpoint resumed = FullIndexerCheckpoint.load(partsDir, 60000l);
+		Assert.assertTrue(resumed.isDone("0_GroupIndexer"));
+		Assert.assertEquals(12, resumed.getDocumentCount("0_GroupIndexer"));
+		Assert.assertFalse(resumed.isDone("1_RepositoryIndexer"));
+		Assert.assertEquals(-1, resumed.getDocumentCount("1_RepositoryIndexer"));
+	}
+	
+	@Test
+	public void tooOld() throws Exception {
+		File partsDir = new File(folder.getRoot(), "parts");
+		FullIndexerCheckpoint checkpoint = FullIndexerCheckpoint.load(partsDir, 60000l);
+		checkpoint.markDone("0_GroupIndexer", 12);
+		File part = checkpoint.getPartDirectory("0_GroupIndexer");
+		Assert.assertTrue(part.mkdirs());
+		Files.write(new File(part, "segments_1").toPath(), new byte[] { 1, 2, 3 });
+		
+		// a checkpoint too old starts from zero
+		Thread.sleep(10);
+		FullIndexerCheckpoint restarted = FullIndexerCheckpoint.load(partsDir, 1l);
+		Assert.assertFalse(restarted.isDone("0_GroupIndexer"));
+		Assert.assertFalse(part.exists());
+	}
+	
+	@Test
+	public void clear() throws Exception {
+		File partsDir = new File(folder.getRoot(), "parts");
+		FullIndexerCheckpoint checkpoint = FullIndexerCheckpoint.load(partsDir, 60000l);
+		checkpoint.markDone("0_GroupIndexer", 12);
+		checkpoint.clear();
+		Assert.assertFalse(partsDir.exists());
+		
+		FullIndexerCheckpoint restarted = FullIndexerCheckpoint.load(partsDir, 60000l);
+		Assert.assertFalse(restarted.isDone("0_GroupIndexer"));
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 17 oct. 2026<br>
+ *
+ */
+public class NRTIndexMetricsTest {
+	
+	@Test
+	public void updatedDocumentsPerType() {
+		NRTIndexMetrics metrics = new NRTIndexMetrics();
+		metrics.updated("item", 3);
+		metrics.updated("item", 2);
+		metrics.updated("identity", 1);
+		
+		Map<String,Long> updated = metrics.getUpdatedDocuments();
+		Assert.assertEquals(Long.valueOf(5), updated.get("item"));
+		Assert.assertEquals(Long.valueOf(1), updated.get("identity"));
+	}
+	
+	@Test
+	public void indexLag() throws Exception {
+		NRTIndexMetrics metrics = new NRTIndexMetrics();
+		Assert.assertEquals(0l, metrics.getCurrentIndexLag());
+		
+		metrics.updated("item", 1);
+		Thread.sleep(20);
+		Assert.assertTrue(metrics.getCurrentIndexLag() >= 20);
+		
+		// a refresh without changes doesn't make the update visible
+		metrics.beforeRefresh();
+		metrics.afterRefresh(false);
+		Assert.assertTrue(metrics.getCurrentIndexLag() >= 20);
+		
+		metrics.beforeRefresh();
+		metrics.afterRefresh(true);
+		Assert.assertEquals(0l, metrics.getCurrentIndexLag());
+		Assert.assertTrue(metrics.getLastIndexLag() >= 20);
+		Assert.assertTrue(metrics.getMaxIndexLag() >= 20);
+		Assert.assertEquals(2l, metrics.getRefreshCount());
+	}
+	
+	@Test
+	public void updateDuringRefresh() {
+		NRTIndexMetrics metrics = new NRTIndexMetrics();
+		metrics.beforeRefresh();
+		metrics.updated("item", 1);
+		metrics.afterRefresh(true);
+		
+		// the update is not visible for the refresh which started before
+		Assert.assertEquals(0l, metrics.getLastIndexLag());
+		Assert.assertTrue(metrics.getCurrentIndexLag() >= 0);
+		metrics.beforeRefresh();
+		metrics.afterRefresh(true);
+		Assert.assertEquals(0l, metrics.getCurrentIndexLag());
+	}
+}
@@ -64,6 +64,10 @@ import org.junit.runners.Suite;
 	org.olat.core.util.coordinate.LockEntryTest.class,
 	org.olat.modules.iq.DBPersistentLockManagerTest.class,
 	org.olat.core.util.StringHelperTest.class,
+	org.olat.core.logging.activity.UserActivityLogWriterTest.class,
+	org.olat.commons.coordinate.cluster.jms.ClusterEventCodecTest.class,
+	org.olat.commons.coordinate.cluster.SyncWaitTimeHistogramTest.class,
+	org.olat.commons.coordinate.cluster.ClusterSyncerLeaseTest.class,
 	org.olat.core.util.FileUtilsTest.class,
 	org.olat.core.util.FileNameSuffixFilterTest.class,
 	org.olat.core.util.FormatterTest.class,
@@ -74,19 +78,26 @@ import org.junit.runners.Suite;
 	org.olat.core.util.IPUtilsTest.class,
 	org.olat.core.util.IPUtilsValidRangeTest.class,
 	org.olat.core.util.ZipUtilConcatTest.class,
+	org.olat.core.util.io.ParallelZipOutputStreamTest.class,
 	org.olat.core.util.mail.EmailAddressValidatorTest.class,
 	org.olat.core.util.mail.manager.MailManagerTest.class,
+	org.olat.core.util.mail.manager.MailDispatcherTest.class,
 	org.olat.core.util.mail.manager.MailUserDataManagerTest.class,
 	org.olat.core.util.openxml.OpenXmlWorkbookTest.class,
 	org.olat.core.util.openxml.OpenXMLDocumentTest.class,
 	org.olat.core.util.pdf.PdfDocumentTest.class,
 	org.olat.core.util.xml.XMLDigitalSignatureUtilTest.class,
 	org.olat.core.configuration.EDConfigurationTest.class,
+	org.olat.core.configuration.PreWarmSchedulerTest.class,
 	org.olat.core.id.context.BusinessControlFactoryTest.class,
 	org.olat.core.id.context.HistoryManagerTest.class,
 	org.olat.core.id.IdentityEnvironmentTest.class,
 	org.olat.core.gui.render.VelocityTemplateTest.class,
+	org.olat.core.gui.render.StringOutputPoolTest.class,
+	org.olat.core.gui.render.RenderCacheTest.class,
+	org.olat.core.gui.media.ServletUtilTest.class,
 	org.olat.core.gui.control.generic.iframe.IFrameDeliveryMapperTest.class,
+	org.olat.core.gui.control.pushpoll.PushServiceTest.class,
 	org.olat.note.NoteTest.class,
 	org.olat.user.UserTest.class,
 	org.olat.user.UserPropertiesTest.class,
@@ -120,6 +131,7 @@ import org.junit.runners.Suite;
 	org.olat.core.commons.services.webdav.manager.DigestAuthenticationTest.class,
 	org.olat.core.commons.services.webdav.manager.WebDAVManagerTest.class,
 	org.olat.core.commons.services.webdav.manager.WebDAVAuthManagerTest.class,
+	org.olat.core.commons.services.webdav.manager.WebDAVStatisticsTest.class,
 	org.olat.core.commons.services.webdav.servlets.RequestUtilsTest.class,
 	org.olat.core.commons.services.sms.manager.MessageLogDAOTest.class,
 	org.olat.core.commons.services.taskexecutor.manager.PersistentTaskDAOTest.class,
@@ -203,6 +215,7 @@ import org.junit.runners.Suite;
 	org.olat.course.groupsandrights.CourseGroupManagementTest.class,
 	org.olat.course.editor.PublishProcessTest.class,
 	org.olat.course.CourseXStreamAliasesTest.class,
+	org.olat.course.CourseStructureSnapshotTest.class,
 	org.olat.modules.adobeconnect.manager.AdobeConnectProviderTest.class,
 	org.olat.modules.adobeconnect.manager.AdobeConnectUserDAOTest.class,
 	org.olat.modules.adobeconnect.manager.AdobeConnectMeetingDAOTest.class,
@@ -339,6 +352,8 @@ import org.junit.runners.Suite;
 	org.olat.properties.PropertyTest.class,
 	org.olat.search.service.document.file.FileDocumentFactoryTest.class,
 	org.olat.search.service.indexer.repository.course.SPCourseNodeIndexerTest.class,
+	org.olat.search.service.indexer.NRTIndexMetricsTest.class,
+	org.olat.search.service.indexer.FullIndexerCheckpointTest.class,
 	org.olat.search.service.document.file.HtmlDocumentTest.class,
 	org.olat.search.service.document.file.PDFDocumentTest.class,
 	org.olat.search.service.document.file.OfficeDocumentTest.class,
@@ -360,6 +375,7 @@ import org.junit.runners.Suite;
 	org.olat.ims.qti21.manager.AssessmentItemSessionDAOTest.class,
 	org.olat.ims.qti21.manager.AssessmentResponseDAOTest.class,
 	org.olat.ims.qti21.manager.CorrectResponsesUtilTest.class,
+	org.olat.ims.qti21.manager.SessionStateBinaryStoreTest.class,
 	org.olat.ims.qti21.model.xml.AssessmentItemBuilderTest.class,
 	org.olat.ims.qti21.model.xml.MultipleChoiceAssessmentItemBuilderTest.class,
 	org.olat.ims.qti21.model.xml.SingleChoiceAssessmentItemBuilderTest.class,
@@ -495,6 +511,7 @@ import org.junit.runners.Suite;
 	org.olat.core.commons.services.license.ui.LicenseSelectionConfigTest.class,
 	org.olat.core.gui.components.form.flexible.impl.elements.richText.TextModeTest.class,
 	org.olat.core.gui.components.form.flexible.impl.elements.SelectboxSelectionImplTest.class,
+	org.olat.core.gui.components.form.flexible.impl.elements.table.DefaultFlexiTableDataSourceModelTest.class,
 	org.olat.core.gui.components.form.flexible.impl.elements.TextElementRendererTest.class,
 	org.olat.core.util.DateUtilsTest.class,
 	org.olat.course.learningpath.evaluation.ConfigEndDateEvaluatorTest.class,